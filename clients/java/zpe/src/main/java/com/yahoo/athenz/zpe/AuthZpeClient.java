@@ -208,9 +208,10 @@ public class AuthZpeClient {
      * expired. However, incorrectly configured client might generate
      * a new token for every request and eventually cause the server
      * to run out of memory. Once the limit is reached, the library
-     * will no longer cache any tokens until the expiry thread cleans
-     * up the expired tokens and the size of the cache is smaller than
-     * the configured number. The value of 0 indicates no limit. The
+     * evicts the expired tokens and, if the cache is still full, the
+     * least recently used tokens before caching the new token. The
+     * expiry thread also periodically removes the expired tokens
+     * from the cache. The value of 0 indicates no limit. The
      * default value of cached tokens is 10K. The value can also be
      * configured by using the athenz.zpe.max_token_cache_entries
      * system property.
@@ -1081,6 +1082,13 @@ public class AuthZpeClient {
                     ") resource(" + resource + ")";
         }
         
+        // if the map was generated by our policy loader then we have
+        // the assertions already bucketed by their action values
+
+        if (roleMap instanceof ZpeRoleMap) {
+            return indexedActionByRole(action, resource, roles, (ZpeRoleMap) roleMap, matchRoleName, msgPrefix);
+        }
+
         for (String role : roles) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{}: Process role ({})", msgPrefix, role);
@@ -1122,6 +1130,14 @@ public class AuthZpeClient {
         // get assertions for given domain+role
         // then cycle thru those assertions looking for matching action and resource
 
+        // if the map was generated by our policy loader then we only
+        // need to look at the wildcard roles returned by its index
+
+        if (roleMap instanceof ZpeRoleMap) {
+            return indexedActionByWildCardRole(action, resource, roles, (ZpeRoleMap) roleMap,
+                    matchRoleName, msgPrefix);
+        }
+
         // we will visit each of the wildcard roles
         //
         Set<String> keys = roleMap.keySet();
@@ -1170,6 +1186,47 @@ public class AuthZpeClient {
         return false;
     }
 
+    static boolean indexedActionByRole(String action, String resource, List<String> roles,
+            ZpeRoleMap roleMap, StringBuilder matchRoleName, String msgPrefix) {
+
+        for (String role : roles) {
+            if (indexedMatchAssertions(roleMap, role, action, resource, matchRoleName, msgPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean indexedActionByWildCardRole(String action, String resource, List<String> roles,
+            ZpeRoleMap roleMap, StringBuilder matchRoleName, String msgPrefix) {
+
+        for (String role : roles) {
+            for (String roleName : roleMap.getMatchingRoles(role)) {
+                if (indexedMatchAssertions(roleMap, roleName, action, resource, matchRoleName, msgPrefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean indexedMatchAssertions(ZpeRoleMap roleMap, String roleName, String action,
+            String resource, StringBuilder matchRoleName, String msgPrefix) {
+
+        ZpeRoleMap.RoleAssertions roleAssertions = roleMap.getRoleAssertions(roleName);
+        if (roleAssertions == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{}: No policy assertions for role={} so access denied", msgPrefix, roleName);
+            }
+            return false;
+        }
+
+        return matchAssertions(roleAssertions.getActionAssertions(action), roleName, action,
+                resource, matchRoleName, msgPrefix) ||
+                matchAssertions(roleAssertions.getGlobActionAssertions(), roleName, action,
+                resource, matchRoleName, msgPrefix);
+    }
+
     static boolean certIssuerMatch(X509Certificate cert) {
 
         // first check if we have any issuers configured
@@ -1225,12 +1282,42 @@ public class AuthZpeClient {
         return false;
     }
 
+    @SuppressWarnings("unchecked")
     static <T> void addTokenToCache(Map<String, T> tokenCache, final String tokenKey, T tokenValue) {
-        if (maxTokenCacheSize == 0 || tokenCache.size() < maxTokenCacheSize) {
+
+        // our own token cache evicts expired and least recently used
+        // tokens once the limit is reached. for any other map provided
+        // by a custom client implementation we just stop caching
+
+        if (tokenCache instanceof ZpeTokenCache) {
+            ((ZpeTokenCache<T>) tokenCache).put(tokenKey, tokenValue, maxTokenCacheSize);
+        } else if (maxTokenCacheSize == 0 || tokenCache.size() < maxTokenCacheSize) {
             tokenCache.put(tokenKey, tokenValue);
         }
     }
 
+    /**
+     * Return the hit, miss and eviction counters of the role token cache.
+     * @return role token cache statistics or null if the configured
+     *        client implementation does not use the ZPE token cache
+     */
+    public static ZpeTokenCache.Stats getRoleTokenCacheStats() {
+        return getTokenCacheStats(zpeClt.getRoleTokenCacheMap());
+    }
+
+    /**
+     * Return the hit, miss and eviction counters of the access token cache.
+     * @return access token cache statistics or null if the configured
+     *        client implementation does not use the ZPE token cache
+     */
+    public static ZpeTokenCache.Stats getAccessTokenCacheStats() {
+        return getTokenCacheStats(zpeClt.getAccessTokenCacheMap());
+    }
+
+    static ZpeTokenCache.Stats getTokenCacheStats(Map<String, ?> tokenCache) {
+        return (tokenCache instanceof ZpeTokenCache) ? ((ZpeTokenCache<?>) tokenCache).getStats() : null;
+    }
+
     public static void main(String[] args) {
 
         if (args.length != 3) {
@@ -0,0 +1,231 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zpe;
+
+import com.yahoo.athenz.zpe.match.ZpeMatch;
+import com.yahoo.athenz.zpe.match.impl.ZpeMatchAll;
+import com.yahoo.athenz.zpe.match.impl.ZpeMatchEqual;
+import com.yahoo.athenz.zpe.match.impl.ZpeMatchStartsWith;
+import com.yahoo.rdl.Struct;
+
+import java.util.*;
+
+/**
+ * Map of role names to their list of assertions for a single domain
+ * and effect. Once all assertions are added, the policy loader calls
+ * buildIndex() to create the lookup structures used by AuthZpeClient:
+ * assertions of every role are bucketed by their action (with a separate
+ * list for actions that include wildcards) and the wildcard role names
+ * are indexed in a prefix trie based on the literal prefix of the role
+ * pattern so a role from the token is only compared against the wildcard
+ * roles that could possibly match it. Patterns that start with a wildcard
+ * are indexed by their literal suffix in a separate trie built from the
+ * reversed suffix values. The map must not be modified
+ * after the index is built.
+ */
+public class ZpeRoleMap extends TreeMap<String, List<Struct>> {
+
+    private Map<String, RoleAssertions> roleAssertions = Collections.emptyMap();
+    private Map<String, Integer> roleOrder = Collections.emptyMap();
+    private final List<String> matchAllRoles = new ArrayList<>();
+    private final PrefixNode prefixRoot = new PrefixNode();
+    private final PrefixNode suffixRoot = new PrefixNode();
+
+    /**
+     * Build the action and wildcard role index for the assertions
+     * currently included in the map.
+     */
+    public void buildIndex() {
+
+        Map<String, RoleAssertions> assertionsMap = new HashMap<>();
+        Map<String, Integer> orderMap = new HashMap<>();
+
+        for (Map.Entry<String, List<Struct>> entry : entrySet()) {
+
+            final String roleName = entry.getKey();
+            final List<Struct> asserts = entry.getValue();
+            if (asserts == null || asserts.isEmpty()) {
+                continue;
+            }
+
+            assertionsMap.put(roleName, new RoleAssertions(asserts));
+            orderMap.put(roleName, orderMap.size());
+
+            // all assertions for the same role share the same role match
+            // object type so we only need to look at the first one
+
+            ZpeMatch roleMatch = (ZpeMatch) asserts.get(0).get(ZpeConsts.ZPE_ROLE_MATCH_STRUCT);
+            if (roleMatch == null || roleMatch instanceof ZpeMatchEqual) {
+                continue;
+            }
+
+            if (roleMatch instanceof ZpeMatchAll) {
+                matchAllRoles.add(roleName);
+            } else if (roleMatch instanceof ZpeMatchStartsWith) {
+                prefixRoot.addRole(roleName.substring(0, roleName.length() - 1), roleName, null);
+            } else {
+                final String prefix = literalPrefix(roleName);
+                final String suffix = literalSuffix(roleName);
+                if (prefix.isEmpty() && !suffix.isEmpty()) {
+                    suffixRoot.addRole(new StringBuilder(suffix).reverse(), roleName, roleMatch);
+                } else {
+                    prefixRoot.addRole(prefix, roleName, roleMatch);
+                }
+            }
+        }
+
+        roleAssertions = assertionsMap;
+        roleOrder = orderMap;
+    }
+
+    static String literalPrefix(final String pattern) {
+        for (int idx = 0; idx < pattern.length(); idx++) {
+            final char c = pattern.charAt(idx);
+            if (c == '*' || c == '?') {
+                return pattern.substring(0, idx);
+            }
+        }
+        return pattern;
+    }
+
+    static String literalSuffix(final String pattern) {
+        for (int idx = pattern.length() - 1; idx >= 0; idx--) {
+            final char c = pattern.charAt(idx);
+            if (c == '*' || c == '?') {
+                return pattern.substring(idx + 1);
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Return the indexed assertions for the given role
+     * @param roleName name of the role
+     * @return role assertions or null if the role has no assertions
+     */
+    public RoleAssertions getRoleAssertions(final String roleName) {
+        return roleAssertions.get(roleName);
+    }
+
+    /**
+     * Return the list of wildcard role names from this map that match
+     * the given role. The roles are returned in the same order as they
+     * are stored in the map.
+     * @param role name of the role from the token
+     * @return list of matching wildcard role names
+     */
+    public List<String> getMatchingRoles(final String role) {
+
+        List<String> roles = new ArrayList<>(matchAllRoles);
+
+        PrefixNode node = prefixRoot;
+        final int length = role.length();
+        for (int idx = 0; node != null; idx++) {
+            node.collectRoles(role, roles);
+            if (idx == length) {
+                break;
+            }
+            node = node.children.get(role.charAt(idx));
+        }
+
+        node = suffixRoot;
+        for (int idx = length - 1; node != null; idx--) {
+            node.collectRoles(role, roles);
+            if (idx < 0) {
+                break;
+            }
+            node = node.children.get(role.charAt(idx));
+        }
+
+        if (roles.size() > 1) {
+            roles.sort(Comparator.comparingInt(roleName -> roleOrder.get(roleName)));
+        }
+        return roles;
+    }
+
+    /**
+     * Assertions for a single role bucketed by their action value
+     */
+    public static class RoleAssertions {
+
+        private final Map<String, List<Struct>> actionAssertions = new HashMap<>();
+        private final List<Struct> globActionAssertions = new ArrayList<>();
+
+        RoleAssertions(List<Struct> asserts) {
+            for (Struct strAssert : asserts) {
+                final String action = strAssert.getString(ZpeConsts.ZPE_FIELD_ACTION);
+                if (action != null && strAssert.get(ZpeConsts.ZPE_ACTION_MATCH_STRUCT) instanceof ZpeMatchEqual) {
+                    actionAssertions.computeIfAbsent(action, k -> new ArrayList<>()).add(strAssert);
+                } else {
+                    globActionAssertions.add(strAssert);
+                }
+            }
+        }
+
+        /**
+         * Return the assertions defined for the given action value
+         * @param action name of the action (already in lower case)
+         * @return list of assertions with the given action
+         */
+        public List<Struct> getActionAssertions(final String action) {
+            return actionAssertions.getOrDefault(action, Collections.emptyList());
+        }
+
+        /**
+         * Return the assertions whose action includes wildcards. The caller
+         * must still verify the action with the action match object
+         * @return list of assertions with wildcard actions
+         */
+        public List<Struct> getGlobActionAssertions() {
+            return globActionAssertions;
+        }
+    }
+
+    static class PrefixNode {
+
+        final Map<Character, PrefixNode> children = new HashMap<>();
+
+        // roles that match any value starting with this node's prefix
+        final List<String> prefixRoles = new ArrayList<>();
+
+        // roles with this literal prefix that must still be verified
+        // with their regex match object
+        final List<String> regexRoles = new ArrayList<>();
+        final List<ZpeMatch> regexMatches = new ArrayList<>();
+
+        void addRole(final CharSequence prefix, final String roleName, ZpeMatch regexMatch) {
+            PrefixNode node = this;
+            for (int idx = 0; idx < prefix.length(); idx++) {
+                node = node.children.computeIfAbsent(prefix.charAt(idx), k -> new PrefixNode());
+            }
+            if (regexMatch == null) {
+                node.prefixRoles.add(roleName);
+            } else {
+                node.regexRoles.add(roleName);
+                node.regexMatches.add(regexMatch);
+            }
+        }
+
+        void collectRoles(final String role, List<String> roles) {
+            roles.addAll(prefixRoles);
+            for (int idx = 0; idx < regexRoles.size(); idx++) {
+                if (regexMatches.get(idx).matches(role)) {
+                    roles.add(regexRoles.get(idx));
+                }
+            }
+        }
+    }
+}
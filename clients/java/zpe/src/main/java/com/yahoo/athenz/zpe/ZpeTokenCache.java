@@ -0,0 +1,270 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zpe;
+
+import com.yahoo.athenz.auth.util.Crypto;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded cache of validated role/access tokens. The tokens are
+ * stored based on the SHA-256 digest of the signed token so the cache
+ * does not keep a second copy of every token string as its key. Lookups
+ * are lock-free while eviction is carried out by a single thread once
+ * the cache reaches its configured limit: expired tokens are removed
+ * first and, if the cache is still full, the least recently used tokens
+ * are evicted in a batch (10% of the limit) so the cost of the eviction
+ * pass is amortized over the following inserts.
+ * The map view of the cache accepts the signed token as the key for
+ * get/put/remove/containsKey operations while the keys returned by
+ * the keySet/entrySet views are the token digests.
+ * @param <T> token type
+ */
+public class ZpeTokenCache<T> extends AbstractMap<String, T> {
+
+    private final ConcurrentHashMap<String, CacheEntry<T>> cache = new ConcurrentHashMap<>();
+    private final ToLongFunction<T> expiryFunction;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Create a new token cache
+     * @param expiryFunction function returning the expiry time
+     *        of the token in seconds since epoch
+     */
+    public ZpeTokenCache(ToLongFunction<T> expiryFunction) {
+        this.expiryFunction = expiryFunction;
+    }
+
+    static String tokenDigest(final String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Crypto.sha256(token));
+    }
+
+    @Override
+    public T get(Object token) {
+        if (!(token instanceof String)) {
+            return null;
+        }
+        CacheEntry<T> entry = cache.get(tokenDigest((String) token));
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        entry.lastAccessTime = System.nanoTime();
+        return entry.value;
+    }
+
+    @Override
+    public boolean containsKey(Object token) {
+        return token instanceof String && cache.containsKey(tokenDigest((String) token));
+    }
+
+    @Override
+    public T put(final String token, T value) {
+        return put(token, value, 0);
+    }
+
+    /**
+     * Add the given token to the cache. If the cache has already reached
+     * the given limit then expired and least recently used tokens are
+     * evicted from the cache before the new token is added.
+     * @param token signed token
+     * @param value validated token object
+     * @param maxSize maximum number of tokens in the cache. 0 indicates no limit
+     * @return the previous token object cached for the token, if any
+     */
+    public T put(final String token, T value, int maxSize) {
+        if (maxSize > 0 && cache.size() >= maxSize) {
+            evictEntries(maxSize);
+        }
+        CacheEntry<T> entry = cache.put(tokenDigest(token), new CacheEntry<>(value,
+                expiryFunction.applyAsLong(value)));
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public T remove(Object token) {
+        if (!(token instanceof String)) {
+            return null;
+        }
+        CacheEntry<T> entry = cache.remove(tokenDigest((String) token));
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Entry<String, T>> iterator() {
+                final Iterator<Entry<String, CacheEntry<T>>> iterator = cache.entrySet().iterator();
+                return new Iterator<>() {
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, T> next() {
+                        Entry<String, CacheEntry<T>> entry = iterator.next();
+                        return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().value);
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return cache.size();
+            }
+
+            @Override
+            public void clear() {
+                cache.clear();
+            }
+        };
+    }
+
+    /**
+     * Remove all tokens that have expired before the given time
+     * @param nowSecs current time in seconds since epoch
+     * @return number of removed tokens
+     */
+    public int removeExpired(long nowSecs) {
+        int removed = 0;
+        Iterator<CacheEntry<T>> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiryTime < nowSecs) {
+                iterator.remove();
+                removed += 1;
+            }
+        }
+        evictionCount.add(removed);
+        return removed;
+    }
+
+    synchronized void evictEntries(int maxSize) {
+
+        // another thread might have already completed the eviction
+        // while we were waiting for the lock
+
+        if (cache.size() < maxSize) {
+            return;
+        }
+
+        // first get rid of any expired tokens
+
+        removeExpired(System.currentTimeMillis() / 1000);
+
+        // if we're still over the limit then we're going to evict
+        // the least recently used entries until we have the room
+        // for our batch of new entries
+
+        final int targetSize = maxSize - Math.max(1, maxSize / 10);
+        int count = cache.size() - targetSize;
+        if (count <= 0) {
+            return;
+        }
+
+        List<Entry<String, CacheEntry<T>>> entries = new ArrayList<>(cache.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessTime));
+        for (Entry<String, CacheEntry<T>> entry : entries) {
+            if (count == 0) {
+                break;
+            }
+            if (cache.remove(entry.getKey(), entry.getValue())) {
+                evictionCount.increment();
+                count -= 1;
+            }
+        }
+    }
+
+    /**
+     * Return the statistics for the token cache
+     * @return cache statistics
+     */
+    public Stats getStats() {
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount.sum(), cache.size());
+    }
+
+    static class CacheEntry<T> {
+
+        final T value;
+        final long expiryTime;
+        volatile long lastAccessTime;
+
+        CacheEntry(T value, long expiryTime) {
+            this.value = value;
+            this.expiryTime = expiryTime;
+            this.lastAccessTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Snapshot of the token cache counters
+     */
+    public static class Stats {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+
+        public Stats(long hitCount, long missCount, long evictionCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+}
@@ -99,10 +99,10 @@ public class ZpeUpdPolLoader implements Closeable {
     ConcurrentHashMap<String, Map<String, List<Struct>>> domWildcardRoleDenyMap = new ConcurrentHashMap<>();
 
     // cache of active Role Tokens
-    static ConcurrentHashMap<String, RoleToken> roleTokenCacheMap = new ConcurrentHashMap<>();
+    static ZpeTokenCache<RoleToken> roleTokenCacheMap = new ZpeTokenCache<>(RoleToken::getExpiryTime);
 
     // cache of active Access Tokens
-    static ConcurrentHashMap<String, AccessToken> accessTokenCacheMap = new ConcurrentHashMap<>();
+    static ZpeTokenCache<AccessToken> accessTokenCacheMap = new ZpeTokenCache<>(AccessToken::getExpiryTime);
 
     // array of file status objects
     static class ZpeFileStatus {
@@ -208,8 +208,7 @@ public class ZpeUpdPolLoader implements Closeable {
             return;
         }
 
-        long nowSecs = now / 1000;
-        roleTokenCacheMap.entrySet().removeIf(entry -> entry.getValue().getExpiryTime() < nowSecs);
+        roleTokenCacheMap.removeExpired(now / 1000);
         lastRoleTokenCleanup = now; // reset time of last cleanup
     }
 
@@ -220,8 +219,7 @@ public class ZpeUpdPolLoader implements Closeable {
             return;
         }
 
-        long nowSecs = now / 1000;
-        accessTokenCacheMap.entrySet().removeIf(entry -> entry.getValue().getExpiryTime() < nowSecs);
+        accessTokenCacheMap.removeExpired(now / 1000);
         lastAccessTokenCleanup = now; // reset time of last cleanup
     }
 
@@ -276,10 +274,10 @@ public class ZpeUpdPolLoader implements Closeable {
 
                     // replace domain with empty data
                     //
-                    domStandardRoleAllowMap.put(fstat.domain, new TreeMap<>());
-                    domWildcardRoleAllowMap.put(fstat.domain, new TreeMap<>());
-                    domStandardRoleDenyMap.put(fstat.domain, new TreeMap<>());
-                    domWildcardRoleDenyMap.put(fstat.domain, new TreeMap<>());
+                    domStandardRoleAllowMap.put(fstat.domain, new ZpeRoleMap());
+                    domWildcardRoleAllowMap.put(fstat.domain, new ZpeRoleMap());
+                    domStandardRoleDenyMap.put(fstat.domain, new ZpeRoleMap());
+                    domWildcardRoleDenyMap.put(fstat.domain, new ZpeRoleMap());
                     continue;
                 }
                 
@@ -512,10 +510,10 @@ public class ZpeUpdPolLoader implements Closeable {
         // regexpr and place it into the assertion Struct.
         // This is a performance enhancement for AuthZpeClient when it 
         // performs the authorization checks.
-        Map<String, List<Struct>> roleStandardAllowMap = new TreeMap<>();
-        Map<String, List<Struct>> roleWildcardAllowMap = new TreeMap<>();
-        Map<String, List<Struct>> roleStandardDenyMap  = new TreeMap<>();
-        Map<String, List<Struct>> roleWildcardDenyMap  = new TreeMap<>();
+        ZpeRoleMap roleStandardAllowMap = new ZpeRoleMap();
+        ZpeRoleMap roleWildcardAllowMap = new ZpeRoleMap();
+        ZpeRoleMap roleStandardDenyMap  = new ZpeRoleMap();
+        ZpeRoleMap roleWildcardDenyMap  = new ZpeRoleMap();
         List<Policy> policies = policyData.getPolicies();
         for (Policy policy : policies) {
             String pname = policy.getName();
@@ -533,6 +531,7 @@ public class ZpeUpdPolLoader implements Closeable {
                 // It is possible for action and resource to retain case. Need to lower them both.
                 final String passertAction = assertion.getAction().toLowerCase();
 
+                strAssert.put(ZpeConsts.ZPE_FIELD_ACTION, passertAction);
                 ZpeMatch matchStruct = getMatchObject(passertAction);
                 strAssert.put(ZpeConsts.ZPE_ACTION_MATCH_STRUCT, matchStruct);
                 
@@ -551,7 +550,7 @@ public class ZpeUpdPolLoader implements Closeable {
                 // based on the effect and role name determine what
                 // map we're going to use
                 
-                Map<String, List<Struct>> roleMap;
+                ZpeRoleMap roleMap;
                 AssertionEffect passertEffect = assertion.getEffect();
                 matchStruct = getMatchObject(pRoleName);
                 strAssert.put(ZpeConsts.ZPE_ROLE_MATCH_STRUCT, matchStruct);
@@ -574,7 +573,15 @@ public class ZpeUpdPolLoader implements Closeable {
                 assertList.add(strAssert);
             }
         }
- 
+
+        // build the action and wildcard role indexes used by
+        // the authorization checks in AuthZpeClient
+
+        roleStandardAllowMap.buildIndex();
+        roleWildcardAllowMap.buildIndex();
+        roleStandardDenyMap.buildIndex();
+        roleWildcardDenyMap.buildIndex();
+
         Map<String, ZpeFileStatus> fsmap = getFileStatusMap();
         ZpeFileStatus fstat = fsmap.get(polFile.getName());
         if (fstat != null) {
@@ -0,0 +1,98 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zpe;
+
+import com.yahoo.athenz.auth.token.AccessToken;
+import com.yahoo.athenz.auth.token.RoleToken;
+import com.yahoo.athenz.auth.token.jwts.JwtsSigningKeyResolver;
+import com.yahoo.athenz.auth.util.Crypto;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of parsing and validating the signature of
+ * access tokens and role tokens signed with RSA and EC keys. These
+ * are the costs every caller pays on a token cache miss.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessTokenBenchmark {
+
+    private static final String DOMAIN_NAME = "benchmark";
+
+    @Param({"RSA", "EC"})
+    public String keyType;
+
+    private JwtsSigningKeyResolver keyResolver;
+    private PublicKey publicKey;
+    private X509Certificate cert;
+    private String accessToken;
+    private String certAccessToken;
+    private String roleToken;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        PrivateKey privateKey;
+        SignatureAlgorithm algorithm;
+        if ("EC".equals(keyType)) {
+            privateKey = BenchmarkPolicyGenerator.generateECKey();
+            algorithm = SignatureAlgorithm.ES256;
+        } else {
+            privateKey = BenchmarkPolicyGenerator.generateRSAKey();
+            algorithm = SignatureAlgorithm.RS256;
+        }
+        publicKey = Crypto.extractPublicKey(privateKey);
+
+        keyResolver = new JwtsSigningKeyResolver(null, null, true);
+        keyResolver.addPublicKey(BenchmarkPolicyGenerator.KEY_ID, publicKey);
+
+        List<String> roles = Arrays.asList("readers", "writers");
+        cert = BenchmarkPolicyGenerator.generateCertificate();
+        accessToken = BenchmarkPolicyGenerator.generateAccessToken(DOMAIN_NAME, roles, privateKey,
+                algorithm, null);
+        certAccessToken = BenchmarkPolicyGenerator.generateAccessToken(DOMAIN_NAME, roles, privateKey,
+                algorithm, cert);
+        roleToken = BenchmarkPolicyGenerator.generateRoleToken(DOMAIN_NAME, roles, privateKey);
+    }
+
+    @Benchmark
+    public AccessToken parseAccessToken() {
+        return new AccessToken(accessToken, keyResolver);
+    }
+
+    @Benchmark
+    public AccessToken parseCertBoundAccessToken() {
+        return new AccessToken(certAccessToken, keyResolver, cert);
+    }
+
+    @Benchmark
+    public boolean validateRoleToken() {
+        RoleToken token = new RoleToken(roleToken);
+        return token.validate(publicKey, 300, false, null);
+    }
+}
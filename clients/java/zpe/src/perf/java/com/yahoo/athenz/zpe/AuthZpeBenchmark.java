@@ -0,0 +1,144 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zpe;
+
+import com.yahoo.athenz.auth.util.Crypto;
+import com.yahoo.athenz.zpe.AuthZpeClient.AccessCheckStatus;
+import com.yahoo.athenz.zts.PolicyData;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of AuthZpeClient.allowAccess calls for role tokens,
+ * access tokens and certificate bound access tokens against generated
+ * policy files. The tokens are validated during the setup so the
+ * benchmarks measure the token cache lookup and the policy evaluation.
+ * Every parameter combination runs in its own forked jvm since the
+ * ZPE client configuration is loaded only once per jvm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthZpeBenchmark {
+
+    private static final String DOMAIN_NAME = "benchmark";
+
+    // standard: only roles with exact name matches
+    // wildcard: mostly wildcard roles with a few standard ones
+    // deny: standard and wildcard roles with deny assertions
+
+    @Param({"standard", "wildcard", "deny"})
+    public String policyType;
+
+    @Param({"10", "100", "500"})
+    public int roleCount;
+
+    private String roleToken;
+    private String accessToken;
+    private String certAccessToken;
+    private X509Certificate cert;
+    private String resource;
+    private String action;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        PrivateKey privateKey = BenchmarkPolicyGenerator.generateRSAKey();
+
+        Path baseDir = Files.createTempDirectory("zpe-benchmark");
+        Path policyDir = Files.createDirectory(baseDir.resolve("policies"));
+        Path confPath = BenchmarkPolicyGenerator.writeAthenzConfig(baseDir, privateKey);
+
+        PolicyData policyData;
+        List<String> roles;
+        final int last = roleCount - 1;
+        switch (policyType) {
+            case "wildcard":
+                policyData = BenchmarkPolicyGenerator.generatePolicyData(DOMAIN_NAME, 5, roleCount, false);
+                roles = Arrays.asList("role0", "service.team" + (last | 1));
+                resource = DOMAIN_NAME + ":shared." + (last | 1) + ".item";
+                action = "read";
+                break;
+            case "deny":
+                policyData = BenchmarkPolicyGenerator.generatePolicyData(DOMAIN_NAME, roleCount, roleCount, true);
+                roles = Arrays.asList("role0", "team0.readers", "role" + last);
+                resource = DOMAIN_NAME + ":data." + last + ".config";
+                action = "write";
+                break;
+            default:
+                policyData = BenchmarkPolicyGenerator.generatePolicyData(DOMAIN_NAME, roleCount, 0, false);
+                roles = Arrays.asList("role0", "role" + last);
+                resource = DOMAIN_NAME + ":data." + last + ".item";
+                action = "read";
+                break;
+        }
+        BenchmarkPolicyGenerator.writeSignedPolicyFile(policyDir, policyData, privateKey);
+
+        // the configuration must be set before the client is initialized
+
+        System.setProperty(ZpeConsts.ZPE_PROP_ATHENZ_CONF, confPath.toString());
+        System.setProperty(ZpeConsts.ZPE_PROP_JWK_ATHENZ_CONF, baseDir.resolve("athenz.jwk.conf").toString());
+        System.setProperty(ZpeConsts.ZPE_PROP_POLICY_DIR, policyDir.toString());
+        AuthZpeClient.init();
+        AuthZpeClient.addAccessTokenSignKeyResolverKey(BenchmarkPolicyGenerator.KEY_ID,
+                Crypto.extractPublicKey(privateKey));
+
+        cert = BenchmarkPolicyGenerator.generateCertificate();
+        roleToken = BenchmarkPolicyGenerator.generateRoleToken(DOMAIN_NAME, roles, privateKey);
+        accessToken = BenchmarkPolicyGenerator.generateAccessToken(DOMAIN_NAME, roles, privateKey,
+                SignatureAlgorithm.RS256, null);
+        certAccessToken = BenchmarkPolicyGenerator.generateAccessToken(DOMAIN_NAME, roles, privateKey,
+                SignatureAlgorithm.RS256, cert);
+
+        // verify our setup is correct before running any benchmarks
+
+        verifyStatus(AuthZpeClient.allowAccess(roleToken, resource, action));
+        verifyStatus(AuthZpeClient.allowAccess(accessToken, resource, action));
+        verifyStatus(AuthZpeClient.allowAccess(certAccessToken, cert, null, resource, action));
+    }
+
+    void verifyStatus(AccessCheckStatus status) {
+        if (status != AccessCheckStatus.ALLOW) {
+            throw new IllegalStateException("unexpected access check status: " + status);
+        }
+    }
+
+    @Benchmark
+    public AccessCheckStatus roleTokenAllowAccess() {
+        return AuthZpeClient.allowAccess(roleToken, resource, action);
+    }
+
+    @Benchmark
+    public AccessCheckStatus accessTokenAllowAccess() {
+        return AuthZpeClient.allowAccess(accessToken, resource, action);
+    }
+
+    @Benchmark
+    public AccessCheckStatus certBoundAccessTokenAllowAccess() {
+        return AuthZpeClient.allowAccess(certAccessToken, cert, null, resource, action);
+    }
+}
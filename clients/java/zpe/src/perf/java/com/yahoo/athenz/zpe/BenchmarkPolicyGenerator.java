@@ -0,0 +1,223 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zpe;
+
+import com.yahoo.athenz.auth.token.AccessToken;
+import com.yahoo.athenz.auth.token.RoleToken;
+import com.yahoo.athenz.auth.util.Crypto;
+import com.yahoo.athenz.common.config.AthenzConfig;
+import com.yahoo.athenz.common.utils.SignUtils;
+import com.yahoo.athenz.zms.PublicKeyEntry;
+import com.yahoo.athenz.zts.*;
+import com.yahoo.rdl.JSON;
+import com.yahoo.rdl.Timestamp;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the synthetic keys, configuration files, policy files
+ * and tokens used by the ZPE benchmarks.
+ *
+ * Each generated domain includes the following roles:
+ *   role{i}      - standard roles with allow assertions for the read
+ *                  and write actions on data.{i}.* resources
+ *   team{i}.*    - wildcard roles matched with a starts-with check
+ *   *.team{i}    - wildcard roles matched with a regex
+ * when deny assertions are requested, every role also gets a deny
+ * assertion so the deny maps must be evaluated before the allow ones.
+ */
+public class BenchmarkPolicyGenerator {
+
+    public static final String KEY_ID = "0";
+    public static final String CERT_SUBJECT = "cn=benchmark.service,o=Athenz";
+
+    private BenchmarkPolicyGenerator() {
+    }
+
+    public static PrivateKey generateRSAKey() {
+        return Crypto.generateRSAPrivateKey(2048);
+    }
+
+    public static PrivateKey generateECKey() {
+        try {
+            // generate the key with the bouncycastle provider so the
+            // public key can be extracted with the Crypto utility methods
+
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("ECDSA", new BouncyCastleProvider());
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair().getPrivate();
+        } catch (Exception ex) {
+            throw new IllegalStateException("unable to generate ec key", ex);
+        }
+    }
+
+    /**
+     * Generate a self-signed certificate used for certificate bound access
+     * tokens. Only the certificate hash is checked by the ZPE client so
+     * the certificate is always signed with a new RSA key regardless of
+     * the key type used to sign the tokens.
+     * @return self-signed certificate
+     */
+    public static X509Certificate generateCertificate() {
+        try {
+            PrivateKey privateKey = generateRSAKey();
+            final String csr = Crypto.generateX509CSR(privateKey, CERT_SUBJECT, null);
+            return Crypto.generateX509Certificate(Crypto.getPKCS10CertRequest(csr), privateKey,
+                    new X500Name(CERT_SUBJECT), 60, false);
+        } catch (Exception ex) {
+            throw new IllegalStateException("unable to generate certificate", ex);
+        }
+    }
+
+    /**
+     * Write the athenz.conf file with the zts and zms public keys
+     * and return the path of the generated file
+     * @param dir directory to create the file in
+     * @param privateKey private key used to sign the tokens and policy files
+     * @return path of the generated config file
+     * @throws IOException if unable to write the file
+     */
+    public static Path writeAthenzConfig(Path dir, PrivateKey privateKey) throws IOException {
+
+        PublicKey publicKey = Crypto.extractPublicKey(privateKey);
+        ArrayList<PublicKeyEntry> publicKeys = new ArrayList<>();
+        publicKeys.add(new PublicKeyEntry().setId(KEY_ID)
+                .setKey(Crypto.ybase64EncodeString(Crypto.convertToPEMFormat(publicKey))));
+
+        AthenzConfig athenzConfig = new AthenzConfig();
+        athenzConfig.setZtsPublicKeys(publicKeys);
+        athenzConfig.setZmsPublicKeys(publicKeys);
+
+        Path confPath = dir.resolve("athenz.conf");
+        Files.write(confPath, JSON.bytes(athenzConfig));
+        return confPath;
+    }
+
+    public static PolicyData generatePolicyData(final String domainName, int roleCount,
+            int wildcardRoleCount, boolean denyAssertions) {
+
+        List<Policy> policies = new ArrayList<>();
+
+        for (int i = 0; i < roleCount; i++) {
+            final String roleName = domainName + ":role.role" + i;
+            List<Assertion> assertions = new ArrayList<>();
+            assertions.add(createAssertion(roleName, "read", domainName + ":data." + i + ".*",
+                    AssertionEffect.ALLOW));
+            assertions.add(createAssertion(roleName, "write", domainName + ":data." + i + ".config",
+                    AssertionEffect.ALLOW));
+            if (denyAssertions) {
+                assertions.add(createAssertion(roleName, "delete", domainName + ":data." + i + ".*",
+                        AssertionEffect.DENY));
+            }
+            policies.add(new Policy().setName(domainName + ":policy.role" + i).setAssertions(assertions));
+        }
+
+        for (int i = 0; i < wildcardRoleCount; i++) {
+            final String roleName = (i % 2 == 0) ? domainName + ":role.team" + i + ".*"
+                    : domainName + ":role.*.team" + i;
+            List<Assertion> assertions = new ArrayList<>();
+            assertions.add(createAssertion(roleName, "read", domainName + ":shared." + i + ".*",
+                    AssertionEffect.ALLOW));
+            if (denyAssertions) {
+                assertions.add(createAssertion(roleName, "write", domainName + ":shared." + i + ".locked",
+                        AssertionEffect.DENY));
+            }
+            policies.add(new Policy().setName(domainName + ":policy.team" + i).setAssertions(assertions));
+        }
+
+        return new PolicyData().setDomain(domainName).setPolicies(policies);
+    }
+
+    static Assertion createAssertion(final String role, final String action, final String resource,
+            AssertionEffect effect) {
+        return new Assertion().setRole(role).setAction(action).setResource(resource).setEffect(effect);
+    }
+
+    /**
+     * Sign the given policy data with the private key and write it
+     * as a signed policy file in the given directory.
+     * @param dir policy directory
+     * @param policyData policy data to write
+     * @param privateKey zts private key to sign the policy data
+     * @return path of the generated policy file
+     * @throws IOException if unable to write the file
+     */
+    public static Path writeSignedPolicyFile(Path dir, PolicyData policyData, PrivateKey privateKey)
+            throws IOException {
+
+        final long now = System.currentTimeMillis();
+        SignedPolicyData signedPolicyData = new SignedPolicyData()
+                .setPolicyData(policyData)
+                .setZmsKeyId(KEY_ID)
+                .setZmsSignature(Crypto.sign(SignUtils.asCanonicalString(policyData), privateKey))
+                .setModified(Timestamp.fromMillis(now))
+                .setExpires(Timestamp.fromMillis(now + 7 * 24 * 60 * 60 * 1000L));
+
+        DomainSignedPolicyData domainSignedPolicyData = new DomainSignedPolicyData()
+                .setSignedPolicyData(signedPolicyData)
+                .setKeyId(KEY_ID)
+                .setSignature(Crypto.sign(SignUtils.asCanonicalString(signedPolicyData), privateKey));
+
+        // write the file with a different suffix first so the policy
+        // loader does not pick up a partially written file
+
+        Path tmpPath = dir.resolve(policyData.getDomain() + ".tmp");
+        Files.write(tmpPath, JSON.bytes(domainSignedPolicyData));
+        Path polPath = dir.resolve(policyData.getDomain() + ".pol");
+        Files.move(tmpPath, polPath, StandardCopyOption.REPLACE_EXISTING);
+        return polPath;
+    }
+
+    public static String generateRoleToken(final String domainName, List<String> roles, PrivateKey privateKey) {
+        RoleToken token = new RoleToken.Builder("Z1", domainName, roles)
+                .salt("aAkjbbDMhnLX").expirationWindow(3600).keyId(KEY_ID).build();
+        token.sign(privateKey);
+        return token.getSignedToken();
+    }
+
+    public static String generateAccessToken(final String domainName, List<String> roles, PrivateKey privateKey,
+            SignatureAlgorithm algorithm, X509Certificate cert) {
+
+        final long now = System.currentTimeMillis() / 1000;
+
+        AccessToken token = new AccessToken();
+        token.setVersion(1);
+        token.setAudience(domainName);
+        token.setScope(roles);
+        token.setSubject("user.benchmark");
+        token.setIssuer("athenz");
+        token.setIssueTime(now);
+        token.setAuthTime(now);
+        token.setExpiryTime(now + 3600);
+        if (cert != null) {
+            token.setConfirmX509CertHash(cert);
+        }
+        return token.getSignedToken(privateKey, KEY_ID, algorithm);
+    }
+}
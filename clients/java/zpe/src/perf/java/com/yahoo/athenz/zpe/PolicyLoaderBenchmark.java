@@ -0,0 +1,75 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zpe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to load, validate and index a signed policy
+ * file with the given number of standard and wildcard roles. The
+ * ZPE client itself is configured with an empty policy directory
+ * so only the benchmark loader processes the generated file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolicyLoaderBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int roleCount;
+
+    private String policyDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        PrivateKey privateKey = BenchmarkPolicyGenerator.generateRSAKey();
+
+        Path baseDir = Files.createTempDirectory("zpe-benchmark");
+        Path emptyDir = Files.createDirectory(baseDir.resolve("empty"));
+        Path loadDir = Files.createDirectory(baseDir.resolve("policies"));
+        Path confPath = BenchmarkPolicyGenerator.writeAthenzConfig(baseDir, privateKey);
+
+        BenchmarkPolicyGenerator.writeSignedPolicyFile(loadDir,
+                BenchmarkPolicyGenerator.generatePolicyData("benchmark", roleCount, roleCount / 10, true),
+                privateKey);
+
+        System.setProperty(ZpeConsts.ZPE_PROP_ATHENZ_CONF, confPath.toString());
+        System.setProperty(ZpeConsts.ZPE_PROP_JWK_ATHENZ_CONF, baseDir.resolve("athenz.jwk.conf").toString());
+        System.setProperty(ZpeConsts.ZPE_PROP_POLICY_DIR, emptyDir.toString());
+        AuthZpeClient.init();
+
+        policyDir = loadDir.toString();
+        if (loadPolicyDir() != 1) {
+            throw new IllegalStateException("unable to load generated policy file");
+        }
+    }
+
+    @Benchmark
+    public int loadPolicyDir() {
+        try (ZpeUpdPolLoader loader = new ZpeUpdPolLoader(policyDir)) {
+            return loader.getDomainCount();
+        }
+    }
+}
@@ -1471,7 +1471,8 @@ public class TestAuthZpe {
         roles.add("matchstarts");
         roles.add("matchcompare");
         roles.add("matchregex");
-        String signedToken = createAccessToken("angler", roles, "0");
+        final String firstToken = createAccessToken("angler", roles, "0");
+        String signedToken = firstToken;
 
         String action = "all";
         String resource = "angler:stuff";
@@ -1493,6 +1494,7 @@ public class TestAuthZpe {
         Assert.assertEquals(roleMap.size(), 1);
 
         // with our new token cache size limit of 1 the size should not change
+        // but the new token replaces the least recently used one
 
         AuthZpeClient.setTokenCacheMaxValue(1);
 
@@ -1502,6 +1504,8 @@ public class TestAuthZpe {
         Assert.assertEquals(status, AccessCheckStatus.ALLOW);
 
         Assert.assertEquals(roleMap.size(), 1);
+        Assert.assertNotNull(roleMap.get(signedToken));
+        Assert.assertNull(roleMap.get(firstToken));
 
         // set a negative value will be ignored, so we'll still
         // have a single entry in the cache
@@ -1518,7 +1522,7 @@ public class TestAuthZpe {
 
         AuthZpeClient.setTokenCacheMaxValue(10);
 
-        status = AuthZpeClient.allowAccess(signedToken, cert, null, resource, action);
+        status = AuthZpeClient.allowAccess(firstToken, cert, null, resource, action);
         Assert.assertEquals(status, AccessCheckStatus.ALLOW);
 
         Assert.assertEquals(roleMap.size(), 2);
@@ -1533,5 +1537,15 @@ public class TestAuthZpe {
         Assert.assertEquals(status, AccessCheckStatus.ALLOW);
 
         Assert.assertEquals(roleMap.size(), 3);
+
+        ZpeTokenCache.Stats stats = AuthZpeClient.getAccessTokenCacheStats();
+        Assert.assertNotNull(stats);
+        Assert.assertEquals(stats.getSize(), 3);
+        Assert.assertTrue(stats.getEvictionCount() >= 1);
+        Assert.assertTrue(stats.getHitCount() >= 1);
+        Assert.assertTrue(stats.getMissCount() >= 4);
+        Assert.assertNotNull(AuthZpeClient.getRoleTokenCacheStats());
+
+        AuthZpeClient.setTokenCacheMaxValue(10240);
     }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zpe;
+
+import static org.testng.Assert.*;
+
+import java.util.*;
+
+import com.yahoo.rdl.Struct;
+import org.testng.annotations.Test;
+
+public class TestZpeRoleMap {
+
+    private void addAssertion(Map<String, List<Struct>> roleMap, final String role, final String action,
+            final String resource) {
+
+        // the loader is only created when the test is executed since
+        // its static configuration is initialized by the other tests
+
+        ZpeUpdPolLoader loader = new ZpeUpdPolLoader(null);
+
+        Struct strAssert = new Struct();
+        strAssert.put(ZpeConsts.ZPE_FIELD_POLICY_NAME, "policy1");
+        strAssert.put(ZpeConsts.ZPE_FIELD_ACTION, action);
+        strAssert.put(ZpeConsts.ZPE_ACTION_MATCH_STRUCT, loader.getMatchObject(action));
+        strAssert.put(ZpeConsts.ZPE_FIELD_RESOURCE, resource);
+        strAssert.put(ZpeConsts.ZPE_RESOURCE_MATCH_STRUCT, loader.getMatchObject(resource));
+        strAssert.put(ZpeConsts.ZPE_FIELD_ROLE, role);
+        strAssert.put(ZpeConsts.ZPE_ROLE_MATCH_STRUCT, loader.getMatchObject(role));
+        roleMap.computeIfAbsent(role, k -> new ArrayList<>()).add(strAssert);
+    }
+
+    private ZpeRoleMap createWildcardRoleMap() {
+
+        ZpeRoleMap roleMap = new ZpeRoleMap();
+        addAssertion(roleMap, "*", "read", "public.*");
+        addAssertion(roleMap, "admin*", "*", "*");
+        addAssertion(roleMap, "adm*", "update", "config");
+        addAssertion(roleMap, "reader?", "read", "data.*");
+        addAssertion(roleMap, "reader?", "re*", "report");
+        addAssertion(roleMap, "*.writers", "write", "data.*");
+        addAssertion(roleMap, "dev*team", "deploy", "app.*");
+        roleMap.buildIndex();
+        return roleMap;
+    }
+
+    @Test
+    public void testLiteralPrefix() {
+        assertEquals(ZpeRoleMap.literalPrefix("reader?"), "reader");
+        assertEquals(ZpeRoleMap.literalPrefix("*.writers"), "");
+        assertEquals(ZpeRoleMap.literalPrefix("dev*team"), "dev");
+        assertEquals(ZpeRoleMap.literalPrefix("admin"), "admin");
+    }
+
+    @Test
+    public void testLiteralSuffix() {
+        assertEquals(ZpeRoleMap.literalSuffix("reader?"), "");
+        assertEquals(ZpeRoleMap.literalSuffix("*.writers"), ".writers");
+        assertEquals(ZpeRoleMap.literalSuffix("dev*team"), "team");
+        assertEquals(ZpeRoleMap.literalSuffix("admin"), "admin");
+    }
+
+    @Test
+    public void testGetMatchingRolesSuffixIndex() {
+
+        ZpeRoleMap roleMap = new ZpeRoleMap();
+        addAssertion(roleMap, "*.writers", "write", "data.*");
+        addAssertion(roleMap, "*s", "read", "data.*");
+        addAssertion(roleMap, "?.team*", "read", "team.*");
+        addAssertion(roleMap, "*.admins?", "update", "config");
+        addAssertion(roleMap, "*ops*", "deploy", "app.*");
+        roleMap.buildIndex();
+
+        assertEquals(roleMap.getMatchingRoles("sports.writers"), List.of("*.writers", "*s"));
+        assertEquals(roleMap.getMatchingRoles(".writers"), List.of("*.writers", "*s"));
+        assertEquals(roleMap.getMatchingRoles("writers"), List.of("*s"));
+        assertEquals(roleMap.getMatchingRoles("a.team1"), List.of("?.team*"));
+        assertEquals(roleMap.getMatchingRoles("sports.admins1"), List.of("*.admins?"));
+        assertEquals(roleMap.getMatchingRoles("devops-admins"), List.of("*ops*", "*s"));
+        assertEquals(roleMap.getMatchingRoles("s"), List.of("*s"));
+        assertTrue(roleMap.getMatchingRoles("").isEmpty());
+    }
+
+    @Test
+    public void testGetMatchingRoles() {
+
+        ZpeRoleMap roleMap = createWildcardRoleMap();
+
+        assertEquals(roleMap.getMatchingRoles("admin"), List.of("*", "adm*", "admin*"));
+        assertEquals(roleMap.getMatchingRoles("adm"), List.of("*", "adm*"));
+        assertEquals(roleMap.getMatchingRoles("ad"), List.of("*"));
+        assertEquals(roleMap.getMatchingRoles("readers"), List.of("*", "reader?"));
+        assertEquals(roleMap.getMatchingRoles("reader"), List.of("*"));
+        assertEquals(roleMap.getMatchingRoles("sports.writers"), List.of("*", "*.writers"));
+        assertEquals(roleMap.getMatchingRoles("dev-ops-team"), List.of("*", "dev*team"));
+        assertEquals(roleMap.getMatchingRoles("dev-ops"), List.of("*"));
+        assertEquals(roleMap.getMatchingRoles(""), List.of("*"));
+    }
+
+    @Test
+    public void testGetRoleAssertions() {
+
+        ZpeRoleMap roleMap = createWildcardRoleMap();
+
+        ZpeRoleMap.RoleAssertions roleAssertions = roleMap.getRoleAssertions("reader?");
+        assertEquals(roleAssertions.getActionAssertions("read").size(), 1);
+        assertTrue(roleAssertions.getActionAssertions("write").isEmpty());
+        assertEquals(roleAssertions.getGlobActionAssertions().size(), 1);
+
+        roleAssertions = roleMap.getRoleAssertions("admin*");
+        assertTrue(roleAssertions.getActionAssertions("read").isEmpty());
+        assertEquals(roleAssertions.getGlobActionAssertions().size(), 1);
+
+        assertNull(roleMap.getRoleAssertions("unknown"));
+    }
+
+    @Test
+    public void testBuildIndexSkipsEmptyRoles() {
+
+        ZpeRoleMap roleMap = new ZpeRoleMap();
+        roleMap.put("empty*", new ArrayList<>());
+        roleMap.put("null*", null);
+        addAssertion(roleMap, "readers", "read", "data");
+        roleMap.buildIndex();
+
+        assertNull(roleMap.getRoleAssertions("empty*"));
+        assertNull(roleMap.getRoleAssertions("null*"));
+        assertNotNull(roleMap.getRoleAssertions("readers"));
+
+        // standard roles are not included in the wildcard index
+
+        assertTrue(roleMap.getMatchingRoles("readers").isEmpty());
+        assertTrue(roleMap.getMatchingRoles("empty1").isEmpty());
+    }
+
+    @Test
+    public void testIndexedMatchSameAsMapMatch() {
+
+        ZpeRoleMap roleMap = createWildcardRoleMap();
+        Map<String, List<Struct>> plainMap = new TreeMap<>(roleMap);
+
+        final String[][] checks = {
+                { "read", "public.doc", "guest" },
+                { "write", "public.doc", "guest" },
+                { "delete", "anything", "administrators" },
+                { "update", "config", "adm" },
+                { "update", "config2", "adm" },
+                { "read", "data.table", "readers" },
+                { "reset", "report", "readers" },
+                { "reset", "report", "reader" },
+                { "write", "data.table", "sports.writers" },
+                { "write", "data.table", "sports.writer" },
+                { "deploy", "app.service", "dev-ops-team" },
+                { "deploy", "app.service", "dev-ops" },
+        };
+
+        for (String[] check : checks) {
+            List<String> roles = Collections.singletonList(check[2]);
+            StringBuilder indexedRoleName = new StringBuilder();
+            StringBuilder plainRoleName = new StringBuilder();
+            assertEquals(AuthZpeClient.actionByWildCardRole(check[0], "coretech", check[1], roles,
+                    roleMap, indexedRoleName),
+                    AuthZpeClient.actionByWildCardRole(check[0], "coretech", check[1], roles,
+                    plainMap, plainRoleName), Arrays.toString(check));
+            assertEquals(indexedRoleName.toString(), plainRoleName.toString(), Arrays.toString(check));
+        }
+    }
+
+    @Test
+    public void testIndexedStandardRoleMatch() {
+
+        ZpeRoleMap roleMap = new ZpeRoleMap();
+        addAssertion(roleMap, "readers", "read", "data.*");
+        addAssertion(roleMap, "readers", "re*", "report");
+        addAssertion(roleMap, "writers", "write", "data.*");
+        roleMap.buildIndex();
+        Map<String, List<Struct>> plainMap = new TreeMap<>(roleMap);
+
+        final String[][] checks = {
+                { "read", "data.table" },
+                { "reset", "report" },
+                { "write", "data.table" },
+                { "write", "report" },
+                { "delete", "data.table" },
+        };
+
+        List<String> roles = Arrays.asList("guests", "writers", "readers");
+        for (String[] check : checks) {
+            StringBuilder indexedRoleName = new StringBuilder();
+            StringBuilder plainRoleName = new StringBuilder();
+            assertEquals(AuthZpeClient.actionByRole(check[0], "coretech", check[1], roles,
+                    roleMap, indexedRoleName),
+                    AuthZpeClient.actionByRole(check[0], "coretech", check[1], roles,
+                    plainMap, plainRoleName), Arrays.toString(check));
+            assertEquals(indexedRoleName.toString(), plainRoleName.toString(), Arrays.toString(check));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zpe;
+
+import static org.testng.Assert.*;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+public class TestZpeTokenCache {
+
+    // our test values are the expiry times of the tokens
+
+    private ZpeTokenCache<Long> createCache() {
+        return new ZpeTokenCache<>(value -> value);
+    }
+
+    @Test
+    public void testGetPutRemove() {
+
+        ZpeTokenCache<Long> cache = createCache();
+        final long expiry = System.currentTimeMillis() / 1000 + 3600;
+
+        assertNull(cache.get("token1"));
+        assertNull(cache.put("token1", expiry));
+        assertEquals(cache.put("token1", expiry + 1), Long.valueOf(expiry));
+        assertEquals(cache.get("token1"), Long.valueOf(expiry + 1));
+        assertTrue(cache.containsKey("token1"));
+        assertFalse(cache.containsKey("token2"));
+        assertFalse(cache.containsKey(1));
+        assertNull(cache.get(1));
+        assertEquals(cache.size(), 1);
+
+        assertNull(cache.remove(1));
+        assertNull(cache.remove("token2"));
+        assertEquals(cache.remove("token1"), Long.valueOf(expiry + 1));
+        assertTrue(cache.isEmpty());
+
+        ZpeTokenCache.Stats stats = cache.getStats();
+        assertEquals(stats.getHitCount(), 1);
+        assertEquals(stats.getMissCount(), 1);
+        assertEquals(stats.getEvictionCount(), 0);
+        assertEquals(stats.getSize(), 0);
+    }
+
+    @Test
+    public void testDigestKeys() {
+
+        ZpeTokenCache<Long> cache = createCache();
+        cache.put("v=Z1;d=coretech;r=readers;s=signature", 100L);
+
+        Map.Entry<String, Long> entry = cache.entrySet().iterator().next();
+        assertEquals(entry.getKey(), ZpeTokenCache.tokenDigest("v=Z1;d=coretech;r=readers;s=signature"));
+        assertEquals(entry.getKey().length(), 43);
+        assertEquals(entry.getValue(), Long.valueOf(100));
+        assertNotEquals(ZpeTokenCache.tokenDigest("token1"), ZpeTokenCache.tokenDigest("token2"));
+    }
+
+    @Test
+    public void testEntrySetView() {
+
+        ZpeTokenCache<Long> cache = createCache();
+        cache.put("token1", 100L);
+        cache.put("token2", 200L);
+        assertEquals(cache.entrySet().size(), 2);
+
+        Iterator<Map.Entry<String, Long>> iterator = cache.entrySet().iterator();
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        iterator.remove();
+        assertEquals(cache.size(), 1);
+
+        cache.entrySet().clear();
+        assertTrue(cache.isEmpty());
+
+        cache.put("token3", 300L);
+        cache.clear();
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testRemoveExpired() {
+
+        ZpeTokenCache<Long> cache = createCache();
+        cache.put("token1", 100L);
+        cache.put("token2", 200L);
+        cache.put("token3", 300L);
+
+        assertEquals(cache.removeExpired(250), 2);
+        assertEquals(cache.size(), 1);
+        assertNotNull(cache.get("token3"));
+        assertEquals(cache.getStats().getEvictionCount(), 2);
+    }
+
+    @Test
+    public void testEvictExpiredFirst() {
+
+        ZpeTokenCache<Long> cache = createCache();
+        final long expiry = System.currentTimeMillis() / 1000 + 3600;
+
+        cache.put("token1", expiry, 3);
+        cache.put("token2", 100L, 3);
+        cache.put("token3", expiry, 3);
+
+        // the cache is full so the expired token2 must be evicted
+        // and the least recently used token1 is not touched
+
+        cache.put("token4", expiry, 3);
+        assertEquals(cache.size(), 3);
+        assertNull(cache.get("token2"));
+        assertNotNull(cache.get("token1"));
+        assertNotNull(cache.get("token3"));
+        assertNotNull(cache.get("token4"));
+        assertEquals(cache.getStats().getEvictionCount(), 1);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws InterruptedException {
+
+        ZpeTokenCache<Long> cache = createCache();
+        final long expiry = System.currentTimeMillis() / 1000 + 3600;
+
+        cache.put("token1", expiry, 3);
+        cache.put("token2", expiry, 3);
+        cache.put("token3", expiry, 3);
+
+        // access the first token so token2 becomes the least recently used
+
+        Thread.sleep(1);
+        assertNotNull(cache.get("token1"));
+
+        cache.put("token4", expiry, 3);
+        assertEquals(cache.size(), 3);
+        assertNull(cache.get("token2"));
+        assertNotNull(cache.get("token1"));
+        assertNotNull(cache.get("token3"));
+        assertNotNull(cache.get("token4"));
+        assertEquals(cache.getStats().getEvictionCount(), 1);
+    }
+
+    @Test
+    public void testEvictBatch() {
+
+        ZpeTokenCache<Long> cache = createCache();
+        final long expiry = System.currentTimeMillis() / 1000 + 3600;
+
+        for (int i = 0; i < 20; i++) {
+            cache.put("token" + i, expiry, 20);
+        }
+        assertEquals(cache.size(), 20);
+
+        // once full we evict 10% of the entries to make room
+        // for the new tokens
+
+        cache.put("token20", expiry, 20);
+        assertEquals(cache.size(), 19);
+        assertEquals(cache.getStats().getEvictionCount(), 2);
+
+        cache.put("token21", expiry, 20);
+        assertEquals(cache.size(), 20);
+        assertEquals(cache.getStats().getEvictionCount(), 2);
+    }
+
+    @Test
+    public void testEvictEntriesNotFull() {
+
+        ZpeTokenCache<Long> cache = createCache();
+        cache.put("token1", 100L);
+        cache.evictEntries(2);
+        assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void testPutNoLimit() {
+
+        ZpeTokenCache<Long> cache = createCache();
+        for (int i = 0; i < 100; i++) {
+            cache.put("token" + i, 100L, 0);
+        }
+        assertEquals(cache.size(), 100);
+        assertEquals(cache.getStats().getEvictionCount(), 0);
+    }
+}
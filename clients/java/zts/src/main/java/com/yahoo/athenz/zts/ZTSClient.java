@@ -29,8 +29,18 @@ import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -103,6 +113,9 @@ public class ZTSClient implements Closeable {
     static private int tokenMinExpiryTime = 900;
     static private int tokenMaxExpiryOffset = 300;
     static private long prefetchInterval = 60; // seconds
+    static private int prefetchThreads = 4;
+    static private int prefetchJitter = 60; // seconds
+    static private int asyncThreads = 16;
     static private boolean prefetchAutoEnable = true;
     static private String x509CsrDn = null;
     static private String x509CsrDomain = null;
@@ -115,6 +128,7 @@ public class ZTSClient implements Closeable {
     
     private boolean enablePrefetch = true;
     private boolean ztsClientOverride = false;
+    private Executor asyncExecutor = null;
 
     @SuppressWarnings("unused")
     static private boolean initialized = initConfigValues();
@@ -128,6 +142,9 @@ public class ZTSClient implements Closeable {
     public static final String ZTS_CLIENT_PROP_CONNECT_TIMEOUT           = "athenz.zts.client.connect_timeout";
     public static final String ZTS_CLIENT_PROP_PREFETCH_SLEEP_INTERVAL   = "athenz.zts.client.prefetch_sleep_interval";
     public static final String ZTS_CLIENT_PROP_PREFETCH_AUTO_ENABLE      = "athenz.zts.client.prefetch_auto_enable";
+    public static final String ZTS_CLIENT_PROP_PREFETCH_THREADS          = "athenz.zts.client.prefetch_threads";
+    public static final String ZTS_CLIENT_PROP_PREFETCH_JITTER           = "athenz.zts.client.prefetch_jitter";
+    public static final String ZTS_CLIENT_PROP_ASYNC_THREADS             = "athenz.zts.client.async_threads";
     public static final String ZTS_CLIENT_PROP_X509CERT_DNS_NAME         = "athenz.zts.client.x509cert_dns_name";
     public static final String ZTS_CLIENT_PROP_X509CSR_DN                = "athenz.zts.client.x509csr_dn";
     public static final String ZTS_CLIENT_PROP_X509CSR_DOMAIN            = "athenz.zts.client.x509csr_domain";
@@ -170,8 +187,13 @@ public class ZTSClient implements Closeable {
 
     private static final Queue<PrefetchTokenScheduledItem> PREFETCH_SCHEDULED_ITEMS = new ConcurrentLinkedQueue<>();
     private static Timer FETCH_TIMER;
+    private static volatile ThreadPoolExecutor FETCH_EXECUTOR;
+    private static ThreadPoolExecutor ASYNC_EXECUTOR;
     private static final Object TIMER_LOCK = new Object();
     static AtomicLong FETCHER_LAST_RUN_AT = new AtomicLong(-1);
+    static final AtomicLong PREFETCH_FAILURE_COUNT = new AtomicLong();
+    static final AtomicLong PREFETCH_MAX_LAG = new AtomicLong();
+    static final AtomicInteger PREFETCH_PENDING_COUNT = new AtomicInteger();
     static final ClientKeyRefresherListener KEY_REFRESHER_LISTENER = new ClientKeyRefresherListener();
 
     // allows outside implementations to get role tokens for special environments - ex. hadoop
@@ -206,6 +228,16 @@ public class ZTSClient implements Closeable {
         // set the prefetch support
         
         setPrefetchAutoEnable(Boolean.parseBoolean(System.getProperty(ZTS_CLIENT_PROP_PREFETCH_AUTO_ENABLE, "true")));
+
+        // set the number of threads used to refresh tokens and the
+        // max jitter applied to each token's refresh time
+
+        setPrefetchThreads(Integer.parseInt(System.getProperty(ZTS_CLIENT_PROP_PREFETCH_THREADS, "4")));
+        setPrefetchJitter(Integer.parseInt(System.getProperty(ZTS_CLIENT_PROP_PREFETCH_JITTER, "60")));
+
+        // set the number of threads used by the async api
+
+        setAsyncThreads(Integer.parseInt(System.getProperty(ZTS_CLIENT_PROP_ASYNC_THREADS, "16")));
         
         // disable the cache if configured
         
@@ -293,6 +325,39 @@ public class ZTSClient implements Closeable {
             prefetchInterval = 60;
         }
     }
+
+    /**
+     * Set the number of threads used to refresh the prefetched tokens.
+     * The value is used when the prefetch timer is started so it must
+     * be set before any tokens are prefetched.
+     * @param threads number of threads (default 4)
+     */
+    public static void setPrefetchThreads(int threads) {
+        prefetchThreads = threads > 0 ? threads : 4;
+    }
+
+    /**
+     * Set the max jitter for the token refresh time. Each prefetched
+     * token is refreshed up to this many seconds earlier than its
+     * scheduled time so tokens fetched at the same time are not all
+     * refreshed in the same prefetch run.
+     * @param jitter max jitter in seconds, 0 to disable
+     */
+    public static void setPrefetchJitter(int jitter) {
+        prefetchJitter = Math.max(jitter, 0);
+    }
+
+    /**
+     * Set the number of threads in the shared executor that carries out
+     * the requests submitted through the async api for clients that
+     * don't have their own executor configured. The value is used when
+     * the executor is created so it must be set before the first request.
+     * @param threads number of threads (default 16)
+     */
+    public static void setAsyncThreads(int threads) {
+        asyncThreads = threads > 0 ? threads : 16;
+    }
+
     /**
      * Set the minimum token expiry time. The server will not give out tokens
      * less than configured expiry time
@@ -576,11 +641,50 @@ public class ZTSClient implements Closeable {
      */
     public static void cancelPrefetch() {
         PREFETCH_SCHEDULED_ITEMS.clear();
-        if (FETCH_TIMER != null) {
-            FETCH_TIMER.purge();
-            FETCH_TIMER.cancel();
-            FETCH_TIMER = null;
+        synchronized (TIMER_LOCK) {
+            if (FETCH_TIMER != null) {
+                FETCH_TIMER.purge();
+                FETCH_TIMER.cancel();
+                FETCH_TIMER = null;
+            }
+            if (FETCH_EXECUTOR != null) {
+                FETCH_EXECUTOR.shutdownNow();
+                FETCH_EXECUTOR = null;
+            }
         }
+        PREFETCH_FAILURE_COUNT.set(0);
+        PREFETCH_MAX_LAG.set(0);
+        PREFETCH_PENDING_COUNT.set(0);
+    }
+
+    /**
+     * Returns the number of failed token refresh requests carried
+     * out by the prefetch task since the prefetch timer was started.
+     * @return number of failed refresh requests
+     */
+    public static long getPrefetchFailureCount() {
+        return PREFETCH_FAILURE_COUNT.get();
+    }
+
+    /**
+     * Returns the max lag in seconds observed between the time a token
+     * was scheduled to be refreshed and the time its refresh request
+     * was carried out by the prefetch task. A growing value indicates
+     * that the prefetch threads are not able to keep up with the
+     * number of tokens to refresh.
+     * @return max prefetch lag in seconds
+     */
+    public static long getPrefetchMaxLag() {
+        return PREFETCH_MAX_LAG.get();
+    }
+
+    /**
+     * Returns the number of tokens that have been selected for refresh
+     * by the prefetch task but whose refresh request has not completed yet.
+     * @return number of pending token refresh requests
+     */
+    public static int getPrefetchPendingCount() {
+        return PREFETCH_PENDING_COUNT.get();
     }
     
     /**
@@ -596,6 +700,33 @@ public class ZTSClient implements Closeable {
         ztsClientOverride = true;
     }
 
+    /**
+     * Set the executor that carries out the requests submitted through
+     * the async api of this client. If not set, the requests are carried
+     * out by an executor shared by all clients.
+     * @param executor executor for async requests
+     */
+    public void setAsyncExecutor(Executor executor) {
+        this.asyncExecutor = executor;
+    }
+
+    Executor getAsyncExecutor() {
+        return asyncExecutor != null ? asyncExecutor : getDefaultAsyncExecutor();
+    }
+
+    static synchronized Executor getDefaultAsyncExecutor() {
+        if (ASYNC_EXECUTOR == null) {
+            ASYNC_EXECUTOR = new ThreadPoolExecutor(asyncThreads, asyncThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "zts-client-async");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            ASYNC_EXECUTOR.allowCoreThreadTimeOut(true);
+        }
+        return ASYNC_EXECUTOR;
+    }
+
     public void setZTSClientCache(ZTSClientCache ztsClientCache) {
         this.ztsClientCache = ztsClientCache;
     }
@@ -1591,6 +1722,220 @@ public class ZTSClient implements Closeable {
                 x509CsrDn, csrDomain, expiryTime);
     }
     
+    /**
+     * Asynchronous version of {@link #getRoleToken(String, String)}. If the token
+     * is available in the cache, the returned future is already completed.
+     * Otherwise, the request is carried out by the client's async executor
+     * and the future is completed exceptionally with ZTSClientException
+     * in case of failure.
+     * @param domainName name of the domain
+     * @param roleNames only interested in roles with these names, comma separated list of roles
+     * @return future for the ZTS generated Role Token
+     */
+    public CompletableFuture<RoleToken> getRoleTokenAsync(String domainName, String roleNames) {
+        return getRoleTokenAsync(domainName, roleNames, null, null, null);
+    }
+
+    /**
+     * Asynchronous version of {@link #getRoleToken(String, String, Integer, Integer, boolean, String)}
+     * that uses the token cache. If the token is available in the cache, the returned
+     * future is already completed. Otherwise, the request is carried out by the client's
+     * async executor and the future is completed exceptionally with ZTSClientException
+     * in case of failure.
+     * @param domainName name of the domain
+     * @param roleNames only interested in roles with these names, comma separated list of roles
+     * @param minExpiryTime (optional) specifies that the returned RoleToken must be
+     *          at least valid (min/lower bound) for specified number of seconds,
+     * @param maxExpiryTime (optional) specifies that the returned RoleToken must be
+     *          at most valid (max/upper bound) for specified number of seconds.
+     * @param proxyForPrincipal (optional) this request is proxy for this principal
+     * @return future for the ZTS generated Role Token
+     */
+    public CompletableFuture<RoleToken> getRoleTokenAsync(String domainName, String roleNames,
+            Integer minExpiryTime, Integer maxExpiryTime, String proxyForPrincipal) {
+
+        if (!cacheDisabled) {
+            final String cacheKey = getRoleTokenCacheKey(domainName, roleNames, proxyForPrincipal);
+            if (cacheKey != null) {
+                RoleToken roleToken = lookupRoleTokenInCache(cacheKey, minExpiryTime, maxExpiryTime,
+                        tokenMinExpiryTime);
+                if (roleToken != null) {
+                    return CompletableFuture.completedFuture(roleToken);
+                }
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> getRoleToken(domainName, roleNames, minExpiryTime,
+                maxExpiryTime, false, proxyForPrincipal), getAsyncExecutor());
+    }
+
+    /**
+     * Asynchronous version of {@link #getAccessToken(String, List, long)}. If the token
+     * is available in the cache, the returned future is already completed.
+     * Otherwise, the request is carried out by the client's async executor
+     * and the future is completed exceptionally with ZTSClientException
+     * in case of failure.
+     * @param domainName name of the domain
+     * @param roleNames (optional) only interested in roles with these names
+     * @param expiryTime (optional) specifies that the returned Access must be
+     *          at least valid for specified number of seconds. Pass 0 to use
+     *          server default timeout.
+     * @return future for the ZTS generated Access Token Response object
+     */
+    public CompletableFuture<AccessTokenResponse> getAccessTokenAsync(String domainName, List<String> roleNames,
+            long expiryTime) {
+        return getAccessTokenAsync(domainName, roleNames, null, null, null, null, expiryTime);
+    }
+
+    /**
+     * Asynchronous version of {@link #getAccessToken(String, List, String, String, String, String, long, boolean)}
+     * that uses the token cache. If the token is available in the cache, the returned
+     * future is already completed. Otherwise, the request is carried out by the client's
+     * async executor and the future is completed exceptionally with ZTSClientException
+     * in case of failure.
+     * @param domainName name of the domain
+     * @param roleNames (optional) only interested in roles with these names
+     * @param idTokenServiceName (optional) as part of the response return an id token whose audience
+     *          is the specified service (only service name e.g. api) in the
+     *          domainName domain.
+     * @param proxyForPrincipal (optional) this request is proxy for this principal
+     * @param authorizationDetails (optional) rich authorization request details
+     * @param proxyPrincipalSpiffeUris (optional) comma separated list of spiffe uris of proxy
+     *          principals that this token will be routed through
+     * @param expiryTime (optional) specifies that the returned Access must be
+     *          at least valid for specified number of seconds. Pass 0 to use
+     *          server default timeout.
+     * @return future for the ZTS generated Access Token Response object
+     */
+    public CompletableFuture<AccessTokenResponse> getAccessTokenAsync(String domainName, List<String> roleNames,
+            String idTokenServiceName, String proxyForPrincipal, String authorizationDetails,
+            String proxyPrincipalSpiffeUris, long expiryTime) {
+
+        if (!cacheDisabled) {
+            final String cacheKey = getAccessTokenCacheKey(domainName, roleNames, idTokenServiceName,
+                    proxyForPrincipal, authorizationDetails, proxyPrincipalSpiffeUris);
+            if (cacheKey != null) {
+                AccessTokenResponse accessTokenResponse = lookupAccessTokenResponseInCache(cacheKey, expiryTime);
+                if (accessTokenResponse != null) {
+                    return CompletableFuture.completedFuture(accessTokenResponse);
+                }
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> getAccessToken(domainName, roleNames, idTokenServiceName,
+                proxyForPrincipal, authorizationDetails, proxyPrincipalSpiffeUris, expiryTime, false),
+                getAsyncExecutor());
+    }
+
+    /**
+     * Asynchronous version of {@link #getAWSTemporaryCredentials(String, String)}.
+     * If the credentials are available in the cache, the returned future is
+     * already completed. Otherwise, the request is carried out by the client's
+     * async executor and the future is completed exceptionally with
+     * ZTSClientException in case of failure.
+     * @param domainName name of the domain
+     * @param roleName name of the role
+     * @return future for the AWS credentials
+     */
+    public CompletableFuture<AWSTemporaryCredentials> getAWSTemporaryCredentialsAsync(String domainName,
+            String roleName) {
+        return getAWSTemporaryCredentialsAsync(domainName, roleName, null, null, null);
+    }
+
+    /**
+     * Asynchronous version of
+     * {@link #getAWSTemporaryCredentials(String, String, String, Integer, Integer, boolean)}
+     * that uses the credentials cache. If the credentials are available in the cache,
+     * the returned future is already completed. Otherwise, the request is carried out
+     * by the client's async executor and the future is completed exceptionally with
+     * ZTSClientException in case of failure.
+     * @param domainName name of the domain
+     * @param roleName name of the role
+     * @param externalId (optional) external id to satisfy configured assume role condition
+     * @param minExpiryTime (optional) specifies that the returned credentials must be
+     *          at least valid (min/lower bound) for specified number of seconds,
+     * @param maxExpiryTime (optional) specifies that the returned credentials must be
+     *          at most valid (max/upper bound) for specified number of seconds.
+     * @return future for the AWS credentials
+     */
+    public CompletableFuture<AWSTemporaryCredentials> getAWSTemporaryCredentialsAsync(String domainName,
+            String roleName, String externalId, Integer minExpiryTime, Integer maxExpiryTime) {
+
+        final String cacheKey = getRoleTokenCacheKey(domainName, roleName, null);
+        if (cacheKey != null) {
+            AWSTemporaryCredentials awsCred = lookupAwsCredInCache(cacheKey, minExpiryTime, maxExpiryTime);
+            if (awsCred != null) {
+                return CompletableFuture.completedFuture(awsCred);
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> getAWSTemporaryCredentials(domainName, roleName,
+                externalId, minExpiryTime, maxExpiryTime, false), getAsyncExecutor());
+    }
+
+    /**
+     * Asynchronous version of
+     * {@link #getIDToken(String, String, String, String, String, String, Boolean, Integer, boolean)}
+     * that uses the token cache. If the token is available in the cache, the returned
+     * future is already completed. Otherwise, the request is carried out by the client's
+     * async executor and the future is completed exceptionally with ZTSClientException
+     * in case of failure.
+     * @param responseType response object type - only id_token is supported for now
+     * @param clientId name of the audience service name (e.g. sys.auth.gcp)
+     * @param redirectUri the redirect uri for the request
+     * @param scope the scope of the request e.g. "openid sports.api:roles.hockey-writers"
+     * @param state the state component of the location header. could be empty
+     * @param keyType the private key type to sign the token - possible values are "RSA" or "EC"
+     * @param fullArn boolean flag indicating whether the groups claim in the token contains only the
+     *           role names or the full names including domains (e.g. sports.api:role.hockey-writers).
+     * @param expiryTime (optional) specifies that the returned token must be
+     *          at least valid for specified number of seconds. Pass 0 to use
+     *          server default timeout.
+     * @return future for the ZTS generated ID Token response
+     */
+    public CompletableFuture<OIDCResponse> getIDTokenAsync(String responseType, String clientId, String redirectUri,
+            String scope, String state, String keyType, Boolean fullArn, Integer expiryTime) {
+
+        if (!cacheDisabled) {
+            final String cacheKey = getIdTokenCacheKey(responseType, clientId, redirectUri, scope,
+                    state, keyType, fullArn);
+            if (cacheKey != null) {
+                OIDCResponse oidcResponse = lookupIdTokenResponseInCache(cacheKey, expiryTime);
+                if (oidcResponse != null) {
+                    return CompletableFuture.completedFuture(oidcResponse);
+                }
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> getIDToken(responseType, clientId, redirectUri, scope,
+                state, keyType, fullArn, expiryTime, false), getAsyncExecutor());
+    }
+
+    /**
+     * Asynchronous version of {@link #postRoleCertificateRequest(RoleCertificateRequest)}.
+     * The request is carried out by the client's async executor and the future
+     * is completed exceptionally with ZTSClientException in case of failure.
+     * @param req Role Certificate Request (csr)
+     * @return future for the RoleCertificate that includes client x509 role certificate
+     */
+    public CompletableFuture<RoleCertificate> postRoleCertificateRequestAsync(RoleCertificateRequest req) {
+        return CompletableFuture.supplyAsync(() -> postRoleCertificateRequest(req), getAsyncExecutor());
+    }
+
+    /**
+     * Asynchronous version of
+     * {@link #postInstanceRefreshInformation(String, String, String, String, InstanceRefreshInformation)}.
+     * The request is carried out by the client's async executor and the future
+     * is completed exceptionally with ZTSClientException in case of failure.
+     * @param provider Provider Service name
+     * @param domain instance domain name
+     * @param service instance service name
+     * @param instanceId instance id as provided in the CSR
+     * @param info InstanceRegisterInformation object for the request
+     * @return future for the InstanceIdentity object that includes a x509 certificate for the service
+     */
+    public CompletableFuture<InstanceIdentity> postInstanceRefreshInformationAsync(String provider,
+            String domain, String service, String instanceId, InstanceRefreshInformation info) {
+        return CompletableFuture.supplyAsync(() -> postInstanceRefreshInformation(provider, domain,
+                service, instanceId, info), getAsyncExecutor());
+    }
+
     static class TokenPrefetchTask extends TimerTask {
         
         ZTSClient getZTSClient(PrefetchTokenScheduledItem item) {
@@ -1663,7 +2008,20 @@ public class ZTSClient implements Closeable {
             boolean svcTokenRefresh = false;
             for (PrefetchTokenScheduledItem item : PREFETCH_SCHEDULED_ITEMS) {
 
-                // see if item requires refresh
+                // skip the item if its refresh request from one of
+                // the previous runs has not completed yet
+
+                if (item.inFlight.get()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("PrefetchTask: domain={} roleName={}. Refresh already in progress.",
+                                item.domainName, item.roleName);
+                    }
+                    continue;
+                }
+
+                // see if item requires refresh. we apply the item's jitter
+                // to the current time so the item is refreshed slightly
+                // earlier than its scheduled time
 
                 if (LOG.isDebugEnabled()) {
                     final String itemName = item.sslContext == null ?
@@ -1672,7 +2030,8 @@ public class ZTSClient implements Closeable {
                             itemName, item.tokenType, item.domainName, item.roleName, item.fetchTime,
                             item.lastFailTime, item.expiresAtUTC);
                 }
-                if (shouldRefresh(item.tokenType, currentTime, item.fetchTime, item.lastFailTime, item.expiresAtUTC)) {
+                if (shouldRefresh(item.tokenType, currentTime + item.getRefreshJitter(), item.fetchTime,
+                        item.lastFailTime, item.expiresAtUTC)) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("PrefetchTask: domain={} roleName={}. Refresh this item.",
                                 item.domainName, item.roleName);
@@ -1703,20 +2062,80 @@ public class ZTSClient implements Closeable {
                 }
             }
 
-            // fetch items
+            // submit the items to our executor. the executor queue is
+            // ordered by the token expiry time so if we have more items
+            // than threads, the ones that expire first are refreshed first.
+            // if the prefetch timer is not running then we'll just
+            // refresh the items in the current thread
 
+            toFetch.sort(Comparator.comparingLong(item -> item.expiresAtUTC));
+            final ThreadPoolExecutor executor = FETCH_EXECUTOR;
             for (PrefetchTokenScheduledItem item : toFetch) {
 
+                item.inFlight.set(true);
+                PREFETCH_PENDING_COUNT.incrementAndGet();
+
+                PrefetchItemTask itemTask = new PrefetchItemTask(item, svcLoaderCache);
+                if (executor == null) {
+                    itemTask.run();
+                    continue;
+                }
+                try {
+                    executor.execute(itemTask);
+                } catch (RejectedExecutionException ex) {
+                    LOG.error("PrefetchTask: unable to submit refresh task: {}", ex.getMessage());
+                    itemTask.release();
+                }
+            }
+
+            // clean our temporary list
+
+            toFetch.clear();
+        }
+
+        class PrefetchItemTask implements Runnable, Comparable<PrefetchItemTask> {
+
+            final PrefetchTokenScheduledItem item;
+            final Set<String> svcLoaderCache;
+
+            PrefetchItemTask(PrefetchTokenScheduledItem item, Set<String> svcLoaderCache) {
+                this.item = item;
+                this.svcLoaderCache = svcLoaderCache;
+            }
+
+            @Override
+            public void run() {
+
+                // keep track of how long after its scheduled refresh
+                // time we're processing this item. service provider
+                // tokens are not fetched from ZTS so they're skipped
+
+                final long currentTime = System.currentTimeMillis() / 1000;
+                if (item.tokenType != TokenType.SVC_ROLE) {
+                    PREFETCH_MAX_LAG.accumulateAndGet(currentTime - item.getRefreshTime(), Math::max);
+                }
+
                 // create ZTS Client for this particular item
 
                 try (ZTSClient itemZtsClient = getZTSClient(item)) {
                     processPrefetchTask(item, itemZtsClient, svcLoaderCache, currentTime);
+                } catch (Exception ex) {
+                    LOG.error("PrefetchTask: unable to refresh token", ex);
+                    PREFETCH_FAILURE_COUNT.incrementAndGet();
+                } finally {
+                    release();
                 }
             }
 
-            // clean our temporary list
+            void release() {
+                item.inFlight.set(false);
+                PREFETCH_PENDING_COUNT.decrementAndGet();
+            }
 
-            toFetch.clear();
+            @Override
+            public int compareTo(PrefetchItemTask other) {
+                return Long.compare(item.expiresAtUTC, other.item.expiresAtUTC);
+            }
         }
     }
 
@@ -1796,6 +2215,7 @@ public class ZTSClient implements Closeable {
         } catch (ZTSClientException ex) {
 
             LOG.error("PrefetchTask: Error while trying to prefetch token", ex);
+            PREFETCH_FAILURE_COUNT.incrementAndGet();
 
             // if we get either invalid credential, the request is forbidden,
             // or the request is invalid, then there is no point of retrying.
@@ -1827,6 +2247,7 @@ public class ZTSClient implements Closeable {
             item.setLastFailTime(currentTime);
             item.setIsInvalid(true);
             PREFETCH_SCHEDULED_ITEMS.remove(item);
+            PREFETCH_FAILURE_COUNT.incrementAndGet();
             LOG.error("PrefetchTask: Error while trying to prefetch token", ex);
         }
 
@@ -2011,7 +2432,8 @@ public class ZTSClient implements Closeable {
                 .setScope(scope)
                 .setState(state)
                 .setFullArn(fullArn)
-                .setNotificationSender(notificationSender);
+                .setNotificationSender(notificationSender)
+                .setRefreshJitter(prefetchJitter == 0 ? 0 : ThreadLocalRandom.current().nextInt(prefetchJitter + 1));
         
         // include our zts client only if it was overridden by
         // the caller (most likely for unit test mock)
@@ -3489,6 +3911,36 @@ public class ZTSClient implements Closeable {
             return this;
         }
 
+        long refreshJitter = 0;
+        PrefetchTokenScheduledItem setRefreshJitter(long jitter) {
+            refreshJitter = jitter;
+            return this;
+        }
+
+        // set while the item's refresh request is pending
+        // so the same item is not refreshed concurrently
+
+        final AtomicBoolean inFlight = new AtomicBoolean(false);
+
+        long getRefreshJitter() {
+
+            // we never apply more than a quarter of the token's
+            // lifetime so short-lived tokens are not refreshed
+            // too early
+
+            return Math.max(0, Math.min(refreshJitter, (expiresAtUTC - fetchTime) / 4));
+        }
+
+        long getRefreshTime() {
+
+            // same logic as in our prefetch task - the token is refreshed
+            // halfway before it expires or halfway since the last failure
+
+            long refreshTime = lastFailTime == 0 ? (expiresAtUTC - fetchTime) / 2 + fetchTime :
+                    (expiresAtUTC - lastFailTime) / 2 + lastFailTime;
+            return refreshTime - getRefreshJitter();
+        }
+
         int tokenMinExpiryTime;
         PrefetchTokenScheduledItem setTokenMinExpiryTime(int t) {
             tokenMinExpiryTime = t;
@@ -3915,6 +4367,18 @@ public class ZTSClient implements Closeable {
 
         synchronized (TIMER_LOCK) {
             if (FETCH_TIMER == null) {
+
+                // the timer only selects the items that need to be refreshed
+                // while the refresh requests are carried out by our executor
+
+                FETCH_EXECUTOR = new ThreadPoolExecutor(prefetchThreads, prefetchThreads, 60, TimeUnit.SECONDS,
+                        new PriorityBlockingQueue<>(), runnable -> {
+                            Thread thread = new Thread(runnable, "zts-client-prefetch");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                FETCH_EXECUTOR.allowCoreThreadTimeOut(true);
+
                 FETCH_TIMER = new Timer(true);
                 // check the fetch items every prefetchInterval seconds.
                 FETCH_TIMER.schedule(new TokenPrefetchTask(), 0, prefetchInterval * 1000);
@@ -43,6 +43,8 @@ import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.cert.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -3494,6 +3496,93 @@ public class ZTSClientTest {
         assertFalse(task.shouldRefresh(ZTSClient.TokenType.ROLE, currentTime, lastFetchTime, 0, expiryTime));
     }
 
+    @Test
+    public void testPrefetchItemRefreshTime() {
+
+        ZTSClient.PrefetchTokenScheduledItem item = new ZTSClient.PrefetchTokenScheduledItem()
+                .setFetchTime(1000).setExpiresAtUTC(1800).setRefreshJitter(60);
+
+        // jitter within a quarter of the token lifetime
+
+        assertEquals(item.getRefreshJitter(), 60);
+        assertEquals(item.getRefreshTime(), 1340);
+
+        // jitter is capped to a quarter of the token lifetime
+
+        item.setRefreshJitter(500);
+        assertEquals(item.getRefreshJitter(), 200);
+        assertEquals(item.getRefreshTime(), 1200);
+
+        // after a failure we're halfway since the last failure
+
+        item.setLastFailTime(1400);
+        assertEquals(item.getRefreshTime(), 1400);
+
+        // expired token has no jitter
+
+        item.setExpiresAtUTC(900).setLastFailTime(0);
+        assertEquals(item.getRefreshJitter(), 0);
+    }
+
+    @Test
+    public void testPrefetchItemTaskOrder() {
+
+        ZTSClient.TokenPrefetchTask task = new ZTSClient.TokenPrefetchTask();
+
+        ZTSClient.TokenPrefetchTask.PrefetchItemTask itemTask1 = task.new PrefetchItemTask(
+                new ZTSClient.PrefetchTokenScheduledItem().setExpiresAtUTC(3000), null);
+        ZTSClient.TokenPrefetchTask.PrefetchItemTask itemTask2 = task.new PrefetchItemTask(
+                new ZTSClient.PrefetchTokenScheduledItem().setExpiresAtUTC(1000), null);
+        ZTSClient.TokenPrefetchTask.PrefetchItemTask itemTask3 = task.new PrefetchItemTask(
+                new ZTSClient.PrefetchTokenScheduledItem().setExpiresAtUTC(2000), null);
+
+        // tokens that expire first must be refreshed first
+
+        PriorityQueue<ZTSClient.TokenPrefetchTask.PrefetchItemTask> queue = new PriorityQueue<>();
+        queue.add(itemTask1);
+        queue.add(itemTask2);
+        queue.add(itemTask3);
+
+        assertEquals(queue.poll(), itemTask2);
+        assertEquals(queue.poll(), itemTask3);
+        assertEquals(queue.poll(), itemTask1);
+    }
+
+    @Test
+    public void testPrefetchItemTaskFailure() {
+
+        ZTSClient.cancelPrefetch();
+
+        ZTSClient.TokenPrefetchTask task = new ZTSClient.TokenPrefetchTask() {
+            @Override
+            ZTSClient getZTSClient(ZTSClient.PrefetchTokenScheduledItem item) {
+                throw new IllegalArgumentException("invalid item");
+            }
+        };
+
+        long currentTime = System.currentTimeMillis() / 1000;
+        ZTSClient.PrefetchTokenScheduledItem item = new ZTSClient.PrefetchTokenScheduledItem()
+                .setTokenType(ZTSClient.TokenType.ROLE).setFetchTime(currentTime - 3600)
+                .setExpiresAtUTC(currentTime + 600);
+        item.inFlight.set(true);
+        ZTSClient.PREFETCH_PENDING_COUNT.incrementAndGet();
+
+        task.new PrefetchItemTask(item, null).run();
+
+        // the item must be released and the failure and lag recorded
+
+        assertFalse(item.inFlight.get());
+        assertEquals(ZTSClient.getPrefetchPendingCount(), 0);
+        assertEquals(ZTSClient.getPrefetchFailureCount(), 1);
+        assertTrue(ZTSClient.getPrefetchMaxLag() >= 1500);
+
+        // cancelling the prefetch resets our metrics
+
+        ZTSClient.cancelPrefetch();
+        assertEquals(ZTSClient.getPrefetchFailureCount(), 0);
+        assertEquals(ZTSClient.getPrefetchMaxLag(), 0);
+    }
+
     @Test
     public void testPrefetchAccessTokenShouldNotCallServer() throws Exception {
 
@@ -3797,6 +3886,159 @@ public class ZTSClientTest {
         client.close();
     }
 
+    @Test
+    public void testGetRoleTokenAsync() {
+
+        Principal principal = SimplePrincipal.create("user_domain", "user",
+                "auth_creds", PRINCIPAL_AUTHORITY);
+
+        ZTSRDLClientMock ztsClientMock = new ZTSRDLClientMock();
+        ztsClientMock.setRoleName("role1");
+        ZTSClient client = new ZTSClient("http://localhost:4080", principal);
+        client.setZTSRDLGeneratedClient(ztsClientMock);
+
+        RoleToken roleToken = client.getRoleTokenAsync("async-coretech", null).join();
+        assertNotNull(roleToken);
+
+        com.yahoo.athenz.auth.token.RoleToken token = new com.yahoo.athenz.auth.token.RoleToken(roleToken.getToken());
+        assertEquals(token.getDomain(), "async-coretech");
+
+        // the second request must be completed right away from our cache
+
+        CompletableFuture<RoleToken> future = client.getRoleTokenAsync("async-coretech", null);
+        assertTrue(future.isDone());
+        assertEquals(future.join().getToken(), roleToken.getToken());
+
+        ZTSClient.cancelPrefetch();
+        client.close();
+    }
+
+    @Test
+    public void testGetAccessTokenAsync() {
+
+        Principal principal = SimplePrincipal.create("user_domain", "user",
+                "auth_creds", PRINCIPAL_AUTHORITY);
+
+        ZTSRDLClientMock ztsClientMock = new ZTSRDLClientMock();
+        ZTSClient client = new ZTSClient("http://localhost:4080", principal);
+        client.setZTSRDLGeneratedClient(ztsClientMock);
+
+        AccessTokenResponse accessTokenResponse = client.getAccessTokenAsync("coretech2",
+                null, 3600).join();
+        assertNotNull(accessTokenResponse);
+        assertEquals("accesstoken", accessTokenResponse.getAccess_token());
+
+        // the second request must be completed right away from our cache
+
+        CompletableFuture<AccessTokenResponse> future = client.getAccessTokenAsync("coretech2",
+                null, 3600);
+        assertTrue(future.isDone());
+        assertEquals(future.join(), accessTokenResponse);
+
+        // failures are reported through the future
+
+        try {
+            client.getAccessTokenAsync("weather", null, 3600).join();
+            fail();
+        } catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof ZTSClientException);
+        }
+
+        ZTSClient.cancelPrefetch();
+        client.close();
+    }
+
+    @Test
+    public void testGetAWSTemporaryCredentialsAsync() {
+
+        Timestamp currentTime = Timestamp.fromCurrentTime();
+        ZTSRDLClientMock ztsClientMock = new ZTSRDLClientMock();
+        ztsClientMock.setAwsCreds(currentTime, "async-coretech", "role", "sessionToken",
+                "secretAccessKey", "accessKeyId");
+        Principal principal = SimplePrincipal.create("user_domain", "user",
+                "v=S1;d=user_domain;n=user;s=sig", PRINCIPAL_AUTHORITY);
+        ZTSClient client = new ZTSClient("http://localhost:4080", principal);
+        client.setZTSRDLGeneratedClient(ztsClientMock);
+
+        AWSTemporaryCredentials awsCreds = client.getAWSTemporaryCredentialsAsync("async-coretech", "role").join();
+        assertNotNull(awsCreds);
+        assertEquals("accessKeyId", awsCreds.getAccessKeyId());
+
+        // the second request must be completed right away from our cache
+
+        CompletableFuture<AWSTemporaryCredentials> future = client.getAWSTemporaryCredentialsAsync(
+                "async-coretech", "role");
+        assertTrue(future.isDone());
+        assertEquals(future.join().getSessionToken(), awsCreds.getSessionToken());
+
+        ZTSClient.cancelPrefetch();
+        client.close();
+    }
+
+    @Test
+    public void testGetIdTokenAsync() {
+
+        Principal principal = SimplePrincipal.create("user_domain", "user",
+                "auth_creds", PRINCIPAL_AUTHORITY);
+
+        ZTSRDLClientMock ztsClientMock = new ZTSRDLClientMock();
+        ZTSClient client = new ZTSClient("http://localhost:4080", principal);
+        client.setZTSRDLGeneratedClient(ztsClientMock);
+
+        OIDCResponse oidcResponse = client.getIDTokenAsync("id_token", "sys.auth.gcp",
+                "https://gcp.sys-auth.gcp.athenz.io", "openid async-sports:role.readers", null,
+                "EC", true, 3600).join();
+        assertNotNull(oidcResponse);
+
+        // the second request must be completed right away from our cache
+
+        CompletableFuture<OIDCResponse> future = client.getIDTokenAsync("id_token", "sys.auth.gcp",
+                "https://gcp.sys-auth.gcp.athenz.io", "openid async-sports:role.readers", null,
+                "EC", true, 3600);
+        assertTrue(future.isDone());
+        assertEquals(future.join(), oidcResponse);
+
+        ZTSClient.cancelPrefetch();
+        client.close();
+    }
+
+    @Test
+    public void testPostCertificateRequestsAsync() {
+
+        Principal principal = SimplePrincipal.create("user_domain", "user",
+                "auth_creds", PRINCIPAL_AUTHORITY);
+
+        ZTSRDLClientMock ztsClientMock = new ZTSRDLClientMock();
+        ZTSClient client = new ZTSClient("http://localhost:4080", principal);
+        client.setZTSRDLGeneratedClient(ztsClientMock);
+
+        // use the caller's thread to carry out the requests
+
+        client.setAsyncExecutor(Runnable::run);
+
+        RoleCertificateRequest req = new RoleCertificateRequest().setCsr("csr");
+        CompletableFuture<RoleCertificate> roleCertFuture = client.postRoleCertificateRequestAsync(req);
+        assertTrue(roleCertFuture.isDone());
+        assertNotNull(roleCertFuture.join());
+
+        InstanceRefreshInformation info = new InstanceRefreshInformation()
+                .setCsr("good-x509-csr").setToken(false);
+        InstanceIdentity identity = client.postInstanceRefreshInformationAsync("openstack.provider",
+                "athenz", "storage", "instance-id", info).join();
+        assertEquals(identity.getName(), "athenz.storage");
+
+        info.setCsr("bad-x509-csr");
+        try {
+            client.postInstanceRefreshInformationAsync("openstack.provider",
+                    "athenz", "storage", "instance-id", info).join();
+            fail();
+        } catch (CompletionException ex) {
+            assertEquals(((ZTSClientException) ex.getCause()).getCode(), 400);
+        }
+
+        client.close();
+    }
+
     @Test
     public void testGetIdToken() {
 
@@ -28,6 +28,7 @@ import com.yahoo.athenz.common.server.util.ConfigProperties;
 import com.yahoo.athenz.common.server.util.config.providers.ConfigProviderAwsParametersStore;
 import com.yahoo.athenz.common.server.util.config.providers.ConfigProviderFile;
 import com.yahoo.athenz.container.filter.HealthCheckFilter;
+import com.yahoo.athenz.container.filter.PrometheusMetricFilter;
 import jakarta.servlet.DispatcherType;
 import org.eclipse.jetty.deploy.DeploymentManager;
 import org.eclipse.jetty.deploy.PropertiesConfigurationManager;
@@ -260,6 +261,17 @@ public class AthenzJettyContainer {
                 servletCtxHandler.addFilter(filterHolder, checkUri.trim(), EnumSet.of(DispatcherType.REQUEST));
             }
         }
+
+        // if configured, serve the metrics collected by the prometheus
+        // metric implementation. the filter only returns the metrics
+        // for requests received on the status port if one is configured
+
+        final String metricPath = System.getProperty(AthenzConsts.ATHENZ_PROP_PROMETHEUS_METRIC_PATH);
+        if (!StringUtil.isEmpty(metricPath)) {
+            FilterHolder metricFilterHolder = new FilterHolder(PrometheusMetricFilter.class);
+            metricFilterHolder.setInitParameter(AthenzConsts.ATHENZ_PROP_PROMETHEUS_METRIC_PATH, metricPath);
+            servletCtxHandler.addFilter(metricFilterHolder, metricPath, EnumSet.of(DispatcherType.REQUEST));
+        }
         contexts.addHandler(servletCtxHandler);
 
         DeploymentManager deployer = new DeploymentManager();
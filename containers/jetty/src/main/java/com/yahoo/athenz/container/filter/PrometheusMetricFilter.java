@@ -0,0 +1,71 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.container.filter;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.yahoo.athenz.common.metrics.impl.inprocess.InProcessMetric;
+import com.yahoo.athenz.common.server.util.ConfigProperties;
+import com.yahoo.athenz.container.AthenzConsts;
+
+/**
+ * Serves the metrics collected by the InProcessMetric instances in the
+ * Prometheus text format. If the server is configured with a status port
+ * then the metrics are only returned for requests received on that port.
+ */
+public class PrometheusMetricFilter implements jakarta.servlet.Filter {
+
+    private static final String HTTP_GET = "GET";
+
+    private String metricPath = null;
+    private int statusPort = 0;
+
+    public void init(FilterConfig config) {
+        metricPath = config.getInitParameter(AthenzConsts.ATHENZ_PROP_PROMETHEUS_METRIC_PATH);
+        statusPort = ConfigProperties.getPortNumber(AthenzConsts.ATHENZ_PROP_STATUS_PORT, 0);
+    }
+
+    public void doFilter(ServletRequest servletRequest,
+            ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+
+        if (metricPath != null && HTTP_GET.equals(request.getMethod())
+                && metricPath.equals(request.getRequestURI())
+                && (statusPort <= 0 || statusPort == request.getLocalPort())) {
+
+            HttpServletResponse response = (HttpServletResponse) servletResponse;
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(InProcessMetric.CONTENT_TYPE);
+            InProcessMetric.exportAll(response.getWriter());
+            return;
+        }
+
+        chain.doFilter(servletRequest, servletResponse);
+    }
+
+    public void destroy() {
+    }
+}
@@ -20,6 +20,7 @@ import org.eclipse.jetty.rewrite.handler.Rule;
 import org.eclipse.jetty.server.*;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.ThreadPool;
@@ -30,6 +31,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import com.yahoo.athenz.common.server.log.jetty.AthenzRequestLog;
+import com.yahoo.athenz.container.filter.PrometheusMetricFilter;
 
 import static org.testng.Assert.*;
 
@@ -333,6 +335,35 @@ public class AthenzJettyContainerTest {
         assertNotNull(srvHandler);
         assertEquals(srvHandler.getContextPath(), "/");
     }
+
+    @Test
+    public void testServletContextHandlerPrometheusMetric() {
+
+        System.setProperty(AthenzConsts.ATHENZ_PROP_PROMETHEUS_METRIC_PATH, "/metrics");
+
+        AthenzJettyContainer container = new AthenzJettyContainer();
+        container.createServer(100);
+        container.addServletHandlers("localhost");
+
+        System.clearProperty(AthenzConsts.ATHENZ_PROP_PROMETHEUS_METRIC_PATH);
+
+        ServletContextHandler srvHandler = null;
+        for (Handler handler : container.getHandlers().getHandlers()) {
+            if (handler instanceof ContextHandlerCollection) {
+                for (Handler ctxHandler : ((ContextHandlerCollection) handler).getHandlers()) {
+                    if (ctxHandler instanceof ServletContextHandler) {
+                        srvHandler = (ServletContextHandler) ctxHandler;
+                        break;
+                    }
+                }
+            }
+        }
+        assertNotNull(srvHandler);
+        FilterHolder[] filters = srvHandler.getServletHandler().getFilters();
+        assertEquals(filters.length, 1);
+        assertEquals(filters[0].getClassName(), PrometheusMetricFilter.class.getName());
+        assertEquals(filters[0].getInitParameter(AthenzConsts.ATHENZ_PROP_PROMETHEUS_METRIC_PATH), "/metrics");
+    }
     
     @Test
     public void testCreateSSLContextObject() {
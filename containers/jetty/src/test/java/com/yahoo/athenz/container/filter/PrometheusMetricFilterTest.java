@@ -0,0 +1,124 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.container.filter;
+
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.testng.annotations.Test;
+
+import com.yahoo.athenz.common.metrics.impl.inprocess.InProcessMetric;
+import com.yahoo.athenz.container.AthenzConsts;
+
+public class PrometheusMetricFilterTest {
+
+    private HttpServletRequest createRequest(final String method, final String uri, int port) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getLocalPort()).thenReturn(port);
+        return request;
+    }
+
+    private PrometheusMetricFilter createFilter(final String path) {
+        FilterConfig filterConfig = mock(FilterConfig.class);
+        when(filterConfig.getInitParameter(AthenzConsts.ATHENZ_PROP_PROMETHEUS_METRIC_PATH)).thenReturn(path);
+        PrometheusMetricFilter filter = new PrometheusMetricFilter();
+        filter.init(filterConfig);
+        return filter;
+    }
+
+    @Test
+    public void testMetricRequest() throws Exception {
+
+        InProcessMetric metric = new InProcessMetric();
+        metric.increment("filter_test_request", "sports");
+
+        PrometheusMetricFilter filter = createFilter("/metrics");
+
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        StringWriter writer = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(writer));
+        FilterChain chain = mock(FilterChain.class);
+
+        HttpServletRequest request = createRequest("GET", "/metrics", 4443);
+        filter.doFilter(request, response, chain);
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        verify(response).setContentType(InProcessMetric.CONTENT_TYPE);
+        verify(chain, never()).doFilter(request, response);
+        assertTrue(writer.toString().contains("athenz_filter_test_request_total{request_domain_name=\"sports\"} 1\n"));
+
+        filter.destroy();
+        metric.quit();
+    }
+
+    @Test
+    public void testNonMetricRequest() throws Exception {
+
+        PrometheusMetricFilter filter = createFilter("/metrics");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+
+        HttpServletRequest request = createRequest("POST", "/metrics", 4443);
+        filter.doFilter(request, response, chain);
+        verify(chain, times(1)).doFilter(request, response);
+
+        request = createRequest("GET", "/status", 4443);
+        filter.doFilter(request, response, chain);
+        verify(chain, times(1)).doFilter(request, response);
+
+        verify(response, never()).getWriter();
+
+        // without a configured path all requests are passed through
+
+        filter = createFilter(null);
+        request = createRequest("GET", "/metrics", 4443);
+        filter.doFilter(request, response, chain);
+        verify(chain, times(1)).doFilter(request, response);
+    }
+
+    @Test
+    public void testStatusPort() throws Exception {
+
+        System.setProperty(AthenzConsts.ATHENZ_PROP_STATUS_PORT, "8443");
+        PrometheusMetricFilter filter = createFilter("/metrics");
+        System.clearProperty(AthenzConsts.ATHENZ_PROP_STATUS_PORT);
+
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        FilterChain chain = mock(FilterChain.class);
+
+        // requests on any other port are passed through
+
+        HttpServletRequest request = createRequest("GET", "/metrics", 4443);
+        filter.doFilter(request, response, chain);
+        verify(chain, times(1)).doFilter(request, response);
+
+        request = createRequest("GET", "/metrics", 8443);
+        filter.doFilter(request, response, chain);
+        verify(chain, never()).doFilter(request, response);
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+    }
+}
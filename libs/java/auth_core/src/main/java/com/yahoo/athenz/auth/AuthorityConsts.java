@@ -36,6 +36,8 @@ public final class AuthorityConsts {
     public static final String ZTS_CERT_PRINCIPAL_URI    = "athenz://principal/";
 
     public static final String AUTH_PROP_MILLIS_BETWEEN_ZTS_CALLS = "athenz.auth.millis_between_zts_calls";
+    public static final String AUTH_PROP_JWKS_REFRESH_INTERVAL = "athenz.auth.jwks_refresh_interval";
+    public static final String AUTH_PROP_JWKS_UNKNOWN_KEY_TIMEOUT = "athenz.auth.jwks_unknown_key_timeout";
 
     // prevent object creation
     private AuthorityConsts() {
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import com.yahoo.athenz.auth.util.Crypto;
 import com.yahoo.athenz.auth.util.CryptoException;
+import com.yahoo.athenz.auth.util.PublicKeyCache;
 
 public class PrincipalToken extends Token {
 
@@ -400,8 +401,16 @@ public class PrincipalToken extends Token {
         PublicKey pub;
         boolean verified = false; // fail safe
         try {
-            pub = Crypto.loadPublicKey(pubKey);
-            verified = Crypto.verify(unsignedAuthorizedServiceToken, pub, authorizedServiceSignature);
+            pub = PublicKeyCache.getPublicKey(pubKey);
+            verified = PublicKeyCache.isVerifiedSignature(unsignedAuthorizedServiceToken,
+                    authorizedServiceSignature, pub);
+            if (!verified) {
+                verified = Crypto.verify(unsignedAuthorizedServiceToken, pub, authorizedServiceSignature);
+                if (verified) {
+                    PublicKeyCache.addVerifiedSignature(unsignedAuthorizedServiceToken,
+                            authorizedServiceSignature, pub);
+                }
+            }
             if (!verified) {
                 errMsg.append("PrincipalToken:validateForAuthorizedService: token=").
                        append(unsignedToken).append(" : authentication failed: public key=").
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import com.yahoo.athenz.auth.util.Crypto;
 import com.yahoo.athenz.auth.util.CryptoException;
+import com.yahoo.athenz.auth.util.PublicKeyCache;
 
 public class Token {
     private static final Logger LOG = LoggerFactory.getLogger(Token.class);
@@ -88,7 +89,7 @@ public class Token {
 
         PublicKey publicKey;
         try {
-            publicKey = Crypto.loadPublicKey(pubKey);
+            publicKey = PublicKeyCache.getPublicKey(pubKey);
         } catch (Exception e) {
             errMsg.append("Token:validate: token=").append(unsignedToken).
                    append(" : unable to load public key due to Exception=").
@@ -156,6 +157,13 @@ public class Token {
             }
         }
         
+        // if we have already verified this token with the same key
+        // then there is no need to verify the signature again
+
+        if (PublicKeyCache.isVerifiedSignature(unsignedToken, signature, publicKey)) {
+            return true;
+        }
+
         boolean verified = false; // fail safe
         try {
             verified = Crypto.verify(unsignedToken, publicKey, signature, getDigestAlgorithm());
@@ -163,8 +171,11 @@ public class Token {
                 errMsg.append("Token:validate: token=").append(unsignedToken).
                        append(" : authentication failed");
                 LOG.error(errMsg.toString());
-            } else if (LOG.isDebugEnabled()) {
-                LOG.debug("validate: Token successfully authenticated");
+            } else {
+                PublicKeyCache.addVerifiedSignature(unsignedToken, signature, publicKey);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("validate: Token successfully authenticated");
+                }
             }
         } catch (Exception e) {
             errMsg.append("Token:validate: token=").append(unsignedToken).
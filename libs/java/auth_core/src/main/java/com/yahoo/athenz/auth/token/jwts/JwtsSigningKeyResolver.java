@@ -29,14 +29,29 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.lang.ref.WeakReference;
 import java.security.Key;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.yahoo.athenz.auth.AuthorityConsts.AUTH_PROP_JWKS_REFRESH_INTERVAL;
+import static com.yahoo.athenz.auth.AuthorityConsts.AUTH_PROP_JWKS_UNKNOWN_KEY_TIMEOUT;
 import static com.yahoo.athenz.auth.AuthorityConsts.AUTH_PROP_MILLIS_BETWEEN_ZTS_CALLS;
 
+/**
+ * Signing key resolver for tokens signed by keys published in a JWKS uri
+ * and/or the athenz configuration files. Public keys are refreshed from
+ * the JWKS uri in the background at the configured interval (with jitter)
+ * so key rotations are picked up before tokens signed with new keys arrive.
+ * If a token with an unknown key id is received, only a single fetch is
+ * executed for all concurrent requests and the key id is remembered for
+ * a short period of time so repeated requests with the same unknown key
+ * id do not wait for the server. Existing keys are always served while
+ * the refresh is in progress or if the refresh fails.
+ */
 public class JwtsSigningKeyResolver implements SigningKeyResolver {
 
     public static final String ZTS_PROP_ATHENZ_CONF           = "athenz.athenz_conf";
@@ -49,11 +64,20 @@ public class JwtsSigningKeyResolver implements SigningKeyResolver {
     private final String jwksUri;
     private static long lastZtsJwkFetchTime;
     private static long millisBetweenZtsCalls;
+    private static long refreshIntervalMillis;
+    private static long unknownKeyTimeoutMillis;
 
     ConcurrentHashMap<String, PublicKey> publicKeys;
+    final ConcurrentHashMap<String, Long> unknownKeyIds = new ConcurrentHashMap<>();
+    private final AtomicReference<CompletableFuture<Void>> pendingFetch = new AtomicReference<>();
+    private volatile long lastKeyFetchTime;
 
     static {
         setMillisBetweenZtsCalls(Long.parseLong(System.getProperty(AUTH_PROP_MILLIS_BETWEEN_ZTS_CALLS, "86400000")));
+        setRefreshInterval(TimeUnit.SECONDS.toMillis(Long.parseLong(
+                System.getProperty(AUTH_PROP_JWKS_REFRESH_INTERVAL, "3600"))));
+        setUnknownKeyTimeout(TimeUnit.SECONDS.toMillis(Long.parseLong(
+                System.getProperty(AUTH_PROP_JWKS_UNKNOWN_KEY_TIMEOUT, "60"))));
     }
 
     static ObjectMapper initJsonMapper() {
@@ -74,8 +98,15 @@ public class JwtsSigningKeyResolver implements SigningKeyResolver {
             loadPublicKeysFromConfig();
             loadJwksFromConfig();
         }
-        lastZtsJwkFetchTime = System.currentTimeMillis();
+        lastZtsJwkFetchTime = lastKeyFetchTime = System.currentTimeMillis();
         loadPublicKeysFromServer();
+
+        // if we have a jwks uri configured then we'll periodically
+        // refresh the keys in the background
+
+        if (jwksUri != null && !jwksUri.isEmpty() && refreshIntervalMillis > 0) {
+            RefreshTask.schedule(new RefreshTask(this));
+        }
     }
     
     @Override
@@ -96,24 +127,112 @@ public class JwtsSigningKeyResolver implements SigningKeyResolver {
         millisBetweenZtsCalls = millis;
     }
 
+    public static void setRefreshInterval(long millis) {
+        refreshIntervalMillis = millis;
+    }
+
+    public static void setUnknownKeyTimeout(long millis) {
+        unknownKeyTimeoutMillis = millis;
+    }
+
     public static boolean canFetchLatestJwksFromZts() {
         long now = System.currentTimeMillis();
         long millisDiff = now - lastZtsJwkFetchTime;
         return millisDiff > millisBetweenZtsCalls;
     }
 
+    /**
+     * Check if the resolver is allowed to fetch the keys from the
+     * server when it receives a request for an unknown key id.
+     * @return true if the last fetch was long enough ago
+     */
+    public boolean canFetchLatestJwks() {
+        return System.currentTimeMillis() - lastKeyFetchTime > millisBetweenZtsCalls;
+    }
+
     public PublicKey getPublicKey(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
         PublicKey key = publicKeys.get(keyId);
+        if (key != null) {
+            return key;
+        }
 
-        if (key == null && canFetchLatestJwksFromZts()) {
-            lastZtsJwkFetchTime = System.currentTimeMillis();
-            loadPublicKeysFromServer();
+        // if we have recently looked up this key id and the
+        // server did not return it, then there is no need to
+        // check again until the entry expires
+
+        final long now = System.currentTimeMillis();
+        Long unknownExpiry = unknownKeyIds.get(keyId);
+        if (unknownExpiry != null) {
+            if (unknownExpiry > now) {
+                return null;
+            }
+            unknownKeyIds.remove(keyId, unknownExpiry);
+        }
+
+        // if there is a fetch already in progress then we'll wait for it
+        // to complete since it might return our key. otherwise, we'll
+        // fetch the keys ourselves if we're allowed to do so
+
+        boolean keysFetched = false;
+        CompletableFuture<Void> currentFetch = pendingFetch.get();
+        if (currentFetch != null) {
+            currentFetch.join();
+            keysFetched = true;
+        } else if (canFetchLatestJwks()) {
+            fetchPublicKeys(true);
+            keysFetched = true;
+        }
+
+        if (keysFetched) {
             key = publicKeys.get(keyId);
         }
 
+        // we only remember the key id as unknown if the server did
+        // not return it in the fetch that completed after our request
+
+        if (key == null && keysFetched && unknownKeyTimeoutMillis > 0) {
+            unknownKeyIds.put(keyId, System.currentTimeMillis() + unknownKeyTimeoutMillis);
+        }
         return key;
     }
 
+    /**
+     * Fetch the public keys from the server. If there is already a fetch
+     * in progress, the caller waits for that request to complete instead
+     * of sending a new request to the server.
+     */
+    public void refreshPublicKeys() {
+        fetchPublicKeys(false);
+    }
+
+    void fetchPublicKeys(boolean updateFetchTime) {
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> currentFetch = pendingFetch.compareAndExchange(null, future);
+        if (currentFetch != null) {
+            currentFetch.join();
+            return;
+        }
+
+        try {
+            loadPublicKeysFromServer();
+        } finally {
+
+            // the fetch time is only updated once the request has completed
+            // so that other requests for unknown key ids during the fetch
+            // wait for the pending request instead of being rejected
+
+            if (updateFetchTime) {
+                lastZtsJwkFetchTime = lastKeyFetchTime = System.currentTimeMillis();
+            }
+            pendingFetch.set(null);
+            future.complete(null);
+        }
+    }
+
     public void addPublicKey(final String keyId, final PublicKey publicKey) {
         publicKeys.put(keyId, publicKey);
     }
@@ -212,6 +331,63 @@ public class JwtsSigningKeyResolver implements SigningKeyResolver {
         }
     }
 
+    /**
+     * Background task to refresh the public keys for a resolver. The task
+     * only keeps a weak reference to the resolver so it does not prevent
+     * the resolver from being garbage collected. Once the resolver is
+     * no longer referenced, the task is not rescheduled.
+     */
+    static class RefreshTask implements Runnable {
+
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private final WeakReference<JwtsSigningKeyResolver> resolverRef;
+
+        RefreshTask(JwtsSigningKeyResolver resolver) {
+            this.resolverRef = new WeakReference<>(resolver);
+        }
+
+        static long getRefreshDelay() {
+
+            // add +/- 10% jitter to the refresh interval so resolvers
+            // created at the same time do not hit the server together
+
+            final long jitter = refreshIntervalMillis / 10;
+            if (jitter <= 0) {
+                return refreshIntervalMillis;
+            }
+            return refreshIntervalMillis - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1);
+        }
+
+        static void schedule(RefreshTask task) {
+            if (refreshIntervalMillis > 0) {
+                EXECUTOR.schedule(task, getRefreshDelay(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void run() {
+
+            JwtsSigningKeyResolver resolver = resolverRef.get();
+            if (resolver == null) {
+                return;
+            }
+
+            try {
+                resolver.refreshPublicKeys();
+                resolver.unknownKeyIds.clear();
+            } catch (Exception ex) {
+                LOGGER.error("Unable to refresh json web keys from {}", resolver.jwksUri, ex);
+            }
+
+            schedule(this);
+        }
+    }
+
     static class ZTSPublicKey {
         private String id;
         private String key;
@@ -0,0 +1,189 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.auth.util;
+
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared cache of parsed public keys keyed by their PEM encoded value
+ * so token validation does not need to decode the same key on every
+ * request. Since the cache is keyed by the PEM value, a key that is
+ * rotated in the key store is automatically loaded again. The servers
+ * call invalidate() when a key is removed from their key store so the
+ * cache does not hold on to the parsed key.
+ *
+ * The cache also optionally keeps track of successfully verified token
+ * signatures for a short period of time so repeated presentations of
+ * the same token signed with the same key skip the signature check.
+ * That cache is disabled by default.
+ */
+public final class PublicKeyCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PublicKeyCache.class);
+
+    public static final String ATHENZ_PROP_PUBLIC_KEY_CACHE_MAX_SIZE = "athenz.auth.public_key_cache.max_size";
+    public static final String ATHENZ_PROP_VERIFIED_SIGNATURE_CACHE_TIMEOUT = "athenz.auth.verified_signature_cache.timeout";
+    public static final String ATHENZ_PROP_VERIFIED_SIGNATURE_CACHE_MAX_SIZE = "athenz.auth.verified_signature_cache.max_size";
+
+    static int publicKeyCacheMaxSize = Integer.parseInt(
+            System.getProperty(ATHENZ_PROP_PUBLIC_KEY_CACHE_MAX_SIZE, "1024"));
+    static long verifiedSignatureCacheTimeout = TimeUnit.MILLISECONDS.convert(Long.parseLong(
+            System.getProperty(ATHENZ_PROP_VERIFIED_SIGNATURE_CACHE_TIMEOUT, "0")), TimeUnit.SECONDS);
+    static int verifiedSignatureCacheMaxSize = Integer.parseInt(
+            System.getProperty(ATHENZ_PROP_VERIFIED_SIGNATURE_CACHE_MAX_SIZE, "10000"));
+
+    private static final Map<String, PublicKey> PUBLIC_KEYS = new ConcurrentHashMap<>();
+    private static final Map<String, VerifiedSignature> VERIFIED_SIGNATURES = new ConcurrentHashMap<>();
+
+    private PublicKeyCache() {
+    }
+
+    /**
+     * Return the public key object for the given PEM encoded key. If the
+     * key is not already in the cache, it's loaded and added to the cache.
+     * @param pemKey PEM encoded public key
+     * @return public key object
+     * @throws CryptoException if the key cannot be loaded
+     */
+    public static PublicKey getPublicKey(final String pemKey) throws CryptoException {
+
+        PublicKey publicKey = PUBLIC_KEYS.get(pemKey);
+        if (publicKey != null) {
+            return publicKey;
+        }
+
+        publicKey = Crypto.loadPublicKey(pemKey);
+
+        // the number of public keys is small compared to the limit
+        // so if we ever reach it we'll just start with an empty cache
+
+        if (PUBLIC_KEYS.size() >= publicKeyCacheMaxSize) {
+            LOG.info("public key cache reached its max size {}, clearing cache", publicKeyCacheMaxSize);
+            PUBLIC_KEYS.clear();
+        }
+        if (publicKeyCacheMaxSize > 0) {
+            PUBLIC_KEYS.put(pemKey, publicKey);
+        }
+        return publicKey;
+    }
+
+    /**
+     * Remove the given PEM encoded key from the cache along with any
+     * verified signatures that were validated with that key.
+     * @param pemKey PEM encoded public key
+     */
+    public static void invalidate(final String pemKey) {
+
+        if (pemKey == null) {
+            return;
+        }
+
+        PublicKey publicKey = PUBLIC_KEYS.remove(pemKey);
+        if (publicKey != null && !VERIFIED_SIGNATURES.isEmpty()) {
+            VERIFIED_SIGNATURES.values().removeIf(entry -> entry.publicKey.equals(publicKey));
+        }
+    }
+
+    /**
+     * Remove all public keys and verified signatures from the cache
+     */
+    public static void clear() {
+        PUBLIC_KEYS.clear();
+        VERIFIED_SIGNATURES.clear();
+    }
+
+    static int getPublicKeyCount() {
+        return PUBLIC_KEYS.size();
+    }
+
+    static int getVerifiedSignatureCount() {
+        return VERIFIED_SIGNATURES.size();
+    }
+
+    /**
+     * Check if the given token data and signature has already been
+     * verified with the given public key within the configured timeout.
+     * @param unsignedToken token data that was signed
+     * @param signature signature of the token data
+     * @param publicKey public key used to verify the signature
+     * @return true if the signature has been verified already
+     */
+    public static boolean isVerifiedSignature(final String unsignedToken, final String signature,
+            PublicKey publicKey) {
+
+        if (verifiedSignatureCacheTimeout <= 0 || signature == null) {
+            return false;
+        }
+
+        VerifiedSignature entry = VERIFIED_SIGNATURES.get(signature);
+        if (entry == null) {
+            return false;
+        }
+
+        if (entry.expiryTime < System.currentTimeMillis()) {
+            VERIFIED_SIGNATURES.remove(signature, entry);
+            return false;
+        }
+
+        return entry.unsignedToken.equals(unsignedToken) && entry.publicKey.equals(publicKey);
+    }
+
+    /**
+     * Record that the given token data and signature has been successfully
+     * verified with the given public key. The request is ignored if
+     * the verified signature cache is not enabled.
+     * @param unsignedToken token data that was signed
+     * @param signature signature of the token data
+     * @param publicKey public key used to verify the signature
+     */
+    public static void addVerifiedSignature(final String unsignedToken, final String signature,
+            PublicKey publicKey) {
+
+        if (verifiedSignatureCacheTimeout <= 0 || signature == null) {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        if (VERIFIED_SIGNATURES.size() >= verifiedSignatureCacheMaxSize) {
+            VERIFIED_SIGNATURES.values().removeIf(entry -> entry.expiryTime < now);
+            if (VERIFIED_SIGNATURES.size() >= verifiedSignatureCacheMaxSize) {
+                VERIFIED_SIGNATURES.clear();
+            }
+        }
+
+        VERIFIED_SIGNATURES.put(signature, new VerifiedSignature(unsignedToken, publicKey,
+                now + verifiedSignatureCacheTimeout));
+    }
+
+    static class VerifiedSignature {
+
+        final String unsignedToken;
+        final PublicKey publicKey;
+        final long expiryTime;
+
+        VerifiedSignature(final String unsignedToken, PublicKey publicKey, long expiryTime) {
+            this.unsignedToken = unsignedToken;
+            this.publicKey = publicKey;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
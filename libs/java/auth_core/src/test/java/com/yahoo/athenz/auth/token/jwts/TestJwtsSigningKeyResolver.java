@@ -19,6 +19,12 @@ import io.jsonwebtoken.JwsHeader;
 import org.testng.annotations.Test;
 
 import javax.net.ssl.SSLContext;
+import java.security.PublicKey;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.yahoo.athenz.auth.token.jwts.JwtsSigningKeyResolver.ZTS_PROP_JWK_ATHENZ_CONF;
 import static org.mockito.ArgumentMatchers.any;
@@ -108,4 +114,204 @@ public class TestJwtsSigningKeyResolver {
         assertNotNull(resolver.getPublicKey("c6e34b18-fb1c-43bb-9de7-7edc8981b14d"));
         System.clearProperty(ZTS_PROP_JWK_ATHENZ_CONF);
     }
+
+    @Test
+    public void testGetPublicKeyUnknownKeyCache() {
+
+        JwtsSigningKeyResolver.setMillisBetweenZtsCalls(-1);
+        JwtsSigningKeyResolver resolver = spy(new JwtsSigningKeyResolver("https://localhost:10099", null, true));
+        doReturn(null).when(resolver).getHttpData(any(), any());
+
+        // the second lookup for the same unknown key must not
+        // trigger another fetch from the server
+
+        assertNull(resolver.getPublicKey("unknown"));
+        assertNull(resolver.getPublicKey("unknown"));
+        verify(resolver, times(1)).getHttpData(any(), any());
+        assertTrue(resolver.unknownKeyIds.containsKey("unknown"));
+
+        // a different key id triggers a new fetch
+
+        assertNull(resolver.getPublicKey("unknown2"));
+        verify(resolver, times(2)).getHttpData(any(), any());
+
+        // once the entry expires we'll fetch again
+
+        resolver.unknownKeyIds.put("unknown", System.currentTimeMillis() - 1000);
+        assertNull(resolver.getPublicKey("unknown"));
+        verify(resolver, times(3)).getHttpData(any(), any());
+
+        // with the unknown key timeout disabled every lookup fetches
+
+        JwtsSigningKeyResolver.setUnknownKeyTimeout(0);
+        resolver.unknownKeyIds.clear();
+        assertNull(resolver.getPublicKey("unknown"));
+        assertNull(resolver.getPublicKey("unknown"));
+        verify(resolver, times(5)).getHttpData(any(), any());
+        assertTrue(resolver.unknownKeyIds.isEmpty());
+
+        assertNull(resolver.getPublicKey(null));
+        verify(resolver, times(5)).getHttpData(any(), any());
+
+        JwtsSigningKeyResolver.setUnknownKeyTimeout(60000);
+        JwtsSigningKeyResolver.setMillisBetweenZtsCalls(86400000);
+    }
+
+    @Test
+    public void testGetPublicKeyFetchNotAllowed() {
+
+        JwtsSigningKeyResolver.setMillisBetweenZtsCalls(86400000);
+        JwtsSigningKeyResolver resolver = spy(new JwtsSigningKeyResolver("https://localhost:10099", null, true));
+        assertFalse(resolver.canFetchLatestJwks());
+
+        assertNull(resolver.getPublicKey("unknown"));
+        verify(resolver, times(0)).getHttpData(any(), any());
+        assertTrue(resolver.unknownKeyIds.isEmpty());
+    }
+
+    @Test
+    public void testGetPublicKeyPendingFetch() throws InterruptedException {
+
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        final CountDownLatch fetchRelease = new CountDownLatch(1);
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final AtomicBoolean blockFetch = new AtomicBoolean(false);
+
+        JwtsSigningKeyResolver resolver = new JwtsSigningKeyResolver(null, null, true) {
+            @Override
+            String getHttpData(String jwksUri, SSLContext sslContext) {
+                if (!blockFetch.get()) {
+                    return null;
+                }
+                fetchCount.incrementAndGet();
+                fetchStarted.countDown();
+                try {
+                    fetchRelease.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                return "{\"keys\":[{\"kid\":\"eckey1\",\"kty\":\"EC\",\"crv\":\"prime256v1\","
+                        + "\"x\":\"SVqB4JcUD6lsfvqMr-OKUNUphdNn64Eay60978ZlL74\","
+                        + "\"y\":\"lf0u0pMj4lGAzZix5u4Cm5CMQIgMNpkwy163wtKYVKI\"}]}";
+            }
+        };
+
+        // the first request for the new key starts the fetch
+
+        blockFetch.set(true);
+        JwtsSigningKeyResolver.setMillisBetweenZtsCalls(-1);
+        final AtomicReference<PublicKey> key1 = new AtomicReference<>();
+        Thread thread1 = new Thread(() -> key1.set(resolver.getPublicKey("eckey1")));
+        thread1.start();
+        assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+
+        // while the fetch is in progress, we're no longer allowed to fetch
+        // the keys so the other requests must wait for the pending fetch
+
+        JwtsSigningKeyResolver.setMillisBetweenZtsCalls(86400000);
+        final AtomicReference<PublicKey> key2 = new AtomicReference<>();
+        final AtomicReference<PublicKey> key3 = new AtomicReference<>();
+        Thread thread2 = new Thread(() -> key2.set(resolver.getPublicKey("eckey1")));
+        Thread thread3 = new Thread(() -> key3.set(resolver.getPublicKey("unknown")));
+        thread2.start();
+        thread3.start();
+        waitForThreadState(thread2, Thread.State.WAITING);
+        waitForThreadState(thread3, Thread.State.WAITING);
+
+        fetchRelease.countDown();
+        thread1.join(5000);
+        thread2.join(5000);
+        thread3.join(5000);
+
+        assertEquals(fetchCount.get(), 1);
+        assertNotNull(key1.get());
+        assertNotNull(key2.get());
+        assertNull(key3.get());
+
+        // only the key that was not returned by the fetch is remembered
+
+        assertFalse(resolver.unknownKeyIds.containsKey("eckey1"));
+        assertTrue(resolver.unknownKeyIds.containsKey("unknown"));
+
+        // with no fetch in progress and the fetch time updated, we're not
+        // going to fetch again or remember the key id as unknown
+
+        assertFalse(resolver.canFetchLatestJwks());
+        assertNull(resolver.getPublicKey("unknown2"));
+        assertEquals(fetchCount.get(), 1);
+        assertFalse(resolver.unknownKeyIds.containsKey("unknown2"));
+    }
+
+    private void waitForThreadState(Thread thread, Thread.State state) {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != state && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(thread.getState(), state);
+    }
+
+    @Test
+    public void testRefreshTask() {
+
+        JwtsSigningKeyResolver resolver = spy(new JwtsSigningKeyResolver(null, null, true));
+        doReturn("{\"keys\":[{\"kid\":\"eckey1\",\"kty\":\"EC\",\"crv\":\"prime256v1\","
+                + "\"x\":\"SVqB4JcUD6lsfvqMr-OKUNUphdNn64Eay60978ZlL74\","
+                + "\"y\":\"lf0u0pMj4lGAzZix5u4Cm5CMQIgMNpkwy163wtKYVKI\"}]}")
+                .when(resolver).getHttpData(any(), any());
+        resolver.unknownKeyIds.put("eckey1", System.currentTimeMillis() + 60000);
+
+        JwtsSigningKeyResolver.setRefreshInterval(0);
+        JwtsSigningKeyResolver.RefreshTask task = new JwtsSigningKeyResolver.RefreshTask(resolver);
+        task.run();
+
+        assertNotNull(resolver.getPublicKey("eckey1"));
+        assertTrue(resolver.unknownKeyIds.isEmpty());
+
+        // failures are caught and logged
+
+        doThrow(new IllegalStateException("failure")).when(resolver).getHttpData(any(), any());
+        task.run();
+        assertNotNull(resolver.getPublicKey("eckey1"));
+
+        // a task without a resolver does nothing
+
+        new JwtsSigningKeyResolver.RefreshTask(null).run();
+        JwtsSigningKeyResolver.setRefreshInterval(3600000);
+    }
+
+    @Test
+    public void testRefreshDelay() {
+
+        JwtsSigningKeyResolver.setRefreshInterval(1000);
+        for (int i = 0; i < 100; i++) {
+            long delay = JwtsSigningKeyResolver.RefreshTask.getRefreshDelay();
+            assertTrue(delay >= 900 && delay <= 1100);
+        }
+
+        JwtsSigningKeyResolver.setRefreshInterval(5);
+        assertEquals(JwtsSigningKeyResolver.RefreshTask.getRefreshDelay(), 5);
+        JwtsSigningKeyResolver.setRefreshInterval(3600000);
+    }
+
+    @Test
+    public void testBackgroundRefresh() throws InterruptedException {
+
+        JwtsSigningKeyResolver.setRefreshInterval(100);
+        final AtomicInteger fetchCount = new AtomicInteger();
+        JwtsSigningKeyResolver resolver = new JwtsSigningKeyResolver("https://localhost:10099", null, true) {
+            @Override
+            String getHttpData(String jwksUri, SSLContext sslContext) {
+                fetchCount.incrementAndGet();
+                return null;
+            }
+        };
+        JwtsSigningKeyResolver.setRefreshInterval(3600000);
+
+        // the initial fetch from the constructor and at least one refresh
+
+        for (int i = 0; i < 50 && fetchCount.get() < 2; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(fetchCount.get() >= 2);
+        assertEquals(resolver.publicKeyCount(), 0);
+    }
 }
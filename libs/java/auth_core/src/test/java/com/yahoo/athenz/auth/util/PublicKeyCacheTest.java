@@ -0,0 +1,219 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.auth.util;
+
+import static org.testng.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.PublicKey;
+import java.util.Collections;
+
+import com.yahoo.athenz.auth.token.PrincipalToken;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class PublicKeyCacheTest {
+
+    private String rsaPublicKey;
+    private String ecPublicKey;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        rsaPublicKey = new String(Files.readAllBytes(Paths.get("./src/test/resources/rsa_public.key")));
+        ecPublicKey = new String(Files.readAllBytes(Paths.get("./src/test/resources/ec_public.key")));
+        PublicKeyCache.clear();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        PublicKeyCache.verifiedSignatureCacheTimeout = 0;
+        PublicKeyCache.verifiedSignatureCacheMaxSize = 10000;
+        PublicKeyCache.publicKeyCacheMaxSize = 1024;
+        PublicKeyCache.clear();
+    }
+
+    @Test
+    public void testGetPublicKey() {
+
+        PublicKey rsaKey = PublicKeyCache.getPublicKey(rsaPublicKey);
+        assertNotNull(rsaKey);
+        assertSame(PublicKeyCache.getPublicKey(rsaPublicKey), rsaKey);
+        assertEquals(rsaKey, Crypto.loadPublicKey(rsaPublicKey));
+
+        PublicKey ecKey = PublicKeyCache.getPublicKey(ecPublicKey);
+        assertNotNull(ecKey);
+        assertNotEquals(ecKey, rsaKey);
+        assertEquals(PublicKeyCache.getPublicKeyCount(), 2);
+    }
+
+    @Test
+    public void testGetPublicKeyInvalid() {
+        try {
+            PublicKeyCache.getPublicKey("invalid-key");
+            fail();
+        } catch (CryptoException ignored) {
+        }
+        assertEquals(PublicKeyCache.getPublicKeyCount(), 0);
+    }
+
+    @Test
+    public void testGetPublicKeyMaxSize() {
+
+        PublicKeyCache.publicKeyCacheMaxSize = 1;
+
+        PublicKeyCache.getPublicKey(rsaPublicKey);
+        assertEquals(PublicKeyCache.getPublicKeyCount(), 1);
+
+        // adding a second key clears the cache
+
+        PublicKeyCache.getPublicKey(ecPublicKey);
+        assertEquals(PublicKeyCache.getPublicKeyCount(), 1);
+
+        // with max size of 0 nothing is cached
+
+        PublicKeyCache.publicKeyCacheMaxSize = 0;
+        PublicKeyCache.clear();
+        assertNotNull(PublicKeyCache.getPublicKey(rsaPublicKey));
+        assertEquals(PublicKeyCache.getPublicKeyCount(), 0);
+    }
+
+    @Test
+    public void testInvalidate() {
+
+        PublicKeyCache.verifiedSignatureCacheTimeout = 60000;
+
+        PublicKey rsaKey = PublicKeyCache.getPublicKey(rsaPublicKey);
+        PublicKey ecKey = PublicKeyCache.getPublicKey(ecPublicKey);
+        PublicKeyCache.addVerifiedSignature("data1", "sig1", rsaKey);
+        PublicKeyCache.addVerifiedSignature("data2", "sig2", ecKey);
+
+        PublicKeyCache.invalidate(null);
+        PublicKeyCache.invalidate("unknown-key");
+        assertEquals(PublicKeyCache.getPublicKeyCount(), 2);
+
+        PublicKeyCache.invalidate(rsaPublicKey);
+        assertEquals(PublicKeyCache.getPublicKeyCount(), 1);
+        assertFalse(PublicKeyCache.isVerifiedSignature("data1", "sig1", rsaKey));
+        assertTrue(PublicKeyCache.isVerifiedSignature("data2", "sig2", ecKey));
+
+        // a new key object is loaded after invalidation
+
+        assertNotSame(PublicKeyCache.getPublicKey(rsaPublicKey), rsaKey);
+    }
+
+    @Test
+    public void testVerifiedSignatureDisabled() {
+
+        PublicKey rsaKey = PublicKeyCache.getPublicKey(rsaPublicKey);
+        PublicKeyCache.addVerifiedSignature("data1", "sig1", rsaKey);
+        assertEquals(PublicKeyCache.getVerifiedSignatureCount(), 0);
+        assertFalse(PublicKeyCache.isVerifiedSignature("data1", "sig1", rsaKey));
+    }
+
+    @Test
+    public void testVerifiedSignature() {
+
+        PublicKeyCache.verifiedSignatureCacheTimeout = 60000;
+
+        PublicKey rsaKey = PublicKeyCache.getPublicKey(rsaPublicKey);
+        PublicKey ecKey = PublicKeyCache.getPublicKey(ecPublicKey);
+
+        PublicKeyCache.addVerifiedSignature("data1", "sig1", rsaKey);
+        PublicKeyCache.addVerifiedSignature("data1", null, rsaKey);
+        assertEquals(PublicKeyCache.getVerifiedSignatureCount(), 1);
+
+        assertTrue(PublicKeyCache.isVerifiedSignature("data1", "sig1", rsaKey));
+        assertFalse(PublicKeyCache.isVerifiedSignature("data1", null, rsaKey));
+        assertFalse(PublicKeyCache.isVerifiedSignature("data2", "sig1", rsaKey));
+        assertFalse(PublicKeyCache.isVerifiedSignature("data1", "sig2", rsaKey));
+        assertFalse(PublicKeyCache.isVerifiedSignature("data1", "sig1", ecKey));
+    }
+
+    @Test
+    public void testVerifiedSignatureExpired() {
+
+        PublicKeyCache.verifiedSignatureCacheTimeout = 1;
+        PublicKey rsaKey = PublicKeyCache.getPublicKey(rsaPublicKey);
+
+        PublicKeyCache.addVerifiedSignature("data1", "sig1", rsaKey);
+        assertEquals(PublicKeyCache.getVerifiedSignatureCount(), 1);
+
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException ignored) {
+        }
+
+        assertFalse(PublicKeyCache.isVerifiedSignature("data1", "sig1", rsaKey));
+        assertEquals(PublicKeyCache.getVerifiedSignatureCount(), 0);
+    }
+
+    @Test
+    public void testVerifiedSignatureMaxSize() {
+
+        PublicKeyCache.verifiedSignatureCacheTimeout = 60000;
+        PublicKeyCache.verifiedSignatureCacheMaxSize = 2;
+
+        PublicKey rsaKey = PublicKeyCache.getPublicKey(rsaPublicKey);
+        PublicKeyCache.addVerifiedSignature("data1", "sig1", rsaKey);
+        PublicKeyCache.addVerifiedSignature("data2", "sig2", rsaKey);
+        assertEquals(PublicKeyCache.getVerifiedSignatureCount(), 2);
+
+        // none of the entries are expired so the cache is cleared
+
+        PublicKeyCache.addVerifiedSignature("data3", "sig3", rsaKey);
+        assertEquals(PublicKeyCache.getVerifiedSignatureCount(), 1);
+        assertTrue(PublicKeyCache.isVerifiedSignature("data3", "sig3", rsaKey));
+        assertFalse(PublicKeyCache.isVerifiedSignature("data1", "sig1", rsaKey));
+    }
+
+    @Test
+    public void testTokenValidateVerifiedSignature() throws IOException {
+
+        PublicKeyCache.verifiedSignatureCacheTimeout = 60000;
+
+        final String publicKeyK0 = new String(Files.readAllBytes(Paths.get("./src/test/resources/fantasy_public_k0.key")));
+        final String privateKeyK0 = new String(Files.readAllBytes(Paths.get("./src/test/resources/unit_test_fantasy_private_k0.key")));
+        final String publicKeyK1 = new String(Files.readAllBytes(Paths.get("./src/test/resources/fantasy_public_k1.key")));
+        final String privateKeyK1 = new String(Files.readAllBytes(Paths.get("./src/test/resources/unit_test_fantasy_private_k1.key")));
+
+        PrincipalToken tokenToSign = new PrincipalToken.Builder("U1", "user", "john")
+                .salt("salt").expirationWindow(3600).keyId("0")
+                .authorizedServices(Collections.singletonList("coretech.storage")).build();
+        tokenToSign.sign(privateKeyK0);
+        tokenToSign.signForAuthorizedService("coretech.storage", "1", privateKeyK1);
+
+        PrincipalToken token = new PrincipalToken(tokenToSign.getSignedToken());
+        assertTrue(token.validate(publicKeyK0, 300, false));
+        assertTrue(token.validateForAuthorizedService(publicKeyK1, null));
+        assertEquals(PublicKeyCache.getVerifiedSignatureCount(), 2);
+        assertEquals(PublicKeyCache.getPublicKeyCount(), 2);
+
+        // validating the same tokens again uses the verified signatures
+
+        token = new PrincipalToken(tokenToSign.getSignedToken());
+        assertTrue(token.validate(publicKeyK0, 300, false));
+        assertTrue(token.validateForAuthorizedService(publicKeyK1, null));
+
+        // the verified signatures are not used with a different key
+
+        assertFalse(token.validate(publicKeyK1, 300, false));
+        assertFalse(token.validateForAuthorizedService(publicKeyK0, null));
+    }
+}
@@ -32,6 +32,7 @@ public final class ServerCommonConsts {
 
     // For ZMSFileChangeLogStore
     public static final String ZTS_PROP_ZMS_URL_OVERRIDE    = "athenz.zts.zms_url";
+    public static final String ZTS_PROP_ZMS_DOMAIN_FETCH_THREADS = "athenz.zts.zms_domain_fetch_threads";
     public static final String ATHENZ_SYS_DOMAIN            = "sys.auth";
     public static final String ZTS_SERVICE                  = "zts";
     public static final String ZMS_SERVICE                  = "zms";
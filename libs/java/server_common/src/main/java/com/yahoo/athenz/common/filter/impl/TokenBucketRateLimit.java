@@ -0,0 +1,214 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.filter.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.yahoo.athenz.auth.util.Crypto;
+import com.yahoo.athenz.common.filter.RateLimit;
+import com.yahoo.athenz.common.server.util.config.dynamic.DynamicConfigCsv;
+import com.yahoo.athenz.common.server.util.config.dynamic.DynamicConfigDouble;
+import com.yahoo.athenz.common.server.util.config.dynamic.DynamicConfigInteger;
+import com.yahoo.athenz.common.server.util.config.dynamic.DynamicConfigString;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.yahoo.athenz.common.server.rest.Http.JAVAX_CERT_ATTR;
+import static com.yahoo.athenz.common.server.util.config.ConfigManagerSingleton.CONFIG_MANAGER;
+
+/**
+ * Rate limit implementation that keeps a token bucket for each key -
+ * principal domain, principal or client ip extracted from the request or
+ * the api being called. The rate and burst size are dynamic configs so
+ * they can be updated without restarting the server. The number of
+ * tracked keys is bounded and idle buckets are evicted since a bucket
+ * that has not been accessed for the idle timeout would be full anyway.
+ * Rejected requests are returned with 429 and the Retry-After header.
+ */
+public class TokenBucketRateLimit implements RateLimit {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenBucketRateLimit.class);
+
+    public static final String PROP_KEY_TYPE       = "athenz.ratelimit.token_bucket.key_type";
+    public static final String PROP_RATE           = "athenz.ratelimit.token_bucket.rate";
+    public static final String PROP_BURST          = "athenz.ratelimit.token_bucket.burst";
+    public static final String PROP_EXEMPT_URIS    = "athenz.ratelimit.token_bucket.exempt_uri_list";
+    public static final String PROP_MAX_KEYS       = "athenz.ratelimit.token_bucket.max_keys";
+    public static final String PROP_IDLE_TIMEOUT   = "athenz.ratelimit.token_bucket.idle_timeout";
+
+    public static final String KEY_TYPE_PRINCIPAL_DOMAIN = "principal_domain";
+    public static final String KEY_TYPE_PRINCIPAL        = "principal";
+    public static final String KEY_TYPE_CLIENT_IP        = "client_ip";
+    public static final String KEY_TYPE_API              = "api";
+
+    static final int SC_TOO_MANY_REQUESTS = 429;
+    static final String HEADER_RETRY_AFTER = "Retry-After";
+
+    DynamicConfigString keyType;
+    DynamicConfigDouble rate;
+    DynamicConfigInteger burst;
+    DynamicConfigCsv exemptUris;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public TokenBucketRateLimit() {
+
+        keyType = new DynamicConfigString(CONFIG_MANAGER, PROP_KEY_TYPE, KEY_TYPE_PRINCIPAL_DOMAIN);
+        rate = new DynamicConfigDouble(CONFIG_MANAGER, PROP_RATE, 0.0);
+        burst = new DynamicConfigInteger(CONFIG_MANAGER, PROP_BURST, 100, 1, Integer.MAX_VALUE);
+        exemptUris = new DynamicConfigCsv(CONFIG_MANAGER, PROP_EXEMPT_URIS, null);
+
+        final long maxKeys = Long.parseLong(System.getProperty(PROP_MAX_KEYS, "100000"));
+        final long idleTimeout = Long.parseLong(System.getProperty(PROP_IDLE_TIMEOUT, "600"));
+        buckets = CacheBuilder.newBuilder()
+                .concurrencyLevel(25)
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public boolean filter(ServletRequest servletRequest, ServletResponse servletResponse) {
+
+        // if the rate is not configured then the rate limit is disabled
+
+        final double requestRate = rate.get();
+        if (requestRate <= 0) {
+            return false;
+        }
+
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        if (exemptUris.hasItem(request.getRequestURI())) {
+            return false;
+        }
+
+        final String key = getRequestKey(request);
+        if (key == null) {
+            return false;
+        }
+
+        final long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestRate));
+        TokenBucket bucket = buckets.asMap().computeIfAbsent(key, k -> new TokenBucket());
+        final long waitTime = bucket.acquire(System.nanoTime(), interval, interval * burst.get());
+        if (waitTime == 0) {
+            return false;
+        }
+
+        LOG.debug("rate limit exceeded for key: {}", key);
+
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        response.setHeader(HEADER_RETRY_AFTER, Long.toString(Math.max(1,
+                (waitTime + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        response.setStatus(SC_TOO_MANY_REQUESTS);
+        response.setContentLength(0);
+        return true;
+    }
+
+    String getRequestKey(HttpServletRequest request) {
+
+        final String type = keyType.get();
+        if (KEY_TYPE_API.equals(type)) {
+            return request.getMethod() + " " + getApiPath(request.getRequestURI());
+        }
+
+        // the rate limit filter is processed before the request is
+        // authenticated, so the principal is extracted from the client
+        // certificate validated by jetty. for requests without certs
+        // we'll fall back to the client ip address
+
+        if (KEY_TYPE_PRINCIPAL_DOMAIN.equals(type) || KEY_TYPE_PRINCIPAL.equals(type)) {
+            final String principal = getCertPrincipal(request);
+            if (principal != null) {
+                if (KEY_TYPE_PRINCIPAL.equals(type)) {
+                    return principal;
+                }
+                int idx = principal.lastIndexOf('.');
+                return idx == -1 ? principal : principal.substring(0, idx);
+            }
+        }
+
+        final String clientIp = request.getRemoteAddr();
+        return clientIp == null ? null : "ip:" + clientIp;
+    }
+
+    String getCertPrincipal(HttpServletRequest request) {
+        X509Certificate[] certs = (X509Certificate[]) request.getAttribute(JAVAX_CERT_ATTR);
+        if (certs == null || certs.length == 0 || certs[0] == null) {
+            return null;
+        }
+        return Crypto.extractX509CertCommonName(certs[0]);
+    }
+
+    static String getApiPath(final String uri) {
+
+        // we're going to use the first three components of the
+        // uri path (e.g. /zts/v1/instance) to identify the api
+
+        if (uri == null) {
+            return "/";
+        }
+        int idx = 0;
+        for (int i = 0; i < 3 && idx != -1; i++) {
+            idx = uri.indexOf('/', idx + 1);
+        }
+        return idx == -1 ? uri : uri.substring(0, idx);
+    }
+
+    long getTrackedKeyCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Token bucket implemented with a single atomic value - the time when
+     * the bucket would be full again. Each request moves that time forward
+     * by the emission interval and is rejected if it would be more than the
+     * burst size worth of intervals ahead of the current time.
+     */
+    static final class TokenBucket {
+
+        private final AtomicLong fullTime = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * Try to acquire a token from the bucket
+         * @param now current time in nanos
+         * @param interval emission interval in nanos
+         * @param capacity burst size in nanos (burst * interval)
+         * @return 0 if the token was acquired, otherwise the time in nanos
+         *      until a token becomes available
+         */
+        long acquire(long now, long interval, long capacity) {
+            while (true) {
+                final long current = fullTime.get();
+                final long next = (current == Long.MIN_VALUE || current - now < 0) ? now + interval : current + interval;
+                final long waitTime = next - now - capacity;
+                if (waitTime > 0) {
+                    return waitTime;
+                }
+                if (fullTime.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *
+ *  Copyright The Athenz Authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.yahoo.athenz.common.messaging.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yahoo.athenz.common.messaging.ChangePublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process change publisher that delivers the messages to all
+ * LocalChangeSubscriber objects registered for the same topic.
+ */
+public class LocalChangePublisher<T> implements ChangePublisher<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalChangePublisher.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String topicName;
+
+    public LocalChangePublisher(final String topicName) {
+        this.topicName = topicName;
+    }
+
+    @Override
+    public void publish(T message) {
+        try {
+            LocalChangeSubscriber.deliver(topicName, OBJECT_MAPPER.writeValueAsBytes(message));
+        } catch (JsonProcessingException ex) {
+            LOG.error("unable to publish message to topic {}: {}", topicName, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ *  Copyright The Athenz Authors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.yahoo.athenz.common.messaging.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * In-process change subscriber that receives the messages published by
+ * LocalChangePublisher objects in the same jvm for the same topic. Each
+ * subscriber gets its own copy of every message. The messages are passed
+ * as serialized json, same as with a real messaging system, so the
+ * subscriber can be used to test the message processing end to end
+ * without running a broker.
+ */
+public class LocalChangeSubscriber<T> implements ChangeSubscriber<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalChangeSubscriber.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    static final Map<String, List<LocalChangeSubscriber<?>>> TOPIC_SUBSCRIBERS = new ConcurrentHashMap<>();
+
+    private final String topicName;
+    private final BlockingQueue<byte[]> messages = new LinkedBlockingQueue<>();
+    private Consumer<T> processor;
+    private Class<T> valueType;
+    private volatile boolean closed = false;
+
+    public LocalChangeSubscriber(final String topicName) {
+        this.topicName = topicName;
+        TOPIC_SUBSCRIBERS.computeIfAbsent(topicName, k -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    static void deliver(final String topicName, byte[] message) {
+        List<LocalChangeSubscriber<?>> subscribers = TOPIC_SUBSCRIBERS.get(topicName);
+        if (subscribers != null) {
+            for (LocalChangeSubscriber<?> subscriber : subscribers) {
+                subscriber.messages.add(message);
+            }
+        }
+    }
+
+    @Override
+    public void init(Consumer<T> processor, Class<T> valueType) {
+        this.processor = processor;
+        this.valueType = valueType;
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            try {
+                byte[] message = messages.poll(100, TimeUnit.MILLISECONDS);
+                if (message != null) {
+                    processor.accept(OBJECT_MAPPER.readValue(message, valueType));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                LOG.error("unable to process message from topic {}: {}", topicName, ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        List<LocalChangeSubscriber<?>> subscribers = TOPIC_SUBSCRIBERS.get(topicName);
+        if (subscribers != null) {
+            subscribers.remove(this);
+        }
+    }
+}
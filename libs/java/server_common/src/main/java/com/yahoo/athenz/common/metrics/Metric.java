@@ -105,6 +105,19 @@ public interface Metric {
         // No op
     }
 
+    /**
+     * Record the given latency for the specified metric. This is used when
+     * the operation did not start in this process (e.g. the time since a
+     * change was published by another server) so it cannot be measured
+     * with the startTiming and stopTiming methods.
+     * @param metric Name of the metric
+     * @param latency latency in milliseconds
+     * @param attributes a sorted array of tag key-value pairs in a flattened array
+     */
+    default void recordLatency(String metric, long latency, final String... attributes) {
+        // No op
+    }
+
     /**
      * Start the latency timer for the specified metric for the given domainName.
      * The implementation must be able to support simultaneous handling of
@@ -0,0 +1,487 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.metrics.impl.inprocess;
+
+import com.yahoo.athenz.common.metrics.Metric;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process metric implementation that keeps counters in striped
+ * LongAdder objects and latencies in lock-free log-linear histograms,
+ * each keyed by the metric name and its label values. The number of
+ * label combinations per metric is bounded - once the limit is reached
+ * any new combination is recorded against a single overflow series.
+ * The collected metrics are exposed in the Prometheus text format
+ * with the export methods, which are used by the container to serve
+ * the scrape endpoint.
+ */
+public class InProcessMetric implements Metric {
+
+    public static final String PROP_NAMESPACE = "athenz.metrics.inprocess.namespace";
+    public static final String PROP_MAX_SERIES = "athenz.metrics.inprocess.max_series";
+    public static final String PROP_REQUEST_DOMAIN_LABEL = "athenz.metrics.inprocess.label.request_domain_name.enable";
+    public static final String PROP_PRINCIPAL_DOMAIN_LABEL = "athenz.metrics.inprocess.label.principal_domain_name.enable";
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    static final String LABEL_REQUEST_DOMAIN = "request_domain_name";
+    static final String LABEL_PRINCIPAL_DOMAIN = "principal_domain_name";
+    static final String LABEL_HTTP_METHOD = "http_method";
+    static final String LABEL_HTTP_STATUS = "http_status";
+    static final String LABEL_API_NAME = "api_name";
+    static final String OVERFLOW_LABEL_VALUE = "__overflow__";
+
+    private static final String[] NO_LABELS = new String[0];
+    private static final List<InProcessMetric> REGISTERED_METRICS = new CopyOnWriteArrayList<>();
+
+    private final String namespace;
+    private final int maxSeries;
+    private final boolean requestDomainLabel;
+    private final boolean principalDomainLabel;
+
+    private final Map<String, MetricFamily<LongAdder>> counters = new ConcurrentHashMap<>();
+    private final Map<String, MetricFamily<LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    public InProcessMetric() {
+        namespace = System.getProperty(PROP_NAMESPACE, "athenz");
+        maxSeries = Integer.parseInt(System.getProperty(PROP_MAX_SERIES, "1000"));
+        requestDomainLabel = Boolean.parseBoolean(System.getProperty(PROP_REQUEST_DOMAIN_LABEL, "true"));
+        principalDomainLabel = Boolean.parseBoolean(System.getProperty(PROP_PRINCIPAL_DOMAIN_LABEL, "true"));
+        REGISTERED_METRICS.add(this);
+    }
+
+    /**
+     * Write the metrics of all active instances in the Prometheus
+     * text exposition format.
+     * @param writer destination for the metrics
+     * @throws IOException if unable to write the metrics
+     */
+    public static void exportAll(Writer writer) throws IOException {
+        StringBuilder builder = new StringBuilder(4096);
+        export(builder, REGISTERED_METRICS);
+        writer.write(builder.toString());
+    }
+
+    /**
+     * Append the metrics of this instance in the Prometheus text
+     * exposition format to the given builder.
+     * @param builder destination for the metrics
+     */
+    public void export(StringBuilder builder) {
+        export(builder, Collections.singletonList(this));
+    }
+
+    static void export(StringBuilder builder, List<InProcessMetric> metrics) {
+
+        // the same metric can be recorded by multiple instances, but each
+        // metric family must be written only once with a single TYPE line,
+        // so we merge the series of all instances by the metric name
+
+        Map<String, Map<SeriesKey, Long>> counterFamilies = new TreeMap<>();
+        Map<String, Map<SeriesKey, LatencyHistogram>> histogramFamilies = new TreeMap<>();
+        for (InProcessMetric metric : metrics) {
+            for (MetricFamily<LongAdder> family : metric.counters.values()) {
+                Map<SeriesKey, Long> series = counterFamilies.computeIfAbsent(family.name,
+                        k -> new LinkedHashMap<>());
+                family.series.forEach((key, value) -> series.merge(key, value.sum(), Long::sum));
+            }
+            for (MetricFamily<LatencyHistogram> family : metric.histograms.values()) {
+                Map<SeriesKey, LatencyHistogram> series = histogramFamilies.computeIfAbsent(family.name,
+                        k -> new LinkedHashMap<>());
+                family.series.forEach((key, value) -> series.computeIfAbsent(key,
+                        k -> new LatencyHistogram()).merge(value));
+            }
+        }
+
+        for (Map.Entry<String, Map<SeriesKey, Long>> family : counterFamilies.entrySet()) {
+            final String name = family.getKey() + "_total";
+            builder.append("# TYPE ").append(name).append(" counter\n");
+            for (Map.Entry<SeriesKey, Long> entry : family.getValue().entrySet()) {
+                builder.append(name);
+                appendLabels(builder, entry.getKey().labels, null, null);
+                builder.append(' ').append(entry.getValue()).append('\n');
+            }
+        }
+
+        for (Map.Entry<String, Map<SeriesKey, LatencyHistogram>> family : histogramFamilies.entrySet()) {
+            final String name = family.getKey() + "_seconds";
+            builder.append("# TYPE ").append(name).append(" histogram\n");
+            for (Map.Entry<SeriesKey, LatencyHistogram> entry : family.getValue().entrySet()) {
+                final String[] labels = entry.getKey().labels;
+                final LatencyHistogram histogram = entry.getValue();
+                long count = 0;
+                for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+                    count += histogram.getBucketCount(i);
+                    final String bound = (i == LatencyHistogram.BUCKET_COUNT - 1) ? "+Inf"
+                            : Double.toString(LatencyHistogram.upperBound(i) / 1e9);
+                    builder.append(name).append("_bucket");
+                    appendLabels(builder, labels, "le", bound);
+                    builder.append(' ').append(count).append('\n');
+                }
+                builder.append(name).append("_sum");
+                appendLabels(builder, labels, null, null);
+                builder.append(' ').append(histogram.getSum() / 1e9).append('\n');
+                builder.append(name).append("_count");
+                appendLabels(builder, labels, null, null);
+                builder.append(' ').append(count).append('\n');
+            }
+        }
+    }
+
+    @Override
+    public void increment(String metric) {
+        increment(metric, 1, NO_LABELS);
+    }
+
+    @Override
+    public void increment(String metric, String requestDomainName) {
+        increment(metric, requestDomainName, null, 1);
+    }
+
+    @Override
+    public void increment(String metric, String requestDomainName, int count) {
+        increment(metric, requestDomainName, null, count);
+    }
+
+    @Override
+    public void increment(String metric, String requestDomainName, String principalDomainName) {
+        increment(metric, requestDomainName, principalDomainName, 1);
+    }
+
+    @Override
+    public void increment(String metric, String requestDomainName, String principalDomainName, int count) {
+        increment(metric, count, domainLabels(requestDomainName, principalDomainName));
+    }
+
+    @Override
+    public void increment(String metric, String requestDomainName, String principalDomainName,
+            String httpMethod, int httpStatus, String apiName) {
+        increment(metric, 1, requestLabels(requestDomainName, principalDomainName, httpMethod,
+                Integer.toString(httpStatus), apiName));
+    }
+
+    @Override
+    public void increment(String metric, final String... attributes) {
+        increment(metric, 1, attributes);
+    }
+
+    @Override
+    public void increment(String metric, long change, final String... attributes) {
+        MetricFamily<LongAdder> family = counters.computeIfAbsent(metric,
+                name -> new MetricFamily<>(namespace, name, maxSeries));
+        family.getSeries(attributes, key -> new LongAdder()).add(change);
+    }
+
+    @Override
+    public void recordLatency(String metric, long latency, final String... attributes) {
+        record(metric, attributes, TimeUnit.MILLISECONDS.toNanos(Math.max(0, latency)));
+    }
+
+    @Override
+    public Object startTiming(String metric, String requestDomainName) {
+        return startTiming(metric, requestDomainName, null);
+    }
+
+    @Override
+    public Object startTiming(String metric, String requestDomainName, String principalDomainName) {
+        return new Timer(metric, domainLabels(requestDomainName, principalDomainName), System.nanoTime());
+    }
+
+    @Override
+    public Object startTiming(String metric, String requestDomainName, String principalDomainName,
+            String httpMethod, String apiName) {
+        return new Timer(metric, requestLabels(requestDomainName, principalDomainName, httpMethod,
+                null, apiName), System.nanoTime());
+    }
+
+    @Override
+    public void stopTiming(Object timerMetric) {
+        if (timerMetric instanceof Timer) {
+            Timer timer = (Timer) timerMetric;
+            record(timer, timer.labels);
+        }
+    }
+
+    @Override
+    public void stopTiming(Object timerMetric, String requestDomainName, String principalDomainName) {
+        if (timerMetric instanceof Timer) {
+            record((Timer) timerMetric, domainLabels(requestDomainName, principalDomainName));
+        }
+    }
+
+    @Override
+    public void stopTiming(Object timerMetric, String requestDomainName, String principalDomainName,
+            String httpMethod, int httpStatus, String apiName) {
+        if (timerMetric instanceof Timer) {
+            record((Timer) timerMetric, requestLabels(requestDomainName, principalDomainName,
+                    httpMethod, Integer.toString(httpStatus), apiName));
+        }
+    }
+
+    @Override
+    public void flush() {
+        // metrics are exported on demand so there is nothing to flush
+    }
+
+    @Override
+    public void quit() {
+        REGISTERED_METRICS.remove(this);
+    }
+
+    /**
+     * Return the upper bound of the histogram bucket that contains the
+     * requested quantile of the latencies recorded for the given metric
+     * and label values.
+     * @param metric name of the metric
+     * @param quantile quantile between 0 and 1 (e.g. 0.99 for p99)
+     * @param labels sorted label key-value pairs in a flattened array
+     * @return latency in nanoseconds or 0 if no values were recorded
+     */
+    public long getLatency(String metric, double quantile, final String... labels) {
+        MetricFamily<LatencyHistogram> family = histograms.get(metric);
+        if (family == null) {
+            return 0;
+        }
+        LatencyHistogram histogram = family.series.get(new SeriesKey(labels));
+        return histogram == null ? 0 : histogram.getQuantile(quantile);
+    }
+
+    /**
+     * Return the value of the counter for the given metric and label values
+     * @param metric name of the metric
+     * @param labels sorted label key-value pairs in a flattened array
+     * @return counter value
+     */
+    public long getCount(String metric, final String... labels) {
+        MetricFamily<LongAdder> family = counters.get(metric);
+        if (family == null) {
+            return 0;
+        }
+        LongAdder counter = family.series.get(new SeriesKey(labels));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    void record(Timer timer, final String[] labels) {
+        record(timer.metric, labels, System.nanoTime() - timer.startTime);
+    }
+
+    void record(final String metric, final String[] labels, long duration) {
+        MetricFamily<LatencyHistogram> family = histograms.computeIfAbsent(metric,
+                name -> new MetricFamily<>(namespace, name, maxSeries));
+        family.getSeries(labels, key -> new LatencyHistogram()).record(duration);
+    }
+
+    String[] domainLabels(final String requestDomainName, final String principalDomainName) {
+
+        final boolean requestDomain = requestDomainLabel && requestDomainName != null;
+        final boolean principalDomain = principalDomainLabel && principalDomainName != null;
+        if (!requestDomain && !principalDomain) {
+            return NO_LABELS;
+        }
+
+        // labels are kept sorted by name so the same combination
+        // always maps to the same series
+
+        String[] labels = new String[(requestDomain ? 2 : 0) + (principalDomain ? 2 : 0)];
+        int index = 0;
+        if (principalDomain) {
+            labels[index++] = LABEL_PRINCIPAL_DOMAIN;
+            labels[index++] = principalDomainName;
+        }
+        if (requestDomain) {
+            labels[index++] = LABEL_REQUEST_DOMAIN;
+            labels[index] = requestDomainName;
+        }
+        return labels;
+    }
+
+    String[] requestLabels(final String requestDomainName, final String principalDomainName,
+            final String httpMethod, final String httpStatus, final String apiName) {
+
+        List<String> labels = new ArrayList<>(10);
+        addLabel(labels, LABEL_API_NAME, apiName);
+        addLabel(labels, LABEL_HTTP_METHOD, httpMethod);
+        addLabel(labels, LABEL_HTTP_STATUS, httpStatus);
+        if (principalDomainLabel) {
+            addLabel(labels, LABEL_PRINCIPAL_DOMAIN, principalDomainName);
+        }
+        if (requestDomainLabel) {
+            addLabel(labels, LABEL_REQUEST_DOMAIN, requestDomainName);
+        }
+        return labels.toArray(NO_LABELS);
+    }
+
+    private static void addLabel(List<String> labels, final String name, final String value) {
+        if (value != null) {
+            labels.add(name);
+            labels.add(value);
+        }
+    }
+
+    static void appendLabels(StringBuilder builder, final String[] labels, final String extraName,
+            final String extraValue) {
+
+        if (labels.length < 2 && extraName == null) {
+            return;
+        }
+        builder.append('{');
+        boolean first = true;
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (!first) {
+                builder.append(',');
+            }
+            appendLabel(builder, sanitizeName(labels[i]), labels[i + 1]);
+            first = false;
+        }
+        if (extraName != null) {
+            if (!first) {
+                builder.append(',');
+            }
+            appendLabel(builder, extraName, extraValue);
+        }
+        builder.append('}');
+    }
+
+    static void appendLabel(StringBuilder builder, final String name, final String value) {
+        builder.append(name).append("=\"");
+        if (value == null) {
+            builder.append('"');
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char ch = value.charAt(i);
+            switch (ch) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                default:
+                    builder.append(ch);
+            }
+        }
+        builder.append('"');
+    }
+
+    static String sanitizeName(final String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            final char ch = name.charAt(i);
+            if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '_'
+                    || (ch >= '0' && ch <= '9' && i != 0)) {
+                builder.append(ch);
+            } else {
+                builder.append('_');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * All the series of a single metric keyed by their label values.
+     * The first key object inserted for a combination is the one kept
+     * in the map so every distinct tuple is only stored once.
+     */
+    static class MetricFamily<T> {
+
+        final String name;
+        final int maxSeries;
+        final Map<SeriesKey, T> series = new ConcurrentHashMap<>();
+
+        MetricFamily(final String namespace, final String metric, int maxSeries) {
+            this.name = sanitizeName(namespace.isEmpty() ? metric : namespace + "_" + metric);
+            this.maxSeries = maxSeries;
+        }
+
+        T getSeries(final String[] labels, Function<SeriesKey, T> creator) {
+
+            SeriesKey key = new SeriesKey(labels);
+            T value = series.get(key);
+            if (value != null) {
+                return value;
+            }
+
+            // once we reach our limit all new label combinations
+            // are recorded against the overflow series
+
+            if (series.size() >= maxSeries) {
+                key = key.overflowKey();
+            }
+            return series.computeIfAbsent(key, creator);
+        }
+    }
+
+    static final class SeriesKey {
+
+        final String[] labels;
+        private final int hash;
+
+        SeriesKey(final String[] labels) {
+            this.labels = labels == null ? NO_LABELS : labels;
+            this.hash = Arrays.hashCode(this.labels);
+        }
+
+        SeriesKey overflowKey() {
+            String[] overflowLabels = labels.clone();
+            for (int i = 1; i < overflowLabels.length; i += 2) {
+                overflowLabels[i] = OVERFLOW_LABEL_VALUE;
+            }
+            return new SeriesKey(overflowLabels);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey key = (SeriesKey) obj;
+            return hash == key.hash && Arrays.equals(labels, key.labels);
+        }
+    }
+
+    static final class Timer {
+
+        final String metric;
+        final String[] labels;
+        final long startTime;
+
+        Timer(final String metric, final String[] labels, long startTime) {
+            this.metric = metric;
+            this.labels = labels;
+            this.startTime = startTime;
+        }
+    }
+}
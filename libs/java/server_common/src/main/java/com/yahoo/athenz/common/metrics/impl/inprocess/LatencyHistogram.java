@@ -0,0 +1,127 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.metrics.impl.inprocess;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed log-linear buckets. Each power
+ * of two between 2^17ns (~131us) and 2^35ns (~34s) is split into two
+ * buckets so the bucket index is computed from the position of the two
+ * highest bits of the value without any search. As with the Prometheus
+ * le buckets, the upper bound of each bucket is inclusive. Values up to
+ * the start of the range are recorded in the first bucket and values
+ * above it in the last one.
+ */
+class LatencyHistogram {
+
+    static final int MIN_EXPONENT = 17;
+    static final int MAX_EXPONENT = 34;
+    static final int BUCKET_COUNT = 2 + ((MAX_EXPONENT - MIN_EXPONENT + 1) << 1);
+
+    private static final long MIN_VALUE = 1L << MIN_EXPONENT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(nanos));
+        sum.add(nanos);
+    }
+
+    static int bucketIndex(long nanos) {
+
+        // our bucket upper bounds are inclusive so a value that is
+        // exactly on a boundary is recorded in the lower bucket
+
+        final long value = nanos - 1;
+        if (value < MIN_VALUE) {
+            return 0;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - 1)) & 1;
+        return 1 + ((exponent - MIN_EXPONENT) << 1) + subBucket;
+    }
+
+    /**
+     * Return the inclusive upper bound of the given bucket in nanoseconds.
+     * The last bucket has no upper bound, so Long.MAX_VALUE is returned.
+     * @param index bucket index
+     * @return upper bound of the bucket
+     */
+    static long upperBound(int index) {
+        if (index == 0) {
+            return MIN_VALUE;
+        }
+        if (index >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        final int exponent = MIN_EXPONENT + ((index - 1) >> 1);
+        return ((index - 1) & 1) == 0 ? (1L << exponent) + (1L << (exponent - 1)) : 1L << (exponent + 1);
+    }
+
+    void merge(LatencyHistogram histogram) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.addAndGet(i, histogram.getBucketCount(i));
+        }
+        sum.add(histogram.getSum());
+    }
+
+    long getBucketCount(int index) {
+        return buckets.get(index);
+    }
+
+    long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Return the upper bound of the bucket that contains the requested
+     * quantile of the recorded values.
+     * @param quantile quantile between 0 and 1 (e.g. 0.99 for p99)
+     * @return upper bound in nanoseconds or 0 if no values were recorded
+     */
+    long getQuantile(double quantile) {
+        final long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+            total += buckets.get(i);
+            if (total >= rank) {
+                return upperBound(i);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
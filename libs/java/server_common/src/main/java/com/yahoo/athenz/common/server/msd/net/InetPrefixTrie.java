@@ -0,0 +1,224 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.server.msd.net;
+
+import com.google.common.net.InetAddresses;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+/**
+ * Path compressed binary radix trie of IPv4 and IPv6 CIDR blocks. Like
+ * the InetAddressMap, IPv4 and IPv6 entries are kept separately. Each
+ * node stores the full prefix so a lookup only visits the nodes where
+ * the stored prefixes branch and returns the value of the longest
+ * matching block. The trie is not thread-safe for updates - it should
+ * be fully built and then published (e.g. by assigning it to a volatile
+ * field) after which any number of threads can look up addresses.
+ */
+public class InetPrefixTrie<T> {
+
+    private Node<T> v4;
+    private Node<T> v6;
+    private int size;
+
+    /**
+     * Add a CIDR block (e.g. 10.1.0.0/16 or 2a05:d07f:8000::/40) to the trie.
+     * As with the IPBlock entries, the prefix length is required and must be
+     * between 1 and the address size (32 for IPv4 and 128 for IPv6) so that
+     * a block cannot include all addresses by mistake.
+     * @param cidr CIDR block
+     * @param value value associated with the block
+     * @throws IllegalArgumentException if the block is not valid
+     */
+    public void put(final String cidr, T value) {
+
+        final int idx = cidr.indexOf('/');
+        if (idx == -1) {
+            throw new IllegalArgumentException("Invalid ip block - missing / separator");
+        }
+        final byte[] key = InetAddresses.forString(cidr.substring(0, idx).trim()).getAddress();
+
+        final int maxLength = key.length * 8;
+        final int length = Integer.parseInt(cidr.substring(idx + 1).trim());
+        if (length < 1 || length > maxLength) {
+            throw new IllegalArgumentException("Invalid ip block - invalid prefix length: " + length);
+        }
+
+        // clear any bits beyond the prefix length so that the
+        // host part of the address is not considered
+
+        for (int i = 0; i < key.length; i++) {
+            final int bits = length - i * 8;
+            if (bits <= 0) {
+                key[i] = 0;
+            } else if (bits < 8) {
+                key[i] &= (byte) (0xFF << (8 - bits));
+            }
+        }
+
+        if (key.length == 4) {
+            v4 = insert(v4, key, length, value);
+        } else {
+            v6 = insert(v6, key, length, value);
+        }
+    }
+
+    /**
+     * Return the value of the longest CIDR block that includes the address
+     * @param address IPv4 or IPv6 address
+     * @return value of the matching block or null if there is no match
+     *      or the address is not valid
+     */
+    public T lookup(final String address) {
+        InetAddress inetAddress;
+        try {
+            inetAddress = InetAddresses.forString(address);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        return lookup(inetAddress);
+    }
+
+    /**
+     * Return the value of the longest CIDR block that includes the address
+     * @param address IPv4 or IPv6 address
+     * @return value of the matching block or null if there is no match
+     */
+    public T lookup(final InetAddress address) {
+        return lookup(address instanceof Inet4Address ? v4 : v6, address.getAddress());
+    }
+
+    public boolean contains(final String address) {
+        return lookup(address) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    Node<T> insert(Node<T> node, final byte[] key, int length, T value) {
+
+        if (node == null) {
+            size += 1;
+            return new Node<>(key, length, value, true);
+        }
+
+        final int common = commonPrefixLength(node.key, key, Math.min(node.length, length));
+        if (common == node.length) {
+
+            // same block so we just need to update its value
+
+            if (common == length) {
+                if (!node.terminal) {
+                    size += 1;
+                }
+                node.value = value;
+                node.terminal = true;
+                return node;
+            }
+
+            // the new block is included in the node's block
+
+            final int bit = bitAt(key, node.length);
+            node.children[bit] = insert(node.children[bit], key, length, value);
+            return node;
+        }
+
+        // the new block includes the node's block
+
+        size += 1;
+        if (common == length) {
+            Node<T> parent = new Node<>(key, length, value, true);
+            parent.children[bitAt(node.key, length)] = node;
+            return parent;
+        }
+
+        // the blocks diverge so we need a branch node at the common prefix
+
+        Node<T> branch = new Node<>(truncate(key, common), common, null, false);
+        branch.children[bitAt(key, common)] = new Node<>(key, length, value, true);
+        branch.children[bitAt(node.key, common)] = node;
+        return branch;
+    }
+
+    T lookup(Node<T> node, final byte[] address) {
+
+        final int maxLength = address.length * 8;
+        T result = null;
+        while (node != null && commonPrefixLength(node.key, address, node.length) == node.length) {
+            if (node.terminal) {
+                result = node.value;
+            }
+            if (node.length == maxLength) {
+                break;
+            }
+            node = node.children[bitAt(address, node.length)];
+        }
+        return result;
+    }
+
+    static int commonPrefixLength(final byte[] key1, final byte[] key2, int maxLength) {
+        int length = 0;
+        for (int i = 0; length < maxLength; i++) {
+            final int diff = (key1[i] ^ key2[i]) & 0xFF;
+            if (diff != 0) {
+                length += Integer.numberOfLeadingZeros(diff) - 24;
+                break;
+            }
+            length += 8;
+        }
+        return Math.min(length, maxLength);
+    }
+
+    static int bitAt(final byte[] key, int position) {
+        return (key[position >>> 3] >>> (7 - (position & 7))) & 1;
+    }
+
+    static byte[] truncate(final byte[] key, int length) {
+        byte[] prefix = new byte[key.length];
+        for (int i = 0; i < key.length; i++) {
+            final int bits = length - i * 8;
+            if (bits >= 8) {
+                prefix[i] = key[i];
+            } else if (bits > 0) {
+                prefix[i] = (byte) (key[i] & (0xFF << (8 - bits)));
+            }
+        }
+        return prefix;
+    }
+
+    static final class Node<T> {
+
+        final byte[] key;
+        final int length;
+        @SuppressWarnings("unchecked")
+        final Node<T>[] children = new Node[2];
+        T value;
+        boolean terminal;
+
+        Node(final byte[] key, int length, T value, boolean terminal) {
+            this.key = key;
+            this.length = length;
+            this.value = value;
+            this.terminal = terminal;
+        }
+    }
+}
@@ -124,12 +124,14 @@ public class NotificationManager {
             // NotificationTask running
             for (NotificationTask notificationTask: notificationTasks) {
                 try {
+                    final long startTime = System.currentTimeMillis();
                     List<Notification> notifications = notificationTask.getNotifications();
                     notifications.stream()
                             .filter(Objects::nonNull)
                             .forEach(notification -> notificationServices.forEach(service -> service.notify(notification)));
-                    LOGGER.info("PeriodicNotificationsSender: Sent {} notifications of type {}",
-                            notifications.size(), notificationTask.getDescription());
+                    LOGGER.info("PeriodicNotificationsSender: Sent {} notifications of type {} in {} ms",
+                            notifications.size(), notificationTask.getDescription(),
+                            System.currentTimeMillis() - startTime);
                 } catch (Throwable t) {
                     LOGGER.error("PeriodicNotificationsSender: unable to send {}", notificationTask.getDescription(), t);
                 }
@@ -24,6 +24,7 @@ import com.yahoo.athenz.zms.SignedDomains;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * An interface that ZTSCore depends on to manage its state.
@@ -98,6 +99,16 @@ public interface ChangeLogStore {
         return null;
     }
 
+    /**
+     * Notifies the store that the caller has finished processing the
+     * domains returned by getLocalDomainList (successfully or not) so
+     * the store can release any resources (e.g. domain objects fetched
+     * ahead of the requests) it allocated for them.
+     * Default implementation does not take any action.
+     */
+    default void clearLocalDomainList() {
+    }
+
     /**
      * Returns the list of all domains configured on server
      * @return Set of domain names
@@ -134,6 +145,27 @@ public interface ChangeLogStore {
         return null;
     }
 
+    /**
+     * Retrieves the list of domains modified since the last call and passes
+     * each domain to the given consumer, in the order returned by the server,
+     * as soon as it's available. This allows the caller to process the
+     * domains while the rest of them are still being fetched.
+     * @param lastModTimeBuffer StringBuilder object will be updated to include
+     * the last modification time for the request. If data store
+     * successfully updates the local entries in the cache then
+     * it will call setLastModificationTimestamp with the same value
+     * @param domainConsumer consumer to process each retrieved JWSDomain object
+     * @return true if the list of modified domains was retrieved, false otherwise
+     */
+    default boolean getUpdatedJWSDomains(StringBuilder lastModTimeBuffer, Consumer<JWSDomain> domainConsumer) {
+        List<JWSDomain> jwsDomains = getUpdatedJWSDomains(lastModTimeBuffer);
+        if (jwsDomains == null) {
+            return false;
+        }
+        jwsDomains.forEach(domainConsumer);
+        return true;
+    }
+
     /**
      * Notifies the store to update its changelog last modification
      * timestamp. If the value is null then it notifies the stores to
@@ -165,4 +197,11 @@ public interface ChangeLogStore {
      */
     default void setJWSDomainSupport(boolean jwsDomainSupport) {
     }
+
+    /**
+     * Release any resources (e.g. worker threads) held by the store.
+     * Default implementation does not take any action.
+     */
+    default void close() {
+    }
 }
@@ -31,10 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 import static com.yahoo.athenz.common.ServerCommonConsts.ZTS_PROP_AWS_BUCKET_NAME;
 import static com.yahoo.athenz.common.ServerCommonConsts.ZTS_PROP_AWS_REGION_NAME;
@@ -52,9 +49,26 @@ public class S3ChangeLogStore implements ChangeLogStore {
 
     private static final String NUMBER_OF_THREADS = "athenz.zts.bucket.threads";
     private static final String DEFAULT_TIMEOUT_SECONDS = "athenz.zts.bucket.threads.timeout";
+    private static final String PREFETCH_COUNT = "athenz.zts.bucket.prefetch_count";
     private final int nThreads = Integer.parseInt(System.getProperty(NUMBER_OF_THREADS, "10"));
     private final int defaultTimeoutSeconds = Integer.parseInt(System.getProperty(DEFAULT_TIMEOUT_SECONDS, "1800"));
+    private final int prefetchCount = Integer.parseInt(System.getProperty(PREFETCH_COUNT, "100"));
+
+    // domains that are being fetched from S3 before they're requested
+    // and the ones that are still waiting to be scheduled. both are
+    // guarded by the object lock
+
+    protected final Map<String, Future<Object>> prefetchDomainMap = new HashMap<>();
+    protected final Set<String> pendingDomainSet = new LinkedHashSet<>();
+    private AmazonS3 prefetchS3Client;
+    private ExecutorService ioExecutorService;
+    private Set<String> serverDomainList;
+
+    // domains fetched with the deprecated getAllDomains method
+
+    @Deprecated
     protected Map<String, SignedDomain> tempSignedDomainMap = new ConcurrentHashMap<>();
+    @Deprecated
     protected Map<String, JWSDomain> tempJWSDomainMap = new ConcurrentHashMap<>();
 
     public S3ChangeLogStore() {
@@ -108,11 +122,16 @@ public class S3ChangeLogStore implements ChangeLogStore {
             LOGGER.debug("getLocalSignedDomain: {}", domainName);
         }
 
-        // clear the mapping if present and value is stored else null is returned
+        // check if the domain has been already fetched as part of our
+        // prefetch from the domain list otherwise null is returned
 
-        SignedDomain signedDomain = tempSignedDomainMap.remove(domainName);
+        Object domainObject = getPrefetchedDomain(domainName);
+        SignedDomain signedDomain = (domainObject instanceof SignedDomain) ? (SignedDomain) domainObject : null;
+        if (signedDomain == null) {
+            signedDomain = tempSignedDomainMap.remove(domainName);
+        }
 
-        // when for some reason the getAllSignedDomains() was unsuccessful
+        // when for some reason the prefetch was unsuccessful
         // signedDomain will be null
 
         if (signedDomain == null) {
@@ -147,11 +166,16 @@ public class S3ChangeLogStore implements ChangeLogStore {
             LOGGER.debug("getLocalJWSDomain: {}", domainName);
         }
 
-        // clear the mapping if present and value is stored else null is returned
+        // check if the domain has been already fetched as part of our
+        // prefetch from the domain list otherwise null is returned
 
-        JWSDomain jwsDomain = tempJWSDomainMap.remove(domainName);
+        Object domainObject = getPrefetchedDomain(domainName);
+        JWSDomain jwsDomain = (domainObject instanceof JWSDomain) ? (JWSDomain) domainObject : null;
+        if (jwsDomain == null) {
+            jwsDomain = tempJWSDomainMap.remove(domainName);
+        }
 
-        // when for some reason the getAllJWSDomains() was unsuccessful
+        // when for some reason the prefetch was unsuccessful
         // jwsDomain will be null
 
         if (jwsDomain == null) {
@@ -217,6 +241,175 @@ public class S3ChangeLogStore implements ChangeLogStore {
         return jwsDomain;
     }
 
+    Object getDomain(AmazonS3 s3, String domainName, boolean jwsDomain) {
+        return jwsDomain ? getJWSDomain(s3, domainName) : getSignedDomain(s3, domainName);
+    }
+
+    Object getDomainResult(final String domainName, Future<Object> future) {
+
+        if (future == null) {
+            return null;
+        }
+
+        try {
+            return future.get(defaultTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("AWSS3ChangeLog: interrupted while fetching domain {}", domainName);
+        } catch (ExecutionException | TimeoutException ex) {
+            LOGGER.error("AWSS3ChangeLog: unable to fetch domain {} error: {}", domainName, ex.getMessage());
+            future.cancel(true);
+        }
+        return null;
+    }
+
+    /**
+     * Start fetching the given domains from S3 in the background. Only
+     * a limited number of domains are fetched ahead of the callers
+     * requesting them so the memory usage is bounded regardless of
+     * the number of domains in the bucket.
+     * @param domains list of domains in the order they'll be requested
+     */
+    synchronized void startDomainPrefetch(List<String> domains) {
+
+        cancelDomainPrefetch();
+
+        pendingDomainSet.addAll(domains);
+        prefetchS3Client = getS3Client();
+        schedulePrefetchDomains();
+    }
+
+    @Override
+    public synchronized void clearLocalDomainList() {
+
+        // if the caller did not request all the domains (e.g. it aborted
+        // processing the local domains) we don't want to keep the domain
+        // objects that have already been fetched in memory
+
+        cancelDomainPrefetch();
+        prefetchS3Client = null;
+        serverDomainList = null;
+        tempSignedDomainMap.clear();
+        tempJWSDomainMap.clear();
+    }
+
+    void cancelDomainPrefetch() {
+
+        for (Future<Object> future : prefetchDomainMap.values()) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+        prefetchDomainMap.clear();
+        pendingDomainSet.clear();
+    }
+
+    synchronized Future<Object> removePrefetchDomain(final String domainName) {
+
+        // if the domain has not been scheduled yet, we'll make sure
+        // it's not fetched again since the caller is going to get it
+        // directly from S3
+
+        Future<Object> future = prefetchDomainMap.remove(domainName);
+        if (future == null) {
+            pendingDomainSet.remove(domainName);
+        }
+        schedulePrefetchDomains();
+        return future;
+    }
+
+    void schedulePrefetchDomains() {
+
+        Iterator<String> iterator = pendingDomainSet.iterator();
+        while (iterator.hasNext() && prefetchDomainMap.size() < prefetchCount) {
+            final String domainName = iterator.next();
+            iterator.remove();
+            final AmazonS3 s3 = prefetchS3Client;
+            final boolean jwsDomain = jwsDomainSupport;
+            prefetchDomainMap.put(domainName, getExecutorService().submit(() -> getDomain(s3, domainName, jwsDomain)));
+        }
+    }
+
+    Object getPrefetchedDomain(final String domainName) {
+        return getDomainResult(domainName, removePrefetchDomain(domainName));
+    }
+
+    <T> List<T> getDomains(AmazonS3 s3, List<String> domains, Class<T> domainClass) {
+
+        // fetch all the domains with our executor and return the
+        // successfully retrieved ones in the same order
+
+        final boolean jwsDomain = (domainClass == JWSDomain.class);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (String domain : domains) {
+            futures.add(getExecutorService().submit(() -> getDomain(s3, domain, jwsDomain)));
+        }
+
+        List<T> domainList = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            Object domainObject = getDomainResult(domains.get(i), futures.get(i));
+            if (domainClass.isInstance(domainObject)) {
+                domainList.add(domainClass.cast(domainObject));
+            }
+        }
+        return domainList;
+    }
+
+    /**
+     * Fetch all the given domains from S3 and keep them in memory until
+     * they're requested with getLocalSignedDomain/getLocalJWSDomain calls.
+     * @param domains list of domains to fetch
+     * @return false if interrupted while fetching the domains, true otherwise
+     * @deprecated the domains returned by getLocalDomainList are prefetched
+     *      in the background with a bounded number of domains kept in memory
+     */
+    @Deprecated
+    public boolean getAllDomains(List<String> domains) {
+
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Getting all domains from S3 with multiple threads...");
+        }
+
+        ExecutorService threadPoolExecutor = getExecutorService();
+        AmazonS3 tempS3 = getS3Client();
+        List<Future<?>> futures = new ArrayList<>();
+        for (String domain : domains) {
+            futures.add(threadPoolExecutor.submit(new ObjectS3Thread(domain, tempSignedDomainMap,
+                    tempJWSDomainMap, tempS3, jwsDomainSupport)));
+        }
+
+        // our executor is shared with the other requests so instead of
+        // shutting it down we're going to wait for our own tasks only
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(defaultTimeoutSeconds);
+        try {
+            for (Future<?> future : futures) {
+                if (future != null) {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (InterruptedException ex) {
+            LOGGER.error("Interrupted Exception in getAllSignedDomains", ex);
+            cancelFutures(futures);
+            tempSignedDomainMap.clear();
+            tempJWSDomainMap.clear();
+            return false;
+        } catch (ExecutionException | TimeoutException ex) {
+            LOGGER.error("Unable to fetch all domains from S3: {}", ex.getMessage());
+            cancelFutures(futures);
+        }
+
+        return true;
+    }
+
+    void cancelFutures(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
     @Override
     public void removeLocalDomain(String domainName) {
         // in AWS our Athenz syncer is responsible for pushing new
@@ -320,65 +513,40 @@ public class S3ChangeLogStore implements ChangeLogStore {
 
         ArrayList<String> domains = new ArrayList<>();
         listObjects(awsS3Client, domains, 0);
-        tempSignedDomainMap.clear();
-        tempJWSDomainMap.clear();
 
-        // we are trying to get the signed domain list from the s3 bucket twice here.
-        // The function get AllSignedDomains will return false when an InterruptedException
-        // is thrown. If it can't be done successfully then we throw a RuntimeException.
+        // the server domain list is requested right after the local
+        // domain list to check for deleted domains, so we'll keep our
+        // listing to avoid going through the full bucket again
 
-        if (!getAllDomains(domains)) {
-            getAllDomains(domains);
+        synchronized (this) {
+            serverDomainList = new HashSet<>(domains);
         }
 
-        return domains;
-    }
-
-    public boolean getAllDomains(List<String> domains) {
+        // we're going to start fetching the domains in the background
+        // so they're available by the time the caller requests them
 
         if (LOGGER.isInfoEnabled()) {
-            LOGGER.info("Getting all domains from S3 with multiple threads...");
+            LOGGER.info("Prefetching {} domains from S3 with {} threads...", domains.size(), nThreads);
         }
 
-        ExecutorService threadPoolExecutor = getExecutorService();
-        AmazonS3 tempS3 = getS3Client();
-        for (String domain: domains) {
-            threadPoolExecutor.execute(new S3ChangeLogStore.ObjectS3Thread(domain, tempSignedDomainMap,
-                    tempJWSDomainMap, tempS3, jwsDomainSupport));
-        }
-
-        // shutdown() ensures no further tasks can be submitted to the ExecutorService
-
-        threadPoolExecutor.shutdown();
-
-        // If an Exception is thrown then we clear the HashMap where the SignedDomains are stored,
-        // and also we use the shutdownNow() function to cancel currently executing tasks.
+        startDomainPrefetch(domains);
+        return domains;
+    }
 
-        try {
-            if (LOGGER.isInfoEnabled()) {
-                LOGGER.info("Waiting for completion of all getdomain tasks...");
-            }
+    @Override
+    public Set<String> getServerDomainList() {
 
-            threadPoolExecutor.awaitTermination(defaultTimeoutSeconds, TimeUnit.SECONDS);
+        // if we have a listing from our local domain list call
+        // then we'll use that only once
 
-            if (LOGGER.isInfoEnabled()) {
-                LOGGER.info("Executor completed all of its tasks");
+        synchronized (this) {
+            if (serverDomainList != null) {
+                Set<String> domains = serverDomainList;
+                serverDomainList = null;
+                return domains;
             }
-
-        } catch (InterruptedException ex) {
-            LOGGER.error("Interrupted Exception in getAllSignedDomains", ex);
-            tempSignedDomainMap.clear();
-            tempJWSDomainMap.clear();
-            threadPoolExecutor.shutdownNow();
-            return false;
         }
 
-        return true;
-    }
-
-    @Override
-    public Set<String> getServerDomainList() {
-
         // for the server domain list operation since it's called
         // periodically by the thread to see if any domains have
         // been deleted, we're going to get a new s3 client
@@ -447,16 +615,8 @@ public class S3ChangeLogStore implements ChangeLogStore {
         AmazonS3 s3 = getS3Client();
         List<String> domains = getUpdatedDomainList(s3, lastModTimeBuffer);
 
-        List<SignedDomain> signedDomainList = new ArrayList<>();
-        for (String domain : domains) {
-            SignedDomain signedDomain = getSignedDomain(s3, domain);
-            if (signedDomain != null) {
-                signedDomainList.add(signedDomain);
-            }
-        }
-
         SignedDomains signedDomains = new SignedDomains();
-        signedDomains.setDomains(signedDomainList);
+        signedDomains.setDomains(getDomains(s3, domains, SignedDomain.class));
         return signedDomains;
     }
 
@@ -467,16 +627,7 @@ public class S3ChangeLogStore implements ChangeLogStore {
 
         AmazonS3 s3 = getS3Client();
         List<String> domains = getUpdatedDomainList(s3, lastModTimeBuffer);
-
-        List<JWSDomain> jwsDomainList = new ArrayList<>();
-        for (String domain : domains) {
-            JWSDomain jwsDomain = getJWSDomain(s3, domain);
-            if (jwsDomain != null) {
-                jwsDomainList.add(jwsDomain);
-            }
-        }
-
-        return jwsDomainList;
+        return getDomains(s3, domains, JWSDomain.class);
     }
 
     @Override
@@ -498,10 +649,25 @@ public class S3ChangeLogStore implements ChangeLogStore {
                 .build();
     }
 
-    public ExecutorService getExecutorService() {
-        return Executors.newFixedThreadPool(nThreads);
+    public synchronized ExecutorService getExecutorService() {
+
+        // we use a single long-lived executor for all our requests
+        // with daemon threads, so it does not block the server shutdown
+
+        if (ioExecutorService == null) {
+            ioExecutorService = Executors.newFixedThreadPool(nThreads, runnable -> {
+                Thread thread = new Thread(runnable, "s3-changelog-store");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return ioExecutorService;
     }
 
+    /**
+     * @deprecated domains are fetched by the prefetch tasks started from getLocalDomainList
+     */
+    @Deprecated
     class ObjectS3Thread implements Runnable {
 
         String domainName;
@@ -530,32 +696,14 @@ public class S3ChangeLogStore implements ChangeLogStore {
         }
 
         void saveSignedDomain() {
-            SignedDomain signedDomain = null;
-            try {
-                S3Object object = s3.getObject(s3BucketName, domainName);
-                try (S3ObjectInputStream s3is = object.getObjectContent()) {
-                    signedDomain = jsonMapper.readValue(s3is, SignedDomain.class);
-                }
-            } catch (Exception ex) {
-                LOGGER.error("AWSS3ChangeLogThread: ObjectS3Thread- getSignedDomain - unable to get domain {} error: {}",
-                        domainName, ex.getMessage());
-            }
+            SignedDomain signedDomain = getSignedDomain(s3, domainName);
             if (signedDomain != null) {
                 signedDomainMap.put(domainName, signedDomain);
             }
         }
 
         void saveJWSDomain() {
-            JWSDomain jwsDomain = null;
-            try {
-                S3Object object = s3.getObject(s3BucketName, domainName);
-                try (S3ObjectInputStream s3is = object.getObjectContent()) {
-                    jwsDomain = jsonMapper.readValue(s3is, JWSDomain.class);
-                }
-            } catch (Exception ex) {
-                LOGGER.error("AWSS3ChangeLogThread: ObjectS3Thread- getJWSDomain - unable to get domain {} error: {}",
-                        domainName, ex.getMessage());
-            }
+            JWSDomain jwsDomain = getJWSDomain(s3, domainName);
             if (jwsDomain != null) {
                 jwsDomainMap.put(domainName, jwsDomain);
             }
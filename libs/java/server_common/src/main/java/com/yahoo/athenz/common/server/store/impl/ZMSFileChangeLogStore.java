@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.security.PrivateKey;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static com.yahoo.athenz.common.ServerCommonConsts.*;
 
@@ -202,6 +203,17 @@ public class ZMSFileChangeLogStore implements ChangeLogStore {
         }
     }
 
+    @Override
+    public boolean getUpdatedJWSDomains(StringBuilder lastModTimeBuffer, Consumer<JWSDomain> domainConsumer) {
+
+        try (ZMSClient zmsClient = getZMSClient()) {
+            return changeLogStoreCommon.getUpdatedJWSDomains(zmsClient, lastModTimeBuffer, domainConsumer);
+        } catch (ZMSClientException ex) {
+            LOGGER.error("Error when refreshing data from ZMS: {}", ex.getMessage());
+            return false;
+        }
+    }
+
     public void setChangeLogStoreCommon(ZMSFileChangeLogStoreCommon changeLogStoreCommon) {
         this.changeLogStoreCommon = changeLogStoreCommon;
     }
@@ -210,4 +222,9 @@ public class ZMSFileChangeLogStore implements ChangeLogStore {
     public void setRequestConditions(final boolean requestConditions) {
         changeLogStoreCommon.setRequestConditions(requestConditions);
     }
+
+    @Override
+    public void close() {
+        changeLogStoreCommon.close();
+    }
 }
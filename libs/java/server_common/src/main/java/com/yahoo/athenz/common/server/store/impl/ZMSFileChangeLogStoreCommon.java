@@ -28,7 +28,16 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.yahoo.athenz.common.ServerCommonConsts.ZTS_PROP_ZMS_DOMAIN_FETCH_THREADS;
 
 public class ZMSFileChangeLogStoreCommon {
 
@@ -47,9 +56,15 @@ public class ZMSFileChangeLogStoreCommon {
 
     boolean requestConditions;
     int maxRateLimitRetryCount = 101;
+    int domainFetchThreads;
+    private ThreadPoolExecutor domainFetchThreadPool = null;
 
     public ZMSFileChangeLogStoreCommon(final String rootDirectory) {
 
+        // number of concurrent requests to fetch updated domains from ZMS
+
+        domainFetchThreads = Integer.parseInt(System.getProperty(ZTS_PROP_ZMS_DOMAIN_FETCH_THREADS, "4"));
+
         // create our file helper object
 
         filesHelper = new FilesHelper();
@@ -94,6 +109,30 @@ public class ZMSFileChangeLogStoreCommon {
         }
     }
 
+    public synchronized void close() {
+        if (domainFetchThreadPool != null) {
+            domainFetchThreadPool.shutdownNow();
+            domainFetchThreadPool = null;
+        }
+    }
+
+    synchronized ExecutorService getDomainFetchThreadPool() {
+
+        // the thread pool is only created when we need to fetch multiple
+        // domains and the idle threads are released between the polls
+
+        if (domainFetchThreadPool == null) {
+            domainFetchThreadPool = new ThreadPoolExecutor(domainFetchThreads, domainFetchThreads, 60,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "zms-domain-fetch");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            domainFetchThreadPool.allowCoreThreadTimeOut(true);
+        }
+        return domainFetchThreadPool;
+    }
+
     public void setRequestConditions(final boolean requestConditions) {
         this.requestConditions = requestConditions;
     }
@@ -164,7 +203,10 @@ public class ZMSFileChangeLogStoreCommon {
         }
     }
 
-    public synchronized <T> T get(String name, Class<T> classType) {
+    // domain files are replaced atomically by put so the reads can
+    // be carried out concurrently without any locks
+
+    public <T> T get(String name, Class<T> classType) {
 
         File file = new File(rootDir, name);
         if (!file.exists()) {
@@ -181,13 +223,17 @@ public class ZMSFileChangeLogStoreCommon {
 
     public synchronized void put(String name, byte[] data) {
 
+        // we first write the data into a hidden temporary file and
+        // then move it to replace the domain file so the readers
+        // never see a partially written file
+
         File file = new File(rootDir, name);
-        if (!file.exists()) {
-            setupDomainFile(file);
-        }
+        File tmpFile = new File(rootDir, "." + name + ".tmp");
+        setupDomainFile(tmpFile);
 
         try {
-            filesHelper.write(file, data);
+            filesHelper.write(tmpFile, data);
+            filesHelper.move(tmpFile, file);
         } catch (IOException ex) {
             error("unable to save file: " + file.getPath() + " error: " + ex.getMessage());
         }
@@ -348,47 +394,89 @@ public class ZMSFileChangeLogStoreCommon {
     List<JWSDomain> getJWSDomainList(ZMSClient zmsClient, SignedDomains domainList) {
 
         List<JWSDomain> domains = new ArrayList<>();
-        for (SignedDomain domain : domainList.getDomains()) {
+        getJWSDomainList(zmsClient, domainList, domains::add);
+        return domains;
+    }
 
-            final String domainName = domain.getDomain().getName();
+    void getJWSDomainList(ZMSClient zmsClient, SignedDomains domainList, Consumer<JWSDomain> domainConsumer) {
 
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("getJWSDomainList: fetching domain {}", domainName);
+        List<SignedDomain> domains = domainList.getDomains();
+        if (domainFetchThreads <= 1 || domains.size() <= 1) {
+            for (SignedDomain domain : domains) {
+                JWSDomain jwsDomain = getJWSDomain(zmsClient, domain.getDomain().getName());
+                if (jwsDomain != null) {
+                    domainConsumer.accept(jwsDomain);
+                }
             }
+            return;
+        }
 
-            // we're going to retry up to 100 times in case of rate limiting
-            // from ZMS Server. If not able to retrieve after so many times
-            // we'll pick up the change again during our full sync time
+        // we're going to fetch the domains concurrently but hand them over
+        // to the consumer in the same order as they were returned by ZMS.
+        // this allows the caller to process the domains that have already
+        // been fetched while we're still waiting for the rest
 
-            for (int count = 1; count < maxRateLimitRetryCount; count++) {
-                try {
+        ExecutorService executor = getDomainFetchThreadPool();
+        List<Future<JWSDomain>> futures = new ArrayList<>();
+        try {
+            for (SignedDomain domain : domains) {
+                final String domainName = domain.getDomain().getName();
+                futures.add(executor.submit(() -> getJWSDomain(zmsClient, domainName)));
+            }
+            for (Future<JWSDomain> future : futures) {
+                JWSDomain jwsDomain = future.get();
+                if (jwsDomain != null) {
+                    domainConsumer.accept(jwsDomain);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while fetching domains from ZMS", ex);
+        } catch (ExecutionException ex) {
 
-                    JWSDomain jwsDomain = zmsClient.getJWSDomain(domainName, null, null);
-                    if (jwsDomain != null) {
-                        domains.add(jwsDomain);
-                    }
+            // report the failure to the caller so that the last modification
+            // timestamp is not updated and the domains are fetched again
 
-                    break;
+            throw new RuntimeException("unable to fetch domains from ZMS", ex.getCause());
+        } finally {
 
-                } catch (ZMSClientException ex) {
+            // in case of failures we don't need the rest of the domains
 
-                    LOGGER.error("Error fetching domain {} from ZMS: {}", domainName, ex.getMessage());
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
 
-                    // if we get a rate limiting failure, we're going to sleep
-                    // for some period and retry our operation again
+    JWSDomain getJWSDomain(ZMSClient zmsClient, final String domainName) {
 
-                    if (ex.getCode() != ZMSClientException.TOO_MANY_REQUESTS) {
-                        break;
-                    }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("getJWSDomainList: fetching domain {}", domainName);
+        }
 
-                    try {
-                        Thread.sleep(randomSleepForRetry(count));
-                    } catch (InterruptedException ignored) {
-                    }
+        // we're going to retry up to 100 times in case of rate limiting
+        // from ZMS Server. If not able to retrieve after so many times
+        // we'll pick up the change again during our full sync time
+
+        for (int count = 1; count < maxRateLimitRetryCount; count++) {
+            try {
+                return zmsClient.getJWSDomain(domainName, null, null);
+            } catch (ZMSClientException ex) {
+
+                LOGGER.error("Error fetching domain {} from ZMS: {}", domainName, ex.getMessage());
+
+                // if we get a rate limiting failure, we're going to sleep
+                // for some period and retry our operation again
+
+                if (ex.getCode() != ZMSClientException.TOO_MANY_REQUESTS) {
+                    break;
+                }
+
+                try {
+                    Thread.sleep(randomSleepForRetry(count));
+                } catch (InterruptedException ignored) {
                 }
             }
         }
-        return domains;
+        return null;
     }
 
     /**
@@ -449,21 +537,32 @@ public class ZMSFileChangeLogStoreCommon {
 
     public List<JWSDomain> getUpdatedJWSDomains(ZMSClient zmsClient, StringBuilder lastModTimeBuffer) {
 
+        List<JWSDomain> domains = new ArrayList<>();
+        if (!getUpdatedJWSDomains(zmsClient, lastModTimeBuffer, domains::add)) {
+            return null;
+        }
+        return domains;
+    }
+
+    public boolean getUpdatedJWSDomains(ZMSClient zmsClient, StringBuilder lastModTimeBuffer,
+            Consumer<JWSDomain> domainConsumer) {
+
         // request all the changes from ZMS. In this call we're asking for
         // metadata only so we'll only get the list of domains
 
         SignedDomains domainList = getModifiedDomainList(zmsClient, lastModTimeBuffer);
         if (domainList == null || domainList.getDomains() == null) {
-            return null;
+            return false;
         }
 
         if (LOGGER.isInfoEnabled()) {
             LOGGER.info("getUpdatedJWSDomains: {} updated domains", domainList.getDomains().size());
         }
 
-        // now let's iterate through our list and retrieve one domain at a time
+        // now let's fetch our domains and pass them to the consumer
 
-        return getJWSDomainList(zmsClient, domainList);
+        getJWSDomainList(zmsClient, domainList, domainConsumer);
+        return true;
     }
 
     static void error(String msg) {
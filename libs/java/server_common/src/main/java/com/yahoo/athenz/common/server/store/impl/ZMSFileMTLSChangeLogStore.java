@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static com.yahoo.athenz.common.ServerCommonConsts.*;
 
@@ -193,6 +194,17 @@ public class ZMSFileMTLSChangeLogStore implements ChangeLogStore {
         }
     }
 
+    @Override
+    public boolean getUpdatedJWSDomains(StringBuilder lastModTimeBuffer, Consumer<JWSDomain> domainConsumer) {
+
+        try {
+            return changeLogStoreCommon.getUpdatedJWSDomains(zmsClient, lastModTimeBuffer, domainConsumer);
+        } catch (ZMSClientException ex) {
+            LOGGER.error("Error when refreshing data from ZMS: {}", ex.getMessage());
+            return false;
+        }
+    }
+
     void setZMSClient(ZMSClient client) {
         zmsClient = client;
     }
@@ -205,4 +217,9 @@ public class ZMSFileMTLSChangeLogStore implements ChangeLogStore {
     public void setRequestConditions(final boolean requestConditions) {
         changeLogStoreCommon.setRequestConditions(requestConditions);
     }
+
+    @Override
+    public void close() {
+        changeLogStoreCommon.close();
+    }
 }
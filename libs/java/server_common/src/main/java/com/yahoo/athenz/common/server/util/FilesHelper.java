@@ -21,6 +21,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.Set;
 
@@ -29,6 +30,11 @@ public class FilesHelper {
         return Files.write(file.toPath(), data);
     }
 
+    public Path move(File source, File target) throws IOException {
+        return Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
     public void delete(File file) throws IOException {
         Files.delete(file.toPath());
     }
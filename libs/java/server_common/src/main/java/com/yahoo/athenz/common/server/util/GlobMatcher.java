@@ -0,0 +1,70 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yahoo.athenz.common.server.util;
+
+import com.yahoo.athenz.auth.util.StringUtils;
+
+import java.util.regex.Pattern;
+
+/**
+ * Precompiled matcher for the glob values (with * and ? wildcards)
+ * used in assertion actions, resources and roles. The matcher produces
+ * the same results as value.matches(StringUtils.patternFromGlob(glob))
+ * but only falls back to a compiled regular expression when the glob
+ * cannot be handled with simple string comparisons.
+ */
+@FunctionalInterface
+public interface GlobMatcher {
+
+    /**
+     * Check if the given value matches the glob this matcher was compiled from
+     * @param value value to check
+     * @return true if the value matches the glob, false otherwise
+     */
+    boolean matches(String value);
+
+    /**
+     * Compile the given glob value into a matcher
+     * @param glob glob value with optional * and ? wildcards
+     * @return matcher for the given glob
+     */
+    static GlobMatcher compile(final String glob) {
+
+        final int anyCharIdx = glob.indexOf('?');
+        final int wildCardIdx = glob.indexOf('*');
+
+        // without any wildcards we only need a string comparison
+
+        if (anyCharIdx == -1 && wildCardIdx == -1) {
+            return glob::equals;
+        }
+
+        // if our only wildcard is the trailing * then it's either
+        // a match all or a starts with check
+
+        if (anyCharIdx == -1 && wildCardIdx == glob.length() - 1) {
+            if (wildCardIdx == 0) {
+                return value -> true;
+            }
+            final String prefix = glob.substring(0, wildCardIdx);
+            return value -> value.startsWith(prefix);
+        }
+
+        final Pattern pattern = Pattern.compile(StringUtils.patternFromGlob(glob));
+        return value -> pattern.matcher(value).matches();
+    }
+}
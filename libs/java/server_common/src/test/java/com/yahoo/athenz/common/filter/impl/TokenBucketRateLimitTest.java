@@ -0,0 +1,204 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.filter.impl;
+
+import com.yahoo.athenz.auth.util.Crypto;
+import com.yahoo.athenz.common.server.util.config.dynamic.DynamicConfigCsv;
+import com.yahoo.athenz.common.server.util.config.dynamic.DynamicConfigDouble;
+import com.yahoo.athenz.common.server.util.config.dynamic.DynamicConfigInteger;
+import com.yahoo.athenz.common.server.util.config.dynamic.DynamicConfigString;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import static com.yahoo.athenz.common.server.rest.Http.JAVAX_CERT_ATTR;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+public class TokenBucketRateLimitTest {
+
+    private TokenBucketRateLimit createRateLimit(final String keyType, double rate, int burst) {
+        TokenBucketRateLimit rateLimit = new TokenBucketRateLimit();
+        rateLimit.keyType = new DynamicConfigString(keyType);
+        rateLimit.rate = new DynamicConfigDouble(rate);
+        rateLimit.burst = new DynamicConfigInteger(burst);
+        return rateLimit;
+    }
+
+    private HttpServletRequest createRequest(final String uri, final String clientIp) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getRemoteAddr()).thenReturn(clientIp);
+        return request;
+    }
+
+    @Test
+    public void testFactory() {
+        assertTrue(new TokenBucketRateLimitFactory().create() instanceof TokenBucketRateLimit);
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+
+        TokenBucketRateLimit rateLimit = new TokenBucketRateLimit();
+        HttpServletRequest request = createRequest("/zts/v1/instance", "10.1.1.1");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        for (int i = 0; i < 200; i++) {
+            assertFalse(rateLimit.filter(request, response));
+        }
+        assertEquals(rateLimit.getTrackedKeyCount(), 0);
+        verify(response, never()).setStatus(anyInt());
+    }
+
+    @Test
+    public void testRateLimitClientIp() {
+
+        TokenBucketRateLimit rateLimit = createRateLimit(TokenBucketRateLimit.KEY_TYPE_CLIENT_IP, 1.0, 5);
+
+        HttpServletRequest request1 = createRequest("/zts/v1/instance", "10.1.1.1");
+        HttpServletRequest request2 = createRequest("/zts/v1/instance", "10.1.1.2");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        // we should be able to process our burst and then get rejected
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(rateLimit.filter(request1, response));
+        }
+        assertTrue(rateLimit.filter(request1, response));
+        verify(response, times(1)).setStatus(TokenBucketRateLimit.SC_TOO_MANY_REQUESTS);
+        verify(response, times(1)).setHeader(TokenBucketRateLimit.HEADER_RETRY_AFTER, "1");
+
+        // other clients are not affected
+
+        assertFalse(rateLimit.filter(request2, response));
+        assertEquals(rateLimit.getTrackedKeyCount(), 2);
+
+        // requests without any client ip are not limited
+
+        HttpServletRequest request3 = createRequest("/zts/v1/instance", null);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(rateLimit.filter(request3, response));
+        }
+    }
+
+    @Test
+    public void testRateLimitExemptUris() {
+
+        TokenBucketRateLimit rateLimit = createRateLimit(TokenBucketRateLimit.KEY_TYPE_CLIENT_IP, 1.0, 1);
+        rateLimit.exemptUris = new DynamicConfigCsv("/zts/v1/status,/zts/v1/schema");
+
+        HttpServletRequest request = createRequest("/zts/v1/status", "10.1.1.1");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(rateLimit.filter(request, response));
+        }
+
+        request = createRequest("/zts/v1/instance", "10.1.1.1");
+        assertFalse(rateLimit.filter(request, response));
+        assertTrue(rateLimit.filter(request, response));
+    }
+
+    @Test
+    public void testRateLimitApi() {
+
+        TokenBucketRateLimit rateLimit = createRateLimit(TokenBucketRateLimit.KEY_TYPE_API, 1.0, 2);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        assertFalse(rateLimit.filter(createRequest("/zts/v1/instance/provider/athenz/api/id", "10.1.1.1"), response));
+        assertFalse(rateLimit.filter(createRequest("/zts/v1/instance", "10.1.1.2"), response));
+        assertTrue(rateLimit.filter(createRequest("/zts/v1/instance/athenz/api/refresh", "10.1.1.3"), response));
+        assertFalse(rateLimit.filter(createRequest("/zts/v1/rolecert", "10.1.1.1"), response));
+    }
+
+    @Test
+    public void testRequestKey() throws Exception {
+
+        X509Certificate cert = Crypto.loadX509Certificate(new File("src/test/resources/driver.cert.pem"));
+
+        HttpServletRequest certRequest = createRequest("/zts/v1/instance", "10.1.1.1");
+        when(certRequest.getAttribute(JAVAX_CERT_ATTR)).thenReturn(new X509Certificate[] { cert });
+        HttpServletRequest request = createRequest("/zts/v1/instance", "10.1.1.1");
+        HttpServletRequest emptyCertRequest = createRequest("/zts/v1/instance", "10.1.1.1");
+        when(emptyCertRequest.getAttribute(JAVAX_CERT_ATTR)).thenReturn(new X509Certificate[0]);
+
+        TokenBucketRateLimit rateLimit = createRateLimit(TokenBucketRateLimit.KEY_TYPE_PRINCIPAL_DOMAIN, 1.0, 1);
+        assertEquals(rateLimit.getRequestKey(certRequest), "athenz");
+        assertEquals(rateLimit.getRequestKey(request), "ip:10.1.1.1");
+        assertEquals(rateLimit.getRequestKey(emptyCertRequest), "ip:10.1.1.1");
+
+        rateLimit = createRateLimit(TokenBucketRateLimit.KEY_TYPE_PRINCIPAL, 1.0, 1);
+        assertEquals(rateLimit.getRequestKey(certRequest), "athenz.production");
+        assertEquals(rateLimit.getRequestKey(request), "ip:10.1.1.1");
+
+        rateLimit = createRateLimit(TokenBucketRateLimit.KEY_TYPE_CLIENT_IP, 1.0, 1);
+        assertEquals(rateLimit.getRequestKey(certRequest), "ip:10.1.1.1");
+
+        rateLimit = createRateLimit(TokenBucketRateLimit.KEY_TYPE_API, 1.0, 1);
+        assertEquals(rateLimit.getRequestKey(certRequest), "POST /zts/v1/instance");
+
+        // principal without a domain component
+
+        rateLimit = createRateLimit(TokenBucketRateLimit.KEY_TYPE_PRINCIPAL_DOMAIN, 1.0, 1);
+        rateLimit = spy(rateLimit);
+        doReturn("service").when(rateLimit).getCertPrincipal(request);
+        assertEquals(rateLimit.getRequestKey(request), "service");
+    }
+
+    @Test
+    public void testGetApiPath() {
+        assertEquals(TokenBucketRateLimit.getApiPath(null), "/");
+        assertEquals(TokenBucketRateLimit.getApiPath("/"), "/");
+        assertEquals(TokenBucketRateLimit.getApiPath("/zts/v1"), "/zts/v1");
+        assertEquals(TokenBucketRateLimit.getApiPath("/zts/v1/instance"), "/zts/v1/instance");
+        assertEquals(TokenBucketRateLimit.getApiPath("/zts/v1/instance/"), "/zts/v1/instance");
+        assertEquals(TokenBucketRateLimit.getApiPath("/zts/v1/domain/athenz/token"), "/zts/v1/domain");
+    }
+
+    @Test
+    public void testTokenBucket() {
+
+        final long interval = TimeUnit.MILLISECONDS.toNanos(100);
+        TokenBucketRateLimit.TokenBucket bucket = new TokenBucketRateLimit.TokenBucket();
+
+        // burst of 3 tokens
+
+        long now = 1000;
+        assertEquals(bucket.acquire(now, interval, interval * 3), 0);
+        assertEquals(bucket.acquire(now, interval, interval * 3), 0);
+        assertEquals(bucket.acquire(now, interval, interval * 3), 0);
+        assertEquals(bucket.acquire(now, interval, interval * 3), interval);
+
+        // after a single interval we get one more token
+
+        now += interval;
+        assertEquals(bucket.acquire(now, interval, interval * 3), 0);
+        assertEquals(bucket.acquire(now, interval, interval * 3), interval);
+
+        // after a long idle period we only get our burst
+
+        now += interval * 100;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(bucket.acquire(now, interval, interval * 3), 0);
+        }
+        assertEquals(bucket.acquire(now + interval / 2, interval, interval * 3), interval / 2);
+    }
+}
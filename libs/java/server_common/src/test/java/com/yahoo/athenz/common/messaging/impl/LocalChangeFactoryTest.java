@@ -0,0 +1,116 @@
+/*
+ *
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.yahoo.athenz.common.messaging.impl;
+
+import com.yahoo.athenz.common.messaging.ChangePublisher;
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import com.yahoo.athenz.common.messaging.DomainChangeMessage;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class LocalChangeFactoryTest {
+
+    @Test
+    public void testPublishSubscribe() throws InterruptedException {
+
+        LocalChangeFactory<DomainChangeMessage> factory = new LocalChangeFactory<>();
+        ChangePublisher<DomainChangeMessage> publisher = factory.create(null, "local-topic");
+
+        BlockingQueue<DomainChangeMessage> received1 = new LinkedBlockingQueue<>();
+        ChangeSubscriber<DomainChangeMessage> subscriber1 = factory.create(null, "local-topic", "sub1", "Exclusive");
+        subscriber1.init(received1::add, DomainChangeMessage.class);
+
+        BlockingQueue<DomainChangeMessage> received2 = new LinkedBlockingQueue<>();
+        ChangeSubscriber<DomainChangeMessage> subscriber2 = factory.create(null, "local-topic", "sub2", "Exclusive");
+        subscriber2.init(received2::add, DomainChangeMessage.class);
+
+        Thread thread1 = new Thread(subscriber1);
+        Thread thread2 = new Thread(subscriber2);
+        thread1.start();
+        thread2.start();
+
+        DomainChangeMessage message = new DomainChangeMessage().setDomainName("athenz")
+                .setObjectType(DomainChangeMessage.ObjectType.ROLE).setObjectName("readers")
+                .setApiName("putRole").setMessageId("msg1").setPublished(1000);
+        publisher.publish(message);
+
+        // both subscribers get their own copy of the message
+
+        DomainChangeMessage message1 = received1.poll(5, TimeUnit.SECONDS);
+        DomainChangeMessage message2 = received2.poll(5, TimeUnit.SECONDS);
+        assertEquals(message1, message);
+        assertEquals(message2, message);
+        assertNotSame(message1, message2);
+
+        // after closing our subscriber it no longer receives messages
+
+        subscriber1.close();
+        thread1.join(5000);
+        assertFalse(thread1.isAlive());
+
+        publisher.publish(message);
+        assertEquals(received2.poll(5, TimeUnit.SECONDS), message);
+        assertTrue(received1.isEmpty());
+
+        subscriber2.close();
+        thread2.join(5000);
+        publisher.close();
+
+        assertTrue(LocalChangeSubscriber.TOPIC_SUBSCRIBERS.get("local-topic").isEmpty());
+    }
+
+    @Test
+    public void testInvalidMessages() throws InterruptedException {
+
+        BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+        LocalChangeSubscriber<Integer> subscriber = new LocalChangeSubscriber<>("invalid-topic");
+        subscriber.init(received::add, Integer.class);
+        Thread thread = new Thread(subscriber);
+        thread.start();
+
+        // messages that can't be parsed or serialized are skipped
+
+        new LocalChangePublisher<DomainChangeMessage>("invalid-topic")
+                .publish(new DomainChangeMessage().setDomainName("athenz"));
+        new LocalChangePublisher<Object>("invalid-topic").publish(new Object());
+        new LocalChangePublisher<Integer>("invalid-topic").publish(10);
+        assertEquals(received.poll(5, TimeUnit.SECONDS), Integer.valueOf(10));
+
+        // publishing to a topic without any subscribers is a no-op
+
+        new LocalChangePublisher<Integer>("unknown-topic").publish(10);
+
+        // interrupting our thread stops the subscriber
+
+        thread.interrupt();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+
+        LocalChangeSubscriber.TOPIC_SUBSCRIBERS.remove("invalid-topic");
+        subscriber.close();
+        List<LocalChangeSubscriber<?>> subscribers = LocalChangeSubscriber.TOPIC_SUBSCRIBERS.get("invalid-topic");
+        assertNull(subscribers);
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.metrics.impl.inprocess;
+
+import com.yahoo.athenz.common.metrics.Metric;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.*;
+
+public class InProcessMetricTest {
+
+    @Test
+    public void testFactory() {
+        Metric metric = new InProcessMetricFactory().create();
+        assertTrue(metric instanceof InProcessMetric);
+        metric.quit();
+    }
+
+    @Test
+    public void testIncrement() {
+
+        InProcessMetric metric = new InProcessMetric();
+
+        metric.increment("request");
+        metric.increment("request", "sports");
+        metric.increment("request", "sports", 3);
+        metric.increment("request", "sports", "user");
+        metric.increment("request", "sports", "user", 2);
+        metric.increment("request", null, "user");
+        metric.increment("api", "sports", "user", "GET", 200, "getDomain");
+        metric.increment("api", "sports", "user", "GET", 200, "getDomain");
+        metric.increment("attrs", "tag1", "value1", "tag2", "value2");
+        metric.increment("attrs", 5, "tag1", "value1", "tag2", "value2");
+
+        assertEquals(metric.getCount("request"), 1);
+        assertEquals(metric.getCount("request", "request_domain_name", "sports"), 4);
+        assertEquals(metric.getCount("request", "principal_domain_name", "user",
+                "request_domain_name", "sports"), 3);
+        assertEquals(metric.getCount("request", "principal_domain_name", "user"), 1);
+        assertEquals(metric.getCount("api", "api_name", "getDomain", "http_method", "GET",
+                "http_status", "200", "principal_domain_name", "user", "request_domain_name", "sports"), 2);
+        assertEquals(metric.getCount("attrs", "tag1", "value1", "tag2", "value2"), 6);
+        assertEquals(metric.getCount("attrs", "tag1", "value2"), 0);
+        assertEquals(metric.getCount("unknown"), 0);
+
+        metric.flush();
+        metric.quit();
+    }
+
+    @Test
+    public void testSeriesKey() {
+
+        InProcessMetric.SeriesKey key = new InProcessMetric.SeriesKey(new String[] { "tag", "value" });
+        assertEquals(key, key);
+        assertEquals(key, new InProcessMetric.SeriesKey(new String[] { "tag", "value" }));
+        assertNotEquals(key, new InProcessMetric.SeriesKey(new String[] { "tag", "value2" }));
+        assertNotEquals(key, "tag");
+        assertEquals(new InProcessMetric.SeriesKey(null), new InProcessMetric.SeriesKey(new String[0]));
+    }
+
+    @Test
+    public void testDisabledDomainLabels() {
+
+        System.setProperty(InProcessMetric.PROP_REQUEST_DOMAIN_LABEL, "false");
+        System.setProperty(InProcessMetric.PROP_PRINCIPAL_DOMAIN_LABEL, "false");
+
+        InProcessMetric metric = new InProcessMetric();
+        metric.increment("request", "sports", "user");
+        metric.increment("request", "weather", "coretech");
+        metric.increment("api", "sports", "user", "GET", 200, "getDomain");
+
+        assertEquals(metric.getCount("request"), 2);
+        assertEquals(metric.getCount("api", "api_name", "getDomain", "http_method", "GET",
+                "http_status", "200"), 1);
+
+        metric.quit();
+        System.clearProperty(InProcessMetric.PROP_REQUEST_DOMAIN_LABEL);
+        System.clearProperty(InProcessMetric.PROP_PRINCIPAL_DOMAIN_LABEL);
+    }
+
+    @Test
+    public void testTiming() throws InterruptedException {
+
+        InProcessMetric metric = new InProcessMetric();
+
+        Object timer = metric.startTiming("latency", "sports");
+        Thread.sleep(2);
+        metric.stopTiming(timer);
+
+        timer = metric.startTiming("latency", "sports", "user");
+        metric.stopTiming(timer, "weather", "user");
+
+        timer = metric.startTiming("api_latency", "sports", "user", "GET", "getDomain");
+        Thread.sleep(2);
+        metric.stopTiming(timer, "sports", "user", "GET", 200, "getDomain");
+
+        // timers that we did not create are ignored
+
+        metric.stopTiming(null);
+        metric.stopTiming("timer", "sports", "user");
+        metric.stopTiming("timer", "sports", "user", "GET", 200, "getDomain");
+
+        assertTrue(metric.getLatency("latency", 0.99, "request_domain_name", "sports") > 2000000);
+        assertTrue(metric.getLatency("latency", 0.99, "principal_domain_name", "user",
+                "request_domain_name", "weather") > 0);
+        assertTrue(metric.getLatency("api_latency", 0.99, "api_name", "getDomain", "http_method", "GET",
+                "http_status", "200", "principal_domain_name", "user", "request_domain_name", "sports") > 2000000);
+        assertEquals(metric.getLatency("latency", 0.99, "request_domain_name", "unknown"), 0);
+        assertEquals(metric.getLatency("unknown", 0.99), 0);
+
+        metric.quit();
+    }
+
+    @Test
+    public void testRecordLatency() {
+
+        InProcessMetric metric = new InProcessMetric();
+
+        metric.recordLatency("propagation_time", 5);
+        metric.recordLatency("propagation_time", 5, "domain", "sports");
+
+        // negative latencies are recorded as zero
+
+        metric.recordLatency("propagation_time", -10, "domain", "weather");
+
+        assertTrue(metric.getLatency("propagation_time", 1.0) >= 5000000);
+        assertTrue(metric.getLatency("propagation_time", 1.0, "domain", "sports") >= 5000000);
+        assertTrue(metric.getLatency("propagation_time", 1.0, "domain", "weather") < 5000000);
+
+        metric.quit();
+    }
+
+    @Test
+    public void testMaxSeries() {
+
+        System.setProperty(InProcessMetric.PROP_MAX_SERIES, "2");
+
+        InProcessMetric metric = new InProcessMetric();
+        metric.increment("request", "sports");
+        metric.increment("request", "weather");
+        metric.increment("request", "coretech");
+        metric.increment("request", "athenz", 4);
+        metric.increment("request", "sports");
+
+        assertEquals(metric.getCount("request", "request_domain_name", "sports"), 2);
+        assertEquals(metric.getCount("request", "request_domain_name", "weather"), 1);
+        assertEquals(metric.getCount("request", "request_domain_name", "coretech"), 0);
+        assertEquals(metric.getCount("request", "request_domain_name", InProcessMetric.OVERFLOW_LABEL_VALUE), 5);
+
+        metric.stopTiming(metric.startTiming("latency", "sports"));
+        metric.stopTiming(metric.startTiming("latency", "weather"));
+        metric.stopTiming(metric.startTiming("latency", "coretech"));
+        assertTrue(metric.getLatency("latency", 1.0, "request_domain_name",
+                InProcessMetric.OVERFLOW_LABEL_VALUE) > 0);
+
+        metric.quit();
+        System.clearProperty(InProcessMetric.PROP_MAX_SERIES);
+    }
+
+    @Test
+    public void testExport() throws IOException {
+
+        System.setProperty(InProcessMetric.PROP_NAMESPACE, "zts");
+
+        InProcessMetric metric = new InProcessMetric();
+        metric.increment("request");
+        metric.increment("api.calls", "sports", "user", "GET", 200, "getDomain");
+        metric.increment("escape", "tag", "a\"b\\c\nd", "empty", null);
+        metric.stopTiming(metric.startTiming("latency", "sports"));
+
+        StringBuilder builder = new StringBuilder();
+        metric.export(builder);
+        final String output = builder.toString();
+
+        assertTrue(output.contains("# TYPE zts_request_total counter\nzts_request_total 1\n"));
+        assertTrue(output.contains("zts_api_calls_total{api_name=\"getDomain\",http_method=\"GET\",http_status=\"200\","
+                + "principal_domain_name=\"user\",request_domain_name=\"sports\"} 1\n"));
+        assertTrue(output.contains("zts_escape_total{tag=\"a\\\"b\\\\c\\nd\",empty=\"\"} 1\n"));
+        assertTrue(output.contains("# TYPE zts_latency_seconds histogram\n"));
+        assertTrue(output.contains("zts_latency_seconds_bucket{request_domain_name=\"sports\",le=\"1.31072E-4\"}"));
+        assertTrue(output.contains("zts_latency_seconds_bucket{request_domain_name=\"sports\",le=\"+Inf\"} 1\n"));
+        assertTrue(output.contains("zts_latency_seconds_sum{request_domain_name=\"sports\"} "));
+        assertTrue(output.contains("zts_latency_seconds_count{request_domain_name=\"sports\"} 1\n"));
+
+        // all registered metrics are included until they're stopped
+
+        StringWriter writer = new StringWriter();
+        InProcessMetric.exportAll(writer);
+        assertTrue(writer.toString().contains("zts_request_total 1\n"));
+
+        metric.quit();
+
+        writer = new StringWriter();
+        InProcessMetric.exportAll(writer);
+        assertFalse(writer.toString().contains("zts_request_total 1\n"));
+
+        System.clearProperty(InProcessMetric.PROP_NAMESPACE);
+    }
+
+    @Test
+    public void testExportAllMultipleInstances() throws IOException {
+
+        System.setProperty(InProcessMetric.PROP_NAMESPACE, "multi");
+
+        InProcessMetric metric1 = new InProcessMetric();
+        InProcessMetric metric2 = new InProcessMetric();
+        metric1.increment("request");
+        metric2.increment("request");
+        metric2.increment("other");
+        metric1.stopTiming(metric1.startTiming("latency", "sports"));
+        metric2.stopTiming(metric2.startTiming("latency", "sports"));
+
+        // each metric must be listed once with the values of both instances
+
+        StringWriter writer = new StringWriter();
+        InProcessMetric.exportAll(writer);
+        final String output = writer.toString();
+
+        assertEquals(output.split("# TYPE multi_request_total counter\n", -1).length, 2);
+        assertTrue(output.contains("# TYPE multi_request_total counter\nmulti_request_total 2\n"));
+        assertTrue(output.contains("# TYPE multi_other_total counter\nmulti_other_total 1\n"));
+        assertEquals(output.split("# TYPE multi_latency_seconds histogram\n", -1).length, 2);
+        assertTrue(output.contains("multi_latency_seconds_count{request_domain_name=\"sports\"} 2\n"));
+        assertTrue(output.contains("multi_latency_seconds_bucket{request_domain_name=\"sports\",le=\"+Inf\"} 2\n"));
+
+        metric1.quit();
+        metric2.quit();
+        System.clearProperty(InProcessMetric.PROP_NAMESPACE);
+    }
+
+    @Test
+    public void testExportNoNamespace() {
+
+        System.setProperty(InProcessMetric.PROP_NAMESPACE, "");
+
+        InProcessMetric metric = new InProcessMetric();
+        metric.increment("9lives");
+
+        StringBuilder builder = new StringBuilder();
+        metric.export(builder);
+        assertTrue(builder.toString().contains("_lives_total 1\n"));
+
+        metric.quit();
+        System.clearProperty(InProcessMetric.PROP_NAMESPACE);
+    }
+
+    @Test
+    public void testConcurrentIncrement() throws Exception {
+
+        InProcessMetric metric = new InProcessMetric();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    metric.increment("request", "sports");
+                    metric.stopTiming(metric.startTiming("latency", "sports"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(metric.getCount("request", "request_domain_name", "sports"), 80000);
+        StringBuilder builder = new StringBuilder();
+        metric.export(builder);
+        assertTrue(builder.toString().contains("athenz_latency_seconds_count{request_domain_name=\"sports\"} 80000\n"));
+
+        metric.quit();
+    }
+}
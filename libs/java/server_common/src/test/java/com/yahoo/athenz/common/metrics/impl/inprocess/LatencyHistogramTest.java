@@ -0,0 +1,116 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.metrics.impl.inprocess;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketIndex() {
+
+        assertEquals(LatencyHistogram.bucketIndex(0), 0);
+        assertEquals(LatencyHistogram.bucketIndex((1L << 17) - 1), 0);
+        assertEquals(LatencyHistogram.bucketIndex(1L << 17), 0);
+        assertEquals(LatencyHistogram.bucketIndex((1L << 17) + 1), 1);
+        assertEquals(LatencyHistogram.bucketIndex((1L << 17) + (1L << 16)), 1);
+        assertEquals(LatencyHistogram.bucketIndex((1L << 17) + (1L << 16) + 1), 2);
+        assertEquals(LatencyHistogram.bucketIndex(1L << 18), 2);
+        assertEquals(LatencyHistogram.bucketIndex((1L << 18) + 1), 3);
+        assertEquals(LatencyHistogram.bucketIndex(1L << 35), LatencyHistogram.BUCKET_COUNT - 2);
+        assertEquals(LatencyHistogram.bucketIndex((1L << 35) + 1), LatencyHistogram.BUCKET_COUNT - 1);
+        assertEquals(LatencyHistogram.bucketIndex(Long.MAX_VALUE), LatencyHistogram.BUCKET_COUNT - 1);
+
+        // every value must be at or below the upper bound of its bucket
+        // and above the upper bound of the previous one
+
+        for (long value = 1; value < (1L << 36); value = value * 3 / 2 + 1) {
+            final int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(value <= LatencyHistogram.upperBound(index));
+            if (index > 0) {
+                assertTrue(value > LatencyHistogram.upperBound(index - 1));
+            }
+        }
+
+        // values on the boundaries are included in the bucket they bound
+
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT - 1; i++) {
+            final long bound = LatencyHistogram.upperBound(i);
+            assertEquals(LatencyHistogram.bucketIndex(bound), i);
+            assertEquals(LatencyHistogram.bucketIndex(bound + 1), i + 1);
+        }
+    }
+
+    @Test
+    public void testUpperBound() {
+        assertEquals(LatencyHistogram.upperBound(0), 1L << 17);
+        assertEquals(LatencyHistogram.upperBound(1), (1L << 17) + (1L << 16));
+        assertEquals(LatencyHistogram.upperBound(2), 1L << 18);
+        assertEquals(LatencyHistogram.upperBound(LatencyHistogram.BUCKET_COUNT - 2), 1L << 35);
+        assertEquals(LatencyHistogram.upperBound(LatencyHistogram.BUCKET_COUNT - 1), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testRecord() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getCount(), 0);
+        assertEquals(histogram.getQuantile(0.99), 0);
+
+        for (int i = 0; i < 98; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+        histogram.record(-1);
+
+        assertEquals(histogram.getCount(), 100);
+        assertEquals(histogram.getSum(), TimeUnit.MILLISECONDS.toNanos(198));
+        assertEquals(histogram.getBucketCount(0), 1);
+
+        // 1ms is in the (2^19 * 1.5, 2^20] bucket and 100ms in (2^26, 2^26 * 1.5]
+
+        assertEquals(histogram.getQuantile(0.5), 1L << 20);
+        assertEquals(histogram.getQuantile(0.99), 1L << 20);
+        assertEquals(histogram.getQuantile(1.0), (1L << 26) + (1L << 25));
+
+        histogram.record(TimeUnit.SECONDS.toNanos(60));
+        assertEquals(histogram.getQuantile(1.0), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testMerge() {
+
+        LatencyHistogram histogram1 = new LatencyHistogram();
+        histogram1.record(1L << 17);
+        histogram1.record(1L << 20);
+
+        LatencyHistogram histogram2 = new LatencyHistogram();
+        histogram2.record(1L << 20);
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.merge(histogram1);
+        merged.merge(histogram2);
+
+        assertEquals(merged.getCount(), 3);
+        assertEquals(merged.getSum(), (1L << 17) + (2L << 20));
+        assertEquals(merged.getBucketCount(0), 1);
+        assertEquals(merged.getBucketCount(LatencyHistogram.bucketIndex(1L << 20)), 2);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.server.msd.net;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public class InetPrefixTrieTest {
+
+    @Test
+    public void testIPv4() {
+
+        InetPrefixTrie<String> trie = new InetPrefixTrie<>();
+        assertTrue(trie.isEmpty());
+        assertNull(trie.lookup("10.1.1.1"));
+
+        trie.put("10.0.0.0/8", "block8");
+        trie.put("10.1.0.0/16", "block16");
+        trie.put("10.1.2.0/24", "block24");
+        trie.put("10.1.2.3/32", "host");
+        trie.put("192.168.10.0/ 23", "private");
+        trie.put("172.16.5.9/12", "host-bits");
+        assertEquals(trie.size(), 6);
+        assertFalse(trie.isEmpty());
+
+        assertEquals(trie.lookup("10.200.1.1"), "block8");
+        assertEquals(trie.lookup("10.1.200.1"), "block16");
+        assertEquals(trie.lookup("10.1.2.200"), "block24");
+        assertEquals(trie.lookup("10.1.2.3"), "host");
+        assertEquals(trie.lookup("192.168.11.255"), "private");
+        assertNull(trie.lookup("192.168.12.0"));
+        assertEquals(trie.lookup("172.31.255.255"), "host-bits");
+        assertNull(trie.lookup("172.32.0.0"));
+        assertNull(trie.lookup("11.0.0.0"));
+        assertNull(trie.lookup("9.255.255.255"));
+        assertTrue(trie.contains("10.0.0.1"));
+        assertFalse(trie.contains("11.0.0.1"));
+
+        // ipv6 addresses are not matched against ipv4 blocks
+
+        assertNull(trie.lookup("::a01:203"));
+
+        // updating an existing block does not change the size
+
+        trie.put("10.1.0.0/16", "updated");
+        assertEquals(trie.size(), 6);
+        assertEquals(trie.lookup("10.1.200.1"), "updated");
+    }
+
+    @Test
+    public void testIPv6() {
+
+        InetPrefixTrie<String> trie = new InetPrefixTrie<>();
+        trie.put("2a05:d07f:8000::/40", "aws");
+        trie.put("2a05:d07f:8000:1::/64", "subnet");
+        trie.put("2001:db8::/32", "doc");
+
+        assertEquals(trie.lookup("2a05:d07f:80ff:ffff::1"), "aws");
+        assertEquals(trie.lookup("2a05:d07f:8000:1::10"), "subnet");
+        assertEquals(trie.lookup("2001:db8:1::1"), "doc");
+        assertNull(trie.lookup("2a05:d07f:8100::1"));
+        assertNull(trie.lookup("10.0.0.1"));
+    }
+
+    @Test
+    public void testPrefixInsertOrder() {
+
+        // inserting the longer block first requires the trie to
+        // create a parent node for the shorter block
+
+        InetPrefixTrie<String> trie = new InetPrefixTrie<>();
+        trie.put("10.1.2.0/24", "block24");
+        trie.put("10.1.3.0/24", "block24-2");
+        trie.put("10.1.0.0/16", "block16");
+        trie.put("10.1.2.0/23", "block23");
+        trie.put("0.0.0.0/1", "half");
+        assertEquals(trie.size(), 5);
+
+        assertEquals(trie.lookup("10.1.2.1"), "block24");
+        assertEquals(trie.lookup("10.1.3.1"), "block24-2");
+        assertEquals(trie.lookup("10.1.4.1"), "block16");
+        assertEquals(trie.lookup("11.1.4.1"), "half");
+        assertNull(trie.lookup("128.1.4.1"));
+
+        // adding a block at a branch node position
+
+        trie.put("10.1.2.0/23", "block23-updated");
+        trie.put("10.1.0.0/22", "block22");
+        assertEquals(trie.size(), 6);
+        assertEquals(trie.lookup("10.1.1.1"), "block22");
+    }
+
+    @Test
+    public void testInvalidEntries() {
+
+        InetPrefixTrie<String> trie = new InetPrefixTrie<>();
+        assertThrows(IllegalArgumentException.class, () -> trie.put("172.300.10.2/32", "invalid"));
+        assertThrows(IllegalArgumentException.class, () -> trie.put("10.0.0.0/33", "invalid"));
+        assertThrows(IllegalArgumentException.class, () -> trie.put("10.0.0.0/-1", "invalid"));
+        assertThrows(IllegalArgumentException.class, () -> trie.put("2001:db8::/129", "invalid"));
+        assertThrows(NumberFormatException.class, () -> trie.put("10.0.0.0/abc", "invalid"));
+
+        // the prefix length is required and a block cannot include all addresses
+
+        assertThrows(IllegalArgumentException.class, () -> trie.put("10.1.2.3", "invalid"));
+        assertThrows(IllegalArgumentException.class, () -> trie.put("10.1.2.3/0", "invalid"));
+        assertThrows(IllegalArgumentException.class, () -> trie.put("::/0", "invalid"));
+        assertTrue(trie.isEmpty());
+
+        trie.put("10.0.0.0/8", "block");
+        assertNull(trie.lookup("invalid-ip"));
+        assertNull(trie.lookup("10.0.0"));
+    }
+
+    @Test
+    public void testRandomBlocks() {
+
+        // compare the trie lookups against a linear scan of the blocks
+
+        Random random = new Random(1);
+        int[] subnets = new int[500];
+        int[] lengths = new int[500];
+        InetPrefixTrie<Integer> trie = new InetPrefixTrie<>();
+        for (int i = 0; i < subnets.length; i++) {
+            lengths[i] = 8 + random.nextInt(25);
+            subnets[i] = random.nextInt() & (int) (0xFFFFFFFFL << (32 - lengths[i]));
+            trie.put(toAddress(subnets[i]) + "/" + lengths[i], lengths[i]);
+        }
+
+        for (int i = 0; i < 10000; i++) {
+
+            // half of our addresses are within a known block
+
+            int address = random.nextInt();
+            if (i % 2 == 0) {
+                address = subnets[random.nextInt(subnets.length)] | (random.nextInt() & 0xFF);
+            }
+
+            Integer expected = null;
+            for (int j = 0; j < subnets.length; j++) {
+                final int mask = (int) (0xFFFFFFFFL << (32 - lengths[j]));
+                if ((address & mask) == subnets[j] && (expected == null || lengths[j] > expected)) {
+                    expected = lengths[j];
+                }
+            }
+            assertEquals(trie.lookup(toAddress(address)), expected);
+        }
+    }
+
+    private String toAddress(int address) {
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "."
+                + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+}
@@ -24,7 +24,9 @@ import org.testng.annotations.Test;
 import java.util.List;
 import java.util.Set;
 
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
 
 public class ChangeLogStoreTest {
 
@@ -83,6 +85,7 @@ public class ChangeLogStoreTest {
         assertNull(store.getLocalJWSDomain("domain"));
         assertNull(store.getServerJWSDomain("domain"));
         assertNull(store.getUpdatedJWSDomains(null));
+        assertFalse(store.getUpdatedJWSDomains(null, jwsDomain -> fail()));
         store.saveLocalDomain("domain", new JWSDomain());
         store.setRequestConditions(true);
         store.setRequestConditions(false);
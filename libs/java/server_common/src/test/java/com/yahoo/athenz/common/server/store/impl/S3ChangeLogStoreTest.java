@@ -22,7 +22,10 @@ import static org.testng.Assert.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.yahoo.athenz.zms.JWSDomain;
@@ -168,21 +171,77 @@ public class S3ChangeLogStoreTest {
         tempList.add(s3ObjectSummary);
         when(mockObjectListing.getObjectSummaries()).thenReturn(tempList);
 
-        List<String> temp = new LinkedList<>();
-        temp.add("iaas");
+        // our mock executor does not return any futures so the
+        // domain must be fetched directly from S3
 
-        try {
-            when(store.executorService.awaitTermination(defaultTimeoutSeconds, TimeUnit.SECONDS)).thenThrow(new InterruptedException());
-            assertFalse(store.getAllDomains(temp));
-            assertFalse(store.getLocalDomainList().isEmpty());
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        assertFalse(store.getLocalDomainList().isEmpty());
+        if (jwsSupport) {
+            assertNotNull(store.getLocalJWSDomain("iaas"));
+        } else {
+            assertNotNull(store.getLocalSignedDomain("iaas"));
         }
+        assertTrue(store.prefetchDomainMap.isEmpty());
+        assertTrue(store.pendingDomainSet.isEmpty());
 
         is1.close();
         is2.close();
     }
 
+    @Test
+    public void testGetDomainResultFailures() throws Exception {
+
+        MockS3ChangeLogStore store = new MockS3ChangeLogStore();
+
+        assertNull(store.getDomainResult("iaas", null));
+
+        @SuppressWarnings("unchecked")
+        Future<Object> future = mock(Future.class);
+        when(future.get(defaultTimeoutSeconds, TimeUnit.SECONDS))
+                .thenThrow(new ExecutionException(new IllegalArgumentException()))
+                .thenThrow(new TimeoutException())
+                .thenThrow(new InterruptedException());
+
+        assertNull(store.getDomainResult("iaas", future));
+        assertNull(store.getDomainResult("iaas", future));
+        Mockito.verify(future, Mockito.times(2)).cancel(true);
+
+        assertNull(store.getDomainResult("iaas", future));
+
+        // clear the interrupted flag set by the call
+
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    public void testGetServerDomainsAfterLocalDomains() {
+
+        MockS3ChangeLogStore store = new MockS3ChangeLogStore();
+        ArrayList<S3ObjectSummary> objectList = new ArrayList<>();
+        S3ObjectSummary objectSummary = new S3ObjectSummary();
+        objectSummary.setKey("iaas");
+        objectList.add(objectSummary);
+
+        ObjectListing objectListing = mock(ObjectListing.class);
+        when(objectListing.getObjectSummaries()).thenReturn(objectList);
+        when(objectListing.isTruncated()).thenReturn(false);
+        when(store.awsS3Client.listObjects(any(ListObjectsRequest.class))).thenReturn(objectListing);
+
+        assertEquals(store.getLocalDomainList().size(), 1);
+        Mockito.verify(store.awsS3Client, Mockito.times(1)).listObjects(any(ListObjectsRequest.class));
+
+        // the first server domain list call uses the listing
+        // from the local domain list call
+
+        Set<String> domains = store.getServerDomainList();
+        assertEquals(domains.size(), 1);
+        assertTrue(domains.contains("iaas"));
+        Mockito.verify(store.awsS3Client, Mockito.times(1)).listObjects(any(ListObjectsRequest.class));
+
+        domains = store.getServerDomainList();
+        assertEquals(domains.size(), 1);
+        Mockito.verify(store.awsS3Client, Mockito.times(2)).listObjects(any(ListObjectsRequest.class));
+    }
+
     @Test
     public void testListObjectsAllObjectsNoPage() {
 
@@ -711,13 +770,144 @@ public class S3ChangeLogStoreTest {
         AmazonS3 s3client = buildMockS3Client(numberOfDomainsToMock);
         store.setAwsS3Client(s3client);
 
+        List<String> domainsList = store.getLocalDomainList();
+        assertEquals(domainsList.size(), numberOfDomainsToMock);
+
+        // we should only have a limited number of domains in flight
+
+        assertTrue(store.prefetchDomainMap.size() <= 100);
+        assertEquals(store.prefetchDomainMap.size() + store.pendingDomainSet.size(), numberOfDomainsToMock);
+
+        // each domain object stream can only be read once so all
+        // domains must be returned from the prefetched results. we'll
+        // request one domain out of order, so it's not prefetched again
+
+        assertNotNull(store.getLocalSignedDomain("domain" + (numberOfDomainsToMock - 1)));
+        for (int i = 0; i < numberOfDomainsToMock - 1; ++i) {
+            assertNotNull(store.getLocalSignedDomain("domain" + i));
+            assertTrue(store.prefetchDomainMap.size() <= 100);
+        }
+
+        assertTrue(store.prefetchDomainMap.isEmpty());
+        assertTrue(store.pendingDomainSet.isEmpty());
+        Mockito.verify(s3client, Mockito.times(numberOfDomainsToMock)).getObject(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testGetAllDomains() throws IOException {
+
+        MockS3ChangeLogStore store = new MockS3ChangeLogStore();
+
+        int numberOfDomainsToMock = 200;
+        AmazonS3 s3client = buildMockS3Client(numberOfDomainsToMock);
+        store.setAwsS3Client(s3client);
+
         List<String> domainsList = new ArrayList<>();
         for (int i = 0; i < numberOfDomainsToMock; ++i) {
             domainsList.add("domain" + i);
         }
-        store.getAllDomains(domainsList);
-
+        assertTrue(store.getAllDomains(domainsList));
         assertEquals(store.tempSignedDomainMap.size(), numberOfDomainsToMock);
+        assertFalse(store.getExecutorService().isShutdown());
+
+        // the domains are returned from our fetched map without
+        // making any other requests to s3
+
+        assertNotNull(store.getLocalSignedDomain("domain0"));
+        assertEquals(store.tempSignedDomainMap.size(), numberOfDomainsToMock - 1);
+        Mockito.verify(s3client, Mockito.times(numberOfDomainsToMock)).getObject(Mockito.anyString(), Mockito.anyString());
+
+        store.clearLocalDomainList();
+        assertTrue(store.tempSignedDomainMap.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testGetAllJWSDomains() throws IOException {
+
+        MockS3ChangeLogStore store = new MockS3ChangeLogStore();
+        store.setJWSDomainSupport(true);
+
+        AmazonS3 s3client = buildMockS3Client(2);
+        store.setAwsS3Client(s3client);
+
+        assertTrue(store.getAllDomains(Arrays.asList("domain0", "domain1", "unknown")));
+        assertEquals(store.tempJWSDomainMap.size(), 2);
+        assertTrue(store.tempSignedDomainMap.isEmpty());
+
+        assertNotNull(store.getLocalJWSDomain("domain1"));
+        assertEquals(store.tempJWSDomainMap.size(), 1);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testGetAllDomainsInterrupted() throws IOException {
+
+        MockS3ChangeLogStore store = new MockS3ChangeLogStore();
+
+        AmazonS3 s3client = buildMockS3Client(2);
+        store.setAwsS3Client(s3client);
+
+        Thread.currentThread().interrupt();
+        assertFalse(store.getAllDomains(Arrays.asList("domain0", "domain1")));
+        assertTrue(store.tempSignedDomainMap.isEmpty());
+        assertFalse(Thread.interrupted());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testGetAllDomainsFailure() throws Exception {
+
+        MockS3ChangeLogStore store = new MockS3ChangeLogStore(1);
+
+        @SuppressWarnings("unchecked")
+        Future<Object> future = mock(Future.class);
+        when(future.get(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS))).thenThrow(new TimeoutException());
+        Mockito.doReturn(future).when(store.executorService).submit(Mockito.any(Runnable.class));
+
+        // timeouts are not reported as failures, but the tasks are cancelled
+
+        assertTrue(store.getAllDomains(Arrays.asList("domain0", "domain1")));
+        Mockito.verify(future, Mockito.times(2)).cancel(true);
+    }
+
+    @Test
+    public void testClearLocalDomainList() throws IOException {
+
+        MockS3ChangeLogStore store = new MockS3ChangeLogStore();
+
+        int numberOfDomainsToMock = 300;
+        AmazonS3 s3client = buildMockS3Client(numberOfDomainsToMock);
+        store.setAwsS3Client(s3client);
+
+        List<String> domainsList = store.getLocalDomainList();
+        assertEquals(domainsList.size(), numberOfDomainsToMock);
+        assertNotNull(store.getLocalSignedDomain("domain0"));
+
+        // the caller stops processing the domains so all pending
+        // and in flight fetches must be dropped
+
+        List<Future<Object>> futures = new ArrayList<>(store.prefetchDomainMap.values());
+        assertFalse(futures.isEmpty());
+        store.clearLocalDomainList();
+
+        assertTrue(store.prefetchDomainMap.isEmpty());
+        assertTrue(store.pendingDomainSet.isEmpty());
+        for (Future<Object> future : futures) {
+            assertTrue(future.isDone());
+        }
+
+        // the domains are no longer available from our prefetch and the
+        // server domain list must be retrieved again from s3
+
+        assertNull(store.getPrefetchedDomain("domain1"));
+        assertEquals(store.getServerDomainList().size(), numberOfDomainsToMock);
+
+        // clearing the list again is a no-op
+
+        store.clearLocalDomainList();
+        assertTrue(store.prefetchDomainMap.isEmpty());
     }
 
     private AmazonS3 buildMockS3Client(int numOfDomains) throws IOException {
@@ -857,6 +1047,12 @@ public class S3ChangeLogStoreTest {
         List<JWSDomain> jwsDomains = store.getUpdatedJWSDomains(lastModTimeBuffer);
         assertTrue(lastModTimeBuffer.length() > 0);
         assertEquals(jwsDomains.size(), 0);
+
+        // same result when the domains are passed to a consumer
+
+        jwsDomains = new ArrayList<>();
+        assertTrue(store.getUpdatedJWSDomains(lastModTimeBuffer, jwsDomains::add));
+        assertEquals(jwsDomains.size(), 0);
     }
 
     @Test
@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 import static com.yahoo.athenz.common.ServerCommonConsts.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -76,6 +77,46 @@ public class ZMSFileChangeLogStoreCommonTest {
         assertEquals(st.get("key"), "val1");
     }
 
+    @Test
+    public void testPutReplaceExistent() {
+
+        ZMSFileChangeLogStoreCommon fstore = new ZMSFileChangeLogStoreCommon(FSTORE_PATH);
+        Struct data = new Struct();
+        data.put("key", "val1");
+        fstore.put("test1", JSON.bytes(data));
+
+        data.put("key", "val2");
+        fstore.put("test1", JSON.bytes(data));
+
+        Struct st = fstore.get("test1", Struct.class);
+        assertNotNull(st);
+        assertEquals(st.get("key"), "val2");
+
+        // the temporary file must be removed after the update
+
+        assertFalse(new File(FSTORE_PATH, ".test1.tmp").exists());
+        assertFalse(fstore.getLocalDomainList().contains(".test1.tmp"));
+    }
+
+    @Test
+    public void testPutMoveException() throws IOException {
+
+        ZMSFileChangeLogStoreCommon fstore = new ZMSFileChangeLogStoreCommon(FSTORE_PATH);
+        FilesHelper helper = Mockito.mock(FilesHelper.class);
+        Mockito.when(helper.move(any(), any()))
+                .thenThrow(new IOException("io exception"));
+        fstore.filesHelper = helper;
+
+        Struct data = new Struct();
+        data.put("key", "val1");
+        try {
+            fstore.put("test1", JSON.bytes(data));
+            fail();
+        } catch (Exception ex) {
+            assertTrue(ex.getMessage().contains("io exception"));
+        }
+    }
+
     @Test
     public void testDeleteExistent() {
 
@@ -554,6 +595,127 @@ public class ZMSFileChangeLogStoreCommonTest {
         assertEquals(returnList.size(), 1);
     }
 
+    @Test
+    public void testGetJWSDomainListOrder() {
+        ZMSFileChangeLogStoreCommon fstore = new ZMSFileChangeLogStoreCommon(FSTORE_PATH);
+        ZMSClient zmsClient = Mockito.mock(ZMSClient.class);
+
+        List<SignedDomain> domains = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final String domainName = "domain" + i;
+            domains.add(new SignedDomain().setDomain(new DomainData().setName(domainName)));
+            Mockito.when(zmsClient.getJWSDomain(domainName, null, null))
+                    .thenReturn(new JWSDomain().setPayload(domainName));
+        }
+        SignedDomains domainList = new SignedDomains().setDomains(domains);
+
+        // our first domain is going to be the slowest one to fetch but
+        // the domains must still be returned in the original order
+
+        Mockito.when(zmsClient.getJWSDomain("domain0", null, null)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return new JWSDomain().setPayload("domain0");
+        });
+
+        List<JWSDomain> returnList = fstore.getJWSDomainList(zmsClient, domainList);
+        assertEquals(returnList.size(), 10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(returnList.get(i).getPayload(), "domain" + i);
+        }
+
+        // the thread pool is reused for the next fetch
+
+        ExecutorService threadPool = fstore.getDomainFetchThreadPool();
+        returnList = fstore.getJWSDomainList(zmsClient, domainList);
+        assertEquals(returnList.size(), 10);
+        assertSame(fstore.getDomainFetchThreadPool(), threadPool);
+
+        // and released when the store is closed
+
+        fstore.close();
+        assertTrue(threadPool.isShutdown());
+        fstore.close();
+
+        // same result when the domains are fetched sequentially
+
+        fstore.domainFetchThreads = 1;
+        returnList = fstore.getJWSDomainList(zmsClient, domainList);
+        assertEquals(returnList.size(), 10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(returnList.get(i).getPayload(), "domain" + i);
+        }
+    }
+
+    @Test
+    public void testGetJWSDomainListException() {
+        ZMSFileChangeLogStoreCommon fstore = new ZMSFileChangeLogStoreCommon(FSTORE_PATH);
+        ZMSClient zmsClient = Mockito.mock(ZMSClient.class);
+
+        List<SignedDomain> domains = new ArrayList<>();
+        domains.add(new SignedDomain().setDomain(new DomainData().setName("athenz")));
+        domains.add(new SignedDomain().setDomain(new DomainData().setName("sports")));
+        SignedDomains domainList = new SignedDomains().setDomains(domains);
+
+        Mockito.when(zmsClient.getJWSDomain("athenz", null, null)).thenReturn(new JWSDomain());
+        Mockito.when(zmsClient.getJWSDomain("sports", null, null))
+                .thenThrow(new IllegalStateException("invalid response"));
+
+        // any unexpected failure must be reported back to the caller
+
+        try {
+            fstore.getJWSDomainList(zmsClient, domainList);
+            fail();
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testGetJWSDomainListInterrupted() {
+        ZMSFileChangeLogStoreCommon fstore = new ZMSFileChangeLogStoreCommon(FSTORE_PATH);
+        ZMSClient zmsClient = Mockito.mock(ZMSClient.class);
+
+        List<SignedDomain> domains = new ArrayList<>();
+        domains.add(new SignedDomain().setDomain(new DomainData().setName("athenz")));
+        domains.add(new SignedDomain().setDomain(new DomainData().setName("sports")));
+        SignedDomains domainList = new SignedDomains().setDomains(domains);
+
+        Mockito.when(zmsClient.getJWSDomain(any(), any(), any())).thenReturn(new JWSDomain());
+
+        Thread.currentThread().interrupt();
+        try {
+            fstore.getJWSDomainList(zmsClient, domainList);
+            fail();
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof InterruptedException);
+        }
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    public void testGetUpdatedJWSDomainsConsumer() {
+        ZMSFileChangeLogStoreCommon fstore = new ZMSFileChangeLogStoreCommon(FSTORE_PATH);
+        ZMSClient zmsClient = Mockito.mock(ZMSClient.class);
+
+        List<SignedDomain> domains = new ArrayList<>();
+        domains.add(new SignedDomain().setDomain(new DomainData().setName("athenz")));
+        SignedDomains domainList = new SignedDomains().setDomains(domains);
+
+        Mockito.when(zmsClient.getSignedDomains(any(), any(), any(), Mockito.anyBoolean(), Mockito.anyBoolean(),
+                any(), any())).thenAnswer(invocation -> {
+                    Map<String, List<String>> responseHeaders = invocation.getArgument(6);
+                    responseHeaders.put("tag", Collections.singletonList("etag"));
+                    return domainList;
+                });
+        Mockito.when(zmsClient.getJWSDomain("athenz", null, null)).thenReturn(new JWSDomain());
+
+        List<JWSDomain> jwsDomains = new ArrayList<>();
+        StringBuilder lastModTimeBuffer = new StringBuilder();
+        assertTrue(fstore.getUpdatedJWSDomains(zmsClient, lastModTimeBuffer, jwsDomains::add));
+        assertEquals(jwsDomains.size(), 1);
+        assertEquals(lastModTimeBuffer.toString(), "etag");
+    }
+
     @Test
     public void testGetServerJWSDomain() {
         ZMSFileChangeLogStoreCommon fstore = new ZMSFileChangeLogStoreCommon(FSTORE_PATH);
@@ -415,12 +415,22 @@ public class ZMSFileChangeLogStoreTest {
         assertTrue(storeCommon.requestConditions);
     }
 
+    @Test
+    public void testClose() throws Exception {
+        MockZMSFileChangeLogStore fstore = new MockZMSFileChangeLogStore(FSTORE_PATH, null, null);
+        ZMSFileChangeLogStoreCommon storeCommon = Mockito.mock(ZMSFileChangeLogStoreCommon.class);
+        fstore.setChangeLogStoreCommon(storeCommon);
+        fstore.close();
+        Mockito.verify(storeCommon, Mockito.times(1)).close();
+    }
+
     @Test
     public void testGetUpdatedJWSDomainsNull() {
         MockZMSFileChangeLogStore store = new MockZMSFileChangeLogStore(FSTORE_PATH, null, "0");
         store.setSignedDomainsExc();
         StringBuilder str = new StringBuilder();
         assertNull(store.getUpdatedJWSDomains(str));
+        assertFalse(store.getUpdatedJWSDomains(str, jwsDomain -> fail()));
     }
 
     @Test
@@ -430,6 +440,7 @@ public class ZMSFileChangeLogStoreTest {
         store.setSignedDomains(domains);
         StringBuilder str = new StringBuilder();
         assertNull(store.getUpdatedJWSDomains(str));
+        assertFalse(store.getUpdatedJWSDomains(str, jwsDomain -> fail()));
     }
 
     @Test
@@ -476,6 +476,16 @@ public class ZMSFileMTLSChangeLogStoreTest {
         assertTrue(storeCommon.requestConditions);
     }
 
+    @Test
+    public void testClose() throws Exception {
+        MockZMSFileMTLSChangeLogStore fstore = new MockZMSFileMTLSChangeLogStore(FSTORE_PATH, keyPath, certPath,
+                trustStorePath, trustStorePassword);
+        ZMSFileChangeLogStoreCommon storeCommon = Mockito.mock(ZMSFileChangeLogStoreCommon.class);
+        fstore.setChangeLogStoreCommon(storeCommon);
+        fstore.close();
+        Mockito.verify(storeCommon, Mockito.times(1)).close();
+    }
+
     @Test
     public void testGetUpdatedJWSDomainsNull() throws KeyRefresherException, IOException, InterruptedException {
         MockZMSFileMTLSChangeLogStore fstore = new MockZMSFileMTLSChangeLogStore(FSTORE_PATH, keyPath, certPath,
@@ -483,6 +493,7 @@ public class ZMSFileMTLSChangeLogStoreTest {
         fstore.setSignedDomainsExc();
         StringBuilder str = new StringBuilder();
         assertNull(fstore.getUpdatedJWSDomains(str));
+        assertFalse(fstore.getUpdatedJWSDomains(str, jwsDomain -> fail()));
     }
 
     @Test
@@ -573,6 +584,10 @@ public class ZMSFileMTLSChangeLogStoreTest {
         assertNotNull(retDomains);
         assertEquals(retDomains.size(), 1);
 
+        retDomains = new ArrayList<>();
+        assertTrue(store.getUpdatedJWSDomains(str, retDomains::add));
+        assertEquals(retDomains.size(), 1);
+
         // now set the signed domains to be null
 
         store.setSignedDomains(null);
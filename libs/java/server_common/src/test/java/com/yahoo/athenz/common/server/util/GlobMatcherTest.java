@@ -0,0 +1,71 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.common.server.util;
+
+import com.yahoo.athenz.auth.util.StringUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class GlobMatcherTest {
+
+    @DataProvider(name = "globs")
+    public static Object[][] globs() {
+        return new Object[][] {
+                { "*", "coretech:resource1" },
+                { "*", "" },
+                { "read", "read" },
+                { "read", "reader" },
+                { "read", "rea" },
+                { "coretech:*", "coretech:resource1" },
+                { "coretech:*", "coretech:" },
+                { "coretech:*", "coretech" },
+                { "coretech:*", "sports:resource1" },
+                { "coretech:role.*", "coretech:role.readers" },
+                { "coretech:role.*", "coretechXrole.readers" },
+                { "coretech:role.reader?", "coretech:role.readers" },
+                { "coretech:role.reader?", "coretech:role.reader" },
+                { "*:role.readers", "coretech:role.readers" },
+                { "*:role.readers", "coretech:role.writers" },
+                { "coretech:*.resource", "coretech:service.resource" },
+                { "coretech:*.resource", "coretech:service.resource2" },
+                { "coretech.api", "coretech.api" },
+                { "coretech.api", "coretechXapi" },
+                { "coretech:(resource)", "coretech:(resource)" },
+                { "coretech:res[1]*", "coretech:res[1]2" },
+                { "coretech:$res^+{1}|", "coretech:$res^+{1}|" },
+                { "coretech:\\res*", "coretech:\\res1" },
+        };
+    }
+
+    @Test(dataProvider = "globs")
+    public void testMatchesSameAsPattern(final String glob, final String value) {
+        final boolean expected = value.matches(StringUtils.patternFromGlob(glob));
+        assertEquals(GlobMatcher.compile(glob).matches(value), expected);
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(GlobMatcher.compile("*").matches("anything"));
+        assertTrue(GlobMatcher.compile("read").matches("read"));
+        assertFalse(GlobMatcher.compile("read").matches("write"));
+        assertTrue(GlobMatcher.compile("coretech:*").matches("coretech:resource"));
+        assertFalse(GlobMatcher.compile("coretech:*").matches("sports:resource"));
+        assertTrue(GlobMatcher.compile("co?etech:*").matches("coretech:resource"));
+        assertFalse(GlobMatcher.compile("co?etech:*").matches("cooretech:resource"));
+    }
+}
@@ -17,12 +17,16 @@ package com.yahoo.athenz.zms;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
 import com.yahoo.athenz.auth.AuthorityConsts;
 import com.yahoo.athenz.auth.Principal;
 import com.yahoo.athenz.auth.impl.SimplePrincipal;
 import com.yahoo.athenz.auth.util.AthenzUtils;
 import com.yahoo.athenz.auth.util.StringUtils;
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
 import com.yahoo.athenz.common.messaging.DomainChangeMessage;
+import com.yahoo.athenz.common.metrics.Metric;
 import com.yahoo.athenz.common.server.audit.AuditReferenceValidator;
 import com.yahoo.athenz.common.server.db.RolesProvider;
 import com.yahoo.athenz.common.server.log.AuditLogMsgBuilder;
@@ -44,6 +48,7 @@ import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -87,9 +92,18 @@ public class DBService implements RolesProvider {
     private static final String AUDIT_REF = "Athenz User Authority Enforcer";
     private static final String AWS_ARN_PREFIX  = "arn:aws:iam::";
     private static final String GCP_ARN_PREFIX  = "projects/";
+    private static final int DOMAIN_CACHE_SKETCH_WIDTH = 65536;
 
     AuditReferenceValidator auditReferenceValidator;
     private final ScheduledExecutorService userAuthorityFilterExecutor;
+    DomainCacheValidator domainCacheValidator;
+    long domainCacheMaxWeight;
+    int domainCacheMinFrequency;
+    DomainFrequencySketch domainCacheSketch;
+    final AtomicLong domainCacheWeight = new AtomicLong();
+    final AtomicLong domainCacheRejections = new AtomicLong();
+    private CacheStats domainCacheStats = new CacheStats(0, 0, 0, 0, 0, 0);
+    private ScheduledExecutorService domainCacheStatsExecutor;
     protected DynamicConfigInteger purgeMembersMaxDbCallsPerRun;
     protected DynamicConfigInteger purgeMembersLimitPerCall;
     protected DynamicConfigInteger purgeMemberExpiryDays;
@@ -102,7 +116,7 @@ public class DBService implements RolesProvider {
         this.zmsConfig = zmsConfig;
         this.auditLogger = auditLogger;
         this.authHistoryStore = authHistoryStore;
-        cacheStore = CacheBuilder.newBuilder().concurrencyLevel(25).build();
+        loadDomainCacheStore();
 
         awsAssumeRoleAction = System.getProperty(ZMSConsts.ZMS_PROP_AWS_ASSUME_ROLE_ACTION,
                 ZMSConsts.ACTION_ASSUME_AWS_ROLE);
@@ -182,6 +196,97 @@ public class DBService implements RolesProvider {
 
         minReviewDaysPercentage = new DynamicConfigInteger(CONFIG_MANAGER,
                 ZMSConsts.ZMS_PROP_REVIEW_DAYS_PERCENTAGE, ZMSConsts.ZMS_PROP_REVIEW_DAYS_PERCENTAGE_DEFAULT);
+
+        // if configured, we're going to trust our cached domains for the
+        // lease time instead of checking the domain modification timestamp
+        // in the store for every cached domain read
+
+        final long domainCacheLeaseTime = Long.parseLong(
+                System.getProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_LEASE_TIME, "0"));
+        if (domainCacheLeaseTime > 0) {
+            domainCacheValidator = new DomainCacheValidator(this, domainCacheLeaseTime);
+        }
+    }
+
+    void loadDomainCacheStore() {
+
+        // by default our domain cache is not bounded. if configured, the
+        // cache is bounded by the estimated weight of the cached domains
+        // and new domains are only admitted when the cache is full if
+        // they have been requested at least min frequency times recently
+        // so one-off domain scans do not evict the frequently used domains
+
+        domainCacheMaxWeight = Long.parseLong(System.getProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_MAX_WEIGHT, "0"));
+        domainCacheMinFrequency = Integer.parseInt(System.getProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_MIN_FREQUENCY, "2"));
+
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+        if (domainCacheMaxWeight > 0) {
+
+            // guava splits the max weight evenly across its segments and
+            // evicts per segment, so with multiple segments any domain
+            // heavier than the segment share would be evicted right away
+            // and eviction would not match our global weight accounting
+
+            domainCacheSketch = new DomainFrequencySketch(DOMAIN_CACHE_SKETCH_WIDTH);
+            cacheStore = cacheBuilder.concurrencyLevel(1).maximumWeight(domainCacheMaxWeight)
+                    .weigher((String domainName, DataCache data) -> data.getWeight())
+                    .removalListener((RemovalNotification<String, DataCache> notification) ->
+                            domainCacheWeight.addAndGet(-notification.getValue().getWeight()))
+                    .build();
+        } else {
+            cacheStore = cacheBuilder.concurrencyLevel(25).build();
+        }
+    }
+
+    /**
+     * Start the periodic reporting of the domain cache stats
+     * @param metric metric object to report the stats
+     */
+    void startDomainCacheStatsReporter(Metric metric) {
+        final long interval = Long.parseLong(System.getProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_STATS_INTERVAL, "60"));
+        if (metric == null || interval <= 0) {
+            return;
+        }
+        domainCacheStatsExecutor = Executors.newSingleThreadScheduledExecutor();
+        domainCacheStatsExecutor.scheduleAtFixedRate(() -> reportDomainCacheStats(metric),
+                interval, interval, TimeUnit.SECONDS);
+    }
+
+    void stopDomainCacheStatsReporter() {
+        if (domainCacheStatsExecutor != null) {
+            domainCacheStatsExecutor.shutdownNow();
+        }
+    }
+
+    void reportDomainCacheStats(Metric metric) {
+
+        // our metric interface only supports counters so we
+        // report the changes since our last run
+
+        CacheStats stats = cacheStore.stats();
+        CacheStats delta = stats.minus(domainCacheStats);
+        domainCacheStats = stats;
+
+        metric.increment("zms_domain_cache_hit", delta.hitCount());
+        metric.increment("zms_domain_cache_miss", delta.missCount());
+        metric.increment("zms_domain_cache_eviction", delta.evictionCount());
+        metric.increment("zms_domain_cache_rejection", domainCacheRejections.getAndSet(0));
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("domain cache: size={}, weight={}, stats={}", cacheStore.size(),
+                    domainCacheWeight.get(), stats);
+        }
+    }
+
+    /**
+     * Start the domain cache validator, if one is configured, with
+     * the given subscribers for the domain change messages
+     * @param subscribers list of domain change subscribers
+     */
+    void startDomainCacheValidator(List<ChangeSubscriber<DomainChangeMessage>> subscribers) {
+        if (domainCacheValidator != null) {
+            domainCacheValidator.start(subscribers);
+        }
     }
 
     void setAuditRefObjectBits() {
@@ -248,10 +353,12 @@ public class DBService implements RolesProvider {
     static class DataCache {
         AthenzDomain athenzDomain;
         long modTime;
+        int weight;
 
         DataCache(AthenzDomain athenzDomain, long modTime) {
             this.athenzDomain = athenzDomain;
             this.modTime = modTime;
+            this.weight = estimateWeight(athenzDomain);
         }
 
         AthenzDomain getAthenzDomain() {
@@ -261,6 +368,53 @@ public class DBService implements RolesProvider {
         long getModTime() {
             return modTime;
         }
+
+        int getWeight() {
+            return weight;
+        }
+
+        /**
+         * Estimate the footprint of the domain as the number of objects
+         * it contains - the domain itself, its roles and groups with their
+         * members, policies with their assertions, services with their
+         * public keys and hosts, and entities.
+         * @param athenzDomain domain to estimate
+         * @return estimated weight of the domain
+         */
+        static int estimateWeight(AthenzDomain athenzDomain) {
+
+            if (athenzDomain == null) {
+                return 1;
+            }
+
+            long weight = 1;
+            if (athenzDomain.getRoles() != null) {
+                for (Role role : athenzDomain.getRoles()) {
+                    weight += 1 + sizeOf(role.getRoleMembers());
+                }
+            }
+            if (athenzDomain.getGroups() != null) {
+                for (Group group : athenzDomain.getGroups()) {
+                    weight += 1 + sizeOf(group.getGroupMembers());
+                }
+            }
+            if (athenzDomain.getPolicies() != null) {
+                for (Policy policy : athenzDomain.getPolicies()) {
+                    weight += 1 + sizeOf(policy.getAssertions());
+                }
+            }
+            if (athenzDomain.getServices() != null) {
+                for (ServiceIdentity service : athenzDomain.getServices()) {
+                    weight += 1 + sizeOf(service.getPublicKeys()) + sizeOf(service.getHosts());
+                }
+            }
+            weight += sizeOf(athenzDomain.getEntities());
+            return (int) Math.min(weight, Integer.MAX_VALUE);
+        }
+
+        static int sizeOf(Collection<?> collection) {
+            return collection == null ? 0 : collection.size();
+        }
     }
 
     AthenzDomain getAthenzDomainFromCache(ObjectStoreConnection con, String domainName) {
@@ -270,6 +424,13 @@ public class DBService implements RolesProvider {
             return null;
         }
 
+        // if our cache lease is still valid then the cached domain is
+        // up-to-date and there is no need to check the store
+
+        if (domainCacheValidator != null && domainCacheValidator.isLeaseValid()) {
+            return data.getAthenzDomain();
+        }
+
         // if we have a match for a given domain name then we're going
         // to check if the last modified domain timestamp matches to what's
         // in the db: So if there is no match, then we'll take the hit
@@ -5825,6 +5986,13 @@ public class DBService implements RolesProvider {
 
     AthenzDomain getAthenzDomain(ObjectStoreConnection con, final String domainName) {
 
+        // keep track of how often the domain is requested so we
+        // can decide whether to admit it into a full cache
+
+        if (domainCacheSketch != null) {
+            domainCacheSketch.increment(domainName);
+        }
+
         // first check to see if we our data is in the cache
 
         AthenzDomain athenzDomain = getAthenzDomainFromCache(con, domainName);
@@ -5833,14 +6001,82 @@ public class DBService implements RolesProvider {
         }
 
         athenzDomain = con.getAthenzDomain(domainName);
+        cacheAthenzDomain(domainName, athenzDomain);
+
+        return athenzDomain;
+    }
+
+    /**
+     * Retrieve the given list of domains. The domains in our cache that
+     * have not been modified since are returned from the cache while the
+     * others are loaded from the store with a single batched request.
+     * The domains are not recorded as requested for our cache admission
+     * since this is used for domain exports.
+     * @param domains list of domains with their modification timestamps
+     * @param masterCopy flag to indicate whether to use the master copy
+     * @return map of domain names to domains. Deleted domains are not included
+     */
+    Map<String, AthenzDomain> getAthenzDomains(List<Domain> domains, boolean masterCopy) {
+
+        Map<String, AthenzDomain> athenzDomains = new HashMap<>();
+        List<String> domainNames = new ArrayList<>();
+        for (Domain domain : domains) {
+            DataCache data = cacheStore.getIfPresent(domain.getName());
+            if (data != null && domain.getModified() != null && data.getModTime() >= domain.getModified().millis()) {
+                athenzDomains.put(domain.getName(), data.getAthenzDomain());
+            } else {
+                domainNames.add(domain.getName());
+            }
+        }
+
+        if (domainNames.isEmpty()) {
+            return athenzDomains;
+        }
+
+        try (ObjectStoreConnection con = store.getConnection(true, masterCopy)) {
+            for (AthenzDomain athenzDomain : con.getAthenzDomains(domainNames)) {
+                cacheAthenzDomain(athenzDomain.getName(), athenzDomain);
+                athenzDomains.put(athenzDomain.getName(), athenzDomain);
+            }
+        }
+        return athenzDomains;
+    }
+
+    void cacheAthenzDomain(final String domainName, AthenzDomain athenzDomain) {
+
         athenzDomain.setRoleMemberPrincipalTypes(zmsConfig.getUserDomainPrefix(),
                 zmsConfig.getAddlUserCheckDomainPrefixList(), zmsConfig.getHeadlessUserDomainPrefix());
 
+        // build our access index once so that all access checks against
+        // the cached domain do not need to process the policies
+
+        athenzDomain.setAccessIndex(new AthenzDomainAccessIndex(athenzDomain));
+
         DataCache dataCache = new DataCache(athenzDomain,
                 athenzDomain.getDomain().getModified().millis());
-        cacheStore.put(domainName, dataCache);
+        putDomainCache(domainName, dataCache);
+    }
 
-        return athenzDomain;
+    void putDomainCache(final String domainName, DataCache dataCache) {
+
+        if (domainCacheSketch == null) {
+            cacheStore.put(domainName, dataCache);
+            return;
+        }
+
+        // if adding the domain would exceed our max weight then
+        // we only admit it if it's frequently requested otherwise
+        // we would be evicting other domains for a one-off read
+
+        final int weight = dataCache.getWeight();
+        if (domainCacheWeight.get() + weight > domainCacheMaxWeight
+                && domainCacheSketch.frequency(domainName) < domainCacheMinFrequency) {
+            domainCacheRejections.incrementAndGet();
+            return;
+        }
+
+        domainCacheWeight.addAndGet(weight);
+        cacheStore.put(domainName, dataCache);
     }
 
     DomainMetaList listModifiedDomains(long modifiedSince, boolean readWrite) {
@@ -0,0 +1,176 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms;
+
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import com.yahoo.athenz.common.messaging.DomainChangeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates the domains cached by DBService using a lease. While the lease
+ * is valid, the cached domains are returned without checking the domain
+ * modification timestamp in the store on every read. The lease is renewed
+ * periodically with a single query for all domains modified since the last
+ * check, and the domains updated through other ZMS servers are invalidated
+ * as soon as their domain change messages are received.
+ */
+public class DomainCacheValidator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainCacheValidator.class);
+
+    private final DBService dbService;
+    private final long leaseTime;
+    private final List<ChangeSubscriber<DomainChangeMessage>> subscribers = new ArrayList<>();
+    private ScheduledExecutorService validatorExecutor;
+    private ExecutorService subscriberExecutor;
+
+    volatile long leaseStartTime;
+    long lastCheckTime;
+
+    /**
+     * Create a new domain cache validator
+     * @param dbService db service object whose domain cache is validated
+     * @param leaseTime lease time in milliseconds
+     */
+    public DomainCacheValidator(DBService dbService, long leaseTime) {
+
+        this.dbService = dbService;
+        this.leaseTime = leaseTime;
+
+        // the cache is empty when the validator is created, so
+        // we can start with a valid lease
+
+        leaseStartTime = System.currentTimeMillis();
+        lastCheckTime = leaseStartTime;
+    }
+
+    /**
+     * Start the periodic validation of the cache and the given
+     * subscribers for the domain change messages
+     * @param changeSubscribers list of domain change subscribers
+     */
+    public void start(List<ChangeSubscriber<DomainChangeMessage>> changeSubscribers) {
+
+        for (ChangeSubscriber<DomainChangeMessage> subscriber : changeSubscribers) {
+            subscriber.init(this::processMessage, DomainChangeMessage.class);
+            subscribers.add(subscriber);
+        }
+
+        if (!subscribers.isEmpty()) {
+            subscriberExecutor = Executors.newFixedThreadPool(subscribers.size());
+            subscribers.forEach(subscriberExecutor::submit);
+        }
+
+        // we validate the cache twice within the lease time so that
+        // the lease does not expire while our query is running
+
+        final long interval = Math.max(1, leaseTime / 2);
+        validatorExecutor = Executors.newSingleThreadScheduledExecutor();
+        validatorExecutor.scheduleWithFixedDelay(this::validateCache, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        for (ChangeSubscriber<DomainChangeMessage> subscriber : subscribers) {
+            try {
+                subscriber.close();
+            } catch (Exception ex) {
+                LOGGER.error("unable to close domain cache subscriber", ex);
+            }
+        }
+        if (subscriberExecutor != null) {
+            subscriberExecutor.shutdownNow();
+        }
+        if (validatorExecutor != null) {
+            validatorExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isLeaseValid() {
+        return System.currentTimeMillis() - leaseStartTime < leaseTime;
+    }
+
+    void processMessage(DomainChangeMessage message) {
+
+        final String domainName = message.getDomainName();
+        if (domainName == null || domainName.isEmpty()) {
+            return;
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("invalidating cached domain {} for api {}", domainName, message.getApiName());
+        }
+
+        dbService.cacheStore.invalidate(domainName);
+    }
+
+    void validateCache() {
+
+        final long checkTime = System.currentTimeMillis();
+        try {
+            // we're going to go back by our lease time from our last check so
+            // we also pick up any changes that were committed while our previous
+            // query was running or not yet visible at that time
+
+            DomainMetaList domainList = dbService.listModifiedDomains(lastCheckTime - leaseTime, true);
+
+            int invalidatedDomains = 0;
+            if (domainList != null && domainList.getDomains() != null) {
+                for (Domain domain : domainList.getDomains()) {
+                    if (invalidateDomain(domain)) {
+                        invalidatedDomains += 1;
+                    }
+                }
+            }
+
+            lastCheckTime = checkTime;
+            leaseStartTime = checkTime;
+
+            if (invalidatedDomains > 0) {
+                LOGGER.info("Invalidated {} cached domains in {} ms", invalidatedDomains,
+                        System.currentTimeMillis() - checkTime);
+            }
+
+        } catch (Exception ex) {
+
+            // we're not going to renew our lease so once it expires
+            // the cached domains will be validated on every read
+
+            LOGGER.error("Unable to validate domain cache: {}", ex.getMessage());
+        }
+    }
+
+    boolean invalidateDomain(Domain domain) {
+
+        // we're not going to use getIfPresent so our checks are not
+        // included in the cache hit/miss stats
+
+        DBService.DataCache data = dbService.cacheStore.asMap().get(domain.getName());
+        if (data == null || domain.getModified() == null || data.getModTime() >= domain.getModified().millis()) {
+            return false;
+        }
+
+        dbService.cacheStore.invalidate(domain.getName());
+        return true;
+    }
+}
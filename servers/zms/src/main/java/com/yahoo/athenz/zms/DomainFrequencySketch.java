@@ -0,0 +1,122 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch to estimate how often each domain has been requested
+ * recently. The counters are capped and all of them are halved once the
+ * number of recorded requests reaches the sample size so the estimates
+ * reflect the recent access frequency rather than the full history.
+ * The sketch is updated on every domain read so it does not use any
+ * locks - concurrent updates might occasionally be lost or counted while
+ * the counters are being halved which is acceptable for an estimate.
+ */
+public class DomainFrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    private final AtomicIntegerArray[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicBoolean resetInProgress = new AtomicBoolean(false);
+    final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * Create a new frequency sketch
+     * @param width number of counters in each row, rounded up to a power of two
+     */
+    public DomainFrequencySketch(int width) {
+        int tableSize = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+        table = new AtomicIntegerArray[SEEDS.length];
+        for (int i = 0; i < SEEDS.length; i++) {
+            table[i] = new AtomicIntegerArray(tableSize);
+        }
+        tableMask = tableSize - 1;
+        sampleSize = 10 * tableSize;
+    }
+
+    /**
+     * Record a request for the given domain
+     * @param domainName name of the domain
+     */
+    public void increment(final String domainName) {
+
+        final int hash = domainName.hashCode();
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementCounter(table[i], indexOf(hash, i));
+        }
+
+        // only a single thread ages the counters once we reach our
+        // sample size while the others continue without waiting
+
+        if (added && additions.incrementAndGet() >= sampleSize
+                && resetInProgress.compareAndSet(false, true)) {
+            try {
+                reset();
+            } finally {
+                resetInProgress.set(false);
+            }
+        }
+    }
+
+    boolean incrementCounter(AtomicIntegerArray row, int index) {
+        int count;
+        do {
+            count = row.get(index);
+            if (count >= MAX_COUNT) {
+                return false;
+            }
+        } while (!row.compareAndSet(index, count, count + 1));
+        return true;
+    }
+
+    /**
+     * Return the estimated number of recent requests for the given domain
+     * @param domainName name of the domain
+     * @return estimated frequency
+     */
+    public int frequency(final String domainName) {
+
+        final int hash = domainName.hashCode();
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, table[i].get(indexOf(hash, i)));
+        }
+        return frequency;
+    }
+
+    void reset() {
+        for (AtomicIntegerArray row : table) {
+            for (int i = 0; i < row.length(); i++) {
+                row.getAndUpdate(i, count -> count >>> 1);
+            }
+        }
+        additions.updateAndGet(count -> count / 2);
+    }
+
+    int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += (h >>> 32);
+        return ((int) h) & tableMask;
+    }
+}
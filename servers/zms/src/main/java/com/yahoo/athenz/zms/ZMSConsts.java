@@ -106,6 +106,7 @@ public final class ZMSConsts {
 
     public static final String ZMS_PROP_VALIDATE_SERVICE_MEMBERS_SKIP_DOMAINS = "athenz.zms.validate_service_members_skip_domains";
     public static final String ZMS_PROP_MASTER_COPY_FOR_SIGNED_DOMAINS        = "athenz.zms.master_copy_for_signed_domains";
+    public static final String ZMS_PROP_SIGNED_DOMAINS_BATCH_SIZE             = "athenz.zms.signed_domains_batch_size";
     public static final String ZMS_PROP_ALLOW_UNDERSCORE_IN_SERVICE_NAMES     = "athenz.zms.allow_underscore_in_service_names";
 
     // properties used to over-ride default Audit logger
@@ -164,6 +165,8 @@ public final class ZMSConsts {
 
     public static final String ZMS_PROP_MYSQL_SERVER_TIMEZONE = "athenz.zms.mysql_server_timezone";
     public static final String ZMS_PROP_MYSQL_SERVER_TRUST_ROLES_UPDATE_TIMEOUT = "athenz.zms.mysql_server_trust_roles_update_timeout";
+    public static final String ZMS_PROP_MYSQL_SERVER_ROLE_ASSERTIONS_INDEX = "athenz.zms.mysql_server_role_assertions_index";
+    public static final String ZMS_PROP_MYSQL_SERVER_ROLE_ASSERTIONS_INDEX_TIMEOUT = "athenz.zms.mysql_server_role_assertions_index_timeout";
 
     public static final String ZMS_PRINCIPAL_AUTHORITY_CLASS  = "com.yahoo.athenz.auth.impl.PrincipalAuthority";
 
@@ -271,6 +274,9 @@ public final class ZMSConsts {
     public static final String DB_COLUMN_ACTIVE             = "active";
     public static final String DB_COLUMN_VERSION            = "version";
     public static final String DB_COLUMN_POLICY_ID          = "policy_id";
+    public static final String DB_COLUMN_ROLE_ID            = "role_id";
+    public static final String DB_COLUMN_GROUP_ID           = "group_id";
+    public static final String DB_COLUMN_SERVICE_ID         = "service_id";
     public static final String DB_COLUMN_FEATURE_FLAGS      = "feature_flags";
     public static final String DB_COLUMN_MAX_MEMBERS        = "max_members";
     public static final String DB_COLUMN_SELF_RENEW         = "self_renew";
@@ -351,6 +357,7 @@ public final class ZMSConsts {
     public static final String SYS_AUTH_MONITOR = "sys.auth.monitor";
     public static final String ZMS_PROP_MONITOR_IDENTITY = "athenz.zms.monitor_identity";
     public static final String ZMS_PROP_CONSOLIDATE_NOTIFICATIONS = "athenz.zms.consolidate_notifications";
+    public static final String ZMS_PROP_NOTIFICATION_DOMAIN_FETCH_THREADS = "athenz.zms.notification_domain_fetch_threads";
 
     public static final int ZMS_DISABLED_AUTHORITY_FILTER = 0x01;
 
@@ -376,6 +383,15 @@ public final class ZMSConsts {
     public static final String ZMS_PROP_DOMAIN_CHANGE_PUBLISHER_FACTORY_CLASS = "athenz.zms.domain_change_publisher_factory_class";
     public static final String ZMS_PROP_DOMAIN_CHANGE_PUBLISHER_DEFAULT = "com.yahoo.athenz.common.messaging.impl.NoOpDomainChangePublisherFactory";
 
+    public static final String ZMS_PROP_DOMAIN_CACHE_LEASE_TIME = "athenz.zms.domain_cache_lease_time";
+    public static final String ZMS_PROP_DOMAIN_CACHE_TOPIC_NAMES = "athenz.zms.domain_cache_topic_names";
+    public static final String ZMS_PROP_DOMAIN_CACHE_SUBSCRIBER_FACTORY_CLASS = "athenz.zms.domain_cache_subscriber_factory_class";
+    public static final String ZMS_PROP_DOMAIN_CACHE_SUBSCRIBER_DEFAULT = "com.yahoo.athenz.common.messaging.pulsar.PulsarFactory";
+    public static final String ZMS_PROP_DOMAIN_CACHE_SUBSCRIPTION_NAME = "athenz.zms.domain_cache_subscription_name";
+    public static final String ZMS_PROP_DOMAIN_CACHE_MAX_WEIGHT = "athenz.zms.domain_cache_max_weight";
+    public static final String ZMS_PROP_DOMAIN_CACHE_MIN_FREQUENCY = "athenz.zms.domain_cache_min_frequency";
+    public static final String ZMS_PROP_DOMAIN_CACHE_STATS_INTERVAL = "athenz.zms.domain_cache_stats_interval";
+
     public static final String DISABLE_REMINDER_NOTIFICATIONS_TAG = "zms.DisableReminderNotifications";
     public static final String DISABLE_EXPIRATION_NOTIFICATIONS_TAG = "zms.DisableExpirationNotifications";
     public static final String ZMS_PROP_PROVIDER_READ_TIMEOUT       = "athenz.zms.provider.client.read_timeout";
@@ -426,6 +442,8 @@ public final class ZMSConsts {
     public static final String ZMS_PROP_REVIEW_DAYS_PERCENTAGE  = "athenz.zms.review_days_percentage";
     public static final Integer ZMS_PROP_REVIEW_DAYS_PERCENTAGE_DEFAULT = 68;
 
+    public static final String ZMS_PROP_JWS_DOMAIN_CACHE_ENABLED = "athenz.zms.jws_domain_cache_enabled";
+
     // ZMS feature flag bits
     public static final int ZMS_FEATURE_ALLOW_SERVICE_UNDERSCORE = 0x01;
 }
@@ -27,6 +27,8 @@ import com.yahoo.athenz.common.config.AuthzDetailsEntity;
 import com.yahoo.athenz.common.config.AuthzDetailsField;
 import com.yahoo.athenz.common.messaging.ChangePublisher;
 import com.yahoo.athenz.common.messaging.ChangePublisherFactory;
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import com.yahoo.athenz.common.messaging.ChangeSubscriberFactory;
 import com.yahoo.athenz.common.messaging.DomainChangeMessage;
 import com.yahoo.athenz.common.metrics.Metric;
 import com.yahoo.athenz.common.metrics.MetricFactory;
@@ -186,6 +188,8 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
     protected DynamicConfigBoolean validatePolicyAssertionRoles;
     protected DynamicConfigBoolean allowUnderscoreInServiceNames;
     protected boolean useMasterCopyForSignedDomains = false;
+    protected int signedDomainsBatchSize = 100;
+    protected boolean jwsDomainCacheEnabled = true;
     protected List<String> validateServiceMemberSkipDomains;
     protected static Validator validator;
     protected String userDomain;
@@ -694,6 +698,14 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
         
         loadDomainChangePublisher();
 
+        // start the domain cache validator with the subscribers for
+        // the domain changes carried out through other ZMS servers
+
+        loadDomainCacheValidator();
+
+        // start reporting our domain cache stats
+
+        dbService.startDomainCacheStatsReporter(metric);
     }
 
     void loadJsonMapper() {
@@ -742,6 +754,45 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
         return null;
     }
 
+    void loadDomainCacheValidator() {
+        List<ChangeSubscriber<DomainChangeMessage>> subscribers = new ArrayList<>();
+        final String topicNames = System.getProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_TOPIC_NAMES, "");
+        for (String topic : topicNames.split(",")) {
+            topic = topic.trim();
+            if (!topic.isEmpty()) {
+                ChangeSubscriber<DomainChangeMessage> subscriber = createSubscriber(topic);
+                if (subscriber != null) {
+                    subscribers.add(subscriber);
+                }
+            }
+        }
+        dbService.startDomainCacheValidator(subscribers);
+    }
+
+    private ChangeSubscriber<DomainChangeMessage> createSubscriber(String topicName) {
+        ChangeSubscriberFactory<DomainChangeMessage> subscriberFactory;
+        final String subscriberClassName = System.getProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_SUBSCRIBER_FACTORY_CLASS,
+            ZMSConsts.ZMS_PROP_DOMAIN_CACHE_SUBSCRIBER_DEFAULT);
+        try {
+            subscriberFactory = (ChangeSubscriberFactory<DomainChangeMessage>) Class.forName(subscriberClassName).getDeclaredConstructor().newInstance();
+        } catch (Exception ex) {
+            LOG.error("unable to initialize subscriber factory for: {}", subscriberClassName, ex);
+            return null;
+        }
+
+        // every server must receive all the changes so each one
+        // requires its own exclusive subscription
+
+        final String subscriptionName = System.getProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_SUBSCRIPTION_NAME,
+            "zms-" + serverHostName);
+        try {
+            return subscriberFactory.create(keyStore, topicName, subscriptionName, "Exclusive");
+        } catch (Exception ex) {
+            LOG.error("unable to create a subscriber for topic: {}", topicName, ex);
+        }
+        return null;
+    }
+
     private void initializePrincipalStateUpdater() {
         if (Boolean.parseBoolean(System.getProperty(ZMSConsts.ZMS_PROP_ENABLE_PRINCIPAL_STATE_UPDATER, "false"))) {
             new PrincipalStateUpdater(this.dbService, this.userAuthority);
@@ -891,6 +942,19 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
         useMasterCopyForSignedDomains = Boolean.parseBoolean(
                 System.getProperty(ZMSConsts.ZMS_PROP_MASTER_COPY_FOR_SIGNED_DOMAINS, "false"));
 
+        // number of domains loaded from the store with a single batched
+        // request when returning the full signed domain data for all
+        // modified domains. value of 1 or less disables batching
+
+        signedDomainsBatchSize = Integer.parseInt(
+                System.getProperty(ZMSConsts.ZMS_PROP_SIGNED_DOMAINS_BATCH_SIZE, "100"));
+
+        // check if we should cache the signed jws domain objects with
+        // the domain data in our cache
+
+        jwsDomainCacheEnabled = Boolean.parseBoolean(
+                System.getProperty(ZMSConsts.ZMS_PROP_JWS_DOMAIN_CACHE_ENABLED, "true"));
+
         // get the maximum length allowed for a top level domain name
 
         domainNameMaxLen = Integer.parseInt(System.getProperty(
@@ -2975,6 +3039,19 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
         return domain;
     }
 
+    Map<String, AthenzDomain> getAthenzDomains(List<Domain> domains, boolean masterCopy) {
+
+        // if we're not able to load our domains in a single batch
+        // then we'll fall back to retrieving them one at a time
+
+        try {
+            return dbService.getAthenzDomains(domains, masterCopy);
+        } catch (ResourceException ex) {
+            LOG.error("unable to load batch of {} domains: {}", domains.size(), ex.getMessage());
+        }
+        return null;
+    }
+
     AthenzDomain retrieveAccessDomain(String domainName, Principal principal) {
 
         if (LOG.isDebugEnabled()) {
@@ -3028,6 +3105,14 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
             return AccessStatus.DENIED;
         }
 
+        // if the domain was loaded from our cache then we have the
+        // compiled access index available for the domain
+
+        AthenzDomainAccessIndex accessIndex = domain.getAccessIndex();
+        if (accessIndex != null) {
+            return evaluateIndexedAccess(accessIndex, identity, action, resource, authenticatedRoles, trustDomain);
+        }
+
         AccessStatus accessStatus = AccessStatus.DENIED;
 
         List<Policy> policies = domain.getPolicies();
@@ -3100,6 +3185,108 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
         return accessStatus;
     }
 
+    AccessStatus evaluateIndexedAccess(AthenzDomainAccessIndex accessIndex, String identity, String action,
+            String resource, List<String> authenticatedRoles, String trustDomain) {
+
+        // the result of the evaluation does not depend on the order
+        // of assertions: any matching deny assertion rejects the request
+        // and otherwise we need at least one matching allow assertion.
+        // so we'll process all deny assertions for the action first
+
+        Map<String, RoleMember> principalRoleMembers = accessIndex.getPrincipalRoleMembers(identity);
+
+        if (indexedAssertionsMatch(accessIndex.getDenyAssertions(action), false, identity, action, resource,
+                principalRoleMembers, authenticatedRoles, trustDomain)) {
+            return AccessStatus.DENIED;
+        }
+        if (indexedAssertionsMatch(accessIndex.getGlobActionDenyAssertions(), true, identity, action, resource,
+                principalRoleMembers, authenticatedRoles, trustDomain)) {
+            return AccessStatus.DENIED;
+        }
+
+        if (indexedAssertionsMatch(accessIndex.getAllowAssertions(action), false, identity, action, resource,
+                principalRoleMembers, authenticatedRoles, trustDomain)) {
+            return AccessStatus.ALLOWED;
+        }
+        if (indexedAssertionsMatch(accessIndex.getGlobActionAllowAssertions(), true, identity, action, resource,
+                principalRoleMembers, authenticatedRoles, trustDomain)) {
+            return AccessStatus.ALLOWED;
+        }
+
+        return AccessStatus.DENIED;
+    }
+
+    boolean indexedAssertionsMatch(List<AthenzDomainAccessIndex.AssertionEntry> assertions, boolean checkAction,
+            String identity, String action, String resource, Map<String, RoleMember> principalRoleMembers,
+            List<String> authenticatedRoles, String trustDomain) {
+
+        for (AthenzDomainAccessIndex.AssertionEntry entry : assertions) {
+
+            if (checkAction && !entry.actionMatches(action)) {
+                continue;
+            }
+            if (!entry.resourceMatches(resource)) {
+                continue;
+            }
+
+            boolean matchResult;
+            if (authenticatedRoles != null) {
+                matchResult = indexedMatchRole(entry.getRoles(), authenticatedRoles);
+            } else {
+                matchResult = indexedMatchPrincipal(entry.getRoles(), principalRoleMembers, identity, trustDomain);
+            }
+
+            if (LOG.isDebugEnabled()) {
+                Assertion assertion = entry.getAssertion();
+                LOG.debug("indexedAssertionsMatch: assertion {}/{}/{} -> {}", assertion.getAction(),
+                        assertion.getResource(), assertion.getRole(), matchResult);
+            }
+
+            if (matchResult) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean indexedMatchRole(List<AthenzDomainAccessIndex.RoleEntry> roles, List<String> authenticatedRoles) {
+
+        // depending if the authority we either have the full role name
+        // or only the short name so we're going to check both
+
+        for (AthenzDomainAccessIndex.RoleEntry role : roles) {
+            if (authenticatedRoles.contains(role.getName()) || authenticatedRoles.contains(role.getShortName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean indexedMatchPrincipal(List<AthenzDomainAccessIndex.RoleEntry> roles,
+            Map<String, RoleMember> principalRoleMembers, String fullUser, String trustDomain) {
+
+        for (AthenzDomainAccessIndex.RoleEntry role : roles) {
+
+            // for roles with regular members only we have already
+            // mapped the principal to its membership so we just need
+            // to verify that the member is not expired or disabled
+
+            if (role.isDirectMembersOnly()) {
+                RoleMember roleMember = principalRoleMembers.get(role.getName());
+                if (roleMember != null && !AuthzHelper.isMemberDisabled(roleMember.getSystemDisabled())
+                        && !AuthzHelper.isMemberExpired(roleMember.getExpiration(), System.currentTimeMillis())) {
+                    return true;
+                }
+                continue;
+            }
+
+            if (matchPrincipalInRole(role.getRole(), role.getName(), fullUser, trustDomain)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     String userHomeDomainResource(String resource) {
 
         // if the resource does not start with user domain prefix then
@@ -6479,20 +6666,18 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
 
     SignedDomain retrieveSignedDomainData(Domain domain, boolean masterCopy, boolean includeConditions) {
 
-        // generate our signed domain object
-
-        final String domainName = domain.getName();
-        SignedDomain signedDomain = createSignedDomain(domainName, domain.getModified().millis(),
-                domain.getEnabled());
-
         // get the policies, roles, and service identities to create the
         // DomainData
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("retrieveSignedDomain: retrieving domain {}", domainName);
+            LOG.debug("retrieveSignedDomain: retrieving domain {}", domain.getName());
         }
 
-        AthenzDomain athenzDomain = getAthenzDomain(domainName, true, masterCopy);
+        AthenzDomain athenzDomain = getAthenzDomain(domain.getName(), true, masterCopy);
+        return retrieveSignedDomainData(domain, athenzDomain, includeConditions);
+    }
+
+    SignedDomain retrieveSignedDomainData(Domain domain, AthenzDomain athenzDomain, boolean includeConditions) {
 
         // it's possible that our domain was deleted by another
         // thread while we were processing this request so
@@ -6502,6 +6687,12 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
             return null;
         }
 
+        // generate our signed domain object
+
+        final String domainName = domain.getName();
+        SignedDomain signedDomain = createSignedDomain(domainName, domain.getModified().millis(),
+                domain.getEnabled());
+
         // set domain attributes - for enabled flag only set it
         // if it set to false
 
@@ -6689,32 +6880,43 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
                         .header("ETag", matchingTag).build();
             }
 
-            // now we can iterate through our list and retrieve each domain
+            // now we can iterate through our list and retrieve each domain.
+            // if we need the full domain data then we're going to load our
+            // domains from the store in batches instead of one at a time
 
-            for (Domain dmod : modlist) {
+            final int batchSize = Math.max(1, signedDomainsBatchSize);
+            for (int index = 0; index < modlist.size(); index += batchSize) {
 
-                Long domModMillis = dmod.getModified().millis();
-                if (domModMillis.compareTo(youngestDomMod) > 0) {
-                    youngestDomMod = domModMillis;
-                }
+                List<Domain> batchList = modlist.subList(index, Math.min(index + batchSize, modlist.size()));
+                Map<String, AthenzDomain> athenzDomains = setMetaDataOnly || batchSize == 1 ? null :
+                        getAthenzDomains(batchList, masterCopy);
 
-                // generate our signed domain object
+                for (Domain dmod : batchList) {
 
-                SignedDomain signedDomain = retrieveSignedDomain(dmod, metaAttr, setMetaDataOnly,
-                        masterCopy, includeConditions);
+                    Long domModMillis = dmod.getModified().millis();
+                    if (domModMillis.compareTo(youngestDomMod) > 0) {
+                        youngestDomMod = domModMillis;
+                    }
 
-                // it's possible that our domain was deleted by another
-                // thread while we were processing this request so
-                // if we get a null object, we'll just skip this
-                // item and continue with the next one
+                    // generate our signed domain object
 
-                if (signedDomain == null) {
-                    continue;
-                }
+                    SignedDomain signedDomain = (athenzDomains != null) ?
+                            retrieveSignedDomainData(dmod, athenzDomains.get(dmod.getName()), includeConditions) :
+                            retrieveSignedDomain(dmod, metaAttr, setMetaDataOnly, masterCopy, includeConditions);
 
-                // we have a valid domain so we'll add it to our return list
+                    // it's possible that our domain was deleted by another
+                    // thread while we were processing this request so
+                    // if we get a null object, we'll just skip this
+                    // item and continue with the next one
 
-                sdList.add(signedDomain);
+                    if (signedDomain == null) {
+                        continue;
+                    }
+
+                    // we have a valid domain so we'll add it to our return list
+
+                    sdList.add(signedDomain);
+                }
             }
         }
 
@@ -6765,11 +6967,34 @@ public class ZMSImpl implements Authorizer, KeyStore, ZMSHandler {
 
         return Response
                 .status(ResourceException.OK)
-                .entity(generateJWSDomain(athenzDomain, signatureP1363Format))
+                .entity(retrieveJWSDomain(athenzDomain, signatureP1363Format))
                 .header("ETag", ENTITY_TAG_HEADER_DELEGATE.toString(eTag))
                 .build();
     }
 
+    JWSDomain retrieveJWSDomain(AthenzDomain athenzDomain, Boolean signatureP1363Format) {
+
+        if (!jwsDomainCacheEnabled) {
+            return generateJWSDomain(athenzDomain, signatureP1363Format);
+        }
+
+        // the athenz domain object is replaced in our cache every time
+        // the domain is modified so the signed object that we store with
+        // it only depends on the requested signature format and our key
+
+        final String signatureKey = (signatureP1363Format == Boolean.TRUE) + ":" + privateKey.getId();
+        JWSDomain jwsDomain = athenzDomain.getJWSDomain(signatureKey);
+        if (jwsDomain != null) {
+            return jwsDomain;
+        }
+
+        jwsDomain = generateJWSDomain(athenzDomain, signatureP1363Format);
+        if (jwsDomain != null) {
+            athenzDomain.setJWSDomain(signatureKey, jwsDomain);
+        }
+        return jwsDomain;
+    }
+
     JWSDomain generateJWSDomain(AthenzDomain athenzDomain, Boolean signatureP1363Format) {
 
         // set all domain attributes including roles and services
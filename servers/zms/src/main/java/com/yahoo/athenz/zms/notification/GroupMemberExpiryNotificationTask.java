@@ -74,12 +74,24 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
             return new ArrayList<>();
         }
 
+        // fetch all the domains referenced by the expiring members
+        // once so we don't have to look up each group individually
+
+        final long startTime = System.currentTimeMillis();
+        NotificationDomainFetcher domainFetcher = new NotificationDomainFetcher(dbService);
+        domainFetcher.fetchDomains(NotificationDomainFetcher.getGroupMemberDomains(expiryMembers));
+
         List<Notification> notificationDetails = getNotificationDetails(
                 expiryMembers,
                 groupExpiryPrincipalNotificationToEmailConverter,
                 groupExpiryDomainNotificationToEmailConverter,
                 groupExpiryPrincipalNotificationToToMetricConverter,
-                groupExpiryDomainNotificationToMetricConverter);
+                groupExpiryDomainNotificationToMetricConverter,
+                new DisableGroupMemberNotificationFilter(domainFetcher));
+
+        LOGGER.info("Generated {} {} for {} principals in {} domains in {} ms", notificationDetails.size(),
+                DESCRIPTION, expiryMembers.size(), domainFetcher.getDomainCount(),
+                System.currentTimeMillis() - startTime);
         return notificationCommon.printNotificationDetailsToLog(notificationDetails, DESCRIPTION, LOGGER);
     }
 
@@ -98,7 +110,7 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
     }
 
     private Map<String, String> processGroupReminder(Map<String, List<GroupMember>> domainAdminMap,
-                                                     DomainGroupMember member) {
+            DomainGroupMember member, DisableGroupMemberNotificationFilter notificationFilter) {
 
         Map<String, String> details = new HashMap<>();
 
@@ -116,7 +128,7 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
 
         StringBuilder memberGroupsDetails = new StringBuilder(256);
         for (GroupMember memberGroup : memberGroups) {
-            EnumSet<DisableNotificationEnum> disabledNotificationState = getDisabledNotificationState(memberGroup);
+            EnumSet<DisableNotificationEnum> disabledNotificationState = notificationFilter.getDisabledNotificationState(memberGroup);
             if (disabledNotificationState.containsAll(Arrays.asList(DisableNotificationEnum.ADMIN, DisableNotificationEnum.USER))) {
                 LOGGER.info("Notification disabled for group {}, domain {}", memberGroup.getGroupName(), memberGroup.getDomainName());
                 continue;
@@ -160,29 +172,6 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
         return details;
     }
 
-    EnumSet<DisableNotificationEnum> getDisabledNotificationState(GroupMember memberGroup) {
-
-        Group group = dbService.getGroup(memberGroup.getDomainName(), memberGroup.getGroupName(), false, false);
-        try {
-            // for groups, we're going to check the disabled expiration notification tag, and
-            // if it's not set, we're going to honor the disabled reminder notification tag
-
-            EnumSet<DisableNotificationEnum> enumSet = DisableNotificationEnum.getDisabledNotificationState(
-                    group, Group::getTags, ZMSConsts.DISABLE_EXPIRATION_NOTIFICATIONS_TAG);
-            if (enumSet.isEmpty()) {
-                enumSet = DisableNotificationEnum.getDisabledNotificationState(group, Group::getTags,
-                        ZMSConsts.DISABLE_REMINDER_NOTIFICATIONS_TAG);
-            }
-            return enumSet;
-        } catch (NumberFormatException ex) {
-            LOGGER.error("Invalid mask value for {}/{} tags in domain {}, group {}",
-                    ZMSConsts.DISABLE_EXPIRATION_NOTIFICATIONS_TAG, ZMSConsts.DISABLE_REMINDER_NOTIFICATIONS_TAG,
-                    memberGroup.getDomainName(), memberGroup.getGroupName());
-        }
-
-        return DisableNotificationEnum.getEnumSet(0);
-    }
-
     Map<String, String> processMemberReminder(final String domainName, List<GroupMember> memberGroups) {
 
         Map<String, String> details = new HashMap<>();
@@ -219,16 +208,17 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
             NotificationToEmailConverter principalNotificationToEmailConverter,
             NotificationToEmailConverter domainAdminNotificationToEmailConverter,
             NotificationToMetricConverter principalNotificationToMetricConverter,
-            NotificationToMetricConverter domainAdminNotificationToMetricConverter) {
+            NotificationToMetricConverter domainAdminNotificationToMetricConverter,
+            DisableGroupMemberNotificationFilter notificationFilter) {
 
         if (consolidatedNotifications) {
             return getConsolidatedNotificationDetails(members, principalNotificationToEmailConverter,
                     domainAdminNotificationToEmailConverter, principalNotificationToMetricConverter,
-                    domainAdminNotificationToMetricConverter);
+                    domainAdminNotificationToMetricConverter, notificationFilter);
         } else {
             return getIndividualNotificationDetails(members, principalNotificationToEmailConverter,
                     domainAdminNotificationToEmailConverter, principalNotificationToMetricConverter,
-                    domainAdminNotificationToMetricConverter);
+                    domainAdminNotificationToMetricConverter, notificationFilter);
         }
     }
 
@@ -236,7 +226,8 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
             NotificationToEmailConverter principalNotificationToEmailConverter,
             NotificationToEmailConverter domainAdminNotificationToEmailConverter,
             NotificationToMetricConverter principalNotificationToMetricConverter,
-            NotificationToMetricConverter domainAdminNotificationToMetricConverter) {
+            NotificationToMetricConverter domainAdminNotificationToMetricConverter,
+            DisableGroupMemberNotificationFilter notificationFilter) {
 
         // our members map contains three two of entries:
         //  1. human user: user.john-doe -> { expiring-roles }
@@ -257,7 +248,8 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
             // the details object that we need to send to the
             // notification agent for processing
 
-            Map<String, String> details = processGroupReminder(domainAdminMap, consolidatedMembers.get(principal));
+            Map<String, String> details = processGroupReminder(domainAdminMap,
+                    consolidatedMembers.get(principal), notificationFilter);
             if (!details.isEmpty()) {
                 Notification notification = notificationCommon.createNotification(
                         principal, details, principalNotificationToEmailConverter,
@@ -290,7 +282,8 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
             NotificationToEmailConverter principalNotificationToEmailConverter,
             NotificationToEmailConverter domainAdminNotificationToEmailConverter,
             NotificationToMetricConverter principalNotificationToMetricConverter,
-            NotificationToMetricConverter domainAdminNotificationToMetricConverter) {
+            NotificationToMetricConverter domainAdminNotificationToMetricConverter,
+            DisableGroupMemberNotificationFilter notificationFilter) {
 
         List<Notification> notificationList = new ArrayList<>();
         Map<String, List<GroupMember>> domainAdminMap = new HashMap<>();
@@ -302,7 +295,7 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
             // the details object that we need to send to the
             // notification agent for processing
 
-            Map<String, String> details = processGroupReminder(domainAdminMap, groupMember);
+            Map<String, String> details = processGroupReminder(domainAdminMap, groupMember, notificationFilter);
             if (!details.isEmpty()) {
                 Notification notification = notificationCommon.createNotification(
                         groupMember.getMemberName(), details, principalNotificationToEmailConverter, principalNotificationToMetricConverter);
@@ -393,6 +386,38 @@ public class GroupMemberExpiryNotificationTask implements NotificationTask {
         }
     }
 
+    class DisableGroupMemberNotificationFilter {
+
+        private final NotificationDomainFetcher domainFetcher;
+
+        DisableGroupMemberNotificationFilter(NotificationDomainFetcher domainFetcher) {
+            this.domainFetcher = domainFetcher;
+        }
+
+        EnumSet<DisableNotificationEnum> getDisabledNotificationState(GroupMember memberGroup) {
+
+            Group group = domainFetcher.getGroup(memberGroup.getDomainName(), memberGroup.getGroupName());
+            try {
+                // for groups, we're going to check the disabled expiration notification tag, and
+                // if it's not set, we're going to honor the disabled reminder notification tag
+
+                EnumSet<DisableNotificationEnum> enumSet = DisableNotificationEnum.getDisabledNotificationState(
+                        group, Group::getTags, ZMSConsts.DISABLE_EXPIRATION_NOTIFICATIONS_TAG);
+                if (enumSet.isEmpty()) {
+                    enumSet = DisableNotificationEnum.getDisabledNotificationState(group, Group::getTags,
+                            ZMSConsts.DISABLE_REMINDER_NOTIFICATIONS_TAG);
+                }
+                return enumSet;
+            } catch (NumberFormatException ex) {
+                LOGGER.error("Invalid mask value for {}/{} tags in domain {}, group {}",
+                        ZMSConsts.DISABLE_EXPIRATION_NOTIFICATIONS_TAG, ZMSConsts.DISABLE_REMINDER_NOTIFICATIONS_TAG,
+                        memberGroup.getDomainName(), memberGroup.getGroupName());
+            }
+
+            return DisableNotificationEnum.getEnumSet(0);
+        }
+    }
+
     public static class GroupExpiryPrincipalNotificationToEmailConverter implements NotificationToEmailConverter {
         private static final String EMAIL_TEMPLATE_PRINCIPAL_EXPIRY = "messages/group-member-expiry.html";
         private static final String PRINCIPAL_EXPIRY_SUBJECT = "athenz.notification.email.group_member.expiry.subject";
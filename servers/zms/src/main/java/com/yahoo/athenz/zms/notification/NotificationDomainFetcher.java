@@ -0,0 +1,183 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yahoo.athenz.zms.notification;
+
+import com.yahoo.athenz.common.server.util.ResourceUtils;
+import com.yahoo.athenz.zms.*;
+import com.yahoo.athenz.zms.store.AthenzDomain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Notification tasks need to look up the tags for every role/group that
+ * has expiring members. Instead of fetching each role/group individually
+ * we group them by domain, fetch each domain once (from the domain cache
+ * when available) with a bounded number of threads and then look up
+ * the roles/groups from the fetched domains. If the domain cannot be
+ * retrieved we fall back to fetching the individual role/group. A new
+ * fetcher must be created for each notification run so that updated
+ * tags are picked up.
+ */
+public class NotificationDomainFetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDomainFetcher.class);
+
+    private final DBService dbService;
+    private final int threadCount;
+    private final Map<String, Map<String, Role>> domainRoles = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Group>> domainGroups = new ConcurrentHashMap<>();
+    private final Map<String, Role> roles = new HashMap<>();
+    private final Map<String, Group> groups = new HashMap<>();
+
+    public NotificationDomainFetcher(DBService dbService) {
+        this(dbService, Integer.parseInt(System.getProperty(ZMSConsts.ZMS_PROP_NOTIFICATION_DOMAIN_FETCH_THREADS, "4")));
+    }
+
+    NotificationDomainFetcher(DBService dbService, int threadCount) {
+        this.dbService = dbService;
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Return the set of domains for all the roles included in the members map
+     * @param members map of principals and their role memberships
+     * @return set of domain names
+     */
+    public static Set<String> getRoleMemberDomains(Map<String, DomainRoleMember> members) {
+        Set<String> domainNames = new HashSet<>();
+        for (DomainRoleMember member : members.values()) {
+            if (member.getMemberRoles() != null) {
+                member.getMemberRoles().forEach(memberRole -> domainNames.add(memberRole.getDomainName()));
+            }
+        }
+        return domainNames;
+    }
+
+    /**
+     * Return the set of domains for all the groups included in the members map
+     * @param members map of principals and their group memberships
+     * @return set of domain names
+     */
+    public static Set<String> getGroupMemberDomains(Map<String, DomainGroupMember> members) {
+        Set<String> domainNames = new HashSet<>();
+        for (DomainGroupMember member : members.values()) {
+            if (member.getMemberGroups() != null) {
+                member.getMemberGroups().forEach(memberGroup -> domainNames.add(memberGroup.getDomainName()));
+            }
+        }
+        return domainNames;
+    }
+
+    /**
+     * Fetch the given domains in parallel. Domains that cannot be
+     * retrieved are skipped and their roles/groups are fetched
+     * individually when requested.
+     * @param domainNames set of domain names to fetch
+     */
+    public void fetchDomains(Set<String> domainNames) {
+
+        if (domainNames.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, domainNames.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String domainName : domainNames) {
+                futures.add(executor.submit(() -> fetchDomain(domainName)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while fetching notification domains");
+        } catch (ExecutionException ex) {
+            LOGGER.error("Unable to fetch notification domains", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    void fetchDomain(final String domainName) {
+        try {
+            AthenzDomain athenzDomain = dbService.getAthenzDomain(domainName, false);
+            if (athenzDomain == null) {
+                return;
+            }
+
+            // index the roles and groups by their names so the lookups
+            // do not need to scan all the roles/groups in the domain
+
+            Map<String, Role> roleMap = new HashMap<>();
+            if (athenzDomain.getRoles() != null) {
+                athenzDomain.getRoles().forEach(role -> roleMap.put(role.getName(), role));
+            }
+            Map<String, Group> groupMap = new HashMap<>();
+            if (athenzDomain.getGroups() != null) {
+                athenzDomain.getGroups().forEach(group -> groupMap.put(group.getName(), group));
+            }
+            domainGroups.put(domainName, groupMap);
+            domainRoles.put(domainName, roleMap);
+        } catch (Exception ex) {
+            LOGGER.error("Unable to fetch domain {}: {}", domainName, ex.getMessage());
+        }
+    }
+
+    public int getDomainCount() {
+        return domainRoles.size();
+    }
+
+    public Role getRole(final String domainName, final String roleName) {
+
+        final String resourceName = ResourceUtils.roleResourceName(domainName, roleName);
+        if (roles.containsKey(resourceName)) {
+            return roles.get(resourceName);
+        }
+
+        Role role;
+        Map<String, Role> roleMap = domainRoles.get(domainName);
+        if (roleMap != null) {
+            role = roleMap.get(resourceName);
+        } else {
+            role = dbService.getRole(domainName, roleName, false, false, false);
+        }
+        roles.put(resourceName, role);
+        return role;
+    }
+
+    public Group getGroup(final String domainName, final String groupName) {
+
+        final String resourceName = ResourceUtils.groupResourceName(domainName, groupName);
+        if (groups.containsKey(resourceName)) {
+            return groups.get(resourceName);
+        }
+
+        Group group;
+        Map<String, Group> groupMap = domainGroups.get(domainName);
+        if (groupMap != null) {
+            group = groupMap.get(resourceName);
+        } else {
+            group = dbService.getGroup(domainName, groupName, false, false);
+        }
+        groups.put(resourceName, group);
+        return group;
+    }
+}
@@ -61,14 +61,26 @@ public class RoleMemberExpiryNotificationTask implements NotificationTask {
             return Collections.emptyList();
         }
 
-        return roleMemberNotificationCommon.getNotificationDetails(
+        // fetch all the domains referenced by the expiring members
+        // once so we don't have to look up each role individually
+
+        final long startTime = System.currentTimeMillis();
+        NotificationDomainFetcher domainFetcher = new NotificationDomainFetcher(dbService);
+        domainFetcher.fetchDomains(NotificationDomainFetcher.getRoleMemberDomains(expiryMembers));
+
+        List<Notification> notificationDetails = roleMemberNotificationCommon.getNotificationDetails(
                 expiryMembers,
                 roleExpiryPrincipalNotificationToEmailConverter,
                 roleExpiryDomainNotificationToEmailConverter,
                 new ExpiryRoleMemberDetailStringer(),
                 roleExpiryPrincipalNotificationToMetricConverter,
                 roleExpiryDomainNotificationToMetricConverter,
-                new ReviewDisableRoleMemberNotificationFilter());
+                new ReviewDisableRoleMemberNotificationFilter(domainFetcher));
+
+        LOGGER.info("Generated {} {} for {} principals in {} domains in {} ms", notificationDetails.size(),
+                DESCRIPTION, expiryMembers.size(), domainFetcher.getDomainCount(),
+                System.currentTimeMillis() - startTime);
+        return notificationDetails;
     }
 
     static class ExpiryRoleMemberDetailStringer implements RoleMemberNotificationCommon.RoleMemberDetailStringer {
@@ -91,10 +103,16 @@ public class RoleMemberExpiryNotificationTask implements NotificationTask {
 
     class ReviewDisableRoleMemberNotificationFilter implements RoleMemberNotificationCommon.DisableRoleMemberNotificationFilter {
 
+        private final NotificationDomainFetcher domainFetcher;
+
+        ReviewDisableRoleMemberNotificationFilter(NotificationDomainFetcher domainFetcher) {
+            this.domainFetcher = domainFetcher;
+        }
+
         @Override
         public EnumSet<DisableNotificationEnum> getDisabledNotificationState(MemberRole memberRole) {
 
-            Role role = dbService.getRole(memberRole.getDomainName(), memberRole.getRoleName(), false, false, false);
+            Role role = domainFetcher.getRole(memberRole.getDomainName(), memberRole.getRoleName());
             try {
                 return DisableNotificationEnum.getDisabledNotificationState(role, Role::getTags,
                         ZMSConsts.DISABLE_EXPIRATION_NOTIFICATIONS_TAG);
@@ -63,6 +63,13 @@ public class RoleMemberReviewNotificationTask implements NotificationTask {
             return new ArrayList<>();
         }
 
+        // fetch all the domains referenced by the members once
+        // so we don't have to look up each role individually
+
+        final long startTime = System.currentTimeMillis();
+        NotificationDomainFetcher domainFetcher = new NotificationDomainFetcher(dbService);
+        domainFetcher.fetchDomains(NotificationDomainFetcher.getRoleMemberDomains(reviewMembers));
+
         List<Notification> notificationDetails = roleMemberNotificationCommon.getNotificationDetails(
                 reviewMembers,
                 roleReviewPrincipalNotificationToEmailConverter,
@@ -70,7 +77,11 @@ public class RoleMemberReviewNotificationTask implements NotificationTask {
                 new ReviewRoleMemberDetailStringer(),
                 roleReviewPrincipalNotificationToMetricConverter,
                 roleReviewDomainNotificationToMetricConverter,
-                new ReviewDisableRoleMemberNotificationFilter());
+                new ReviewDisableRoleMemberNotificationFilter(domainFetcher));
+
+        LOGGER.info("Generated {} {} for {} principals in {} domains in {} ms", notificationDetails.size(),
+                DESCRIPTION, reviewMembers.size(), domainFetcher.getDomainCount(),
+                System.currentTimeMillis() - startTime);
         return roleMemberNotificationCommon.printNotificationDetailsToLog(notificationDetails, DESCRIPTION, LOGGER);
     }
 
@@ -94,9 +105,15 @@ public class RoleMemberReviewNotificationTask implements NotificationTask {
 
     class ReviewDisableRoleMemberNotificationFilter implements RoleMemberNotificationCommon.DisableRoleMemberNotificationFilter {
 
+        private final NotificationDomainFetcher domainFetcher;
+
+        ReviewDisableRoleMemberNotificationFilter(NotificationDomainFetcher domainFetcher) {
+            this.domainFetcher = domainFetcher;
+        }
+
         @Override
         public EnumSet<DisableNotificationEnum> getDisabledNotificationState(MemberRole memberRole) {
-            Role role = dbService.getRole(memberRole.getDomainName(), memberRole.getRoleName(), false, false, false);
+            Role role = domainFetcher.getRole(memberRole.getDomainName(), memberRole.getRoleName());
 
             try {
                 return DisableNotificationEnum.getDisabledNotificationState(role, Role::getTags,
@@ -17,6 +17,8 @@ package com.yahoo.athenz.zms.store;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.yahoo.athenz.zms.*;
 import com.yahoo.athenz.zms.utils.ZMSUtils;
@@ -30,6 +32,8 @@ public class AthenzDomain {
     private List<ServiceIdentity> services;
     private List<Entity> entities;
     private Domain domain = null;
+    private AthenzDomainAccessIndex accessIndex = null;
+    private final Map<String, JWSDomain> jwsDomains = new ConcurrentHashMap<>();
 
     public AthenzDomain(String name) {
         this.name = name;
@@ -68,6 +72,10 @@ public class AthenzDomain {
         this.domain = domain;
     }
 
+    public void setAccessIndex(AthenzDomainAccessIndex accessIndex) {
+        this.accessIndex = accessIndex;
+    }
+
     public String getName() {
         return name;
     }
@@ -96,6 +104,18 @@ public class AthenzDomain {
         return domain;
     }
 
+    public AthenzDomainAccessIndex getAccessIndex() {
+        return accessIndex;
+    }
+
+    public JWSDomain getJWSDomain(final String signatureKey) {
+        return jwsDomains.get(signatureKey);
+    }
+
+    public void setJWSDomain(final String signatureKey, JWSDomain jwsDomain) {
+        jwsDomains.put(signatureKey, jwsDomain);
+    }
+
     public void setRoleMemberPrincipalTypes(final String userDomainPrefix, List<String> addlUserCheckDomainPrefixList,
                                             final String headlessUserDomainPrefix) {
         if (roles == null) {
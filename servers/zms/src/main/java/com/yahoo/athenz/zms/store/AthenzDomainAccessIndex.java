@@ -0,0 +1,255 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms.store;
+
+import com.yahoo.athenz.auth.AuthorityConsts;
+import com.yahoo.athenz.auth.Principal;
+import com.yahoo.athenz.common.server.util.GlobMatcher;
+import com.yahoo.athenz.zms.*;
+
+import java.util.*;
+
+/**
+ * Compiled view of the policies of an AthenzDomain used to evaluate
+ * access checks. The index is built once when the domain is loaded
+ * into the cache and is discarded together with the domain object.
+ * Assertions are bucketed by their action (with a separate bucket for
+ * actions that include wildcards), all glob values are precompiled
+ * and each assertion carries the list of roles its role value matches.
+ * Principals that are regular members of roles without wildcard or
+ * group members are mapped directly to those role memberships.
+ */
+public class AthenzDomainAccessIndex {
+
+    private final Map<String, ActionAssertions> actionAssertions = new HashMap<>();
+    private final ActionAssertions globActionAssertions = new ActionAssertions();
+    private final Map<String, Map<String, RoleMember>> principalRoleMembers = new HashMap<>();
+
+    public AthenzDomainAccessIndex(AthenzDomain athenzDomain) {
+
+        final String rolePrefix = athenzDomain.getName() + AuthorityConsts.ROLE_SEP;
+        List<RoleEntry> roleEntries = new ArrayList<>();
+        for (Role role : athenzDomain.getRoles()) {
+            RoleEntry roleEntry = new RoleEntry(role, rolePrefix);
+            roleEntries.add(roleEntry);
+            if (roleEntry.isDirectMembersOnly()) {
+                indexRoleMembers(role);
+            }
+        }
+
+        // compiled glob matchers are shared between assertions since
+        // most domains reuse the same role and resource values
+
+        Map<String, GlobMatcher> matchers = new HashMap<>();
+        Map<String, List<RoleEntry>> matchedRoles = new HashMap<>();
+
+        for (Policy policy : athenzDomain.getPolicies()) {
+
+            // ignore any inactive/multi-version policies
+
+            if (policy.getActive() == Boolean.FALSE) {
+                continue;
+            }
+
+            List<Assertion> assertions = policy.getAssertions();
+            if (assertions == null) {
+                continue;
+            }
+
+            for (Assertion assertion : assertions) {
+
+                final String action = assertion.getAction().toLowerCase();
+                final String resource = assertion.getResource().toLowerCase();
+                final String rolePattern = assertion.getRole();
+
+                List<RoleEntry> roles = matchedRoles.computeIfAbsent(rolePattern,
+                        pattern -> matchRoles(roleEntries, GlobMatcher.compile(pattern)));
+
+                AssertionEntry entry = new AssertionEntry(assertion,
+                        matchers.computeIfAbsent(action, GlobMatcher::compile),
+                        matchers.computeIfAbsent(resource, GlobMatcher::compile), roles);
+
+                if (action.indexOf('*') == -1 && action.indexOf('?') == -1) {
+                    actionAssertions.computeIfAbsent(action, k -> new ActionAssertions()).add(entry);
+                } else {
+                    globActionAssertions.add(entry);
+                }
+            }
+        }
+    }
+
+    void indexRoleMembers(Role role) {
+
+        // we only index roles where the membership check is a simple
+        // name lookup - roles with wildcard or group members are
+        // validated with the standard member check
+
+        for (RoleMember roleMember : role.getRoleMembers()) {
+            principalRoleMembers.computeIfAbsent(roleMember.getMemberName(), k -> new HashMap<>())
+                    .putIfAbsent(role.getName(), roleMember);
+        }
+    }
+
+    static boolean hasDirectMembersOnly(Role role) {
+        List<RoleMember> roleMembers = role.getRoleMembers();
+        if (roleMembers == null) {
+            return false;
+        }
+        for (RoleMember roleMember : roleMembers) {
+            if (roleMember.getMemberName().endsWith("*")) {
+                return false;
+            }
+            if (roleMember.getPrincipalType() != null && roleMember.getPrincipalType() == Principal.Type.GROUP.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<RoleEntry> matchRoles(List<RoleEntry> roleEntries, GlobMatcher roleMatcher) {
+        List<RoleEntry> roles = new ArrayList<>();
+        for (RoleEntry roleEntry : roleEntries) {
+            if (roleMatcher.matches(roleEntry.getName())) {
+                roles.add(roleEntry);
+            }
+        }
+        return roles.isEmpty() ? Collections.emptyList() : roles;
+    }
+
+    /**
+     * Return the role memberships of the given principal in the roles
+     * that only include regular (non-wildcard and non-group) members.
+     * @param principalName name of the principal
+     * @return map of role name to role member object
+     */
+    public Map<String, RoleMember> getPrincipalRoleMembers(final String principalName) {
+        return principalRoleMembers.getOrDefault(principalName, Collections.emptyMap());
+    }
+
+    /**
+     * Return the deny assertions that could match the given action
+     * @param action name of the action (already in lower case)
+     * @return list of deny assertions defined for the action
+     */
+    public List<AssertionEntry> getDenyAssertions(final String action) {
+        ActionAssertions assertions = actionAssertions.get(action);
+        return assertions == null ? Collections.emptyList() : assertions.denyAssertions;
+    }
+
+    /**
+     * Return the allow assertions that could match the given action
+     * @param action name of the action (already in lower case)
+     * @return list of allow assertions defined for the action
+     */
+    public List<AssertionEntry> getAllowAssertions(final String action) {
+        ActionAssertions assertions = actionAssertions.get(action);
+        return assertions == null ? Collections.emptyList() : assertions.allowAssertions;
+    }
+
+    /**
+     * Return the deny assertions whose action includes wildcards. The caller
+     * must verify the action with AssertionEntry.actionMatches
+     * @return list of deny assertions with wildcard actions
+     */
+    public List<AssertionEntry> getGlobActionDenyAssertions() {
+        return globActionAssertions.denyAssertions;
+    }
+
+    /**
+     * Return the allow assertions whose action includes wildcards. The caller
+     * must verify the action with AssertionEntry.actionMatches
+     * @return list of allow assertions with wildcard actions
+     */
+    public List<AssertionEntry> getGlobActionAllowAssertions() {
+        return globActionAssertions.allowAssertions;
+    }
+
+    static class ActionAssertions {
+
+        final List<AssertionEntry> allowAssertions = new ArrayList<>();
+        final List<AssertionEntry> denyAssertions = new ArrayList<>();
+
+        void add(AssertionEntry entry) {
+            if (entry.getAssertion().getEffect() == AssertionEffect.DENY) {
+                denyAssertions.add(entry);
+            } else {
+                allowAssertions.add(entry);
+            }
+        }
+    }
+
+    public static class AssertionEntry {
+
+        private final Assertion assertion;
+        private final GlobMatcher actionMatcher;
+        private final GlobMatcher resourceMatcher;
+        private final List<RoleEntry> roles;
+
+        AssertionEntry(Assertion assertion, GlobMatcher actionMatcher, GlobMatcher resourceMatcher,
+                List<RoleEntry> roles) {
+            this.assertion = assertion;
+            this.actionMatcher = actionMatcher;
+            this.resourceMatcher = resourceMatcher;
+            this.roles = roles;
+        }
+
+        public Assertion getAssertion() {
+            return assertion;
+        }
+
+        public boolean actionMatches(final String action) {
+            return actionMatcher.matches(action);
+        }
+
+        public boolean resourceMatches(final String resource) {
+            return resourceMatcher.matches(resource);
+        }
+
+        public List<RoleEntry> getRoles() {
+            return roles;
+        }
+    }
+
+    public static class RoleEntry {
+
+        private final Role role;
+        private final String shortName;
+        private final boolean directMembersOnly;
+
+        RoleEntry(Role role, final String rolePrefix) {
+            this.role = role;
+            final String name = role.getName();
+            this.shortName = name.startsWith(rolePrefix) ? name.substring(rolePrefix.length()) : name;
+            this.directMembersOnly = hasDirectMembersOnly(role);
+        }
+
+        public Role getRole() {
+            return role;
+        }
+
+        public String getName() {
+            return role.getName();
+        }
+
+        public String getShortName() {
+            return shortName;
+        }
+
+        public boolean isDirectMembersOnly() {
+            return directMembersOnly;
+        }
+    }
+}
@@ -53,6 +53,7 @@ public interface ObjectStoreConnection extends Closeable {
     List<String> lookupDomainByRole(String roleMember, String roleName);
     List<String> lookupDomainByBusinessService(String businessService);
     AthenzDomain getAthenzDomain(String domainName);
+    List<AthenzDomain> getAthenzDomains(List<String> domainNames);
     DomainMetaList listModifiedDomains(long modifiedSince);
     void setDomainOptions(DomainOptions domainOptions);
 
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.yahoo.athenz.zms.ZMSConsts.*;
@@ -284,6 +285,54 @@ public class JDBCConnection implements ObjectStoreConnection {
             + "public_key.key_id, public_key.key_value FROM public_key "
             + "JOIN service ON service.service_id=public_key.service_id "
             + "WHERE service.domain_id=?;";
+    private static final String SQL_GET_DOMAINS_BY_NAME = "SELECT * FROM domain WHERE name IN ";
+    private static final String SQL_GET_DOMAINS_TAGS = "SELECT dt.domain_id, dt.key, dt.value FROM domain_tags dt "
+            + "WHERE dt.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_CONTACTS = "SELECT domain_id, type, name FROM domain_contacts "
+            + "WHERE domain_id IN ";
+    private static final String SQL_GET_DOMAINS_ROLES = "SELECT * FROM role WHERE domain_id IN ";
+    private static final String SQL_GET_DOMAINS_ROLE_MEMBERS = "SELECT role_member.role_id, principal.name, "
+            + "role_member.expiration, role_member.review_reminder, role_member.system_disabled FROM principal "
+            + "JOIN role_member ON role_member.principal_id=principal.principal_id "
+            + "JOIN role ON role.role_id=role_member.role_id "
+            + "WHERE role.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_ROLE_TAGS = "SELECT rt.role_id, rt.key, rt.value FROM role_tags rt "
+            + "JOIN role ON rt.role_id=role.role_id WHERE role.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_GROUPS = "SELECT * FROM principal_group WHERE domain_id IN ";
+    private static final String SQL_GET_DOMAINS_GROUP_MEMBERS = "SELECT principal_group_member.group_id, principal.name, "
+            + "principal_group_member.expiration, principal_group_member.system_disabled FROM principal "
+            + "JOIN principal_group_member ON principal_group_member.principal_id=principal.principal_id "
+            + "JOIN principal_group ON principal_group.group_id=principal_group_member.group_id "
+            + "WHERE principal_group.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_GROUP_TAGS = "SELECT gt.group_id, gt.key, gt.value FROM group_tags gt "
+            + "JOIN principal_group ON gt.group_id=principal_group.group_id WHERE principal_group.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_POLICIES = "SELECT * FROM policy WHERE domain_id IN ";
+    private static final String SQL_GET_DOMAINS_POLICY_ASSERTIONS = "SELECT policy.policy_id, policy.domain_id, "
+            + "assertion.effect, assertion.action, assertion.role, assertion.resource, "
+            + "assertion.assertion_id FROM assertion "
+            + "JOIN policy ON policy.policy_id=assertion.policy_id "
+            + "WHERE policy.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_POLICY_ASSERTIONS_CONDITIONS = "SELECT assertion.assertion_id, "
+            + "assertion_condition.condition_id, assertion_condition.key, assertion_condition.operator, assertion_condition.value "
+            + "FROM assertion_condition JOIN assertion ON assertion_condition.assertion_id=assertion.assertion_id "
+            + "JOIN policy ON policy.policy_id=assertion.policy_id "
+            + "WHERE policy.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_POLICY_ASSERTIONS_CONDITIONS_ORDER =
+            " ORDER BY assertion.assertion_id, assertion_condition.condition_id;";
+    private static final String SQL_GET_DOMAINS_POLICY_TAGS = "SELECT pt.policy_id, pt.key, pt.value FROM policy_tags pt "
+            + "JOIN policy ON pt.policy_id=policy.policy_id WHERE policy.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_SERVICES = "SELECT * FROM service WHERE domain_id IN ";
+    private static final String SQL_GET_DOMAINS_SERVICES_HOSTS = "SELECT service_host.service_id, host.name FROM host "
+            + "JOIN service_host ON host.host_id=service_host.host_id "
+            + "JOIN service ON service.service_id=service_host.service_id "
+            + "WHERE service.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_SERVICES_PUBLIC_KEYS = "SELECT public_key.service_id, "
+            + "public_key.key_id, public_key.key_value FROM public_key "
+            + "JOIN service ON service.service_id=public_key.service_id "
+            + "WHERE service.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_SERVICES_TAGS = "SELECT st.service_id, st.key, st.value FROM service_tags st "
+            + "JOIN service ON st.service_id=service.service_id WHERE service.domain_id IN ";
+    private static final String SQL_GET_DOMAINS_ENTITIES = "SELECT * FROM entity WHERE domain_id IN ";
     private static final String SQL_LIST_POLICY_REFERENCING_ROLE = "SELECT name FROM policy "
             + "JOIN assertion ON policy.policy_id=assertion.policy_id "
             + "WHERE policy.domain_id=? AND assertion.role=?;";
@@ -293,6 +342,10 @@ public class JDBCConnection implements ObjectStoreConnection {
             + "JOIN domain ON policy.domain_id=domain.domain_id";
     private static final String SQL_LIST_ROLE_ASSERTION_QUERY_ACTION = " WHERE assertion.action=?;";
     private static final String SQL_LIST_ROLE_ASSERTION_NO_ACTION = " WHERE assertion.action!='assume_role';";
+    private static final String SQL_LIST_ROLE_ASSERTION_DOMAIN = " WHERE policy.domain_id=?;";
+    private static final String SQL_LIST_DOMAIN_ID_MODIFIED = "SELECT domain_id, modified FROM domain;";
+    private static final String SQL_LIST_DOMAIN_ID_MODIFIED_SINCE = "SELECT domain_id, modified FROM domain WHERE modified>=?;";
+    private static final String SQL_GET_DOMAIN_MODIFIED_COUNT = "SELECT MAX(modified), COUNT(*) FROM domain;";
     private static final String SQL_LIST_ROLE_PRINCIPALS = "SELECT role.domain_id, role.name AS role_name FROM principal "
             + "JOIN role_member ON principal.principal_id=role_member.principal_id "
             + "JOIN role ON role_member.role_id=role.role_id WHERE principal.name=? "
@@ -705,6 +758,11 @@ public class JDBCConnection implements ObjectStoreConnection {
     private volatile static long SERVER_TRUST_ROLES_TIMESTAMP;
     private static final long SERVER_TRUST_ROLES_UPDATE_TIMEOUT = Long.parseLong(
             System.getProperty(ZMSConsts.ZMS_PROP_MYSQL_SERVER_TRUST_ROLES_UPDATE_TIMEOUT, "600000"));
+    private volatile static RoleAssertionsIndex SERVER_ROLE_ASSERTIONS_INDEX;
+    static boolean SERVER_ROLE_ASSERTIONS_INDEX_ENABLED = Boolean.parseBoolean(
+            System.getProperty(ZMSConsts.ZMS_PROP_MYSQL_SERVER_ROLE_ASSERTIONS_INDEX, "false"));
+    private static final long SERVER_ROLE_ASSERTIONS_INDEX_TIMEOUT = Long.parseLong(
+            System.getProperty(ZMSConsts.ZMS_PROP_MYSQL_SERVER_ROLE_ASSERTIONS_INDEX_TIMEOUT, "3600000"));
 
     public JDBCConnection(Connection con, boolean autoCommit) throws SQLException {
         this.con = con;
@@ -725,6 +783,13 @@ public class JDBCConnection implements ObjectStoreConnection {
         SERVER_TRUST_ROLES_TIMESTAMP = 0;
     }
 
+    /**
+     * Used only by the test classes to reset the server role assertions index
+     */
+    void resetRoleAssertionsIndex() {
+        SERVER_ROLE_ASSERTIONS_INDEX = null;
+    }
+
     @Override
     public void setDomainOptions(DomainOptions domainOptions) {
         this.domainOptions = domainOptions;
@@ -3989,23 +4054,7 @@ public class JDBCConnection implements ObjectStoreConnection {
                     if (role == null) {
                         continue;
                     }
-                    List<RoleMember> members = role.getRoleMembers();
-                    if (members == null) {
-                        members = new ArrayList<>();
-                        role.setRoleMembers(members);
-                    }
-                    RoleMember roleMember = new RoleMember();
-                    roleMember.setMemberName(rs.getString(2));
-                    java.sql.Timestamp expiration = rs.getTimestamp(3);
-                    if (expiration != null) {
-                        roleMember.setExpiration(Timestamp.fromMillis(expiration.getTime()));
-                    }
-                    java.sql.Timestamp reviewReminder = rs.getTimestamp(4);
-                    if (reviewReminder != null) {
-                        roleMember.setReviewReminder(Timestamp.fromMillis(reviewReminder.getTime()));
-                    }
-                    roleMember.setSystemDisabled(nullIfDefaultValue(rs.getInt(5), 0));
-                    members.add(roleMember);
+                    addDomainRoleMember(role, rs);
                 }
             }
         } catch (SQLException ex) {
@@ -4018,6 +4067,26 @@ public class JDBCConnection implements ObjectStoreConnection {
         athenzDomain.getRoles().addAll(roleMap.values());
     }
 
+    void addDomainRoleMember(Role role, ResultSet rs) throws SQLException {
+        List<RoleMember> members = role.getRoleMembers();
+        if (members == null) {
+            members = new ArrayList<>();
+            role.setRoleMembers(members);
+        }
+        RoleMember roleMember = new RoleMember();
+        roleMember.setMemberName(rs.getString(2));
+        java.sql.Timestamp expiration = rs.getTimestamp(3);
+        if (expiration != null) {
+            roleMember.setExpiration(Timestamp.fromMillis(expiration.getTime()));
+        }
+        java.sql.Timestamp reviewReminder = rs.getTimestamp(4);
+        if (reviewReminder != null) {
+            roleMember.setReviewReminder(Timestamp.fromMillis(reviewReminder.getTime()));
+        }
+        roleMember.setSystemDisabled(nullIfDefaultValue(rs.getInt(5), 0));
+        members.add(roleMember);
+    }
+
     void getAthenzDomainGroups(String domainName, int domainId, AthenzDomain athenzDomain) {
 
         final String caller = "getAthenzDomain";
@@ -4044,20 +4113,7 @@ public class JDBCConnection implements ObjectStoreConnection {
                     if (group == null) {
                         continue;
                     }
-                    List<GroupMember> members = group.getGroupMembers();
-                    if (members == null) {
-                        members = new ArrayList<>();
-                        group.setGroupMembers(members);
-                    }
-                    GroupMember groupMember = new GroupMember();
-                    groupMember.setMemberName(rs.getString(2));
-                    groupMember.setGroupName(group.getName());
-                    java.sql.Timestamp expiration = rs.getTimestamp(3);
-                    if (expiration != null) {
-                        groupMember.setExpiration(Timestamp.fromMillis(expiration.getTime()));
-                    }
-                    groupMember.setSystemDisabled(nullIfDefaultValue(rs.getInt(4), 0));
-                    members.add(groupMember);
+                    addDomainGroupMember(group, rs);
                 }
             }
         } catch (SQLException ex) {
@@ -4070,6 +4126,23 @@ public class JDBCConnection implements ObjectStoreConnection {
         athenzDomain.getGroups().addAll(groupMap.values());
     }
 
+    void addDomainGroupMember(Group group, ResultSet rs) throws SQLException {
+        List<GroupMember> members = group.getGroupMembers();
+        if (members == null) {
+            members = new ArrayList<>();
+            group.setGroupMembers(members);
+        }
+        GroupMember groupMember = new GroupMember();
+        groupMember.setMemberName(rs.getString(2));
+        groupMember.setGroupName(group.getName());
+        java.sql.Timestamp expiration = rs.getTimestamp(3);
+        if (expiration != null) {
+            groupMember.setExpiration(Timestamp.fromMillis(expiration.getTime()));
+        }
+        groupMember.setSystemDisabled(nullIfDefaultValue(rs.getInt(4), 0));
+        members.add(groupMember);
+    }
+
     void getAthenzDomainPolicies(String domainName, int domainId, AthenzDomain athenzDomain) {
 
         final String caller = "getAthenzDomain";
@@ -4097,19 +4170,7 @@ public class JDBCConnection implements ObjectStoreConnection {
                     if (policy == null) {
                         continue;
                     }
-                    List<Assertion> assertions = policy.getAssertions();
-                    if (assertions == null) {
-                        assertions = new ArrayList<>();
-                        policy.setAssertions(assertions);
-                    }
-                    Assertion assertion = new Assertion();
-                    assertion.setRole(ResourceUtils.roleResourceName(domainName, rs.getString(ZMSConsts.DB_COLUMN_ROLE)));
-                    assertion.setResource(rs.getString(ZMSConsts.DB_COLUMN_RESOURCE));
-                    assertion.setAction(rs.getString(ZMSConsts.DB_COLUMN_ACTION));
-                    assertion.setEffect(AssertionEffect.valueOf(rs.getString(ZMSConsts.DB_COLUMN_EFFECT)));
-                    assertion.setId(rs.getLong(ZMSConsts.DB_COLUMN_ASSERT_ID));
-
-                    assertions.add(assertion);
+                    Assertion assertion = addDomainPolicyAssertion(policy, domainName, rs);
                     assertionsMap.put(assertion.getId(), assertion);
                 }
             }
@@ -4124,34 +4185,7 @@ public class JDBCConnection implements ObjectStoreConnection {
             ps.setInt(1, domainId);
             try (ResultSet rs = executeQuery(ps, caller)) {
                 while (rs.next()) {
-                    long assertionId = rs.getLong(ZMSConsts.DB_COLUMN_ASSERT_ID);
-                    Assertion assertion = assertionsMap.get(assertionId);
-                    if (assertion == null) {
-                        continue;
-                    }
-                    AssertionConditions assertionConditions = assertion.getConditions();
-                    if (assertionConditions == null) {
-                        assertionConditions = new AssertionConditions();
-                        List<AssertionCondition> assertionConditionList = new ArrayList<>();
-                        assertionConditions.setConditionsList(assertionConditionList);
-                        assertion.setConditions(assertionConditions);
-                    }
-                    int conditionId = rs.getInt(ZMSConsts.DB_COLUMN_CONDITION_ID);
-                    AssertionCondition assertionCondition = assertionConditionMap.get(assertionId + ":" + conditionId);
-                    if (assertionCondition == null) {
-                        assertionCondition = new AssertionCondition();
-                        Map<String, AssertionConditionData> assertionConditionDataMap = new HashMap<>();
-                        assertionCondition.setConditionsMap(assertionConditionDataMap);
-                        assertionCondition.setId(conditionId);
-                        assertionConditionMap.put(assertionId + ":" + conditionId, assertionCondition);
-                        assertionConditions.getConditionsList().add(assertionCondition);
-                    }
-                    AssertionConditionData assertionConditionData = new AssertionConditionData();
-                    if (rs.getString(ZMSConsts.DB_COLUMN_OPERATOR) != null) {
-                        assertionConditionData.setOperator(AssertionConditionOperator.fromString(rs.getString(ZMSConsts.DB_COLUMN_OPERATOR)));
-                    }
-                    assertionConditionData.setValue(rs.getString(ZMSConsts.DB_COLUMN_VALUE));
-                    assertionCondition.getConditionsMap().put(rs.getString(ZMSConsts.DB_COLUMN_KEY), assertionConditionData);
+                    addDomainAssertionCondition(assertionsMap, assertionConditionMap, rs);
                 }
             }
         } catch (SQLException ex) {
@@ -4164,6 +4198,55 @@ public class JDBCConnection implements ObjectStoreConnection {
         athenzDomain.getPolicies().addAll(policyMap.values());
     }
 
+    Assertion addDomainPolicyAssertion(Policy policy, final String domainName, ResultSet rs) throws SQLException {
+        List<Assertion> assertions = policy.getAssertions();
+        if (assertions == null) {
+            assertions = new ArrayList<>();
+            policy.setAssertions(assertions);
+        }
+        Assertion assertion = new Assertion();
+        assertion.setRole(ResourceUtils.roleResourceName(domainName, rs.getString(ZMSConsts.DB_COLUMN_ROLE)));
+        assertion.setResource(rs.getString(ZMSConsts.DB_COLUMN_RESOURCE));
+        assertion.setAction(rs.getString(ZMSConsts.DB_COLUMN_ACTION));
+        assertion.setEffect(AssertionEffect.valueOf(rs.getString(ZMSConsts.DB_COLUMN_EFFECT)));
+        assertion.setId(rs.getLong(ZMSConsts.DB_COLUMN_ASSERT_ID));
+        assertions.add(assertion);
+        return assertion;
+    }
+
+    void addDomainAssertionCondition(Map<Long, Assertion> assertionsMap,
+            Map<String, AssertionCondition> assertionConditionMap, ResultSet rs) throws SQLException {
+
+        long assertionId = rs.getLong(ZMSConsts.DB_COLUMN_ASSERT_ID);
+        Assertion assertion = assertionsMap.get(assertionId);
+        if (assertion == null) {
+            return;
+        }
+        AssertionConditions assertionConditions = assertion.getConditions();
+        if (assertionConditions == null) {
+            assertionConditions = new AssertionConditions();
+            List<AssertionCondition> assertionConditionList = new ArrayList<>();
+            assertionConditions.setConditionsList(assertionConditionList);
+            assertion.setConditions(assertionConditions);
+        }
+        int conditionId = rs.getInt(ZMSConsts.DB_COLUMN_CONDITION_ID);
+        AssertionCondition assertionCondition = assertionConditionMap.get(assertionId + ":" + conditionId);
+        if (assertionCondition == null) {
+            assertionCondition = new AssertionCondition();
+            Map<String, AssertionConditionData> assertionConditionDataMap = new HashMap<>();
+            assertionCondition.setConditionsMap(assertionConditionDataMap);
+            assertionCondition.setId(conditionId);
+            assertionConditionMap.put(assertionId + ":" + conditionId, assertionCondition);
+            assertionConditions.getConditionsList().add(assertionCondition);
+        }
+        AssertionConditionData assertionConditionData = new AssertionConditionData();
+        if (rs.getString(ZMSConsts.DB_COLUMN_OPERATOR) != null) {
+            assertionConditionData.setOperator(AssertionConditionOperator.fromString(rs.getString(ZMSConsts.DB_COLUMN_OPERATOR)));
+        }
+        assertionConditionData.setValue(rs.getString(ZMSConsts.DB_COLUMN_VALUE));
+        assertionCondition.getConditionsMap().put(rs.getString(ZMSConsts.DB_COLUMN_KEY), assertionConditionData);
+    }
+
     void addTagsToPolicies(Map<Integer, Policy> policyMap, String domainName) {
 
         Map<String, Map<String, TagValueList>> domainPolicyTags = getDomainPolicyTags(domainName);
@@ -4320,17 +4403,7 @@ public class JDBCConnection implements ObjectStoreConnection {
             try (ResultSet rs = executeQuery(ps, caller)) {
                 while (rs.next()) {
                     String serviceName = rs.getString(ZMSConsts.DB_COLUMN_NAME);
-                    ServiceIdentity service = new ServiceIdentity()
-                            .setName(ResourceUtils.serviceResourceName(domainName, serviceName))
-                            .setProviderEndpoint(saveValue(rs.getString(ZMSConsts.DB_COLUMN_PROVIDER_ENDPOINT)))
-                            .setDescription(saveValue(rs.getString(ZMSConsts.DB_COLUMN_DESCRIPTION)))
-                            .setExecutable(saveValue(rs.getString(ZMSConsts.DB_COLUMN_EXECUTABLE)))
-                            .setUser(saveValue(rs.getString(ZMSConsts.DB_COLUMN_SVC_USER)))
-                            .setGroup(saveValue(rs.getString(ZMSConsts.DB_COLUMN_SVC_GROUP)))
-                            .setModified(Timestamp.fromMillis(rs.getTimestamp(ZMSConsts.DB_COLUMN_MODIFIED).getTime()));
-                    List<PublicKeyEntry> publicKeys = new ArrayList<>();
-                    service.setPublicKeys(publicKeys);
-                    serviceMap.put(serviceName, service);
+                    serviceMap.put(serviceName, retrieveDomainService(rs, domainName, serviceName));
                 }
             }
         } catch (SQLException ex) {
@@ -4346,12 +4419,7 @@ public class JDBCConnection implements ObjectStoreConnection {
                     if (service == null) {
                         continue;
                     }
-                    List<String> hosts = service.getHosts();
-                    if (hosts == null) {
-                        hosts = new ArrayList<>();
-                        service.setHosts(hosts);
-                    }
-                    hosts.add(rs.getString(2));
+                    addDomainServiceHost(service, rs);
                 }
             }
         } catch (SQLException ex) {
@@ -4367,10 +4435,7 @@ public class JDBCConnection implements ObjectStoreConnection {
                     if (service == null) {
                         continue;
                     }
-                    PublicKeyEntry publicKey = new PublicKeyEntry()
-                            .setId(rs.getString(ZMSConsts.DB_COLUMN_KEY_ID))
-                            .setKey(rs.getString(ZMSConsts.DB_COLUMN_KEY_VALUE));
-                    service.getPublicKeys().add(publicKey);
+                    addDomainServicePublicKey(service, rs);
                 }
             }
         } catch (SQLException ex) {
@@ -4383,6 +4448,35 @@ public class JDBCConnection implements ObjectStoreConnection {
         athenzDomain.getServices().addAll(serviceMap.values());
     }
 
+    ServiceIdentity retrieveDomainService(ResultSet rs, final String domainName, final String serviceName)
+            throws SQLException {
+        return new ServiceIdentity()
+                .setName(ResourceUtils.serviceResourceName(domainName, serviceName))
+                .setProviderEndpoint(saveValue(rs.getString(ZMSConsts.DB_COLUMN_PROVIDER_ENDPOINT)))
+                .setDescription(saveValue(rs.getString(ZMSConsts.DB_COLUMN_DESCRIPTION)))
+                .setExecutable(saveValue(rs.getString(ZMSConsts.DB_COLUMN_EXECUTABLE)))
+                .setUser(saveValue(rs.getString(ZMSConsts.DB_COLUMN_SVC_USER)))
+                .setGroup(saveValue(rs.getString(ZMSConsts.DB_COLUMN_SVC_GROUP)))
+                .setModified(Timestamp.fromMillis(rs.getTimestamp(ZMSConsts.DB_COLUMN_MODIFIED).getTime()))
+                .setPublicKeys(new ArrayList<>());
+    }
+
+    void addDomainServiceHost(ServiceIdentity service, ResultSet rs) throws SQLException {
+        List<String> hosts = service.getHosts();
+        if (hosts == null) {
+            hosts = new ArrayList<>();
+            service.setHosts(hosts);
+        }
+        hosts.add(rs.getString(2));
+    }
+
+    void addDomainServicePublicKey(ServiceIdentity service, ResultSet rs) throws SQLException {
+        PublicKeyEntry publicKey = new PublicKeyEntry()
+                .setId(rs.getString(ZMSConsts.DB_COLUMN_KEY_ID))
+                .setKey(rs.getString(ZMSConsts.DB_COLUMN_KEY_VALUE));
+        service.getPublicKeys().add(publicKey);
+    }
+
     void getAthenzDomainEntities(String domainName, int domainId, AthenzDomain athenzDomain) {
 
         final String caller = "getAthenzDomain";
@@ -4390,9 +4484,7 @@ public class JDBCConnection implements ObjectStoreConnection {
             ps.setInt(1, domainId);
             try (ResultSet rs = executeQuery(ps, caller)) {
                 while (rs.next()) {
-                    athenzDomain.getEntities().add(new Entity()
-                            .setName(ResourceUtils.entityResourceName(domainName, rs.getString(ZMSConsts.DB_COLUMN_NAME)))
-                            .setValue(JSON.fromString(rs.getString(ZMSConsts.DB_COLUMN_VALUE), Struct.class)));
+                    athenzDomain.getEntities().add(retrieveDomainEntity(rs, domainName));
                 }
             }
         } catch (SQLException ex) {
@@ -4400,6 +4492,12 @@ public class JDBCConnection implements ObjectStoreConnection {
         }
     }
 
+    Entity retrieveDomainEntity(ResultSet rs, final String domainName) throws SQLException {
+        return new Entity()
+                .setName(ResourceUtils.entityResourceName(domainName, rs.getString(ZMSConsts.DB_COLUMN_NAME)))
+                .setValue(JSON.fromString(rs.getString(ZMSConsts.DB_COLUMN_VALUE), Struct.class));
+    }
+
     @Override
     public AthenzDomain getAthenzDomain(String domainName) {
 
@@ -4433,6 +4531,222 @@ public class JDBCConnection implements ObjectStoreConnection {
         return athenzDomain;
     }
 
+    @FunctionalInterface
+    interface ResultSetConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    @Override
+    public List<AthenzDomain> getAthenzDomains(List<String> domainNames) {
+
+        final String caller = "getAthenzDomains";
+
+        // we're going to load all the given domains with a single query
+        // for each object type, so we keep track of our domains and their
+        // objects based on their ids to process the returned rows
+
+        Map<Integer, AthenzDomain> domainMap = new HashMap<>();
+        if (domainNames.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try (PreparedStatement ps = con.prepareStatement(SQL_GET_DOMAINS_BY_NAME
+                + inListParameters(domainNames.size()) + ";")) {
+            for (int i = 0; i < domainNames.size(); i++) {
+                ps.setString(i + 1, domainNames.get(i));
+            }
+            try (ResultSet rs = executeQuery(ps, caller)) {
+                while (rs.next()) {
+                    final String domainName = rs.getString(ZMSConsts.DB_COLUMN_NAME);
+                    AthenzDomain athenzDomain = new AthenzDomain(domainName);
+                    athenzDomain.setDomain(saveDomainSettings(domainName, rs, false)
+                            .setContacts(new HashMap<>()));
+                    domainMap.put(rs.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID), athenzDomain);
+                }
+            }
+        } catch (SQLException ex) {
+            throw sqlError(ex, caller);
+        }
+
+        // if some of our domains were deleted then they're just
+        // not included in the response
+
+        if (domainMap.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> domainIds = new ArrayList<>(domainMap.keySet());
+
+        getDomainsObjects(SQL_GET_DOMAINS_TAGS, domainIds, rs -> {
+            Domain domain = domainMap.get(rs.getInt(1)).getDomain();
+            domain.setTags(addTagValue(domain.getTags(), rs.getString(2), rs.getString(3)));
+        }, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_CONTACTS, domainIds, rs ->
+            domainMap.get(rs.getInt(1)).getDomain().getContacts().put(rs.getString(2), rs.getString(3)), caller);
+
+        getAthenzDomainsRoles(domainMap, domainIds, caller);
+        getAthenzDomainsGroups(domainMap, domainIds, caller);
+        getAthenzDomainsPolicies(domainMap, domainIds, caller);
+        getAthenzDomainsServices(domainMap, domainIds, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_ENTITIES, domainIds, rs -> {
+            AthenzDomain athenzDomain = domainMap.get(rs.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID));
+            athenzDomain.getEntities().add(retrieveDomainEntity(rs, athenzDomain.getName()));
+        }, caller);
+
+        return new ArrayList<>(domainMap.values());
+    }
+
+    void getAthenzDomainsRoles(Map<Integer, AthenzDomain> domainMap, List<Integer> domainIds, final String caller) {
+
+        Map<Integer, Role> roleMap = new HashMap<>();
+        getDomainsObjects(SQL_GET_DOMAINS_ROLES, domainIds, rs -> {
+            AthenzDomain athenzDomain = domainMap.get(rs.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID));
+            Role role = retrieveRole(rs, athenzDomain.getName(), rs.getString(ZMSConsts.DB_COLUMN_NAME));
+            roleMap.put(rs.getInt(ZMSConsts.DB_COLUMN_ROLE_ID), role);
+            athenzDomain.getRoles().add(role);
+        }, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_ROLE_MEMBERS, domainIds, rs -> {
+            Role role = roleMap.get(rs.getInt(1));
+            if (role != null) {
+                addDomainRoleMember(role, rs);
+            }
+        }, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_ROLE_TAGS, domainIds, rs -> {
+            Role role = roleMap.get(rs.getInt(1));
+            if (role != null) {
+                role.setTags(addTagValue(role.getTags(), rs.getString(2), rs.getString(3)));
+            }
+        }, caller);
+    }
+
+    void getAthenzDomainsGroups(Map<Integer, AthenzDomain> domainMap, List<Integer> domainIds, final String caller) {
+
+        Map<Integer, Group> groupMap = new HashMap<>();
+        getDomainsObjects(SQL_GET_DOMAINS_GROUPS, domainIds, rs -> {
+            AthenzDomain athenzDomain = domainMap.get(rs.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID));
+            Group group = retrieveGroup(rs, athenzDomain.getName(), rs.getString(ZMSConsts.DB_COLUMN_NAME));
+            groupMap.put(rs.getInt(ZMSConsts.DB_COLUMN_GROUP_ID), group);
+            athenzDomain.getGroups().add(group);
+        }, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_GROUP_MEMBERS, domainIds, rs -> {
+            Group group = groupMap.get(rs.getInt(1));
+            if (group != null) {
+                addDomainGroupMember(group, rs);
+            }
+        }, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_GROUP_TAGS, domainIds, rs -> {
+            Group group = groupMap.get(rs.getInt(1));
+            if (group != null) {
+                group.setTags(addTagValue(group.getTags(), rs.getString(2), rs.getString(3)));
+            }
+        }, caller);
+    }
+
+    void getAthenzDomainsPolicies(Map<Integer, AthenzDomain> domainMap, List<Integer> domainIds, final String caller) {
+
+        Map<Integer, Policy> policyMap = new HashMap<>();
+        getDomainsObjects(SQL_GET_DOMAINS_POLICIES, domainIds, rs -> {
+            AthenzDomain athenzDomain = domainMap.get(rs.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID));
+            Policy policy = savePolicySettings(athenzDomain.getName(), rs.getString(ZMSConsts.DB_COLUMN_NAME), rs);
+            policyMap.put(rs.getInt(ZMSConsts.DB_COLUMN_POLICY_ID), policy);
+            athenzDomain.getPolicies().add(policy);
+        }, caller);
+
+        Map<Long, Assertion> assertionsMap = new HashMap<>();
+        getDomainsObjects(SQL_GET_DOMAINS_POLICY_ASSERTIONS, domainIds, rs -> {
+            Policy policy = policyMap.get(rs.getInt(ZMSConsts.DB_COLUMN_POLICY_ID));
+            if (policy != null) {
+                final String domainName = domainMap.get(rs.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID)).getName();
+                Assertion assertion = addDomainPolicyAssertion(policy, domainName, rs);
+                assertionsMap.put(assertion.getId(), assertion);
+            }
+        }, caller);
+
+        Map<String, AssertionCondition> assertionConditionMap = new HashMap<>();
+        getDomainsObjects(SQL_GET_DOMAINS_POLICY_ASSERTIONS_CONDITIONS, SQL_GET_DOMAINS_POLICY_ASSERTIONS_CONDITIONS_ORDER,
+                domainIds, rs -> addDomainAssertionCondition(assertionsMap, assertionConditionMap, rs), caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_POLICY_TAGS, domainIds, rs -> {
+            Policy policy = policyMap.get(rs.getInt(1));
+            if (policy != null) {
+                policy.setTags(addTagValue(policy.getTags(), rs.getString(2), rs.getString(3)));
+            }
+        }, caller);
+    }
+
+    void getAthenzDomainsServices(Map<Integer, AthenzDomain> domainMap, List<Integer> domainIds, final String caller) {
+
+        Map<Integer, ServiceIdentity> serviceMap = new HashMap<>();
+        getDomainsObjects(SQL_GET_DOMAINS_SERVICES, domainIds, rs -> {
+            AthenzDomain athenzDomain = domainMap.get(rs.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID));
+            ServiceIdentity service = retrieveDomainService(rs, athenzDomain.getName(),
+                    rs.getString(ZMSConsts.DB_COLUMN_NAME));
+            serviceMap.put(rs.getInt(ZMSConsts.DB_COLUMN_SERVICE_ID), service);
+            athenzDomain.getServices().add(service);
+        }, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_SERVICES_HOSTS, domainIds, rs -> {
+            ServiceIdentity service = serviceMap.get(rs.getInt(1));
+            if (service != null) {
+                addDomainServiceHost(service, rs);
+            }
+        }, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_SERVICES_PUBLIC_KEYS, domainIds, rs -> {
+            ServiceIdentity service = serviceMap.get(rs.getInt(1));
+            if (service != null) {
+                addDomainServicePublicKey(service, rs);
+            }
+        }, caller);
+
+        getDomainsObjects(SQL_GET_DOMAINS_SERVICES_TAGS, domainIds, rs -> {
+            ServiceIdentity service = serviceMap.get(rs.getInt(1));
+            if (service != null) {
+                service.setTags(addTagValue(service.getTags(), rs.getString(2), rs.getString(3)));
+            }
+        }, caller);
+    }
+
+    void getDomainsObjects(final String query, List<Integer> domainIds, ResultSetConsumer consumer,
+            final String caller) {
+        getDomainsObjects(query, ";", domainIds, consumer, caller);
+    }
+
+    void getDomainsObjects(final String query, final String querySuffix, List<Integer> domainIds,
+            ResultSetConsumer consumer, final String caller) {
+
+        try (PreparedStatement ps = con.prepareStatement(query + inListParameters(domainIds.size()) + querySuffix)) {
+            for (int i = 0; i < domainIds.size(); i++) {
+                ps.setInt(i + 1, domainIds.get(i));
+            }
+            try (ResultSet rs = executeQuery(ps, caller)) {
+                while (rs.next()) {
+                    consumer.accept(rs);
+                }
+            }
+        } catch (SQLException ex) {
+            throw sqlError(ex, caller);
+        }
+    }
+
+    String inListParameters(int count) {
+        return "(" + String.join(",", Collections.nCopies(count, "?")) + ")";
+    }
+
+    Map<String, TagValueList> addTagValue(Map<String, TagValueList> tags, final String tagKey, final String tagValue) {
+        if (tags == null) {
+            tags = new HashMap<>();
+        }
+        tags.computeIfAbsent(tagKey, k -> new TagValueList().setList(new ArrayList<>())).getList().add(tagValue);
+        return tags;
+    }
+
     @Override
     public DomainMetaList listModifiedDomains(long modifiedSince) {
 
@@ -4494,23 +4808,24 @@ public class JDBCConnection implements ObjectStoreConnection {
         try (PreparedStatement ps = prepareRoleAssertionsStatement(action)) {
             try (ResultSet rs = executeQuery(ps, caller)) {
                 while (rs.next()) {
-                    Assertion assertion = new Assertion();
-                    String domainName = rs.getString(ZMSConsts.DB_COLUMN_NAME);
-                    String roleName = rs.getString(ZMSConsts.DB_COLUMN_ROLE);
-                    assertion.setRole(ResourceUtils.roleResourceName(domainName, roleName));
-                    assertion.setResource(rs.getString(ZMSConsts.DB_COLUMN_RESOURCE));
-                    assertion.setAction(rs.getString(ZMSConsts.DB_COLUMN_ACTION));
-                    assertion.setEffect(AssertionEffect.valueOf(rs.getString(ZMSConsts.DB_COLUMN_EFFECT)));
-                    assertion.setId((long) rs.getInt(ZMSConsts.DB_COLUMN_ASSERT_ID));
+                    addRoleAssertion(roleAssertions, rs, caller);
+                }
+            }
+        } catch (SQLException ex) {
+            throw sqlError(ex, caller);
+        }
 
-                    String index = roleIndex(rs.getString(ZMSConsts.DB_COLUMN_DOMAIN_ID), roleName);
-                    List<Assertion> assertions = roleAssertions.computeIfAbsent(index, k -> new ArrayList<>());
+        return roleAssertions;
+    }
 
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("{}: adding assertion {} for {}", caller, assertion, index);
-                    }
+    Map<String, List<Assertion>> getDomainRoleAssertions(int domainId, String caller) {
 
-                    assertions.add(assertion);
+        Map<String, List<Assertion>> roleAssertions = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(SQL_LIST_ROLE_ASSERTIONS + SQL_LIST_ROLE_ASSERTION_DOMAIN)) {
+            ps.setInt(1, domainId);
+            try (ResultSet rs = executeQuery(ps, caller)) {
+                while (rs.next()) {
+                    addRoleAssertion(roleAssertions, rs, caller);
                 }
             }
         } catch (SQLException ex) {
@@ -4520,6 +4835,162 @@ public class JDBCConnection implements ObjectStoreConnection {
         return roleAssertions;
     }
 
+    void addRoleAssertion(Map<String, List<Assertion>> roleAssertions, ResultSet rs, String caller)
+            throws SQLException {
+
+        final String domainName = rs.getString(ZMSConsts.DB_COLUMN_NAME);
+        final String roleName = rs.getString(ZMSConsts.DB_COLUMN_ROLE);
+        Assertion assertion = new Assertion()
+                .setRole(ResourceUtils.roleResourceName(domainName, roleName))
+                .setResource(rs.getString(ZMSConsts.DB_COLUMN_RESOURCE))
+                .setAction(rs.getString(ZMSConsts.DB_COLUMN_ACTION))
+                .setEffect(AssertionEffect.valueOf(rs.getString(ZMSConsts.DB_COLUMN_EFFECT)))
+                .setId((long) rs.getInt(ZMSConsts.DB_COLUMN_ASSERT_ID));
+
+        final String index = roleIndex(rs.getString(ZMSConsts.DB_COLUMN_DOMAIN_ID), roleName);
+        List<Assertion> assertions = roleAssertions.computeIfAbsent(index, k -> new ArrayList<>());
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{}: adding assertion {} for {}", caller, assertion, index);
+        }
+
+        assertions.add(assertion);
+    }
+
+    Map<Integer, Long> getDomainModTimestamps(long modifiedSince, String caller) {
+
+        Map<Integer, Long> domains = new HashMap<>();
+        try (PreparedStatement ps = prepareDomainModTimestampsStatement(modifiedSince)) {
+            try (ResultSet rs = executeQuery(ps, caller)) {
+                while (rs.next()) {
+                    domains.put(rs.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID),
+                            rs.getTimestamp(ZMSConsts.DB_COLUMN_MODIFIED).getTime());
+                }
+            }
+        } catch (SQLException ex) {
+            throw sqlError(ex, caller);
+        }
+
+        return domains;
+    }
+
+    PreparedStatement prepareDomainModTimestampsStatement(long modifiedSince) throws SQLException {
+
+        PreparedStatement ps;
+        if (modifiedSince != 0) {
+            ps = con.prepareStatement(SQL_LIST_DOMAIN_ID_MODIFIED_SINCE);
+            Calendar cal = Calendar.getInstance(TimeZone.getTimeZone(MYSQL_SERVER_TIMEZONE));
+            ps.setTimestamp(1, new java.sql.Timestamp(modifiedSince), cal);
+        } else {
+            ps = con.prepareStatement(SQL_LIST_DOMAIN_ID_MODIFIED);
+        }
+        return ps;
+    }
+
+    RoleAssertionsIndex getRoleAssertionsIndex(String caller) {
+
+        // if our index has not passed its timeout, we first carry out the
+        // cheap check (without holding the lock) to see if any domains have
+        // been modified or deleted since our last check. if not, there is
+        // no need to update the index
+
+        long now = System.currentTimeMillis();
+        RoleAssertionsIndex index = SERVER_ROLE_ASSERTIONS_INDEX;
+        if (index != null && now - index.getCreateTime() <= SERVER_ROLE_ASSERTIONS_INDEX_TIMEOUT
+                && isRoleAssertionsIndexCurrent(index, caller)) {
+            return index;
+        }
+
+        synchronized (synchronizer) {
+
+            // check if the index has already been updated or rebuilt
+            // by another thread while we were waiting for the lock.
+            // otherwise, we're only going to reload the assertions for
+            // the domains that have been modified since our last check
+            // or rebuild the index if it has passed our timeout
+
+            index = SERVER_ROLE_ASSERTIONS_INDEX;
+            if (index != null && now - index.getCreateTime() <= SERVER_ROLE_ASSERTIONS_INDEX_TIMEOUT) {
+                if (isRoleAssertionsIndexCurrent(index, caller) || updateRoleAssertionsIndex(index, caller)) {
+                    return index;
+                }
+            }
+
+            index = buildRoleAssertionsIndex(now, caller);
+            SERVER_ROLE_ASSERTIONS_INDEX = index;
+            return index;
+        }
+    }
+
+    boolean isRoleAssertionsIndexCurrent(RoleAssertionsIndex index, String caller) {
+
+        // the index is current if no domain has been modified after our
+        // last modified timestamp and no domains have been added or deleted
+
+        try (PreparedStatement ps = con.prepareStatement(SQL_GET_DOMAIN_MODIFIED_COUNT)) {
+            try (ResultSet rs = executeQuery(ps, caller)) {
+                if (!rs.next()) {
+                    return false;
+                }
+                java.sql.Timestamp modified = rs.getTimestamp(1);
+                long lastModified = (modified == null) ? 0 : modified.getTime();
+                return lastModified <= index.getLastModified() && rs.getInt(2) == index.getDomainCount();
+            }
+        } catch (SQLException ex) {
+            throw sqlError(ex, caller);
+        }
+    }
+
+    RoleAssertionsIndex buildRoleAssertionsIndex(long now, String caller) {
+
+        // we first get the list of domains before the assertions so if any
+        // domain is modified in between, it will be reloaded during the next check
+
+        Map<Integer, Long> domains = getDomainModTimestamps(0, caller);
+
+        Map<String, Map<String, List<Assertion>>> domainAssertions = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(SQL_LIST_ROLE_ASSERTIONS + ";")) {
+            try (ResultSet rs = executeQuery(ps, caller)) {
+                while (rs.next()) {
+                    addRoleAssertion(domainAssertions.computeIfAbsent(
+                            rs.getString(ZMSConsts.DB_COLUMN_DOMAIN_ID), k -> new HashMap<>()), rs, caller);
+                }
+            }
+        } catch (SQLException ex) {
+            throw sqlError(ex, caller);
+        }
+
+        RoleAssertionsIndex index = new RoleAssertionsIndex(now);
+        for (Map.Entry<Integer, Long> domain : domains.entrySet()) {
+            Map<String, List<Assertion>> assertions = domainAssertions.get(String.valueOf(domain.getKey()));
+            index.setDomainAssertions(domain.getKey(), domain.getValue(),
+                    assertions == null ? Collections.emptyMap() : assertions);
+        }
+
+        LOG.info("{}: built role assertions index for {} domains", caller, index.getDomainCount());
+        return index;
+    }
+
+    boolean updateRoleAssertionsIndex(RoleAssertionsIndex index, String caller) {
+
+        // reload the assertions for all domains modified since our last
+        // check. we include the domains modified at the same timestamp
+        // in case there were multiple updates within the same millisecond
+        // but skip the ones that we have already loaded at that timestamp
+
+        Map<Integer, Long> domains = getDomainModTimestamps(index.getLastModified(), caller);
+        domains.entrySet().removeIf(domain -> index.isDomainLoaded(domain.getKey(), domain.getValue()));
+        for (Map.Entry<Integer, Long> domain : domains.entrySet()) {
+            index.setDomainAssertions(domain.getKey(), domain.getValue(),
+                    getDomainRoleAssertions(domain.getKey(), caller));
+        }
+
+        // deleted domains are not reported as modified so if our domain
+        // count does not match, the index must be rebuilt
+
+        return getObjectSystemCount(SQL_TABLE_DOMAIN) == index.getDomainCount();
+    }
+
     Set<String> getRolePrincipals(final String principalName, final String caller) {
 
         // first let's find out all the roles that given principal is member of
@@ -4746,12 +5217,25 @@ public class JDBCConnection implements ObjectStoreConnection {
         }
 
         // now let's get the list of role assertions. if we have
-        // no matches, then we have nothing to do
-
-        Map<String, List<Assertion>> roleAssertions = getRoleAssertions(action, caller);
-        if (roleAssertions.isEmpty()) {
-            resources.add(getResourceAccessObject(principal, null));
-            return rsrcAccessList;
+        // no matches, then we have nothing to do. if the role assertions
+        // index is enabled then we only look up the principal's roles
+        // in the index instead of loading all assertions from the DB
+
+        Function<String, List<Assertion>> roleAssertions;
+        if (SERVER_ROLE_ASSERTIONS_INDEX_ENABLED) {
+            RoleAssertionsIndex index = getRoleAssertionsIndex(caller);
+            if (index.isEmpty()) {
+                resources.add(getResourceAccessObject(principal, null));
+                return rsrcAccessList;
+            }
+            roleAssertions = roleIndex -> index.getAssertions(roleIndex, action);
+        } else {
+            Map<String, List<Assertion>> assertionsMap = getRoleAssertions(action, caller);
+            if (assertionsMap.isEmpty()) {
+                resources.add(getResourceAccessObject(principal, null));
+                return rsrcAccessList;
+            }
+            roleAssertions = assertionsMap::get;
         }
 
         // finally we need to get all the trusted role maps
@@ -4775,7 +5259,7 @@ public class JDBCConnection implements ObjectStoreConnection {
 
             // retrieve the assertions for this role
 
-            addRoleAssertions(assertions, roleAssertions.get(roleIndex));
+            addRoleAssertions(assertions, roleAssertions.apply(roleIndex));
 
             // check to see if this is a trusted role. There might be multiple
             // roles all being mapped as trusted, so we need to process them all
@@ -4788,7 +5272,7 @@ public class JDBCConnection implements ObjectStoreConnection {
                         LOG.debug("{}: processing trusted role: {}", caller, mappedTrustedRole);
                     }
 
-                    addRoleAssertions(assertions, roleAssertions.get(mappedTrustedRole));
+                    addRoleAssertions(assertions, roleAssertions.apply(mappedTrustedRole));
                 }
             }
         }
@@ -0,0 +1,129 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms.store.impl.jdbc;
+
+import com.yahoo.athenz.zms.Assertion;
+import com.yahoo.athenz.zms.ZMSConsts;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server wide index of all role assertions keyed by the role index
+ * (domain id and role name) that is used when processing resource
+ * access list requests. The index keeps track of the domains and
+ * their last modification timestamp so the assertions can be reloaded
+ * only for the domains that have been modified since the last check.
+ */
+class RoleAssertionsIndex {
+
+    private final Map<String, List<Assertion>> roleAssertions = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<String>> domainRoles = new ConcurrentHashMap<>();
+    private final Set<Integer> lastModifiedDomains = ConcurrentHashMap.newKeySet();
+    private final long createTime;
+    private volatile long lastModified;
+
+    RoleAssertionsIndex(long createTime) {
+        this.createTime = createTime;
+    }
+
+    long getCreateTime() {
+        return createTime;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    int getDomainCount() {
+        return domainRoles.size();
+    }
+
+    boolean isEmpty() {
+        return roleAssertions.isEmpty();
+    }
+
+    /**
+     * Check if the assertions for the given domain have already been
+     * loaded with the given modification timestamp. We only keep track
+     * of the domains loaded at our last modified timestamp since those
+     * are the only ones returned again by the modified domains query.
+     * @param domainId id of the domain
+     * @param modified last modification timestamp of the domain
+     * @return true if the domain has already been loaded
+     */
+    boolean isDomainLoaded(int domainId, long modified) {
+        return modified == lastModified && lastModifiedDomains.contains(domainId);
+    }
+
+    /**
+     * Replace the assertions for the given domain. Any roles that were
+     * previously indexed for the domain but are not included in the new
+     * set are removed from the index.
+     * @param domainId id of the domain
+     * @param modified last modification timestamp of the domain
+     * @param assertions role index to assertion list map for the domain
+     */
+    void setDomainAssertions(int domainId, long modified, Map<String, List<Assertion>> assertions) {
+
+        Set<String> oldRoles = domainRoles.put(domainId, new HashSet<>(assertions.keySet()));
+        roleAssertions.putAll(assertions);
+        if (oldRoles != null) {
+            for (String role : oldRoles) {
+                if (!assertions.containsKey(role)) {
+                    roleAssertions.remove(role);
+                }
+            }
+        }
+
+        if (modified > lastModified) {
+            lastModified = modified;
+            lastModifiedDomains.clear();
+        }
+        if (modified == lastModified) {
+            lastModifiedDomains.add(domainId);
+        }
+    }
+
+    /**
+     * Return the assertions for the given role that match the requested
+     * action. If no action is specified then all assertions except the
+     * assume_role ones are returned - same as the database query.
+     * @param roleIndex role index (domain id and role name)
+     * @param action requested action
+     * @return list of matching assertions or null if none
+     */
+    List<Assertion> getAssertions(final String roleIndex, final String action) {
+
+        List<Assertion> assertions = roleAssertions.get(roleIndex);
+        if (assertions == null) {
+            return null;
+        }
+
+        List<Assertion> matchedAssertions = new ArrayList<>();
+        for (Assertion assertion : assertions) {
+            if (StringUtils.isEmpty(action)) {
+                if (!ZMSConsts.ACTION_ASSUME_ROLE.equalsIgnoreCase(assertion.getAction())) {
+                    matchedAssertions.add(assertion);
+                }
+            } else if (action.equalsIgnoreCase(assertion.getAction())) {
+                matchedAssertions.add(assertion);
+            }
+        }
+        return matchedAssertions.isEmpty() ? null : matchedAssertions;
+    }
+}
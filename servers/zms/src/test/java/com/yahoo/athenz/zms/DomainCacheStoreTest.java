@@ -0,0 +1,286 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms;
+
+import com.yahoo.athenz.common.metrics.Metric;
+import com.yahoo.athenz.zms.store.AthenzDomain;
+import com.yahoo.athenz.zms.store.ObjectStore;
+import com.yahoo.athenz.zms.store.ObjectStoreConnection;
+import com.yahoo.rdl.Timestamp;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class DomainCacheStoreTest {
+
+    private DBService createDBService(final String maxWeight) {
+        return createDBService(null, maxWeight);
+    }
+
+    private DBService createDBService(ObjectStore store, final String maxWeight) {
+
+        if (maxWeight != null) {
+            System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_MAX_WEIGHT, maxWeight);
+        }
+        ZMSConfig zmsConfig = new ZMSConfig();
+        zmsConfig.setUserDomain("user");
+        DBService dbService = new DBService(store, null, zmsConfig, null, null);
+        System.clearProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_MAX_WEIGHT);
+        return dbService;
+    }
+
+    private AthenzDomain createDomain(final String domainName, int roleCount) {
+
+        AthenzDomain athenzDomain = new AthenzDomain(domainName);
+        athenzDomain.setDomain(new Domain().setName(domainName).setModified(Timestamp.fromMillis(1000)));
+        List<Role> roles = new ArrayList<>();
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(new Role().setName(domainName + ":role.role" + i));
+        }
+        athenzDomain.setRoles(roles);
+        return athenzDomain;
+    }
+
+    @Test
+    public void testEstimateWeight() {
+
+        assertEquals(DBService.DataCache.estimateWeight(null), 1);
+        assertEquals(new DBService.DataCache(new AthenzDomain("athenz"), 100).getWeight(), 1);
+
+        AthenzDomain athenzDomain = new AthenzDomain("athenz");
+        athenzDomain.getRoles().add(new Role().setName("athenz:role.readers")
+                .setRoleMembers(List.of(new RoleMember().setMemberName("user.joe"),
+                        new RoleMember().setMemberName("user.jane"))));
+        athenzDomain.getRoles().add(new Role().setName("athenz:role.writers"));
+        athenzDomain.getGroups().add(new Group().setName("athenz:group.dev")
+                .setGroupMembers(List.of(new GroupMember().setMemberName("user.joe"))));
+        athenzDomain.getPolicies().add(new Policy().setName("athenz:policy.readers")
+                .setAssertions(List.of(new Assertion().setRole("athenz:role.readers"))));
+        athenzDomain.getServices().add(new ServiceIdentity().setName("athenz.api")
+                .setPublicKeys(List.of(new PublicKeyEntry().setId("0")))
+                .setHosts(List.of("host1", "host2")));
+        athenzDomain.getEntities().add(new Entity().setName("athenz:entity.config"));
+
+        // domain + 2 roles with 2 members + group with 1 member +
+        // policy with 1 assertion + service with 1 key and 2 hosts + entity
+
+        assertEquals(DBService.DataCache.estimateWeight(athenzDomain), 14);
+
+        athenzDomain.setRoles(null);
+        athenzDomain.setGroups(null);
+        athenzDomain.setPolicies(null);
+        athenzDomain.setServices(null);
+        athenzDomain.setEntities(null);
+        assertEquals(DBService.DataCache.estimateWeight(athenzDomain), 1);
+    }
+
+    @Test
+    public void testUnboundedCache() {
+
+        DBService dbService = createDBService(null);
+        assertNull(dbService.domainCacheSketch);
+
+        ObjectStoreConnection con = Mockito.mock(ObjectStoreConnection.class);
+        Mockito.when(con.getAthenzDomain("athenz")).thenReturn(createDomain("athenz", 10));
+
+        assertNotNull(dbService.getAthenzDomain(con, "athenz"));
+        assertNotNull(dbService.cacheStore.getIfPresent("athenz"));
+        assertEquals(dbService.domainCacheWeight.get(), 0);
+    }
+
+    @Test
+    public void testCacheAdmission() {
+
+        DBService dbService = createDBService("20");
+        assertNotNull(dbService.domainCacheSketch);
+        assertEquals(dbService.domainCacheMinFrequency, 2);
+
+        ObjectStoreConnection con = Mockito.mock(ObjectStoreConnection.class);
+        Mockito.when(con.getAthenzDomain("hot")).thenReturn(createDomain("hot", 2));
+        Mockito.when(con.getAthenzDomain("scan")).thenReturn(createDomain("scan", 2));
+        Mockito.when(con.getAthenzDomain("large")).thenReturn(createDomain("large", 14));
+
+        // with enough room the domains are admitted on the first read
+
+        dbService.getAthenzDomain(con, "hot");
+        dbService.getAthenzDomain(con, "hot");
+        dbService.getAthenzDomain(con, "scan");
+        assertNotNull(dbService.cacheStore.getIfPresent("hot"));
+        assertNotNull(dbService.cacheStore.getIfPresent("scan"));
+        assertEquals(dbService.domainCacheWeight.get(), 6);
+        Mockito.verify(con, Mockito.times(1)).getAthenzDomain("hot");
+
+        // the cache is full so a one-off read of a domain is rejected
+
+        dbService.getAthenzDomain(con, "large");
+        assertNull(dbService.cacheStore.getIfPresent("large"));
+        assertEquals(dbService.domainCacheRejections.get(), 1);
+        assertEquals(dbService.domainCacheWeight.get(), 6);
+
+        // but a frequently requested domain is admitted and the
+        // cache evicts domains to stay within the max weight
+
+        dbService.getAthenzDomain(con, "large");
+        assertEquals(dbService.domainCacheRejections.get(), 1);
+        assertTrue(dbService.domainCacheWeight.get() <= 20);
+        assertEquals(dbService.domainCacheWeight.get(), dbService.cacheStore.asMap().values().stream()
+                .mapToLong(DBService.DataCache::getWeight).sum());
+
+        // invalidated domains are no longer included in our weight
+
+        dbService.cacheStore.invalidateAll();
+        assertEquals(dbService.domainCacheWeight.get(), 0);
+    }
+
+    @Test
+    public void testCacheLargeDomains() {
+
+        DBService dbService = createDBService("1000");
+        ObjectStoreConnection con = Mockito.mock(ObjectStoreConnection.class);
+
+        // each domain is heavier than the max weight split across guava's
+        // default cache segments but they must all be kept in the cache
+        // while our total weight is within the max weight
+
+        for (int i = 0; i < 9; i++) {
+            Mockito.when(con.getAthenzDomain("large" + i)).thenReturn(createDomain("large" + i, 99));
+            dbService.getAthenzDomain(con, "large" + i);
+        }
+        assertEquals(dbService.domainCacheWeight.get(), 900);
+        for (int i = 0; i < 9; i++) {
+            assertNotNull(dbService.cacheStore.getIfPresent("large" + i));
+        }
+        assertEquals(dbService.cacheStore.stats().evictionCount(), 0);
+
+        // a domain heavier than the segment share on its own is also kept
+
+        Mockito.when(con.getAthenzDomain("huge")).thenReturn(createDomain("huge", 999));
+        dbService.cacheStore.invalidateAll();
+        dbService.getAthenzDomain(con, "huge");
+        assertNotNull(dbService.cacheStore.getIfPresent("huge"));
+        assertEquals(dbService.domainCacheWeight.get(), 1000);
+    }
+
+    @Test
+    public void testReportDomainCacheStats() {
+
+        DBService dbService = createDBService("20");
+
+        ObjectStoreConnection con = Mockito.mock(ObjectStoreConnection.class);
+        Mockito.when(con.getAthenzDomain("athenz")).thenReturn(createDomain("athenz", 2));
+        Mockito.when(con.getAthenzDomain("large")).thenReturn(createDomain("large", 25));
+
+        dbService.getAthenzDomain(con, "athenz");
+        dbService.getAthenzDomain(con, "athenz");
+        dbService.getAthenzDomain(con, "athenz");
+        dbService.getAthenzDomain(con, "large");
+
+        Metric metric = Mockito.mock(Metric.class);
+        dbService.reportDomainCacheStats(metric);
+        Mockito.verify(metric, Mockito.times(1)).increment("zms_domain_cache_hit", 2L);
+        Mockito.verify(metric, Mockito.times(1)).increment("zms_domain_cache_miss", 2L);
+        Mockito.verify(metric, Mockito.times(1)).increment("zms_domain_cache_eviction", 0L);
+        Mockito.verify(metric, Mockito.times(1)).increment("zms_domain_cache_rejection", 1L);
+
+        // only the changes since the last report are reported
+
+        dbService.getAthenzDomain(con, "athenz");
+        Metric metric2 = Mockito.mock(Metric.class);
+        dbService.reportDomainCacheStats(metric2);
+        Mockito.verify(metric2, Mockito.times(1)).increment("zms_domain_cache_hit", 1L);
+        Mockito.verify(metric2, Mockito.times(1)).increment("zms_domain_cache_miss", 0L);
+        Mockito.verify(metric2, Mockito.times(1)).increment("zms_domain_cache_rejection", 0L);
+    }
+
+    @Test
+    public void testDomainCacheStatsReporter() {
+
+        DBService dbService = createDBService(null);
+
+        // no metric object or disabled reporting
+
+        dbService.startDomainCacheStatsReporter(null);
+        System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_STATS_INTERVAL, "0");
+        dbService.startDomainCacheStatsReporter(Mockito.mock(Metric.class));
+        dbService.stopDomainCacheStatsReporter();
+
+        System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_STATS_INTERVAL, "1");
+        Metric metric = Mockito.mock(Metric.class);
+        dbService.startDomainCacheStatsReporter(metric);
+        Mockito.verify(metric, Mockito.timeout(5000).atLeastOnce()).increment("zms_domain_cache_hit", 0L);
+        dbService.stopDomainCacheStatsReporter();
+        System.clearProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_STATS_INTERVAL);
+
+        // the validator checks are not included in our stats
+
+        dbService.cacheStore.put("athenz", new DBService.DataCache(new AthenzDomain("athenz"), 1000));
+        DomainCacheValidator validator = new DomainCacheValidator(dbService, 1000);
+        assertFalse(validator.invalidateDomain(new Domain().setName("athenz")
+                .setModified(Timestamp.fromMillis(1000))));
+        assertFalse(validator.invalidateDomain(new Domain().setName("sports")));
+        assertEquals(dbService.cacheStore.stats().requestCount(), 0);
+    }
+
+    @Test
+    public void testGetAthenzDomains() {
+
+        ObjectStore store = Mockito.mock(ObjectStore.class);
+        ObjectStoreConnection con = Mockito.mock(ObjectStoreConnection.class);
+        Mockito.when(store.getConnection(true, false)).thenReturn(con);
+
+        DBService dbService = createDBService(store, null);
+
+        // coretech is cached and up to date while sports is out of date
+
+        AthenzDomain coretech = createDomain("coretech", 1);
+        dbService.cacheStore.put("coretech", new DBService.DataCache(coretech, 1000));
+        dbService.cacheStore.put("sports", new DBService.DataCache(createDomain("sports", 1), 500));
+
+        AthenzDomain sports = createDomain("sports", 2);
+        Mockito.when(con.getAthenzDomains(Arrays.asList("sports", "weather")))
+                .thenReturn(Collections.singletonList(sports));
+
+        List<Domain> domains = Arrays.asList(
+                new Domain().setName("coretech").setModified(Timestamp.fromMillis(1000)),
+                new Domain().setName("sports").setModified(Timestamp.fromMillis(1000)),
+                new Domain().setName("weather").setModified(Timestamp.fromMillis(1000)));
+
+        Map<String, AthenzDomain> athenzDomains = dbService.getAthenzDomains(domains, false);
+        assertEquals(athenzDomains.size(), 2);
+        assertSame(athenzDomains.get("coretech"), coretech);
+        assertSame(athenzDomains.get("sports"), sports);
+        assertNull(athenzDomains.get("weather"));
+
+        // the loaded domain is now cached with its access index
+
+        assertSame(dbService.cacheStore.getIfPresent("sports").getAthenzDomain(), sports);
+        assertNotNull(sports.getAccessIndex());
+
+        // with all domains cached we don't need a connection
+
+        Mockito.clearInvocations(store);
+        athenzDomains = dbService.getAthenzDomains(domains.subList(0, 2), false);
+        assertEquals(athenzDomains.size(), 2);
+        Mockito.verify(store, Mockito.never()).getConnection(Mockito.anyBoolean(), Mockito.anyBoolean());
+    }
+}
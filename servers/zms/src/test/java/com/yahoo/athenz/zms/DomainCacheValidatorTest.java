@@ -0,0 +1,200 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms;
+
+import com.yahoo.athenz.common.messaging.ChangePublisher;
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import com.yahoo.athenz.common.messaging.DomainChangeMessage;
+import com.yahoo.athenz.common.messaging.impl.LocalChangeFactory;
+import com.yahoo.athenz.zms.store.AthenzDomain;
+import com.yahoo.athenz.zms.store.ObjectStore;
+import com.yahoo.athenz.zms.store.ObjectStoreConnection;
+import com.yahoo.rdl.Timestamp;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class DomainCacheValidatorTest {
+
+    private DBService createDBService(ObjectStore store, final String leaseTime) {
+
+        System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_LEASE_TIME, leaseTime);
+        ZMSConfig zmsConfig = new ZMSConfig();
+        zmsConfig.setUserDomain("user");
+        DBService dbService = new DBService(store, null, zmsConfig, null, null);
+        System.clearProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_LEASE_TIME);
+        return dbService;
+    }
+
+    private void addDomainToCache(DBService dbService, final String domainName, long modTime) {
+        dbService.cacheStore.put(domainName, new DBService.DataCache(new AthenzDomain(domainName), modTime));
+    }
+
+    private Domain createDomain(final String domainName, long modTime) {
+        return new Domain().setName(domainName).setModified(Timestamp.fromMillis(modTime));
+    }
+
+    @Test
+    public void testGetAthenzDomainFromCacheLease() {
+
+        ObjectStoreConnection con = Mockito.mock(ObjectStoreConnection.class);
+        Mockito.when(con.getDomainModTimestamp("athenz")).thenReturn(2000L);
+
+        DBService dbService = createDBService(null, "60000");
+        assertNotNull(dbService.domainCacheValidator);
+        addDomainToCache(dbService, "athenz", 1000);
+
+        // with a valid lease we must not check the store
+
+        assertNotNull(dbService.getAthenzDomainFromCache(con, "athenz"));
+        Mockito.verify(con, Mockito.never()).getDomainModTimestamp("athenz");
+
+        // once the lease expires we're back to checking the store
+        // and in this case our cached domain is out of date
+
+        dbService.domainCacheValidator.leaseStartTime = 0;
+        assertNull(dbService.getAthenzDomainFromCache(con, "athenz"));
+        Mockito.verify(con, Mockito.times(1)).getDomainModTimestamp("athenz");
+        assertNull(dbService.cacheStore.getIfPresent("athenz"));
+    }
+
+    @Test
+    public void testDomainCacheValidatorDisabled() {
+
+        DBService dbService = createDBService(null, "0");
+        assertNull(dbService.domainCacheValidator);
+
+        // starting the validator without one configured is a no-op
+
+        dbService.startDomainCacheValidator(Collections.emptyList());
+    }
+
+    @Test
+    public void testValidateCache() {
+
+        ObjectStore store = Mockito.mock(ObjectStore.class);
+        ObjectStoreConnection con = Mockito.mock(ObjectStoreConnection.class);
+        Mockito.when(store.getConnection(true, true)).thenReturn(con);
+
+        DBService dbService = createDBService(store, "60000");
+        DomainCacheValidator validator = dbService.domainCacheValidator;
+
+        addDomainToCache(dbService, "coretech", 1000);
+        addDomainToCache(dbService, "sports", 2000);
+        addDomainToCache(dbService, "weather", 3000);
+
+        List<Domain> domains = new ArrayList<>();
+        domains.add(createDomain("coretech", 1500));
+        domains.add(createDomain("sports", 2000));
+        domains.add(new Domain().setName("weather"));
+        domains.add(createDomain("unknown", 1000));
+
+        final long lastCheckTime = validator.lastCheckTime;
+        Mockito.when(con.listModifiedDomains(lastCheckTime - 60000))
+                .thenReturn(new DomainMetaList().setDomains(domains));
+
+        // only the domain with the older cached version is invalidated
+
+        validator.leaseStartTime = 0;
+        assertFalse(validator.isLeaseValid());
+        validator.validateCache();
+        assertTrue(validator.isLeaseValid());
+        assertTrue(validator.lastCheckTime >= lastCheckTime);
+
+        assertNull(dbService.cacheStore.getIfPresent("coretech"));
+        assertNotNull(dbService.cacheStore.getIfPresent("sports"));
+        assertNotNull(dbService.cacheStore.getIfPresent("weather"));
+
+        // no changes returned by the store
+
+        Mockito.when(con.listModifiedDomains(Mockito.anyLong())).thenReturn(new DomainMetaList());
+        validator.validateCache();
+        assertTrue(validator.isLeaseValid());
+
+        // failure to query the store does not renew the lease
+
+        Mockito.when(con.listModifiedDomains(Mockito.anyLong()))
+                .thenThrow(new ResourceException(ResourceException.SERVICE_UNAVAILABLE));
+        validator.leaseStartTime = 0;
+        validator.validateCache();
+        assertFalse(validator.isLeaseValid());
+    }
+
+    @Test
+    public void testProcessMessage() {
+
+        DBService dbService = createDBService(null, "60000");
+        DomainCacheValidator validator = dbService.domainCacheValidator;
+
+        addDomainToCache(dbService, "coretech", 1000);
+        addDomainToCache(dbService, "sports", 1000);
+
+        validator.processMessage(new DomainChangeMessage().setDomainName("coretech").setApiName("putRole"));
+        validator.processMessage(new DomainChangeMessage().setDomainName(""));
+        validator.processMessage(new DomainChangeMessage());
+
+        assertNull(dbService.cacheStore.getIfPresent("coretech"));
+        assertNotNull(dbService.cacheStore.getIfPresent("sports"));
+    }
+
+    @Test
+    public void testStartShutdown() throws InterruptedException {
+
+        ObjectStore store = Mockito.mock(ObjectStore.class);
+        ObjectStoreConnection con = Mockito.mock(ObjectStoreConnection.class);
+        Mockito.when(store.getConnection(true, true)).thenReturn(con);
+        Mockito.when(con.listModifiedDomains(Mockito.anyLong())).thenReturn(new DomainMetaList());
+
+        DBService dbService = createDBService(store, "100");
+        addDomainToCache(dbService, "athenz", 1000);
+
+        LocalChangeFactory<DomainChangeMessage> factory = new LocalChangeFactory<>();
+        ChangeSubscriber<DomainChangeMessage> subscriber = factory.create(null, "zms-cache-topic",
+                "zms", "Exclusive");
+
+        @SuppressWarnings("unchecked")
+        ChangeSubscriber<DomainChangeMessage> failedSubscriber = Mockito.mock(ChangeSubscriber.class);
+        Mockito.doThrow(new IllegalStateException("close failure")).when(failedSubscriber).close();
+
+        dbService.startDomainCacheValidator(Arrays.asList(subscriber, failedSubscriber));
+
+        // our lease is renewed by the validator thread
+
+        Mockito.verify(con, Mockito.timeout(5000).atLeast(2)).listModifiedDomains(Mockito.anyLong());
+
+        // and the change published by another server invalidates our domain
+
+        ChangePublisher<DomainChangeMessage> publisher = factory.create(null, "zms-cache-topic");
+        publisher.publish(new DomainChangeMessage().setDomainName("athenz").setApiName("putRole"));
+        for (int i = 0; i < 50 && dbService.cacheStore.getIfPresent("athenz") != null; i++) {
+            Thread.sleep(100);
+        }
+        assertNull(dbService.cacheStore.getIfPresent("athenz"));
+
+        dbService.domainCacheValidator.shutdown();
+        Mockito.verify(failedSubscriber, Mockito.times(1)).close();
+
+        // shutdown without starting the validator
+
+        new DomainCacheValidator(dbService, 100).shutdown();
+    }
+}
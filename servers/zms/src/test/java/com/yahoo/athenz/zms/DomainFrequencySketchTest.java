@@ -0,0 +1,95 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class DomainFrequencySketchTest {
+
+    @Test
+    public void testFrequency() {
+
+        DomainFrequencySketch sketch = new DomainFrequencySketch(1024);
+        assertEquals(sketch.frequency("athenz"), 0);
+
+        sketch.increment("athenz");
+        sketch.increment("athenz");
+        sketch.increment("sports");
+        assertEquals(sketch.frequency("athenz"), 2);
+        assertEquals(sketch.frequency("sports"), 1);
+        assertEquals(sketch.frequency("weather"), 0);
+
+        // counters are capped
+
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("athenz");
+        }
+        assertEquals(sketch.frequency("athenz"), 15);
+        assertEquals(sketch.frequency("sports"), 1);
+
+        // reset halves all counters
+
+        sketch.reset();
+        assertEquals(sketch.frequency("athenz"), 7);
+        assertEquals(sketch.frequency("sports"), 0);
+    }
+
+    @Test
+    public void testFrequencyAging() {
+
+        DomainFrequencySketch sketch = new DomainFrequencySketch(1000);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("athenz");
+        }
+        assertEquals(sketch.frequency("athenz"), 15);
+
+        // keep adding other domains until we reach our sample size
+        // (10 times the table size) and the counters are aged
+
+        int additions = sketch.additions.get();
+        for (int i = 0; i < 20000 && sketch.additions.get() >= additions; i++) {
+            additions = sketch.additions.get();
+            sketch.increment("domain" + i);
+        }
+        assertEquals(sketch.additions.get(), 5120);
+        assertTrue(sketch.frequency("athenz") < 15);
+    }
+
+    @Test
+    public void testConcurrentIncrement() throws InterruptedException {
+
+        DomainFrequencySketch sketch = new DomainFrequencySketch(1024);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 3; j++) {
+                    sketch.increment("athenz");
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // no updates are lost when the counters are not being reset
+
+        assertEquals(sketch.frequency("athenz"), 12);
+        assertEquals(sketch.additions.get(), 12);
+    }
+}
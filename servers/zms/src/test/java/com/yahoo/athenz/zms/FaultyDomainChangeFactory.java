@@ -3,11 +3,20 @@ package com.yahoo.athenz.zms;
 import com.yahoo.athenz.auth.PrivateKeyStore;
 import com.yahoo.athenz.common.messaging.ChangePublisher;
 import com.yahoo.athenz.common.messaging.ChangePublisherFactory;
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import com.yahoo.athenz.common.messaging.ChangeSubscriberFactory;
 import com.yahoo.athenz.common.messaging.DomainChangeMessage;
 
-public class FaultyDomainChangeFactory implements ChangePublisherFactory<DomainChangeMessage> {
+public class FaultyDomainChangeFactory implements ChangePublisherFactory<DomainChangeMessage>,
+        ChangeSubscriberFactory<DomainChangeMessage> {
     @Override
     public ChangePublisher<DomainChangeMessage> create(PrivateKeyStore keyStore, String topicName) {
         throw new IllegalStateException("invalid publisher");
     }
+
+    @Override
+    public ChangeSubscriber<DomainChangeMessage> create(PrivateKeyStore keyStore, String topicName,
+            String subscriptionName, String subscriptionType) {
+        throw new IllegalStateException("invalid subscriber");
+    }
 }
\ No newline at end of file
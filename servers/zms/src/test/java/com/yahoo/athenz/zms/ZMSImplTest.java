@@ -56,6 +56,7 @@ import com.yahoo.athenz.zms.provider.ServiceProviderManager;
 import com.yahoo.athenz.zms.status.MockStatusCheckerNoException;
 import com.yahoo.athenz.zms.status.MockStatusCheckerThrowException;
 import com.yahoo.athenz.zms.store.AthenzDomain;
+import com.yahoo.athenz.zms.store.AthenzDomainAccessIndex;
 import com.yahoo.athenz.zms.store.ObjectStoreConnection;
 import com.yahoo.athenz.zms.utils.ZMSUtils;
 import com.yahoo.rdl.Schema;
@@ -13522,6 +13523,124 @@ public class ZMSImplTest {
                 zmsTestInitializer.getMockDomRestRsrcCtx().principal()), AccessStatus.ALLOWED);
     }
 
+    @Test
+    public void testEvaluateIndexedAccess() {
+
+        ZMSImpl zmsImpl = zmsTestInitializer.getZms();
+        final Principal principal = zmsTestInitializer.getMockDomRestRsrcCtx().principal();
+
+        AthenzDomain domain = new AthenzDomain("coretech");
+        domain.getRoles().add(zmsTestInitializer.createRoleObject("coretech", "readers", null, "user.user1", "user.user2"));
+        domain.getRoles().add(zmsTestInitializer.createRoleObject("coretech", "writers", null, "user.user1", null));
+        domain.getRoles().add(zmsTestInitializer.createRoleObject("coretech", "wildcard", null, "user.wild*", null));
+
+        Policy policy = new Policy().setName("coretech:policy.policy1");
+        policy.setAssertions(new ArrayList<>());
+        policy.getAssertions().add(new Assertion().setAction("ReaD").setResource("coretech:*")
+                .setRole("coretech:role.readers").setEffect(AssertionEffect.ALLOW));
+        policy.getAssertions().add(new Assertion().setAction("read").setResource("coretech:secret*")
+                .setRole("coretech:role.readers").setEffect(AssertionEffect.DENY));
+        policy.getAssertions().add(new Assertion().setAction("*").setResource("coretech:data")
+                .setRole("coretech:role.*ers"));
+        policy.getAssertions().add(new Assertion().setAction("upd*").setResource("coretech:data")
+                .setRole("coretech:role.writers").setEffect(AssertionEffect.DENY));
+        policy.getAssertions().add(new Assertion().setAction("list").setResource("coretech:data")
+                .setRole("coretech:role.wildcard"));
+        domain.getPolicies().add(policy);
+        domain.setAccessIndex(new AthenzDomainAccessIndex(domain));
+
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user1", "read", "coretech:resource1", null, null,
+                principal), AccessStatus.ALLOWED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user3", "read", "coretech:resource1", null, null,
+                principal), AccessStatus.DENIED);
+
+        // explicit deny assertion
+
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user1", "read", "coretech:secret1", null, null,
+                principal), AccessStatus.DENIED);
+
+        // allowed with glob action and denied with glob deny action
+
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user2", "delete", "coretech:data", null, null,
+                principal), AccessStatus.ALLOWED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user2", "update", "coretech:data", null, null,
+                principal), AccessStatus.ALLOWED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user1", "update", "coretech:data", null, null,
+                principal), AccessStatus.DENIED);
+
+        // wildcard members are handled by the standard member check
+
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.wildcat", "list", "coretech:data", null, null,
+                principal), AccessStatus.ALLOWED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user1", "list", "coretech:data", null, null,
+                principal), AccessStatus.DENIED);
+
+        // authenticated roles with both full and short names
+
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user3", "read", "coretech:resource1",
+                Collections.singletonList("readers"), null, principal), AccessStatus.ALLOWED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user3", "read", "coretech:resource1",
+                Collections.singletonList("coretech:role.readers"), null, principal), AccessStatus.ALLOWED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user3", "read", "coretech:resource1",
+                Collections.singletonList("writers"), null, principal), AccessStatus.DENIED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user3", "read", "coretech:secret",
+                Collections.singletonList("readers"), null, principal), AccessStatus.DENIED);
+    }
+
+    @Test
+    public void testEvaluateIndexedAccessExpiredDisabledMembers() {
+
+        ZMSImpl zmsImpl = zmsTestInitializer.getZms();
+        final Principal principal = zmsTestInitializer.getMockDomRestRsrcCtx().principal();
+
+        List<RoleMember> roleMembers = new ArrayList<>();
+        roleMembers.add(new RoleMember().setMemberName("user.user1")
+                .setExpiration(Timestamp.fromMillis(System.currentTimeMillis() - 10000)));
+        roleMembers.add(new RoleMember().setMemberName("user.user2").setSystemDisabled(1));
+        roleMembers.add(new RoleMember().setMemberName("user.user3")
+                .setExpiration(Timestamp.fromMillis(System.currentTimeMillis() + 100000)));
+
+        AthenzDomain domain = new AthenzDomain("coretech");
+        domain.getRoles().add(zmsTestInitializer.createRoleObject("coretech", "readers", null, roleMembers));
+
+        Policy policy = new Policy().setName("coretech:policy.policy1");
+        policy.setAssertions(new ArrayList<>());
+        policy.getAssertions().add(new Assertion().setAction("read").setResource("coretech:*")
+                .setRole("coretech:role.readers").setEffect(AssertionEffect.ALLOW));
+        domain.getPolicies().add(policy);
+        domain.setAccessIndex(new AthenzDomainAccessIndex(domain));
+
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user1", "read", "coretech:resource1", null, null,
+                principal), AccessStatus.DENIED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user2", "read", "coretech:resource1", null, null,
+                principal), AccessStatus.DENIED);
+        assertEquals(zmsImpl.evaluateAccess(domain, "user.user3", "read", "coretech:resource1", null, null,
+                principal), AccessStatus.ALLOWED);
+    }
+
+    @Test
+    public void testEvaluateIndexedAccessDelegatedTrust() {
+
+        ZMSImpl zmsImpl = zmsTestInitializer.getZms();
+        final Principal principal = zmsTestInitializer.getMockDomRestRsrcCtx().principal();
+
+        AthenzDomain domain = new AthenzDomain("coretech");
+        domain.getRoles().add(zmsTestInitializer.createRoleObject("coretech", "trusted", "coretech-trust-unknown"));
+
+        Policy policy = new Policy().setName("coretech:policy.policy1");
+        policy.setAssertions(new ArrayList<>());
+        policy.getAssertions().add(new Assertion().setAction("read").setResource("coretech:*")
+                .setRole("coretech:role.trusted").setEffect(AssertionEffect.ALLOW));
+        domain.getPolicies().add(policy);
+        domain.setAccessIndex(new AthenzDomainAccessIndex(domain));
+
+        ZMSImpl spiedZms = Mockito.spy(zmsImpl);
+        assertEquals(spiedZms.evaluateAccess(domain, "user.user1", "read", "coretech:resource1", null,
+                "coretech-trust-unknown", principal), AccessStatus.DENIED);
+        verify(spiedZms, times(1)).matchPrincipalInRole(any(), eq("coretech:role.trusted"),
+                eq("user.user1"), eq("coretech-trust-unknown"));
+    }
+
     @Test
     public void testHasExceededDepthLimitNullLimit() {
         ZMSImpl zmsImpl = zmsTestInitializer.getZms();
@@ -22313,6 +22432,179 @@ public class ZMSImplTest {
         zmsImpl.objectStore.clearConnections();
     }
 
+    private ZMSImpl getSignedDomainsBatchZms(DBService dbService, List<Domain> domains) {
+
+        ZMSImpl zmsImpl = zmsTestInitializer.zmsInit();
+        zmsImpl.privateKey = new ServerPrivateKey(Crypto.loadPrivateKey(
+                Crypto.ybase64DecodeString(zmsTestInitializer.getPrivKey())), "0");
+
+        when(dbService.listModifiedDomains(anyLong(), anyBoolean()))
+                .thenReturn(new DomainMetaList().setDomains(domains));
+        zmsImpl.dbService = dbService;
+        return zmsImpl;
+    }
+
+    private List<Domain> createSignedDomainsBatchList(int count) {
+        List<Domain> domains = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            domains.add(new Domain().setName("signeddom" + i).setModified(Timestamp.fromMillis(1000L * i)));
+        }
+        return domains;
+    }
+
+    private AthenzDomain createSignedDomainsBatchDomain(Domain domain) {
+        AthenzDomain athenzDomain = new AthenzDomain(domain.getName());
+        athenzDomain.setDomain(domain);
+        return athenzDomain;
+    }
+
+    private List<String> getSignedDomainNames(Response response) {
+        List<String> domainNames = new ArrayList<>();
+        for (SignedDomain signedDomain : ((SignedDomains) response.getEntity()).getDomains()) {
+            domainNames.add(signedDomain.getDomain().getName());
+        }
+        return domainNames;
+    }
+
+    @Test
+    public void testGetSignedDomainsBatches() {
+
+        DBService dbService = Mockito.mock(DBService.class);
+        List<Domain> domains = createSignedDomainsBatchList(5);
+        ZMSImpl zmsImpl = getSignedDomainsBatchZms(dbService, domains);
+
+        when(dbService.getAthenzDomains(anyList(), anyBoolean())).thenAnswer(invocation -> {
+            List<Domain> batchList = invocation.getArgument(0);
+            Map<String, AthenzDomain> athenzDomains = new HashMap<>();
+            for (Domain domain : batchList) {
+                athenzDomains.put(domain.getName(), createSignedDomainsBatchDomain(domain));
+            }
+            return athenzDomains;
+        });
+
+        Authority principalAuthority = new com.yahoo.athenz.common.server.debug.DebugPrincipalAuthority();
+        Principal sysPrincipal = principalAuthority.authenticate("v=U1;d=sys;n=zts;s=signature",
+                "10.11.12.13", "GET", null);
+        ResourceContext rsrcCtx = zmsTestInitializer.createResourceContext(sysPrincipal);
+
+        // with a batch size of 2 our 5 domains are loaded in 3 batches
+
+        zmsImpl.signedDomainsBatchSize = 2;
+        Response response = zmsImpl.getSignedDomains(rsrcCtx, null, null, null, Boolean.TRUE, false, null);
+        assertEquals(response.getStatus(), 200);
+        assertEquals(getSignedDomainNames(response), Arrays.asList("signeddom1", "signeddom2",
+                "signeddom3", "signeddom4", "signeddom5"));
+        assertTrue(response.getHeaderString("ETag").contains(Timestamp.fromMillis(5000L).toString()));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Domain>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(dbService, times(3)).getAthenzDomains(batchCaptor.capture(), anyBoolean());
+        List<List<Domain>> batches = batchCaptor.getAllValues();
+        assertEquals(batches.get(0), domains.subList(0, 2));
+        assertEquals(batches.get(1), domains.subList(2, 4));
+        assertEquals(batches.get(2), domains.subList(4, 5));
+        Mockito.verify(dbService, never()).getAthenzDomain(anyString(), anyBoolean());
+
+        // with the batch size matching our domain count we have a single batch
+
+        Mockito.clearInvocations(dbService);
+        zmsImpl.signedDomainsBatchSize = 5;
+        response = zmsImpl.getSignedDomains(rsrcCtx, null, null, null, Boolean.TRUE, false, null);
+        assertEquals(getSignedDomainNames(response).size(), 5);
+        Mockito.verify(dbService, times(1)).getAthenzDomains(anyList(), anyBoolean());
+
+        // with a batch size of 1 we load each domain individually
+
+        Mockito.clearInvocations(dbService);
+        when(dbService.getAthenzDomain(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            final String domainName = invocation.getArgument(0);
+            return createSignedDomainsBatchDomain(domains.stream()
+                    .filter(domain -> domain.getName().equals(domainName)).findFirst().orElse(null));
+        });
+        zmsImpl.signedDomainsBatchSize = 1;
+        response = zmsImpl.getSignedDomains(rsrcCtx, null, null, null, Boolean.TRUE, false, null);
+        assertEquals(getSignedDomainNames(response).size(), 5);
+        Mockito.verify(dbService, never()).getAthenzDomains(anyList(), anyBoolean());
+        Mockito.verify(dbService, times(5)).getAthenzDomain(anyString(), anyBoolean());
+
+        zmsImpl.objectStore.clearConnections();
+    }
+
+    @Test
+    public void testGetSignedDomainsBatchFailureFallback() {
+
+        DBService dbService = Mockito.mock(DBService.class);
+        List<Domain> domains = createSignedDomainsBatchList(3);
+        ZMSImpl zmsImpl = getSignedDomainsBatchZms(dbService, domains);
+        zmsImpl.signedDomainsBatchSize = 2;
+
+        // the batch loads fail so we fall back to loading each domain
+
+        when(dbService.getAthenzDomains(anyList(), anyBoolean()))
+                .thenThrow(new ResourceException(ResourceException.SERVICE_UNAVAILABLE));
+        for (Domain domain : domains) {
+            when(dbService.getAthenzDomain(eq(domain.getName()), anyBoolean()))
+                    .thenReturn(createSignedDomainsBatchDomain(domain));
+        }
+
+        Authority principalAuthority = new com.yahoo.athenz.common.server.debug.DebugPrincipalAuthority();
+        Principal sysPrincipal = principalAuthority.authenticate("v=U1;d=sys;n=zts;s=signature",
+                "10.11.12.13", "GET", null);
+        ResourceContext rsrcCtx = zmsTestInitializer.createResourceContext(sysPrincipal);
+
+        Response response = zmsImpl.getSignedDomains(rsrcCtx, null, null, null, Boolean.TRUE, false, null);
+        assertEquals(response.getStatus(), 200);
+        assertEquals(getSignedDomainNames(response), Arrays.asList("signeddom1", "signeddom2", "signeddom3"));
+
+        Mockito.verify(dbService, times(2)).getAthenzDomains(anyList(), anyBoolean());
+        for (Domain domain : domains) {
+            Mockito.verify(dbService, times(1)).getAthenzDomain(eq(domain.getName()), anyBoolean());
+        }
+
+        zmsImpl.objectStore.clearConnections();
+    }
+
+    @Test
+    public void testGetSignedDomainsBatchDeletedDomain() {
+
+        DBService dbService = Mockito.mock(DBService.class);
+        List<Domain> domains = createSignedDomainsBatchList(4);
+        ZMSImpl zmsImpl = getSignedDomainsBatchZms(dbService, domains);
+        zmsImpl.signedDomainsBatchSize = 2;
+
+        // signeddom2 was deleted after we retrieved the list of modified
+        // domains so it's not included in the batch result. signeddom3
+        // is in a batch that fails and is deleted before our fallback
+
+        when(dbService.getAthenzDomains(eq(domains.subList(0, 2)), anyBoolean()))
+                .thenReturn(Collections.singletonMap("signeddom1", createSignedDomainsBatchDomain(domains.get(0))));
+        when(dbService.getAthenzDomains(eq(domains.subList(2, 4)), anyBoolean()))
+                .thenThrow(new ResourceException(ResourceException.SERVICE_UNAVAILABLE));
+        when(dbService.getAthenzDomain(eq("signeddom3"), anyBoolean()))
+                .thenThrow(new ResourceException(ResourceException.NOT_FOUND));
+        when(dbService.getAthenzDomain(eq("signeddom4"), anyBoolean()))
+                .thenReturn(createSignedDomainsBatchDomain(domains.get(3)));
+
+        Authority principalAuthority = new com.yahoo.athenz.common.server.debug.DebugPrincipalAuthority();
+        Principal sysPrincipal = principalAuthority.authenticate("v=U1;d=sys;n=zts;s=signature",
+                "10.11.12.13", "GET", null);
+        ResourceContext rsrcCtx = zmsTestInitializer.createResourceContext(sysPrincipal);
+
+        Response response = zmsImpl.getSignedDomains(rsrcCtx, null, null, null, Boolean.TRUE, false, null);
+        assertEquals(response.getStatus(), 200);
+        assertEquals(getSignedDomainNames(response), Arrays.asList("signeddom1", "signeddom4"));
+
+        // the etag still reflects the youngest domain in the modified list
+
+        assertTrue(response.getHeaderString("ETag").contains(Timestamp.fromMillis(4000L).toString()));
+
+        // the deleted domain from the successful batch is not loaded individually
+
+        Mockito.verify(dbService, never()).getAthenzDomain(eq("signeddom2"), anyBoolean());
+
+        zmsImpl.objectStore.clearConnections();
+    }
+
     @Test
     public void testReceiveSignedDomainDataDisabled() {
 
@@ -26254,6 +26546,50 @@ public class ZMSImplTest {
         zmsImpl.deleteTopLevelDomain(ctx, domainName, auditRef);
     }
 
+    @Test
+    public void testGetJWSDomainCache() {
+
+        final String domainName = "jws-domain-cache";
+
+        ZMSImpl zmsImpl = zmsTestInitializer.getZms();
+        RsrcCtxWrapper ctx = zmsTestInitializer.getMockDomRsrcCtx();
+        final String auditRef = zmsTestInitializer.getAuditRef();
+
+        TopLevelDomain dom1 = zmsTestInitializer.createTopLevelDomainObject(domainName,
+                "Test Domain1", "testOrg", zmsTestInitializer.getAdminUser());
+        zmsImpl.postTopLevelDomain(ctx, auditRef, dom1);
+
+        // the same unmodified domain must return the cached object
+        // for the same signature format only
+
+        JWSDomain jwsDomain1 = (JWSDomain) zmsImpl.getJWSDomain(ctx, domainName, null, null).getEntity();
+        JWSDomain jwsDomain2 = (JWSDomain) zmsImpl.getJWSDomain(ctx, domainName, Boolean.FALSE, null).getEntity();
+        assertSame(jwsDomain1, jwsDomain2);
+
+        JWSDomain jwsDomainP1363 = (JWSDomain) zmsImpl.getJWSDomain(ctx, domainName, Boolean.TRUE, null).getEntity();
+        assertNotSame(jwsDomain1, jwsDomainP1363);
+        assertSame(jwsDomainP1363, zmsImpl.getJWSDomain(ctx, domainName, Boolean.TRUE, null).getEntity());
+
+        // after the domain is modified we must get a new object
+
+        Role role = zmsTestInitializer.createRoleObject(domainName, "role1", null, "user.joe", null);
+        zmsImpl.putRole(ctx, domainName, "role1", auditRef, false, role);
+
+        JWSDomain jwsDomain3 = (JWSDomain) zmsImpl.getJWSDomain(ctx, domainName, null, null).getEntity();
+        assertNotSame(jwsDomain1, jwsDomain3);
+        assertNotEquals(jwsDomain1.getPayload(), jwsDomain3.getPayload());
+
+        // with the cache disabled we always generate a new object
+
+        zmsImpl.jwsDomainCacheEnabled = false;
+        JWSDomain jwsDomain4 = (JWSDomain) zmsImpl.getJWSDomain(ctx, domainName, null, null).getEntity();
+        assertNotSame(jwsDomain3, jwsDomain4);
+        assertEquals(jwsDomain3.getPayload(), jwsDomain4.getPayload());
+        zmsImpl.jwsDomainCacheEnabled = true;
+
+        zmsImpl.deleteTopLevelDomain(ctx, domainName, auditRef);
+    }
+
     @Test
     public void testGetJWSDomainError() {
 
@@ -33736,6 +34072,35 @@ public class ZMSImplTest {
         System.clearProperty(ZMS_PROP_DOMAIN_CHANGE_PUBLISHER_FACTORY_CLASS);
     }
 
+    @Test
+    public void testLoadDomainCacheValidator() {
+        System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_LEASE_TIME, "60000");
+        System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_TOPIC_NAMES, "topic1, ,topic2");
+        System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_SUBSCRIBER_FACTORY_CLASS,
+                "com.yahoo.athenz.common.messaging.impl.LocalChangeFactory");
+
+        ZMSImpl zmsImpl = zmsTestInitializer.zmsInit();
+        assertNotNull(zmsImpl.dbService.domainCacheValidator);
+        assertTrue(zmsImpl.dbService.domainCacheValidator.isLeaseValid());
+        zmsImpl.dbService.domainCacheValidator.shutdown();
+
+        // invalid factory classes are skipped
+
+        System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_SUBSCRIBER_FACTORY_CLASS,
+                "com.yahoo.athenz.common.messaging.NonExistingFactory");
+        zmsImpl = zmsTestInitializer.zmsInit();
+        zmsImpl.dbService.domainCacheValidator.shutdown();
+
+        System.setProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_SUBSCRIBER_FACTORY_CLASS,
+                "com.yahoo.athenz.zms.FaultyDomainChangeFactory");
+        zmsImpl = zmsTestInitializer.zmsInit();
+        zmsImpl.dbService.domainCacheValidator.shutdown();
+
+        System.clearProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_LEASE_TIME);
+        System.clearProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_TOPIC_NAMES);
+        System.clearProperty(ZMSConsts.ZMS_PROP_DOMAIN_CACHE_SUBSCRIBER_FACTORY_CLASS);
+    }
+
     @Test
     public void testNoConfiguredTopic() {
         System.clearProperty(ZMS_PROP_DOMAIN_CHANGE_TOPIC_NAMES);
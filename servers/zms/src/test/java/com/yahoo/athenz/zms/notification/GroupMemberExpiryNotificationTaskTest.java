@@ -702,12 +702,16 @@ public class GroupMemberExpiryNotificationTaskTest {
         GroupMemberExpiryNotificationTask task = new GroupMemberExpiryNotificationTask(
                 dbsvc, USER_DOMAIN_PREFIX, new NotificationToEmailConverterCommon(null), true);
 
+        NotificationDomainFetcher domainFetcher = new NotificationDomainFetcher(dbsvc);
+        GroupMemberExpiryNotificationTask.DisableGroupMemberNotificationFilter notificationFilter =
+                task.new DisableGroupMemberNotificationFilter(domainFetcher);
+
         GroupMember groupMember = new GroupMember().setDomainName("athenz").setGroupName("dev-team");
-        EnumSet<DisableNotificationEnum> enumSet = task.getDisabledNotificationState(groupMember);
+        EnumSet<DisableNotificationEnum> enumSet = notificationFilter.getDisabledNotificationState(groupMember);
         assertEquals(1, enumSet.size());
 
         groupMember = new GroupMember().setDomainName("athenz").setGroupName("qa-team");
-        enumSet = task.getDisabledNotificationState(groupMember);
+        enumSet = notificationFilter.getDisabledNotificationState(groupMember);
         assertTrue(enumSet.isEmpty());
     }
 
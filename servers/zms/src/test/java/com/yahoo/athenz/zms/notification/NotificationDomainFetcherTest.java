@@ -0,0 +1,146 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yahoo.athenz.zms.notification;
+
+import com.yahoo.athenz.zms.*;
+import com.yahoo.athenz.zms.store.AthenzDomain;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.testng.Assert.*;
+
+public class NotificationDomainFetcherTest {
+
+    @Test
+    public void testFetchDomains() {
+
+        DBService dbsvc = Mockito.mock(DBService.class);
+
+        AthenzDomain athenzDomain = new AthenzDomain("athenz");
+        athenzDomain.setRoles(Arrays.asList(new Role().setName("athenz:role.admin"),
+                new Role().setName("athenz:role.readers")));
+        athenzDomain.setGroups(Collections.singletonList(new Group().setName("athenz:group.dev-team")));
+        Mockito.when(dbsvc.getAthenzDomain("athenz", false)).thenReturn(athenzDomain);
+
+        AthenzDomain sportsDomain = new AthenzDomain("sports");
+        Mockito.when(dbsvc.getAthenzDomain("sports", false)).thenReturn(sportsDomain);
+
+        NotificationDomainFetcher domainFetcher = new NotificationDomainFetcher(dbsvc, 2);
+        domainFetcher.fetchDomains(new HashSet<>(Arrays.asList("athenz", "sports")));
+        assertEquals(domainFetcher.getDomainCount(), 2);
+
+        assertEquals(domainFetcher.getRole("athenz", "admin").getName(), "athenz:role.admin");
+        assertEquals(domainFetcher.getRole("athenz", "readers").getName(), "athenz:role.readers");
+        assertNull(domainFetcher.getRole("athenz", "writers"));
+        assertNull(domainFetcher.getRole("sports", "admin"));
+        assertEquals(domainFetcher.getGroup("athenz", "dev-team").getName(), "athenz:group.dev-team");
+        assertNull(domainFetcher.getGroup("athenz", "qa-team"));
+        assertNull(domainFetcher.getGroup("sports", "dev-team"));
+
+        // none of the roles/groups should be fetched individually
+
+        Mockito.verify(dbsvc, Mockito.never()).getRole(anyString(), anyString(), any(), any(), any());
+        Mockito.verify(dbsvc, Mockito.never()).getGroup(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    public void testFetchDomainsFallback() {
+
+        DBService dbsvc = Mockito.mock(DBService.class);
+        Mockito.when(dbsvc.getAthenzDomain("athenz", false)).thenReturn(null);
+        Mockito.when(dbsvc.getAthenzDomain("sports", false))
+                .thenThrow(new ResourceException(ResourceException.NOT_FOUND));
+
+        Role role = new Role().setName("athenz:role.admin");
+        Mockito.when(dbsvc.getRole("athenz", "admin", false, false, false)).thenReturn(role);
+        Group group = new Group().setName("sports:group.dev-team");
+        Mockito.when(dbsvc.getGroup("sports", "dev-team", false, false)).thenReturn(group);
+
+        NotificationDomainFetcher domainFetcher = new NotificationDomainFetcher(dbsvc);
+        domainFetcher.fetchDomains(new HashSet<>(Arrays.asList("athenz", "sports")));
+        assertEquals(domainFetcher.getDomainCount(), 0);
+
+        // the individual role/group lookups are only done once
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(domainFetcher.getRole("athenz", "admin"), role);
+            assertNull(domainFetcher.getRole("athenz", "readers"));
+            assertEquals(domainFetcher.getGroup("sports", "dev-team"), group);
+            assertNull(domainFetcher.getGroup("sports", "qa-team"));
+        }
+        Mockito.verify(dbsvc, Mockito.times(1)).getRole("athenz", "admin", false, false, false);
+        Mockito.verify(dbsvc, Mockito.times(1)).getRole("athenz", "readers", false, false, false);
+        Mockito.verify(dbsvc, Mockito.times(1)).getGroup("sports", "dev-team", false, false);
+        Mockito.verify(dbsvc, Mockito.times(1)).getGroup("sports", "qa-team", false, false);
+    }
+
+    @Test
+    public void testFetchDomainsEmpty() {
+
+        DBService dbsvc = Mockito.mock(DBService.class);
+        NotificationDomainFetcher domainFetcher = new NotificationDomainFetcher(dbsvc, 0);
+        domainFetcher.fetchDomains(Collections.emptySet());
+        assertEquals(domainFetcher.getDomainCount(), 0);
+        Mockito.verify(dbsvc, Mockito.never()).getAthenzDomain(anyString(), anyBoolean());
+    }
+
+    @Test
+    public void testFetchDomainsFailures() {
+
+        DBService dbsvc = Mockito.mock(DBService.class);
+        Mockito.when(dbsvc.getAthenzDomain("athenz", false)).thenThrow(new AssertionError("failure"));
+
+        NotificationDomainFetcher domainFetcher = new NotificationDomainFetcher(dbsvc, 1);
+        domainFetcher.fetchDomains(Collections.singleton("athenz"));
+        assertEquals(domainFetcher.getDomainCount(), 0);
+
+        // with our thread interrupted we should get back right away
+
+        Mockito.when(dbsvc.getAthenzDomain("sports", false)).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return new AthenzDomain("sports");
+        });
+        Thread.currentThread().interrupt();
+        domainFetcher.fetchDomains(Collections.singleton("sports"));
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    public void testGetMemberDomains() {
+
+        Map<String, DomainRoleMember> roleMembers = new HashMap<>();
+        roleMembers.put("user.joe", new DomainRoleMember().setMemberName("user.joe")
+                .setMemberRoles(Arrays.asList(new MemberRole().setDomainName("athenz").setRoleName("admin"),
+                        new MemberRole().setDomainName("sports").setRoleName("admin"))));
+        roleMembers.put("user.jane", new DomainRoleMember().setMemberName("user.jane")
+                .setMemberRoles(Collections.singletonList(new MemberRole().setDomainName("athenz").setRoleName("readers"))));
+        roleMembers.put("user.john", new DomainRoleMember().setMemberName("user.john"));
+        assertEquals(NotificationDomainFetcher.getRoleMemberDomains(roleMembers),
+                new HashSet<>(Arrays.asList("athenz", "sports")));
+
+        Map<String, DomainGroupMember> groupMembers = new HashMap<>();
+        groupMembers.put("user.joe", new DomainGroupMember().setMemberName("user.joe")
+                .setMemberGroups(Arrays.asList(new GroupMember().setDomainName("athenz").setGroupName("dev-team"),
+                        new GroupMember().setDomainName("weather").setGroupName("dev-team"))));
+        groupMembers.put("user.john", new DomainGroupMember().setMemberName("user.john"));
+        assertEquals(NotificationDomainFetcher.getGroupMemberDomains(groupMembers),
+                new HashSet<>(Arrays.asList("athenz", "weather")));
+    }
+}
@@ -559,7 +559,8 @@ public class RoleMemberExpiryNotificationTaskTest {
         RoleMemberExpiryNotificationTask roleMemberExpiryNotificationTask = new RoleMemberExpiryNotificationTask(
                 dbsvc, USER_DOMAIN_PREFIX, notificationToEmailConverterCommon, false);
         RoleMemberExpiryNotificationTask.ReviewDisableRoleMemberNotificationFilter notificationFilter =
-                roleMemberExpiryNotificationTask.new ReviewDisableRoleMemberNotificationFilter();
+                roleMemberExpiryNotificationTask.new ReviewDisableRoleMemberNotificationFilter(
+                        new NotificationDomainFetcher(dbsvc));
         EnumSet<DisableNotificationEnum> disabledNotificationState = notificationFilter.getDisabledNotificationState(memberRole);
         assertTrue(disabledNotificationState.isEmpty());
 
@@ -474,7 +474,8 @@ public class RoleMemberReviewNotificationTaskTest {
 
         RoleMemberReviewNotificationTask roleMemberReviewNotificationTask =
                 new RoleMemberReviewNotificationTask(dbsvc, USER_DOMAIN_PREFIX, notificationToEmailConverterCommon, false);
-        RoleMemberReviewNotificationTask.ReviewDisableRoleMemberNotificationFilter notificationFilter = roleMemberReviewNotificationTask.new ReviewDisableRoleMemberNotificationFilter();
+        RoleMemberReviewNotificationTask.ReviewDisableRoleMemberNotificationFilter notificationFilter =
+                roleMemberReviewNotificationTask.new ReviewDisableRoleMemberNotificationFilter(new NotificationDomainFetcher(dbsvc));
         EnumSet<DisableNotificationEnum> disabledNotificationState = notificationFilter.getDisabledNotificationState(memberRole);
         assertTrue(disabledNotificationState.isEmpty());
 
@@ -0,0 +1,158 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms.store;
+
+import com.yahoo.athenz.auth.Principal;
+import com.yahoo.athenz.zms.*;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class AthenzDomainAccessIndexTest {
+
+    private Assertion createAssertion(final String action, final String resource, final String role,
+            AssertionEffect effect) {
+        return new Assertion().setAction(action).setResource(resource).setRole(role).setEffect(effect);
+    }
+
+    private AthenzDomain createDomain() {
+
+        AthenzDomain athenzDomain = new AthenzDomain("coretech");
+
+        List<RoleMember> members1 = new ArrayList<>();
+        members1.add(new RoleMember().setMemberName("user.joe"));
+        members1.add(new RoleMember().setMemberName("user.jane"));
+        athenzDomain.getRoles().add(new Role().setName("coretech:role.readers").setRoleMembers(members1));
+
+        List<RoleMember> members2 = new ArrayList<>();
+        members2.add(new RoleMember().setMemberName("user.joe"));
+        members2.add(new RoleMember().setMemberName("user.*"));
+        athenzDomain.getRoles().add(new Role().setName("coretech:role.writers").setRoleMembers(members2));
+
+        List<RoleMember> members3 = new ArrayList<>();
+        members3.add(new RoleMember().setMemberName("coretech:group.dev-team")
+                .setPrincipalType(Principal.Type.GROUP.getValue()));
+        athenzDomain.getRoles().add(new Role().setName("coretech:role.devs").setRoleMembers(members3));
+
+        athenzDomain.getRoles().add(new Role().setName("coretech:role.trusted").setTrust("sports"));
+
+        List<Assertion> assertions1 = new ArrayList<>();
+        assertions1.add(createAssertion("READ", "coretech:Resource*", "coretech:role.readers", AssertionEffect.ALLOW));
+        assertions1.add(createAssertion("read", "coretech:secret", "coretech:role.*", AssertionEffect.DENY));
+        assertions1.add(createAssertion("*", "coretech:*", "coretech:role.writers", null));
+        assertions1.add(createAssertion("upd?te", "coretech:*", "coretech:role.unknown", AssertionEffect.DENY));
+        athenzDomain.getPolicies().add(new Policy().setName("coretech:policy.policy1").setAssertions(assertions1));
+
+        // inactive policy and policy without assertions must be skipped
+
+        List<Assertion> assertions2 = new ArrayList<>();
+        assertions2.add(createAssertion("delete", "coretech:*", "coretech:role.readers", AssertionEffect.ALLOW));
+        athenzDomain.getPolicies().add(new Policy().setName("coretech:policy.policy2")
+                .setActive(false).setAssertions(assertions2));
+        athenzDomain.getPolicies().add(new Policy().setName("coretech:policy.policy3"));
+
+        return athenzDomain;
+    }
+
+    @Test
+    public void testActionBuckets() {
+
+        AthenzDomainAccessIndex index = new AthenzDomainAccessIndex(createDomain());
+
+        List<AthenzDomainAccessIndex.AssertionEntry> allowAssertions = index.getAllowAssertions("read");
+        assertEquals(allowAssertions.size(), 1);
+        assertEquals(allowAssertions.get(0).getAssertion().getRole(), "coretech:role.readers");
+        assertTrue(allowAssertions.get(0).resourceMatches("coretech:resource1"));
+        assertFalse(allowAssertions.get(0).resourceMatches("coretech:secret"));
+
+        List<AthenzDomainAccessIndex.AssertionEntry> denyAssertions = index.getDenyAssertions("read");
+        assertEquals(denyAssertions.size(), 1);
+        assertEquals(denyAssertions.get(0).getRoles().size(), 4);
+
+        assertTrue(index.getAllowAssertions("delete").isEmpty());
+        assertTrue(index.getDenyAssertions("delete").isEmpty());
+        assertTrue(index.getAllowAssertions("update").isEmpty());
+
+        List<AthenzDomainAccessIndex.AssertionEntry> globAllowAssertions = index.getGlobActionAllowAssertions();
+        assertEquals(globAllowAssertions.size(), 1);
+        assertTrue(globAllowAssertions.get(0).actionMatches("delete"));
+
+        List<AthenzDomainAccessIndex.AssertionEntry> globDenyAssertions = index.getGlobActionDenyAssertions();
+        assertEquals(globDenyAssertions.size(), 1);
+        assertTrue(globDenyAssertions.get(0).actionMatches("update"));
+        assertFalse(globDenyAssertions.get(0).actionMatches("read"));
+        assertTrue(globDenyAssertions.get(0).getRoles().isEmpty());
+    }
+
+    @Test
+    public void testPrincipalRoleMembers() {
+
+        AthenzDomainAccessIndex index = new AthenzDomainAccessIndex(createDomain());
+
+        // only the readers role has direct members only
+
+        Map<String, RoleMember> roleMembers = index.getPrincipalRoleMembers("user.joe");
+        assertEquals(roleMembers.size(), 1);
+        assertNotNull(roleMembers.get("coretech:role.readers"));
+
+        assertEquals(index.getPrincipalRoleMembers("user.jane").size(), 1);
+        assertTrue(index.getPrincipalRoleMembers("user.john").isEmpty());
+        assertTrue(index.getPrincipalRoleMembers("user.*").isEmpty());
+    }
+
+    @Test
+    public void testRoleEntries() {
+
+        AthenzDomainAccessIndex index = new AthenzDomainAccessIndex(createDomain());
+        List<AthenzDomainAccessIndex.RoleEntry> roles = index.getDenyAssertions("read").get(0).getRoles();
+
+        assertEquals(roles.get(0).getName(), "coretech:role.readers");
+        assertEquals(roles.get(0).getShortName(), "readers");
+        assertTrue(roles.get(0).isDirectMembersOnly());
+        assertNotNull(roles.get(0).getRole());
+
+        assertEquals(roles.get(1).getShortName(), "writers");
+        assertFalse(roles.get(1).isDirectMembersOnly());
+
+        assertEquals(roles.get(2).getShortName(), "devs");
+        assertFalse(roles.get(2).isDirectMembersOnly());
+
+        assertEquals(roles.get(3).getShortName(), "trusted");
+        assertFalse(roles.get(3).isDirectMembersOnly());
+    }
+
+    @Test
+    public void testRoleEntryShortNameOtherDomain() {
+        AthenzDomainAccessIndex.RoleEntry roleEntry = new AthenzDomainAccessIndex.RoleEntry(
+                new Role().setName("sports:role.readers"), "coretech:role.");
+        assertEquals(roleEntry.getShortName(), "sports:role.readers");
+    }
+
+    @Test
+    public void testEmptyDomain() {
+
+        AthenzDomainAccessIndex index = new AthenzDomainAccessIndex(new AthenzDomain("coretech"));
+        assertTrue(index.getAllowAssertions("read").isEmpty());
+        assertTrue(index.getDenyAssertions("read").isEmpty());
+        assertTrue(index.getGlobActionAllowAssertions().isEmpty());
+        assertTrue(index.getGlobActionDenyAssertions().isEmpty());
+        assertTrue(index.getPrincipalRoleMembers("user.joe").isEmpty());
+    }
+}
@@ -62,5 +62,16 @@ public class AthenzDomainTest {
         assertEquals(athenzDomain.getPolicies().size(), 1);
         assertEquals(athenzDomain.getServices().size(), 1);
         assertEquals(athenzDomain.getEntities().size(), 1);
+
+        assertNull(athenzDomain.getAccessIndex());
+        AthenzDomainAccessIndex accessIndex = new AthenzDomainAccessIndex(athenzDomain);
+        athenzDomain.setAccessIndex(accessIndex);
+        assertEquals(athenzDomain.getAccessIndex(), accessIndex);
+
+        assertNull(athenzDomain.getJWSDomain("false:0"));
+        JWSDomain jwsDomain = new JWSDomain().setPayload("payload");
+        athenzDomain.setJWSDomain("false:0", jwsDomain);
+        assertEquals(athenzDomain.getJWSDomain("false:0"), jwsDomain);
+        assertNull(athenzDomain.getJWSDomain("true:0"));
     }
 }
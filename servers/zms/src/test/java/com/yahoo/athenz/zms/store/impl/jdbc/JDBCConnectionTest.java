@@ -6636,6 +6636,248 @@ public class JDBCConnectionTest {
         jdbcConn.close();
     }
 
+    private ResultSet mockDomainsQuery(final String query) throws SQLException {
+
+        // our result set returns empty strings and a fixed timestamp
+        // for all columns that are not explicitly configured
+
+        ResultSet rs = Mockito.mock(ResultSet.class, invocation -> {
+            Class<?> returnType = invocation.getMethod().getReturnType();
+            if (returnType == String.class) {
+                return "";
+            } else if (returnType == java.sql.Timestamp.class) {
+                return new java.sql.Timestamp(1454358916);
+            }
+            return Mockito.RETURNS_DEFAULTS.answer(invocation);
+        });
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        Mockito.doReturn(rs).when(ps).executeQuery();
+        Mockito.doReturn(ps).when(mockConn).prepareStatement(ArgumentMatchers.startsWith(query));
+        return rs;
+    }
+
+    @Test
+    public void testGetAthenzDomains() throws Exception {
+
+        JDBCConnection jdbcConn = new JDBCConnection(mockConn, true);
+
+        // two domains - coretech (5) and weather (7) with the third domain not found
+
+        ResultSet domainRs = mockDomainsQuery("SELECT * FROM domain WHERE name IN (?,?,?);");
+        Mockito.doReturn(true, true, false).when(domainRs).next();
+        Mockito.doReturn("coretech", "weather").when(domainRs).getString(ZMSConsts.DB_COLUMN_NAME);
+        Mockito.doReturn(5, 7).when(domainRs).getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID);
+
+        ResultSet tagsRs = mockDomainsQuery("SELECT dt.domain_id, dt.key, dt.value FROM domain_tags dt WHERE dt.domain_id IN (?,?);");
+        Mockito.doReturn(true, true, false).when(tagsRs).next();
+        Mockito.doReturn(5, 5).when(tagsRs).getInt(1);
+        Mockito.doReturn("tag-key").when(tagsRs).getString(2);
+        Mockito.doReturn("tag-val1", "tag-val2").when(tagsRs).getString(3);
+
+        ResultSet contactsRs = mockDomainsQuery("SELECT domain_id, type, name FROM domain_contacts");
+        Mockito.doReturn(true, false).when(contactsRs).next();
+        Mockito.doReturn(7).when(contactsRs).getInt(1);
+        Mockito.doReturn("security-contact").when(contactsRs).getString(2);
+        Mockito.doReturn("user.joe").when(contactsRs).getString(3);
+
+        // roles - admin in both domains, readers in coretech
+
+        ResultSet rolesRs = mockDomainsQuery("SELECT * FROM role WHERE domain_id IN (");
+        Mockito.doReturn(true, true, true, false).when(rolesRs).next();
+        Mockito.doReturn(5, 7, 5).when(rolesRs).getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID);
+        Mockito.doReturn(101, 102, 103).when(rolesRs).getInt(ZMSConsts.DB_COLUMN_ROLE_ID);
+        Mockito.doReturn("admin", "admin", "readers").when(rolesRs).getString(ZMSConsts.DB_COLUMN_NAME);
+
+        ResultSet roleMembersRs = mockDomainsQuery("SELECT role_member.role_id, principal.name");
+        Mockito.doReturn(true, true, true, false).when(roleMembersRs).next();
+        Mockito.doReturn(101, 102, 999).when(roleMembersRs).getInt(1);
+        Mockito.doReturn("user.joe", "user.jane").when(roleMembersRs).getString(2);
+
+        ResultSet roleTagsRs = mockDomainsQuery("SELECT rt.role_id, rt.key, rt.value FROM role_tags");
+        Mockito.doReturn(true, true, false).when(roleTagsRs).next();
+        Mockito.doReturn(103, 999).when(roleTagsRs).getInt(1);
+        Mockito.doReturn("role-tag-key").when(roleTagsRs).getString(2);
+        Mockito.doReturn("role-tag-val").when(roleTagsRs).getString(3);
+
+        // groups - one in weather
+
+        ResultSet groupsRs = mockDomainsQuery("SELECT * FROM principal_group WHERE domain_id IN (");
+        Mockito.doReturn(true, false).when(groupsRs).next();
+        Mockito.doReturn(7).when(groupsRs).getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID);
+        Mockito.doReturn(201).when(groupsRs).getInt(ZMSConsts.DB_COLUMN_GROUP_ID);
+        Mockito.doReturn("dev-team").when(groupsRs).getString(ZMSConsts.DB_COLUMN_NAME);
+
+        ResultSet groupMembersRs = mockDomainsQuery("SELECT principal_group_member.group_id, principal.name");
+        Mockito.doReturn(true, true, false).when(groupMembersRs).next();
+        Mockito.doReturn(201, 999).when(groupMembersRs).getInt(1);
+        Mockito.doReturn("user.joe").when(groupMembersRs).getString(2);
+
+        ResultSet groupTagsRs = mockDomainsQuery("SELECT gt.group_id, gt.key, gt.value FROM group_tags");
+        Mockito.doReturn(true, true, false).when(groupTagsRs).next();
+        Mockito.doReturn(201, 999).when(groupTagsRs).getInt(1);
+        Mockito.doReturn("group-tag-key").when(groupTagsRs).getString(2);
+        Mockito.doReturn("group-tag-val").when(groupTagsRs).getString(3);
+
+        // policies - one in each domain with one assertion each
+
+        ResultSet policiesRs = mockDomainsQuery("SELECT * FROM policy WHERE domain_id IN (");
+        Mockito.doReturn(true, true, false).when(policiesRs).next();
+        Mockito.doReturn(5, 7).when(policiesRs).getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID);
+        Mockito.doReturn(301, 302).when(policiesRs).getInt(ZMSConsts.DB_COLUMN_POLICY_ID);
+        Mockito.doReturn("admin").when(policiesRs).getString(ZMSConsts.DB_COLUMN_NAME);
+        Mockito.doReturn("0").when(policiesRs).getString(ZMSConsts.DB_COLUMN_VERSION);
+
+        ResultSet assertionsRs = mockDomainsQuery("SELECT policy.policy_id, policy.domain_id, assertion.effect");
+        Mockito.doReturn(true, true, true, false).when(assertionsRs).next();
+        Mockito.doReturn(301, 302, 999).when(assertionsRs).getInt(ZMSConsts.DB_COLUMN_POLICY_ID);
+        Mockito.doReturn(5, 7).when(assertionsRs).getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID);
+        Mockito.doReturn("admin").when(assertionsRs).getString(ZMSConsts.DB_COLUMN_ROLE);
+        Mockito.doReturn("*").when(assertionsRs).getString(ZMSConsts.DB_COLUMN_ACTION);
+        Mockito.doReturn("ALLOW").when(assertionsRs).getString(ZMSConsts.DB_COLUMN_EFFECT);
+        Mockito.doReturn(401L, 402L).when(assertionsRs).getLong(ZMSConsts.DB_COLUMN_ASSERT_ID);
+
+        ResultSet conditionsRs = mockDomainsQuery("SELECT assertion.assertion_id, assertion_condition.condition_id");
+        Mockito.doReturn(true, true, false).when(conditionsRs).next();
+        Mockito.doReturn(402L, 999L).when(conditionsRs).getLong(ZMSConsts.DB_COLUMN_ASSERT_ID);
+        Mockito.doReturn(1).when(conditionsRs).getInt(ZMSConsts.DB_COLUMN_CONDITION_ID);
+        Mockito.doReturn("instances").when(conditionsRs).getString(ZMSConsts.DB_COLUMN_KEY);
+        Mockito.doReturn("EQUALS").when(conditionsRs).getString(ZMSConsts.DB_COLUMN_OPERATOR);
+        Mockito.doReturn("host1").when(conditionsRs).getString(ZMSConsts.DB_COLUMN_VALUE);
+
+        ResultSet policyTagsRs = mockDomainsQuery("SELECT pt.policy_id, pt.key, pt.value FROM policy_tags");
+        Mockito.doReturn(true, true, false).when(policyTagsRs).next();
+        Mockito.doReturn(301, 999).when(policyTagsRs).getInt(1);
+        Mockito.doReturn("policy-tag-key").when(policyTagsRs).getString(2);
+        Mockito.doReturn("policy-tag-val").when(policyTagsRs).getString(3);
+
+        // services - one in coretech with a host and public key
+
+        ResultSet servicesRs = mockDomainsQuery("SELECT * FROM service WHERE domain_id IN (");
+        Mockito.doReturn(true, false).when(servicesRs).next();
+        Mockito.doReturn(5).when(servicesRs).getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID);
+        Mockito.doReturn(501).when(servicesRs).getInt(ZMSConsts.DB_COLUMN_SERVICE_ID);
+        Mockito.doReturn("api").when(servicesRs).getString(ZMSConsts.DB_COLUMN_NAME);
+
+        ResultSet hostsRs = mockDomainsQuery("SELECT service_host.service_id, host.name");
+        Mockito.doReturn(true, true, false).when(hostsRs).next();
+        Mockito.doReturn(501, 999).when(hostsRs).getInt(1);
+        Mockito.doReturn("host1").when(hostsRs).getString(2);
+
+        ResultSet keysRs = mockDomainsQuery("SELECT public_key.service_id, public_key.key_id");
+        Mockito.doReturn(true, true, false).when(keysRs).next();
+        Mockito.doReturn(501, 999).when(keysRs).getInt(1);
+        Mockito.doReturn("0").when(keysRs).getString(ZMSConsts.DB_COLUMN_KEY_ID);
+        Mockito.doReturn("key-value").when(keysRs).getString(ZMSConsts.DB_COLUMN_KEY_VALUE);
+
+        ResultSet serviceTagsRs = mockDomainsQuery("SELECT st.service_id, st.key, st.value FROM service_tags");
+        Mockito.doReturn(true, true, false).when(serviceTagsRs).next();
+        Mockito.doReturn(501, 999).when(serviceTagsRs).getInt(1);
+        Mockito.doReturn("service-tag-key").when(serviceTagsRs).getString(2);
+        Mockito.doReturn("service-tag-val").when(serviceTagsRs).getString(3);
+
+        // entities - one in weather
+
+        ResultSet entitiesRs = mockDomainsQuery("SELECT * FROM entity WHERE domain_id IN (");
+        Mockito.doReturn(true, false).when(entitiesRs).next();
+        Mockito.doReturn(7).when(entitiesRs).getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID);
+        Mockito.doReturn("config").when(entitiesRs).getString(ZMSConsts.DB_COLUMN_NAME);
+        Mockito.doReturn("{\"key\":\"value\"}").when(entitiesRs).getString(ZMSConsts.DB_COLUMN_VALUE);
+
+        List<AthenzDomain> athenzDomains = jdbcConn.getAthenzDomains(Arrays.asList("coretech", "weather", "deleted"));
+        assertEquals(athenzDomains.size(), 2);
+
+        Map<String, AthenzDomain> domainMap = new HashMap<>();
+        athenzDomains.forEach(athenzDomain -> domainMap.put(athenzDomain.getName(), athenzDomain));
+
+        AthenzDomain coretech = domainMap.get("coretech");
+        assertEquals(coretech.getDomain().getName(), "coretech");
+        assertEquals(coretech.getDomain().getTags().get("tag-key").getList(), Arrays.asList("tag-val1", "tag-val2"));
+        assertTrue(coretech.getDomain().getContacts().isEmpty());
+        assertEquals(coretech.getRoles().size(), 2);
+        Role role = coretech.getRoles().get(0);
+        assertEquals(role.getName(), "coretech:role.admin");
+        assertEquals(role.getRoleMembers().get(0).getMemberName(), "user.joe");
+        assertNull(role.getTags());
+        role = coretech.getRoles().get(1);
+        assertEquals(role.getName(), "coretech:role.readers");
+        assertNull(role.getRoleMembers());
+        assertEquals(role.getTags().get("role-tag-key").getList().get(0), "role-tag-val");
+        assertTrue(coretech.getGroups().isEmpty());
+        Policy policy = coretech.getPolicies().get(0);
+        assertEquals(policy.getName(), "coretech:policy.admin");
+        assertEquals(policy.getAssertions().get(0).getRole(), "coretech:role.admin");
+        assertNull(policy.getAssertions().get(0).getConditions());
+        assertEquals(policy.getTags().get("policy-tag-key").getList().get(0), "policy-tag-val");
+        ServiceIdentity service = coretech.getServices().get(0);
+        assertEquals(service.getName(), "coretech.api");
+        assertEquals(service.getHosts(), Collections.singletonList("host1"));
+        assertEquals(service.getPublicKeys().get(0).getKey(), "key-value");
+        assertEquals(service.getTags().get("service-tag-key").getList().get(0), "service-tag-val");
+        assertTrue(coretech.getEntities().isEmpty());
+
+        AthenzDomain weather = domainMap.get("weather");
+        assertNull(weather.getDomain().getTags());
+        assertEquals(weather.getDomain().getContacts().get("security-contact"), "user.joe");
+        assertEquals(weather.getRoles().size(), 1);
+        assertEquals(weather.getRoles().get(0).getName(), "weather:role.admin");
+        assertEquals(weather.getRoles().get(0).getRoleMembers().get(0).getMemberName(), "user.jane");
+        Group group = weather.getGroups().get(0);
+        assertEquals(group.getName(), "weather:group.dev-team");
+        assertEquals(group.getGroupMembers().get(0).getGroupName(), "weather:group.dev-team");
+        assertEquals(group.getTags().get("group-tag-key").getList().get(0), "group-tag-val");
+        policy = weather.getPolicies().get(0);
+        assertEquals(policy.getAssertions().get(0).getRole(), "weather:role.admin");
+        AssertionCondition condition = policy.getAssertions().get(0).getConditions().getConditionsList().get(0);
+        assertEquals(condition.getConditionsMap().get("instances").getValue(), "host1");
+        assertTrue(weather.getServices().isEmpty());
+        assertEquals(weather.getEntities().get(0).getName(), "weather:entity.config");
+
+        jdbcConn.close();
+    }
+
+    @Test
+    public void testGetAthenzDomainsNotFound() throws Exception {
+
+        JDBCConnection jdbcConn = new JDBCConnection(mockConn, true);
+
+        assertTrue(jdbcConn.getAthenzDomains(Collections.emptyList()).isEmpty());
+
+        Mockito.when(mockResultSet.next()).thenReturn(false);
+        assertTrue(jdbcConn.getAthenzDomains(Collections.singletonList("deleted")).isEmpty());
+        Mockito.verify(mockConn, times(1)).prepareStatement(ArgumentMatchers.anyString());
+
+        jdbcConn.close();
+    }
+
+    @Test
+    public void testGetAthenzDomainsException() throws Exception {
+
+        JDBCConnection jdbcConn = new JDBCConnection(mockConn, true);
+
+        Mockito.when(mockPrepStmt.executeQuery()).thenThrow(new SQLException("failed operation", "state", 1001));
+        try {
+            jdbcConn.getAthenzDomains(Collections.singletonList("coretech"));
+            fail();
+        } catch (ResourceException ex) {
+            assertEquals(ex.getCode(), ResourceException.INTERNAL_SERVER_ERROR);
+        }
+
+        // failure while loading the domain objects
+
+        ResultSet domainRs = mockDomainsQuery("SELECT * FROM domain WHERE name IN (?);");
+        Mockito.doReturn(true, false).when(domainRs).next();
+        Mockito.doReturn("coretech").when(domainRs).getString(ZMSConsts.DB_COLUMN_NAME);
+        Mockito.doReturn(5).when(domainRs).getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID);
+        try {
+            jdbcConn.getAthenzDomains(Collections.singletonList("coretech"));
+            fail();
+        } catch (ResourceException ex) {
+            assertEquals(ex.getCode(), ResourceException.INTERNAL_SERVER_ERROR);
+        }
+
+        jdbcConn.close();
+    }
+
     @Test
     public void testSetName() {
         AthenzDomain athenzDomain = new AthenzDomain("my-domain");
@@ -7839,6 +8081,322 @@ public class JDBCConnectionTest {
         jdbcConn.close();
     }
 
+    @Test
+    public void testListResourceAccessRoleAssertionsIndex() throws SQLException {
+
+        JDBCConnection jdbcConn = Mockito.spy(new JDBCConnection(mockConn, true));
+        jdbcConn.resetTrustRolesMap();
+
+        RoleAssertionsIndex index = new RoleAssertionsIndex(System.currentTimeMillis());
+        Map<String, List<Assertion>> assertions = new HashMap<>();
+        assertions.put("101:role1", new ArrayList<>(Collections.singletonList(new Assertion()
+                .setRole("dom1:role.role1").setResource("resource1").setAction("update"))));
+        assertions.put("101:role2", new ArrayList<>(Collections.singletonList(new Assertion()
+                .setRole("dom1:role.role2").setResource("resource2").setAction("delete"))));
+        index.setDomainAssertions(101, 1000, assertions);
+        assertions = new HashMap<>();
+        assertions.put("102:role3", new ArrayList<>(Collections.singletonList(new Assertion()
+                .setRole("dom2:role.role3").setResource("resource3").setAction("update"))));
+        index.setDomainAssertions(102, 1000, assertions);
+        Mockito.doReturn(index).when(jdbcConn).getRoleAssertionsIndex("listResourceAccess");
+
+        Mockito.when(mockResultSet.next())
+            .thenReturn(true)
+            .thenReturn(true)
+            .thenReturn(true)
+            .thenReturn(false) // up to here is role principals
+            .thenReturn(false) // no groups
+            .thenReturn(false); // no trusted role
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_DOMAIN_ID))
+            .thenReturn("101")
+            .thenReturn("101")
+            .thenReturn("102");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_ROLE_NAME))
+            .thenReturn("role1")
+            .thenReturn("role2")
+            .thenReturn("role3");
+
+        JDBCConnection.SERVER_ROLE_ASSERTIONS_INDEX_ENABLED = true;
+        try {
+            ResourceAccessList resourceAccessList = jdbcConn.listResourceAccess("user.user1", "update", "user");
+            List<ResourceAccess> resources = resourceAccessList.getResources();
+            assertEquals(1, resources.size());
+
+            ResourceAccess rsrcAccess = resources.get(0);
+            assertEquals(rsrcAccess.getPrincipal(), "user.user1");
+
+            assertEquals(rsrcAccess.getAssertions().size(), 2);
+            Set<String> resourceStrings = new HashSet<>();
+            for (Assertion assertion : rsrcAccess.getAssertions()) {
+                resourceStrings.add(assertion.getResource());
+            }
+            assertTrue(resourceStrings.contains("resource1"));
+            assertTrue(resourceStrings.contains("resource3"));
+        } finally {
+            JDBCConnection.SERVER_ROLE_ASSERTIONS_INDEX_ENABLED = false;
+        }
+
+        jdbcConn.close();
+    }
+
+    @Test
+    public void testListResourceAccessEmptyRoleAssertionsIndex() throws SQLException {
+
+        JDBCConnection jdbcConn = Mockito.spy(new JDBCConnection(mockConn, true));
+        jdbcConn.resetTrustRolesMap();
+
+        Mockito.doReturn(new RoleAssertionsIndex(System.currentTimeMillis()))
+                .when(jdbcConn).getRoleAssertionsIndex("listResourceAccess");
+
+        Mockito.when(mockResultSet.next())
+            .thenReturn(true)
+            .thenReturn(false) // up to here is role principals
+            .thenReturn(false); // no groups
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_DOMAIN_ID))
+            .thenReturn("101");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_ROLE_NAME))
+            .thenReturn("role1");
+
+        JDBCConnection.SERVER_ROLE_ASSERTIONS_INDEX_ENABLED = true;
+        try {
+            ResourceAccessList resourceAccessList = jdbcConn.listResourceAccess("user.user1", "update", "user");
+            List<ResourceAccess> resources = resourceAccessList.getResources();
+            assertEquals(1, resources.size());
+            assertEquals("user.user1", resources.get(0).getPrincipal());
+            assertTrue(resources.get(0).getAssertions().isEmpty());
+        } finally {
+            JDBCConnection.SERVER_ROLE_ASSERTIONS_INDEX_ENABLED = false;
+        }
+
+        jdbcConn.close();
+    }
+
+    @Test
+    public void testGetRoleAssertionsIndex() throws SQLException {
+
+        JDBCConnection jdbcConn = new JDBCConnection(mockConn, true);
+        jdbcConn.resetRoleAssertionsIndex();
+
+        // first we build the full index with two domains where
+        // only the first domain has assertions
+
+        Mockito.when(mockResultSet.next())
+            .thenReturn(true)
+            .thenReturn(true)
+            .thenReturn(false) // up to here is domain list
+            .thenReturn(true)
+            .thenReturn(true)
+            .thenReturn(false); // up to here is role assertions
+        Mockito.when(mockResultSet.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID))
+            .thenReturn(101)
+            .thenReturn(102);
+        Mockito.when(mockResultSet.getTimestamp(ZMSConsts.DB_COLUMN_MODIFIED))
+            .thenReturn(new java.sql.Timestamp(1000))
+            .thenReturn(new java.sql.Timestamp(2000));
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_NAME))
+            .thenReturn("dom1");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_DOMAIN_ID))
+            .thenReturn("101");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_ROLE))
+            .thenReturn("role1")
+            .thenReturn("role2");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_RESOURCE))
+            .thenReturn("resource1")
+            .thenReturn("resource2");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_ACTION))
+            .thenReturn("update");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_EFFECT))
+            .thenReturn("ALLOW");
+
+        RoleAssertionsIndex index = jdbcConn.getRoleAssertionsIndex("unit-test");
+        assertEquals(index.getDomainCount(), 2);
+        assertEquals(index.getLastModified(), 2000);
+        assertEquals(index.getAssertions("101:role1", "update").get(0).getResource(), "resource1");
+        assertEquals(index.getAssertions("101:role1", "update").get(0).getRole(), "dom1:role.role1");
+        assertEquals(index.getAssertions("101:role2", "update").get(0).getResource(), "resource2");
+
+        // next we have the first domain modified where role2 assertion
+        // is removed and domain count still matches so we get the
+        // same updated index back
+
+        Mockito.when(mockResultSet.next())
+            .thenReturn(true) // modified timestamp and domain count check
+            .thenReturn(true) // same check after acquiring the lock
+            .thenReturn(true)
+            .thenReturn(false) // up to here is modified domain list
+            .thenReturn(true)
+            .thenReturn(false) // up to here is domain role assertions
+            .thenReturn(true); // domain count
+        Mockito.when(mockResultSet.getTimestamp(1))
+            .thenReturn(new java.sql.Timestamp(3000));
+        Mockito.when(mockResultSet.getInt(2))
+            .thenReturn(2);
+        Mockito.when(mockResultSet.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID))
+            .thenReturn(101);
+        Mockito.when(mockResultSet.getTimestamp(ZMSConsts.DB_COLUMN_MODIFIED))
+            .thenReturn(new java.sql.Timestamp(3000));
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_ROLE))
+            .thenReturn("role1");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_RESOURCE))
+            .thenReturn("resource3");
+        Mockito.when(mockResultSet.getInt(1)).thenReturn(2);
+
+        assertSame(jdbcConn.getRoleAssertionsIndex("unit-test"), index);
+        assertEquals(index.getLastModified(), 3000);
+        assertEquals(index.getAssertions("101:role1", "update").get(0).getResource(), "resource3");
+        assertNull(index.getAssertions("101:role2", "update"));
+        Mockito.verify(mockPrepStmt, times(1)).setInt(1, 101);
+        Mockito.verify(mockConn, times(1)).prepareStatement(
+                "SELECT domain_id, modified FROM domain WHERE modified>=?;");
+
+        // with no changes in the database we only carry out the
+        // timestamp and count check without any assertion queries
+
+        Mockito.when(mockResultSet.next())
+            .thenReturn(true); // modified timestamp and domain count check
+
+        assertSame(jdbcConn.getRoleAssertionsIndex("unit-test"), index);
+        Mockito.verify(mockPrepStmt, times(1)).setInt(1, 101);
+        Mockito.verify(mockConn, times(1)).prepareStatement(
+                "SELECT domain_id, modified FROM domain WHERE modified>=?;");
+        Mockito.verify(mockConn, times(3)).prepareStatement(
+                "SELECT MAX(modified), COUNT(*) FROM domain;");
+
+        // a new domain is added with the same modified timestamp so
+        // we only load the new domain and skip the one that we have
+        // already loaded at that timestamp
+
+        Mockito.when(mockResultSet.next())
+            .thenReturn(true) // modified timestamp and domain count check
+            .thenReturn(true) // same check after acquiring the lock
+            .thenReturn(true)
+            .thenReturn(true)
+            .thenReturn(false) // up to here is modified domain list
+            .thenReturn(true)
+            .thenReturn(false) // up to here is domain role assertions
+            .thenReturn(true); // domain count
+        Mockito.when(mockResultSet.getInt(2)).thenReturn(3);
+        Mockito.when(mockResultSet.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID))
+            .thenReturn(101)
+            .thenReturn(103);
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_DOMAIN_ID))
+            .thenReturn("103");
+        Mockito.when(mockResultSet.getString(ZMSConsts.DB_COLUMN_RESOURCE))
+            .thenReturn("resource4");
+        Mockito.when(mockResultSet.getInt(1)).thenReturn(3);
+
+        assertSame(jdbcConn.getRoleAssertionsIndex("unit-test"), index);
+        assertEquals(index.getDomainCount(), 3);
+        assertEquals(index.getAssertions("103:role1", "update").get(0).getResource(), "resource4");
+        assertEquals(index.getAssertions("101:role1", "update").get(0).getResource(), "resource3");
+        Mockito.verify(mockPrepStmt, times(1)).setInt(1, 101);
+        Mockito.verify(mockPrepStmt, times(1)).setInt(1, 103);
+
+        // finally a domain is deleted so the domain count does not
+        // match and the index must be rebuilt
+
+        Mockito.when(mockResultSet.next())
+            .thenReturn(true) // modified timestamp and domain count check
+            .thenReturn(true) // same check after acquiring the lock
+            .thenReturn(false) // no modified domains
+            .thenReturn(true) // domain count
+            .thenReturn(true)
+            .thenReturn(false) // up to here is domain list
+            .thenReturn(false); // no role assertions
+        Mockito.when(mockResultSet.getInt(2)).thenReturn(1);
+        Mockito.when(mockResultSet.getInt(1)).thenReturn(1);
+        Mockito.when(mockResultSet.getInt(ZMSConsts.DB_COLUMN_DOMAIN_ID))
+            .thenReturn(101);
+
+        RoleAssertionsIndex newIndex = jdbcConn.getRoleAssertionsIndex("unit-test");
+        assertNotSame(newIndex, index);
+        assertEquals(newIndex.getDomainCount(), 1);
+        assertTrue(newIndex.isEmpty());
+
+        jdbcConn.resetRoleAssertionsIndex();
+        jdbcConn.close();
+    }
+
+    @Test
+    public void testIsRoleAssertionsIndexCurrent() throws SQLException {
+
+        JDBCConnection jdbcConn = new JDBCConnection(mockConn, true);
+        RoleAssertionsIndex index = new RoleAssertionsIndex(System.currentTimeMillis());
+
+        // no result returned
+
+        Mockito.when(mockResultSet.next()).thenReturn(false);
+        assertFalse(jdbcConn.isRoleAssertionsIndexCurrent(index, "unit-test"));
+
+        // empty domain table
+
+        Mockito.when(mockResultSet.next()).thenReturn(true);
+        Mockito.when(mockResultSet.getTimestamp(1)).thenReturn(null);
+        Mockito.when(mockResultSet.getInt(2)).thenReturn(0);
+        assertTrue(jdbcConn.isRoleAssertionsIndexCurrent(index, "unit-test"));
+
+        // modified domain or different domain count
+
+        index.setDomainAssertions(101, 1000, Collections.emptyMap());
+        Mockito.when(mockResultSet.getTimestamp(1)).thenReturn(new java.sql.Timestamp(1000));
+        Mockito.when(mockResultSet.getInt(2)).thenReturn(1);
+        assertTrue(jdbcConn.isRoleAssertionsIndexCurrent(index, "unit-test"));
+
+        Mockito.when(mockResultSet.getTimestamp(1)).thenReturn(new java.sql.Timestamp(1001));
+        assertFalse(jdbcConn.isRoleAssertionsIndexCurrent(index, "unit-test"));
+
+        Mockito.when(mockResultSet.getTimestamp(1)).thenReturn(new java.sql.Timestamp(1000));
+        Mockito.when(mockResultSet.getInt(2)).thenReturn(2);
+        assertFalse(jdbcConn.isRoleAssertionsIndexCurrent(index, "unit-test"));
+
+        jdbcConn.close();
+    }
+
+    @Test
+    public void testGetRoleAssertionsIndexException() throws SQLException {
+
+        JDBCConnection jdbcConn = new JDBCConnection(mockConn, true);
+        jdbcConn.resetRoleAssertionsIndex();
+
+        Mockito.when(mockPrepStmt.executeQuery()).thenThrow(new SQLException("failed operation", "state", 1001));
+
+        try {
+            jdbcConn.getRoleAssertionsIndex("unit-test");
+            fail();
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains("failed operation"));
+        }
+
+        try {
+            jdbcConn.getDomainRoleAssertions(101, "unit-test");
+            fail();
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains("failed operation"));
+        }
+
+        try {
+            jdbcConn.isRoleAssertionsIndexCurrent(new RoleAssertionsIndex(0), "unit-test");
+            fail();
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains("failed operation"));
+        }
+
+        // domain list is returned but the assertions query fails
+
+        Mockito.doReturn(mockResultSet).doThrow(new SQLException("failed operation", "state", 1001))
+                .when(mockPrepStmt).executeQuery();
+        Mockito.when(mockResultSet.next()).thenReturn(false);
+
+        try {
+            jdbcConn.buildRoleAssertionsIndex(System.currentTimeMillis(), "unit-test");
+            fail();
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains("failed operation"));
+        }
+
+        jdbcConn.close();
+    }
+
     @Test
     public void testListResourceAccessAws() throws SQLException {
 
@@ -8218,8 +8776,8 @@ public class JDBCConnectionTest {
 
         JDBCConnection jdbcConn = new JDBCConnection(mockConn, true);
 
-        Mockito.when(mockPrepStmt.executeQuery()).thenReturn(mockResultSet)
-                .thenThrow(new SQLException("failed operation", "state", 1001));
+        Mockito.doReturn(mockResultSet).doThrow(new SQLException("failed operation", "state", 1001))
+                .when(mockPrepStmt).executeQuery();
         Mockito.when(mockResultSet.next()).thenReturn(true);
         Mockito.doReturn(7).when(mockResultSet).getInt(1); // domain id
 
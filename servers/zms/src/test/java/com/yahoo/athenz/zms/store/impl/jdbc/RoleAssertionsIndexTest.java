@@ -0,0 +1,128 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zms.store.impl.jdbc;
+
+import com.yahoo.athenz.zms.Assertion;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class RoleAssertionsIndexTest {
+
+    private List<Assertion> assertionList(final String roleName, final String... actions) {
+        List<Assertion> assertions = new ArrayList<>();
+        for (String action : actions) {
+            assertions.add(new Assertion().setRole(roleName).setResource("resource").setAction(action));
+        }
+        return assertions;
+    }
+
+    @Test
+    public void testSetDomainAssertions() {
+
+        RoleAssertionsIndex index = new RoleAssertionsIndex(100);
+        assertEquals(index.getCreateTime(), 100);
+        assertEquals(index.getLastModified(), 0);
+        assertEquals(index.getDomainCount(), 0);
+        assertTrue(index.isEmpty());
+
+        // domain without any assertions is still counted
+
+        index.setDomainAssertions(101, 1000, Collections.emptyMap());
+        assertEquals(index.getDomainCount(), 1);
+        assertEquals(index.getLastModified(), 1000);
+        assertTrue(index.isEmpty());
+
+        Map<String, List<Assertion>> assertions = new HashMap<>();
+        assertions.put("102:role1", assertionList("dom2:role.role1", "read"));
+        assertions.put("102:role2", assertionList("dom2:role.role2", "write"));
+        index.setDomainAssertions(102, 2000, assertions);
+        assertEquals(index.getDomainCount(), 2);
+        assertEquals(index.getLastModified(), 2000);
+        assertFalse(index.isEmpty());
+        assertNotNull(index.getAssertions("102:role1", "read"));
+        assertNotNull(index.getAssertions("102:role2", "write"));
+
+        // replace the domain assertions with role1 removed
+
+        assertions = new HashMap<>();
+        assertions.put("102:role2", assertionList("dom2:role.role2", "read"));
+        index.setDomainAssertions(102, 1500, assertions);
+        assertEquals(index.getDomainCount(), 2);
+        assertEquals(index.getLastModified(), 2000);
+        assertNull(index.getAssertions("102:role1", "read"));
+        assertNull(index.getAssertions("102:role2", "write"));
+        assertNotNull(index.getAssertions("102:role2", "read"));
+    }
+
+    @Test
+    public void testIsDomainLoaded() {
+
+        RoleAssertionsIndex index = new RoleAssertionsIndex(100);
+        assertFalse(index.isDomainLoaded(101, 0));
+
+        index.setDomainAssertions(101, 1000, Collections.emptyMap());
+        index.setDomainAssertions(102, 1000, Collections.emptyMap());
+        assertTrue(index.isDomainLoaded(101, 1000));
+        assertTrue(index.isDomainLoaded(102, 1000));
+        assertFalse(index.isDomainLoaded(103, 1000));
+        assertFalse(index.isDomainLoaded(101, 2000));
+
+        // older timestamps do not change the tracked domains
+
+        index.setDomainAssertions(103, 500, Collections.emptyMap());
+        assertFalse(index.isDomainLoaded(103, 500));
+        assertTrue(index.isDomainLoaded(101, 1000));
+
+        // newer timestamp resets the tracked domains
+
+        index.setDomainAssertions(102, 2000, Collections.emptyMap());
+        assertTrue(index.isDomainLoaded(102, 2000));
+        assertFalse(index.isDomainLoaded(101, 1000));
+        assertFalse(index.isDomainLoaded(101, 2000));
+    }
+
+    @Test
+    public void testGetAssertions() {
+
+        RoleAssertionsIndex index = new RoleAssertionsIndex(100);
+        Map<String, List<Assertion>> assertions = new HashMap<>();
+        assertions.put("101:role1", assertionList("dom1:role.role1", "read", "Write", "assume_role"));
+        assertions.put("101:role2", assertionList("dom1:role.role2", "ASSUME_ROLE"));
+        index.setDomainAssertions(101, 1000, assertions);
+
+        assertNull(index.getAssertions("101:role3", "read"));
+        assertNull(index.getAssertions("101:role1", "delete"));
+
+        List<Assertion> result = index.getAssertions("101:role1", "write");
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getAction(), "Write");
+
+        result = index.getAssertions("101:role1", "assume_role");
+        assertEquals(result.size(), 1);
+
+        // without an action all assertions except assume_role are returned
+
+        result = index.getAssertions("101:role1", null);
+        assertEquals(result.size(), 2);
+        result = index.getAssertions("101:role1", "");
+        assertEquals(result.size(), 2);
+        assertNull(index.getAssertions("101:role2", null));
+        assertEquals(index.getAssertions("101:role2", "assume_role").size(), 1);
+    }
+}
@@ -57,11 +57,15 @@ public final class ZTSConsts {
     public static final String ZTS_PROP_AWS_CREDS_INVALID_CACHE_TIMEOUT     = "athenz.zts.aws_creds_invalid_cache_timeout";
     public static final String ZTS_PROP_AWS_ENABLED                         = "athenz.zts.aws_enabled";
     public static final String ZTS_PROP_AWS_CREDS_UPDATE_TIMEOUT            = "athenz.zts.aws_creds_update_timeout";
+    public static final String ZTS_PROP_AWS_CREDS_CACHE_MAX_SIZE            = "athenz.zts.aws_creds_cache_max_size";
+    public static final String ZTS_PROP_AWS_CREDS_REFRESH_WINDOW            = "athenz.zts.aws_creds_refresh_window";
+    public static final String ZTS_PROP_AWS_CREDS_REFRESH_THREADS           = "athenz.zts.aws_creds_refresh_threads";
 
     public static final String ZTS_PROP_CERT_REFRESH_IP_FNAME  = "athenz.zts.cert_refresh_ip_fname";
     public static final String ZTS_PROP_CERT_ALLOWED_O_VALUES  = "athenz.zts.cert_allowed_o_values";
     public static final String ZTS_PROP_CERT_ALLOWED_OU_VALUES = "athenz.zts.cert_allowed_ou_values";
     public static final String ZTS_PROP_INSTANCE_CERT_IP_FNAME = "athenz.zts.instance_cert_ip_fname";
+    public static final String ZTS_PROP_CERT_IP_BLOCKS_RELOAD_INTERVAL = "athenz.zts.cert_ip_blocks_reload_interval";
     public static final String ZTS_PROP_CERT_BUNDLES_FNAME     = "athenz.zts.cert_authority_bundles_fname";
 
     public static final String ZTS_PROP_OAUTH_ISSUER           = "athenz.zts.oauth_issuer";
@@ -87,6 +91,7 @@ public final class ZTSConsts {
     public static final String ZTS_PROP_ID_TOKEN_DEFAULT_TIMEOUT   = "athenz.zts.id_token_default_timeout";
     public static final String ZTS_PROP_ID_TOKEN_MAX_DOMAINS       = "athenz.zts.id_token_max_domains";
     public static final String ZTS_PROP_SIGNED_POLICY_TIMEOUT      = "athenz.zts.signed_policy_timeout";
+    public static final String ZTS_PROP_SIGNED_POLICY_CACHE_TIMEOUT = "athenz.zts.signed_policy_cache_timeout";
     public static final String ZTS_PROP_AUTHORIZED_PROXY_USERS     = "athenz.zts.authorized_proxy_users";
     public static final String ZTS_PROP_SECURE_REQUESTS_ONLY       = "athenz.zts.secure_requests_only";
     public static final String ZTS_PROP_STATUS_CERT_SIGNER         = "athenz.zts.status_cert_signer";
@@ -133,6 +133,7 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
     protected int idTokenDefaultTimeout;
     protected DynamicConfigLong x509CertRefreshResetTime;
     protected long signedPolicyTimeout;
+    protected long signedPolicyCacheTimeout;
     protected static String serverHostName = null;
     protected AuditLogger auditLogger = null;
     protected Authority userAuthority = null;
@@ -325,6 +326,7 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
        // create our cloud store if configured
 
         cloudStore = (implCloudStore == null) ? new CloudStore() : implCloudStore;
+        cloudStore.setMetric(metric);
 
         // create our change log store
 
@@ -344,6 +346,11 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
 
             dataStore.init();
 
+            // if configured, subscribe to the domain change messages
+            // published by ZMS so domain updates are processed right away
+
+            dataStore.initDomainChangeSubscribers(privateKeyStore, serverHostName);
+
         } else {
             dataStore = implDataStore;
         }
@@ -596,6 +603,17 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
         signedPolicyTimeout = 1000 * Long.parseLong(
                 System.getProperty(ZTSConsts.ZTS_PROP_SIGNED_POLICY_TIMEOUT, Long.toString(timeout)));
 
+        // signed policy objects are cached with the domain data for up to
+        // 10% of their validity period so that the clients polling for
+        // updates after a domain change do not require new signatures
+
+        timeout = TimeUnit.SECONDS.convert(1, TimeUnit.HOURS);
+        signedPolicyCacheTimeout = 1000 * Long.parseLong(
+                System.getProperty(ZTSConsts.ZTS_PROP_SIGNED_POLICY_CACHE_TIMEOUT, Long.toString(timeout)));
+        if (signedPolicyCacheTimeout > signedPolicyTimeout / 10) {
+            signedPolicyCacheTimeout = signedPolicyTimeout / 10;
+        }
+
         // default token timeout for issued tokens
 
         timeout = TimeUnit.SECONDS.convert(1, TimeUnit.DAYS);
@@ -1299,12 +1317,13 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
         domainName = domainName.toLowerCase();
         setRequestDomain(ctx, domainName);
 
-        DomainData domainData = dataStore.getDomainData(domainName);
-        if (domainData == null) {
+        DataCache data = dataStore.getDataCache(domainName);
+        if (data == null) {
             setRequestDomain(ctx, ZTSConsts.ZTS_UNKNOWN_DOMAIN);
             throw notFoundError("Domain not found: '" + domainName + "'", caller,
                     ZTSConsts.ZTS_UNKNOWN_DOMAIN, principalDomain);
         }
+        DomainData domainData = data.getDomainData();
 
         Timestamp modified = domainData.getModified();
         EntityTag eTag = new EntityTag(modified.toString());
@@ -1324,6 +1343,24 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
 
         Map<String, String> policyVersions = generatePolicyVersions(domainName, signedPolicyRequest);
 
+        // if we're asked for the active policies only (which is the case
+        // for all standard policy updaters) we can return the previously
+        // signed object for this version of the domain unless the
+        // cache is disabled
+
+        final boolean signatureP1363Format = signedPolicyRequest.getSignatureP1363Format();
+        final String cacheKey = (policyVersions.isEmpty() && signedPolicyCacheTimeout > 0) ?
+                getSignedPolicyCacheKey("jws-policy", keyAlgoForJsonWebObjects, signatureP1363Format) : null;
+        long currentTime = System.currentTimeMillis();
+        if (cacheKey != null) {
+            JWSPolicyData jwsPolicyData = (JWSPolicyData) data.getSignedPolicy(cacheKey, currentTime);
+            if (jwsPolicyData != null) {
+                metric.increment("signed_policy_cache_hit", domainName, principalDomain);
+                return Response.status(ResourceException.OK).entity(jwsPolicyData).header("ETag", tag).build();
+            }
+            metric.increment("signed_policy_cache_miss", domainName, principalDomain);
+        }
+
         // first get our PolicyData object
 
         PolicyData policyData = new PolicyData()
@@ -1332,7 +1369,7 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
 
         // then get the signed policy data
 
-        Timestamp expires = Timestamp.fromMillis(System.currentTimeMillis() + signedPolicyTimeout);
+        Timestamp expires = Timestamp.fromMillis(currentTime + signedPolicyTimeout);
 
         SignedPolicyData signedPolicyData = new SignedPolicyData()
                 .setPolicyData(policyData)
@@ -1341,12 +1378,15 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
                 .setZmsKeyId("")
                 .setZmsSignature("");
 
-        JWSPolicyData jwsPolicyData = signJwsPolicyData(signedPolicyData, signedPolicyRequest.getSignatureP1363Format());
+        JWSPolicyData jwsPolicyData = signJwsPolicyData(signedPolicyData, signatureP1363Format);
         if (jwsPolicyData == null) {
             return Response.status(ResourceException.INTERNAL_SERVER_ERROR).build();
-        } else {
-            return Response.status(ResourceException.OK).entity(jwsPolicyData).header("ETag", tag).build();
         }
+
+        if (cacheKey != null) {
+            data.setSignedPolicy(cacheKey, jwsPolicyData, currentTime + signedPolicyCacheTimeout);
+        }
+        return Response.status(ResourceException.OK).entity(jwsPolicyData).header("ETag", tag).build();
     }
 
     Map<String, String> generatePolicyVersions(final String domainName, SignedPolicyRequest signedPolicyRequest) {
@@ -1439,12 +1479,13 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
         domainName = domainName.toLowerCase();
         setRequestDomain(ctx, domainName);
 
-        DomainData domainData = dataStore.getDomainData(domainName);
-        if (domainData == null) {
+        DataCache data = dataStore.getDataCache(domainName);
+        if (data == null) {
             setRequestDomain(ctx, ZTSConsts.ZTS_UNKNOWN_DOMAIN);
             throw notFoundError("Domain not found: '" + domainName + "'", caller,
                     ZTSConsts.ZTS_UNKNOWN_DOMAIN, principalDomain);
         }
+        DomainData domainData = data.getDomainData();
 
         Timestamp modified = domainData.getModified();
         EntityTag eTag = new EntityTag(modified.toString());
@@ -1458,6 +1499,21 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
             return Response.status(ResourceException.NOT_MODIFIED).header("ETag", tag).build();
         }
 
+        // check if we have already signed this version of the domain
+        // unless the cache is disabled
+
+        final String cacheKey = (signedPolicyCacheTimeout > 0) ?
+                getSignedPolicyCacheKey("signed-policy", keyAlgoForProprietaryObjects, false) : null;
+        long currentTime = System.currentTimeMillis();
+        if (cacheKey != null) {
+            DomainSignedPolicyData result = (DomainSignedPolicyData) data.getSignedPolicy(cacheKey, currentTime);
+            if (result != null) {
+                metric.increment("signed_policy_cache_hit", domainName, principalDomain);
+                return Response.status(ResourceException.OK).entity(result).header("ETag", tag).build();
+            }
+            metric.increment("signed_policy_cache_miss", domainName, principalDomain);
+        }
+
         // first get our PolicyData object
 
         PolicyData policyData = new PolicyData()
@@ -1466,7 +1522,7 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
 
         // then get the signed policy data
 
-        Timestamp expires = Timestamp.fromMillis(System.currentTimeMillis() + signedPolicyTimeout);
+        Timestamp expires = Timestamp.fromMillis(currentTime + signedPolicyTimeout);
 
         SignedPolicyData signedPolicyData = new SignedPolicyData()
                 .setPolicyData(policyData)
@@ -1482,9 +1538,23 @@ public class ZTSImpl implements KeyStore, ZTSHandler {
             .setSignature(signature)
             .setKeyId(privateKey.getId());
 
+        if (cacheKey != null) {
+            data.setSignedPolicy(cacheKey, result, currentTime + signedPolicyCacheTimeout);
+        }
+
         return Response.status(ResourceException.OK).entity(result).header("ETag", tag).build();
     }
 
+    String getSignedPolicyCacheKey(final String requestType, final String keyAlgorithm, boolean signatureP1363Format) {
+
+        // the signed object depends on the key used to sign it so
+        // we include the key id as part of our cache key
+
+        ServerPrivateKey privateKey = getServerPrivateKey(keyAlgorithm);
+        final String keyId = (privateKey == null) ? "" : privateKey.getId();
+        return requestType + ":" + signatureP1363Format + ":" + keyId;
+    }
+
     String convertEmptyStringToNull(String value) {
 
         if (value != null && value.isEmpty()) {
@@ -26,11 +26,14 @@ import com.yahoo.athenz.common.config.AuthzDetailsField;
 import com.yahoo.athenz.common.server.util.AuthzHelper;
 import com.yahoo.athenz.common.server.util.ResourceUtils;
 import com.yahoo.athenz.zms.*;
+import com.yahoo.athenz.zts.store.MemberPrefixTrie;
 import com.yahoo.athenz.zts.transportrules.TransportRulesProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.yahoo.athenz.common.ServerCommonConsts.ATHENZ_SYS_DOMAIN;
@@ -41,7 +44,7 @@ public class DataCache {
 
     // member ==> [ role1, role2, ...] complete map
     private final Map<String, Set<MemberRole>> memberRoleCache;
-    private final Map<String, Set<MemberRole>> memberPrefixRoleCache;
+    private final MemberPrefixTrie<MemberRole> memberPrefixRoleTrie;
     private final Set<MemberRole> memberAllRoleCache;
     private final Map<String, Set<String>> trustCache;
     private final Map<String, Set<String>> hostCache;
@@ -54,6 +57,9 @@ public class DataCache {
     private final Map<String, List<AuthzDetailsEntity>> authzDetailsCache;
     private final Map<String, Map<String, List<String>>> transportRulesCache;
     private final Set<String> workloadStoreExcludeProvidersCache;
+    private final Map<String, SignedPolicyEntry> signedPolicyCache;
+    private final Map<String, PrincipalRoles> principalRolesCache;
+    private final AtomicLong principalRolesVersion;
 
     public static final String ACTION_ASSUME_ROLE = "assume_role";
     public static final String ACTION_ASSUME_AWS_ROLE = "assume_aws_role";
@@ -67,7 +73,7 @@ public class DataCache {
     
     public DataCache() {
         memberRoleCache = new HashMap<>();
-        memberPrefixRoleCache = new HashMap<>();
+        memberPrefixRoleTrie = new MemberPrefixTrie<>();
         memberAllRoleCache = new HashSet<>();
         trustCache = new HashMap<>();
         hostCache = new HashMap<>();
@@ -80,6 +86,9 @@ public class DataCache {
         authzDetailsCache = new HashMap<>();
         transportRulesCache = new HashMap<>();
         workloadStoreExcludeProvidersCache = new HashSet<>();
+        signedPolicyCache = new ConcurrentHashMap<>();
+        principalRolesCache = new ConcurrentHashMap<>();
+        principalRolesVersion = new AtomicLong();
     }
     
     public void setDomainData(DomainData domainData) {
@@ -89,7 +98,82 @@ public class DataCache {
     public DomainData getDomainData() {
         return domainData;
     }
+
+    /**
+     * Return the signed policy object generated for this version of
+     * the domain if it's still valid
+     * @param key signed policy key (request type, format and signing key id)
+     * @param currentTime current time in millis
+     * @return signed policy object or null if not present or expired
+     */
+    public Object getSignedPolicy(final String key, long currentTime) {
+        SignedPolicyEntry entry = signedPolicyCache.get(key);
+        if (entry == null || entry.expiryTime <= currentTime) {
+            return null;
+        }
+        return entry.signedPolicy;
+    }
+
+    /**
+     * Save the signed policy object generated for this version of the domain
+     * @param key signed policy key (request type, format and signing key id)
+     * @param signedPolicy signed policy object
+     * @param expiryTime time in millis until the object can be returned to clients
+     */
+    public void setSignedPolicy(final String key, Object signedPolicy, long expiryTime) {
+        signedPolicyCache.put(key, new SignedPolicyEntry(signedPolicy, expiryTime));
+    }
     
+    /**
+     * Return the effective roles entry for the given principal
+     * @param principal name of the principal
+     * @return principal roles entry or null if not present
+     */
+    public PrincipalRoles getPrincipalRoles(final String principal) {
+        return principalRolesCache.get(principal);
+    }
+
+    /**
+     * Save the effective roles entry for the given principal. If the
+     * index has reached its max size, it's cleared before adding the entry.
+     * @param principal name of the principal
+     * @param principalRoles principal roles entry
+     * @param maxSize max number of entries in the index
+     */
+    public void setPrincipalRoles(final String principal, PrincipalRoles principalRoles, int maxSize) {
+        if (principalRolesCache.size() >= maxSize) {
+            principalRolesCache.clear();
+        }
+        principalRolesCache.put(principal, principalRoles);
+    }
+
+    /**
+     * Return the current version of the principal roles index. The
+     * version must be obtained before the entry is built so that
+     * any concurrent invalidation is detected.
+     * @return index version
+     */
+    public long getPrincipalRolesVersion() {
+        return principalRolesVersion.get();
+    }
+
+    /**
+     * Invalidate all entries in the principal roles index. This is
+     * required when a domain that this domain trusts has been updated.
+     */
+    public void invalidatePrincipalRoles() {
+        principalRolesVersion.incrementAndGet();
+        principalRolesCache.clear();
+    }
+
+    /**
+     * Return the number of entries in the principal roles index
+     * @return entry count
+     */
+    public int getPrincipalRolesCount() {
+        return principalRolesCache.size();
+    }
+
     /**
      * Update {@code memberRoleCache}
      * @param roleName the new/updated role
@@ -131,12 +215,7 @@ public class DataCache {
             if (memberName.equals("*")) {
                 memberAllRoleCache.add(new MemberRole(roleName, expiration));
             } else if (memberName.endsWith("*")) {
-                final String keyName = memberName.substring(0, memberName.length() - 1);
-                if (!memberPrefixRoleCache.containsKey(keyName)) {
-                    memberPrefixRoleCache.put(keyName, new HashSet<>());
-                }
-                final Set<MemberRole> rolesForMember = memberPrefixRoleCache.get(keyName);
-                rolesForMember.add(new MemberRole(roleName, expiration));
+                memberPrefixRoleTrie.insert(memberName, new MemberRole(roleName, expiration));
             } else {
                 if (!memberRoleCache.containsKey(memberName)) {
                     memberRoleCache.put(memberName, new HashSet<>());
@@ -515,11 +594,13 @@ public class DataCache {
     }
     
     /**
-     * Return roles configured for wildcard access
-     * @return the list of roles
+     * Return roles configured for wildcard members whose prefix
+     * matches the given identity
+     * @param identity name of the principal
+     * @return the set of roles
      */
-    public Map<String, Set<MemberRole>> getPrefixMemberRoleSetMap() {
-        return memberPrefixRoleCache;
+    public Set<MemberRole> getPrefixMemberRoleSet(final String identity) {
+        return memberPrefixRoleTrie.findMatchingValues(identity);
     }
     
     /**
@@ -598,4 +679,15 @@ public class DataCache {
         workloadStoreExcludeProvidersCache.retainAll(currentExcludedProviders);
 
     }
+
+    static class SignedPolicyEntry {
+
+        final Object signedPolicy;
+        final long expiryTime;
+
+        SignedPolicyEntry(Object signedPolicy, long expiryTime) {
+            this.signedPolicy = signedPolicy;
+            this.expiryTime = expiryTime;
+        }
+    }
 }
@@ -15,14 +15,24 @@
  */
 package com.yahoo.athenz.zts.cache;
 
+import com.yahoo.athenz.auth.util.StringUtils;
+import com.yahoo.athenz.common.server.util.GlobMatcher;
+
 public class MemberRole {
     
     final String role;
     final long expiration;
+    final GlobMatcher roleMatcher;
     
     public MemberRole(String role, long expiration) {
         this.role = role;
         this.expiration = expiration;
+
+        // we only compile a matcher if the role contains any of our
+        // pattern characters, otherwise a regular compare is enough
+
+        this.roleMatcher = (role != null && StringUtils.containsMatchCharacter(role)) ?
+                GlobMatcher.compile(role) : null;
     }
 
     public String getRole() {
@@ -32,6 +42,16 @@ public class MemberRole {
     public long getExpiration() {
         return expiration;
     }
+
+    /**
+     * Check if the given role name matches the role of this member.
+     * The member role may include * and ? wildcard characters.
+     * @param roleName name of the role to check
+     * @return true if the role name matches
+     */
+    public boolean matches(final String roleName) {
+        return roleMatcher != null ? roleMatcher.matches(roleName) : roleName.equals(role);
+    }
     
     @Override
     public int hashCode() {
@@ -0,0 +1,69 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zts.cache;
+
+import java.util.Set;
+
+/**
+ * Effective roles of a principal in a domain. Standard roles are the
+ * roles the principal is a direct, wildcard or prefix member of while
+ * extended roles are the ones obtained through group membership or
+ * trusted domains. The role names include the domain prefix. The entry
+ * is valid until the first member expiry that was considered when the
+ * entry was built and as long as neither the domain index nor the
+ * principal's group membership has been updated since.
+ */
+public class PrincipalRoles {
+
+    private final Set<String> standardRoles;
+    private final Set<String> extendedRoles;
+    private final long expiryTime;
+    private final long indexVersion;
+    private final long groupVersion;
+
+    public PrincipalRoles(Set<String> standardRoles, Set<String> extendedRoles, long expiryTime,
+            long indexVersion, long groupVersion) {
+        this.standardRoles = standardRoles;
+        this.extendedRoles = extendedRoles;
+        this.expiryTime = expiryTime;
+        this.indexVersion = indexVersion;
+        this.groupVersion = groupVersion;
+    }
+
+    public Set<String> getStandardRoles() {
+        return standardRoles;
+    }
+
+    public Set<String> getExtendedRoles() {
+        return extendedRoles;
+    }
+
+    public long getExpiryTime() {
+        return expiryTime;
+    }
+
+    /**
+     * Check if the entry can still be used
+     * @param currentTime current time in millis
+     * @param indexVersion current principal roles index version of the domain
+     * @param groupVersion current group membership version of the principal
+     * @return true if the entry is valid
+     */
+    public boolean isValid(long currentTime, long indexVersion, long groupVersion) {
+        return currentTime <= expiryTime && this.indexVersion == indexVersion
+                && this.groupVersion == groupVersion;
+    }
+}
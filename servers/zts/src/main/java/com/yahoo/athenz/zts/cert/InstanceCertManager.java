@@ -29,6 +29,7 @@ import com.yahoo.athenz.common.ServerCommonConsts;
 import com.yahoo.athenz.common.server.cert.*;
 import com.yahoo.athenz.common.server.db.RolesProvider;
 import com.yahoo.athenz.common.server.dns.HostnameResolver;
+import com.yahoo.athenz.common.server.msd.net.InetPrefixTrie;
 import com.yahoo.athenz.common.server.notification.NotificationManager;
 import com.yahoo.athenz.common.server.ssh.*;
 import com.yahoo.athenz.common.server.workload.WorkloadRecord;
@@ -68,8 +69,9 @@ public class InstanceCertManager {
     private WorkloadRecordStore workloadStore = null;
     private ScheduledExecutorService certScheduledExecutor;
     private ScheduledExecutorService sshScheduledExecutor;
-    private final List<IPBlock> certRefreshIPBlocks;
-    private Map<String, List<IPBlock>> instanceCertIPBlocks;
+    private ScheduledExecutorService ipBlocksScheduledExecutor;
+    private volatile InetPrefixTrie<Boolean> certRefreshIPBlocks;
+    private volatile Map<String, InetPrefixTrie<Boolean>> instanceCertIPBlocks;
     private String caX509CertificateSigner = null;
     private Map<String, String> caX509ProviderCertificateSigners = null;
     private String sshUserCertificateSigner = null;
@@ -134,14 +136,27 @@ public class InstanceCertManager {
 
         // load our allowed cert refresh and instance register ip blocks
         
-        certRefreshIPBlocks = new ArrayList<>();
-        loadAllowedIPAddresses(certRefreshIPBlocks, System.getProperty(ZTSConsts.ZTS_PROP_CERT_REFRESH_IP_FNAME));
+        InetPrefixTrie<Boolean> refreshIPBlocks = new InetPrefixTrie<>();
+        loadAllowedIPAddresses(refreshIPBlocks, System.getProperty(ZTSConsts.ZTS_PROP_CERT_REFRESH_IP_FNAME));
+        certRefreshIPBlocks = refreshIPBlocks;
 
-        if (!loadAllowedInstanceCertIPAddresses()) {
+        instanceCertIPBlocks = loadAllowedInstanceCertIPAddresses();
+        if (instanceCertIPBlocks == null) {
             throw new ResourceException(ResourceException.INTERNAL_SERVER_ERROR,
                     "Unable to load Provider Allowed IP Blocks");
         }
 
+        // if configured, periodically reload our ip blocks so any
+        // updates to the files are picked up without a restart
+
+        final long ipBlocksReloadInterval = Long.parseLong(
+                System.getProperty(ZTSConsts.ZTS_PROP_CERT_IP_BLOCKS_RELOAD_INTERVAL, "0"));
+        if (ipBlocksReloadInterval > 0) {
+            ipBlocksScheduledExecutor = Executors.newScheduledThreadPool(1);
+            ipBlocksScheduledExecutor.scheduleAtFixedRate(this::reloadAllowedIPAddresses,
+                    ipBlocksReloadInterval, ipBlocksReloadInterval, TimeUnit.SECONDS);
+        }
+
         // start our thread to delete expired cert records once a day
         // unless we're running in read-only mode thus no modifications
         // to the database
@@ -168,6 +183,9 @@ public class InstanceCertManager {
         if (sshScheduledExecutor != null) {
             sshScheduledExecutor.shutdownNow();
         }
+        if (ipBlocksScheduledExecutor != null) {
+            ipBlocksScheduledExecutor.shutdownNow();
+        }
     }
 
     private boolean loadCertificateAuthorityBundles() {
@@ -289,9 +307,37 @@ public class InstanceCertManager {
         }
     }
 
-    private boolean loadAllowedInstanceCertIPAddresses() {
+    /**
+     * Reload the cert refresh and instance register ip blocks. The new
+     * blocks are fully loaded before they replace the current ones so
+     * the requests being processed always see a complete set. If any of
+     * the files cannot be loaded then the current blocks are kept.
+     * @return true if all the blocks were reloaded successfully
+     */
+    boolean reloadAllowedIPAddresses() {
 
-        instanceCertIPBlocks = new HashMap<>();
+        boolean result = true;
+        InetPrefixTrie<Boolean> refreshIPBlocks = new InetPrefixTrie<>();
+        if (loadAllowedIPAddresses(refreshIPBlocks, System.getProperty(ZTSConsts.ZTS_PROP_CERT_REFRESH_IP_FNAME))) {
+            certRefreshIPBlocks = refreshIPBlocks;
+        } else {
+            LOGGER.error("Unable to reload cert refresh ip blocks, keeping current set");
+            result = false;
+        }
+
+        Map<String, InetPrefixTrie<Boolean>> providerIPBlocks = loadAllowedInstanceCertIPAddresses();
+        if (providerIPBlocks != null) {
+            instanceCertIPBlocks = providerIPBlocks;
+        } else {
+            LOGGER.error("Unable to reload provider ip blocks, keeping current set");
+            result = false;
+        }
+        return result;
+    }
+
+    private Map<String, InetPrefixTrie<Boolean>> loadAllowedInstanceCertIPAddresses() {
+
+        Map<String, InetPrefixTrie<Boolean>> providerIPBlocks = new HashMap<>();
 
         // read the file list of providers and allowed IP addresses
         // if the config is not set then we have no restrictions
@@ -299,12 +345,12 @@ public class InstanceCertManager {
 
         String providerIPMapFile =  System.getProperty(ZTSConsts.ZTS_PROP_INSTANCE_CERT_IP_FNAME);
         if (providerIPMapFile == null || providerIPMapFile.isEmpty()) {
-            return true;
+            return providerIPBlocks;
         }
 
         byte[] data = ZTSUtils.readFileContents(providerIPMapFile);
         if (data == null) {
-            return false;
+            return null;
         }
 
         ProviderIPBlocks ipBlocks = null;
@@ -315,27 +361,22 @@ public class InstanceCertManager {
         }
 
         if (ipBlocks == null) {
-            return false;
+            return null;
         }
 
         for (ProviderIPBlock ipBlock : ipBlocks.getIpblocks()) {
 
-            List<IPBlock> certIPBlocks;
+            InetPrefixTrie<Boolean> certIPBlocks = new InetPrefixTrie<>();
             final String filename = ipBlock.getFilename();
-            if (filename == null) {
-                certIPBlocks = Collections.emptyList();
-            } else {
-                certIPBlocks = new ArrayList<>();
-                if (!loadAllowedIPAddresses(certIPBlocks, filename)) {
-                    LOGGER.error("Invalid provider ip file {}", filename);
-                    return false;
-                }
+            if (filename != null && !loadAllowedIPAddresses(certIPBlocks, filename)) {
+                LOGGER.error("Invalid provider ip file {}", filename);
+                return null;
             }
             for (String provider : ipBlock.getProviders()) {
-                instanceCertIPBlocks.put(provider, certIPBlocks);
+                providerIPBlocks.put(provider, certIPBlocks);
             }
         }
-        return true;
+        return providerIPBlocks;
     }
 
     private void loadCertSigner() {
@@ -401,7 +442,7 @@ public class InstanceCertManager {
         return new String(data);
     }
 
-    boolean loadAllowedIPAddresses(List<IPBlock> ipBlocks, final String ipAddressFileName) {
+    boolean loadAllowedIPAddresses(InetPrefixTrie<Boolean> ipBlocks, final String ipAddressFileName) {
 
         if (ipAddressFileName == null || ipAddressFileName.isEmpty()) {
             return true;
@@ -430,25 +471,43 @@ public class InstanceCertManager {
         }
         
         for (IPPrefix prefix : prefixList) {
-            
-            // for now we're only supporting IPv4 blocks
-            
-            final String ipEntry = prefix.getIpv4Prefix();
-            if (ipEntry == null) {
-                continue;
-            }
-            
-            try {
-                ipBlocks.add(new IPBlock(ipEntry));
-            } catch (Exception ex) {
-                LOGGER.error("Skipping invalid ip block entry: {}, error: {}",
-                        ipEntry, ex.getMessage());
+            if (!addIPBlock(ipBlocks, prefix.getIpv4Prefix()) ||
+                    !addIPBlock(ipBlocks, getIPv6Block(prefix.getIpv6Prefix()))) {
                 return false;
             }
         }
         
         return true;
     }
+
+    String getIPv6Block(final String ipv6Entry) {
+
+        // the ipv6 entries were not loaded before so the existing files
+        // might list single addresses without the prefix length. we'll
+        // treat those as a /128 block while still requiring the ipv4
+        // entries and any specified prefix length to be valid
+
+        if (ipv6Entry == null || ipv6Entry.indexOf('/') != -1) {
+            return ipv6Entry;
+        }
+        return ipv6Entry.trim() + "/128";
+    }
+
+    private boolean addIPBlock(InetPrefixTrie<Boolean> ipBlocks, final String ipEntry) {
+
+        if (ipEntry == null) {
+            return true;
+        }
+
+        try {
+            ipBlocks.put(ipEntry, Boolean.TRUE);
+        } catch (Exception ex) {
+            LOGGER.error("Skipping invalid ip block entry: {}, error: {}",
+                    ipEntry, ex.getMessage());
+            return false;
+        }
+        return true;
+    }
     
     private void loadCertificateObjectStore(PrivateKeyStore keyStore) {
         
@@ -922,14 +981,15 @@ public class InstanceCertManager {
 
     public boolean verifyInstanceCertIPAddress(final String provider, final String ipAddress) {
 
-        final List<IPBlock> certIPBlocks = instanceCertIPBlocks.get(provider);
+        final Map<String, InetPrefixTrie<Boolean>> providerIPBlocks = instanceCertIPBlocks;
+        final InetPrefixTrie<Boolean> certIPBlocks = providerIPBlocks.get(provider);
 
         // if we have no blocks defined for the provider, then we'll return
         // failure if we have others defined or success if there are no
         // providers defined at all
 
         if (certIPBlocks == null) {
-            return instanceCertIPBlocks.isEmpty();
+            return providerIPBlocks.isEmpty();
         }
 
         return verifyIPAddressAccess(ipAddress, certIPBlocks);
@@ -1038,7 +1098,7 @@ public class InstanceCertManager {
         return true;
     }
 
-    private boolean verifyIPAddressAccess(final String ipAddress, final List<IPBlock> ipBlocks) {
+    private boolean verifyIPAddressAccess(final String ipAddress, final InetPrefixTrie<Boolean> ipBlocks) {
         
         // if the list has no IP addresses then we allow all
         
@@ -1046,13 +1106,7 @@ public class InstanceCertManager {
             return true;
         }
         
-        long ipAddr = IPBlock.convertIPToLong(ipAddress);
-        for (IPBlock ipBlock : ipBlocks) {
-            if (ipBlock.ipCheck(ipAddr)) {
-                return true;
-            }
-        }
-        return false;
+        return ipBlocks.contains(ipAddress);
     }
 
     public void logX509Cert(final Principal principal, final String ip, final String provider,
@@ -20,12 +20,20 @@ import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.amazonaws.AmazonServiceException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.yahoo.athenz.common.metrics.Metric;
+import com.yahoo.athenz.common.metrics.impl.NoOpMetric;
 import com.yahoo.athenz.common.server.util.ConfigProperties;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.ContentResponse;
@@ -68,25 +76,35 @@ public class CloudStore {
     boolean awsEnabled;
     int cacheTimeout;
     int invalidCacheTimeout;
+    int refreshWindow;
+    int refreshThreads;
     BasicSessionCredentials credentials;
     final private Map<String, String> awsAccountCache;
     final private Map<String, String> azureSubscriptionCache;
 
     final private Map<String, String> gcpProjectIdCache;
     final private Map<String, String> gcpProjectNumberCache;
-    ConcurrentHashMap<String, AWSTemporaryCredentials> awsCredsCache;
+    Cache<String, AWSTemporaryCredentials> awsCredsCache;
     ConcurrentHashMap<String, Long> awsInvalidCredsCache;
+    ConcurrentHashMap<String, CompletableFuture<AWSCredsResult>> awsCredsRequests;
+    ConcurrentHashMap<String, Long> awsCredsRefreshFailures;
     private HttpClient httpClient;
+    private Metric metric = new NoOpMetric();
 
     private ScheduledExecutorService scheduledThreadPool = null;
+    private ThreadPoolExecutor refreshThreadPool = null;
 
     public CloudStore() {
 
         // initialize our account and cred cache
 
         awsAccountCache = new HashMap<>();
-        awsCredsCache = new ConcurrentHashMap<>();
+        awsCredsCache = CacheBuilder.newBuilder().concurrencyLevel(25)
+                .maximumSize(Long.parseLong(System.getProperty(ZTSConsts.ZTS_PROP_AWS_CREDS_CACHE_MAX_SIZE, "10000")))
+                .build();
         awsInvalidCredsCache = new ConcurrentHashMap<>();
+        awsCredsRequests = new ConcurrentHashMap<>();
+        awsCredsRefreshFailures = new ConcurrentHashMap<>();
 
         // initialize azure cache
 
@@ -114,6 +132,14 @@ public class CloudStore {
         invalidCacheTimeout = Integer.parseInt(
                 System.getProperty(ZTSConsts.ZTS_PROP_AWS_CREDS_INVALID_CACHE_TIMEOUT, "120"));
 
+        // get the window in seconds before the cached creds are no longer
+        // returned from the cache where we refresh them in the background
+
+        refreshWindow = Integer.parseInt(
+                System.getProperty(ZTSConsts.ZTS_PROP_AWS_CREDS_REFRESH_WINDOW, "60"));
+        refreshThreads = Integer.parseInt(
+                System.getProperty(ZTSConsts.ZTS_PROP_AWS_CREDS_REFRESH_THREADS, "4"));
+
         // initialize aws support
 
         awsEnabled = Boolean.parseBoolean(
@@ -137,9 +163,18 @@ public class CloudStore {
         if (scheduledThreadPool != null) {
             scheduledThreadPool.shutdownNow();
         }
+        synchronized (this) {
+            if (refreshThreadPool != null) {
+                refreshThreadPool.shutdownNow();
+            }
+        }
         stopHttpClient();
     }
 
+    public void setMetric(Metric metric) {
+        this.metric = metric;
+    }
+
     public void setHttpClient(HttpClient client) {
         stopHttpClient();
         httpClient = client;
@@ -464,11 +499,11 @@ public class CloudStore {
             LOGGER.debug("Checking for expired cached credentials in {} entries", awsCredsCache.size());
         }
 
-        // iterate through all entries in the map and remove any
-        // entries that have been expired already
+        // the size of the cache is bounded so this is only to release
+        // the expired entries without waiting for them to be evicted
 
         long now = System.currentTimeMillis();
-        return awsCredsCache.entrySet().removeIf(entry -> entry.getValue().getExpiration().millis() < now);
+        return awsCredsCache.asMap().values().removeIf(creds -> creds.getExpiration().millis() < now);
     }
 
     boolean removeExpiredInvalidCredentials() {
@@ -481,6 +516,8 @@ public class CloudStore {
         // entries that have been expired already
 
         long checkTime = System.currentTimeMillis() - invalidCacheTimeout * 1000L;
+        long refreshCheckTime = System.currentTimeMillis() - refreshWindow * 1000L;
+        awsCredsRefreshFailures.entrySet().removeIf(entry -> entry.getValue() <= refreshCheckTime);
         return awsInvalidCredsCache.entrySet().removeIf(entry -> entry.getValue() <= checkTime);
     }
 
@@ -488,7 +525,7 @@ public class CloudStore {
 
         // if our cache is disabled there is no need for a lookup
 
-        if (invalidCacheTimeout == 0) {
+        if (invalidCacheTimeout == 0 || cacheKey == null) {
             return false;
         }
 
@@ -507,7 +544,7 @@ public class CloudStore {
 
         // if our cache is disabled we do nothing
 
-        if (invalidCacheTimeout == 0) {
+        if (invalidCacheTimeout == 0 || key == null) {
             return;
         }
 
@@ -522,22 +559,35 @@ public class CloudStore {
             return null;
         }
 
-        AWSTemporaryCredentials tempCreds = awsCredsCache.get(cacheKey);
+        AWSTemporaryCredentials tempCreds = awsCredsCache.getIfPresent(cacheKey);
         if (tempCreds == null) {
             return null;
         }
 
         // we're going to cache any creds for 10 mins only
 
+        if (getCachedCredsAge(tempCreds, durationSeconds) > cacheTimeout) {
+            return null;
+        }
+
+        return tempCreds;
+    }
+
+    long getCachedCredsAge(AWSTemporaryCredentials tempCreds, Integer durationSeconds) {
+
         long diffSeconds = (tempCreds.getExpiration().millis() - System.currentTimeMillis()) / 1000;
         if (durationSeconds == null || durationSeconds <= 0) {
             durationSeconds = 3600; // default 1 hour
         }
-        if (durationSeconds - diffSeconds > cacheTimeout) {
-            return null;
-        }
+        return durationSeconds - diffSeconds;
+    }
 
-        return tempCreds;
+    boolean shouldRefreshCachedCreds(AWSTemporaryCredentials tempCreds, Integer durationSeconds) {
+
+        // the creds are refreshed only if they're within our refresh
+        // window before they're no longer returned from the cache
+
+        return refreshWindow > 0 && getCachedCredsAge(tempCreds, durationSeconds) > cacheTimeout - refreshWindow;
     }
 
     void putCacheCreds(final String key, AWSTemporaryCredentials tempCreds) {
@@ -565,6 +615,15 @@ public class CloudStore {
                 durationSeconds, externalId);
         AWSTemporaryCredentials tempCreds = getCachedCreds(cacheKey, durationSeconds);
         if (tempCreds != null) {
+            metric.increment("aws_creds_cache_hit", account);
+
+            // if the creds are about to be no longer returned from
+            // the cache then refresh them in the background so the
+            // following requests don't have to wait for AWS STS
+
+            if (shouldRefreshCachedCreds(tempCreds, durationSeconds)) {
+                refreshAWSCreds(cacheKey, account, roleName, durationSeconds, externalId);
+            }
             return tempCreds;
         }
 
@@ -578,6 +637,126 @@ public class CloudStore {
             return null;
         }
 
+        metric.increment("aws_creds_cache_miss", account);
+
+        // if our cache is disabled then there is nothing to share
+        // with other requests so we'll just contact AWS STS
+
+        if (cacheKey == null) {
+            return getAWSCreds(null, account, roleName, durationSeconds, externalId, errorMessage);
+        }
+
+        // if we already have a request for the same creds in progress
+        // then we'll wait for its result instead of contacting AWS STS
+        // again. we check the cache one more time in case the request
+        // was completed after our lookup
+
+        CompletableFuture<AWSCredsResult> request = new CompletableFuture<>();
+        CompletableFuture<AWSCredsResult> pendingRequest = awsCredsRequests.putIfAbsent(cacheKey, request);
+        if (pendingRequest != null) {
+            metric.increment("aws_creds_coalesced", account);
+            AWSCredsResult result = pendingRequest.join();
+            errorMessage.append(result.errorMessage);
+            return result.creds;
+        }
+
+        tempCreds = getCachedCreds(cacheKey, durationSeconds);
+        if (tempCreds != null) {
+            completeAWSCredsRequest(cacheKey, request, tempCreds, "");
+            return tempCreds;
+        }
+
+        return processAWSCredsRequest(cacheKey, request, account, roleName, durationSeconds,
+                externalId, errorMessage);
+    }
+
+    void refreshAWSCreds(final String cacheKey, final String account, final String roleName,
+            Integer durationSeconds, final String externalId) {
+
+        // if our last refresh attempt failed or the request is in
+        // our failed cache then we're not going to retry it until
+        // the creds are no longer returned from the cache
+
+        if (isFailedRefreshRequest(cacheKey) || isFailedTempCredsRequest(cacheKey)) {
+            return;
+        }
+
+        // if we already have a request for the same creds
+        // in progress then there is nothing to do
+
+        CompletableFuture<AWSCredsResult> request = new CompletableFuture<>();
+        if (awsCredsRequests.putIfAbsent(cacheKey, request) != null) {
+            return;
+        }
+
+        metric.increment("aws_creds_refresh", account);
+        try {
+            getRefreshThreadPool().execute(() -> {
+                if (processAWSCredsRequest(cacheKey, request, account, roleName, durationSeconds,
+                        externalId, new StringBuilder()) == null) {
+                    awsCredsRefreshFailures.put(cacheKey, System.currentTimeMillis());
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            LOGGER.error("CloudStore: unable to submit aws creds refresh request: {}", ex.getMessage());
+            completeAWSCredsRequest(cacheKey, request, null, ex.getMessage());
+        }
+    }
+
+    boolean isFailedRefreshRequest(final String cacheKey) {
+
+        Long timeStamp = awsCredsRefreshFailures.get(cacheKey);
+        if (timeStamp == null) {
+            return false;
+        }
+        return System.currentTimeMillis() - timeStamp < refreshWindow * 1000L;
+    }
+
+    synchronized ThreadPoolExecutor getRefreshThreadPool() {
+        if (refreshThreadPool == null) {
+            refreshThreadPool = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "aws-creds-refresh");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            refreshThreadPool.allowCoreThreadTimeOut(true);
+        }
+        return refreshThreadPool;
+    }
+
+    AWSTemporaryCredentials processAWSCredsRequest(final String cacheKey, CompletableFuture<AWSCredsResult> request,
+            final String account, final String roleName, Integer durationSeconds, final String externalId,
+            StringBuilder errorMessage) {
+
+        // we must always complete our request so any other requests
+        // waiting for the same creds are released
+
+        StringBuilder requestError = new StringBuilder();
+        AWSTemporaryCredentials tempCreds = null;
+        try {
+            tempCreds = getAWSCreds(cacheKey, account, roleName, durationSeconds, externalId, requestError);
+        } finally {
+            completeAWSCredsRequest(cacheKey, request, tempCreds, requestError.toString());
+        }
+        errorMessage.append(requestError);
+        return tempCreds;
+    }
+
+    void completeAWSCredsRequest(final String cacheKey, CompletableFuture<AWSCredsResult> request,
+            AWSTemporaryCredentials tempCreds, final String errorMessage) {
+
+        // the creds are already in our cache at this point, so we remove
+        // the request first thus any new requests are processed from the cache
+
+        awsCredsRequests.remove(cacheKey, request);
+        request.complete(new AWSCredsResult(tempCreds, errorMessage));
+    }
+
+    AWSTemporaryCredentials getAWSCreds(final String cacheKey, final String account, final String roleName,
+            Integer durationSeconds, final String externalId, StringBuilder errorMessage) {
+
+        AWSTemporaryCredentials tempCreds;
         AssumeRoleRequest req = getAssumeRoleRequest(account, roleName, durationSeconds, externalId);
 
         try {
@@ -603,6 +782,7 @@ public class CloudStore {
                 putInvalidCacheCreds(cacheKey);
             }
 
+            metric.increment("aws_creds_failure", account);
             errorMessage.append(ex.getErrorMessage());
             return null;
 
@@ -611,6 +791,7 @@ public class CloudStore {
             LOGGER.error("CloudStore: assumeAWSRole - unable to assume role: {}, error: {}",
                     req.getRoleArn(), ex.getMessage());
 
+            metric.increment("aws_creds_failure", account);
             errorMessage.append(ex.getMessage());
             return null;
         }
@@ -681,6 +862,17 @@ public class CloudStore {
         }
     }
 
+    static class AWSCredsResult {
+
+        final AWSTemporaryCredentials creds;
+        final String errorMessage;
+
+        AWSCredsResult(AWSTemporaryCredentials creds, String errorMessage) {
+            this.creds = creds;
+            this.errorMessage = errorMessage;
+        }
+    }
+
     class AWSCredentialsUpdater implements Runnable {
 
         @Override
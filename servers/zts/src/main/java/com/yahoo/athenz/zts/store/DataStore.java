@@ -20,7 +20,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.yahoo.athenz.auth.AuthorityConsts;
-import com.yahoo.athenz.auth.util.StringUtils;
+import com.yahoo.athenz.auth.PrivateKeyStore;
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import com.yahoo.athenz.common.messaging.ChangeSubscriberFactory;
+import com.yahoo.athenz.common.messaging.DomainChangeMessage;
 import com.yahoo.athenz.common.metrics.Metric;
 import com.yahoo.athenz.common.server.db.RolesProvider;
 import com.yahoo.athenz.common.server.store.ChangeLogStore;
@@ -32,10 +35,12 @@ import com.yahoo.athenz.zts.*;
 import com.yahoo.athenz.zts.ResourceException;
 import com.yahoo.rdl.*;
 import com.yahoo.athenz.auth.util.Crypto;
+import com.yahoo.athenz.auth.util.PublicKeyCache;
 import com.yahoo.athenz.common.config.AthenzConfig;
 import com.yahoo.athenz.zts.cache.DataCache;
 import com.yahoo.athenz.zts.cache.DataCacheProvider;
 import com.yahoo.athenz.zts.cache.MemberRole;
+import com.yahoo.athenz.zts.cache.PrincipalRoles;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -46,11 +51,18 @@ import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.ECPoint;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -76,6 +88,8 @@ public class DataStore implements DataCacheProvider, RolesProvider {
     final RequireRoleCertCache requireRoleCertCache;
     final Map<String, List<String>> hostCache;
     final Map<String, String> publicKeyCache;
+    final Map<String, Long> principalGroupVersions;
+    final Map<String, Set<String>> trustingDomainsCache;
     final JWKList ztsJWKList;
     final JWKList ztsJWKListStrictRFC;
     private final ObjectMapper jsonMapper;
@@ -89,6 +103,13 @@ public class DataStore implements DataCacheProvider, RolesProvider {
     long domainFetchRefreshTime;
     int domainFetchCount;
     boolean jwsDomainSupport;
+    int principalRolesCacheMaxSize;
+    int localDomainLoadThreads;
+    int domainVerifyThreads;
+    private ThreadPoolExecutor domainVerifyThreadPool = null;
+    long lastUpdateRunTime;
+    long domainChangePollRefreshTime;
+    DomainChangeProcessor domainChangeProcessor;
 
     private static final String ROLE_POSTFIX = ":role.";
 
@@ -106,6 +127,18 @@ public class DataStore implements DataCacheProvider, RolesProvider {
     private static final String ZTS_PROP_DOMAIN_JWS_SUPPORT    = "athenz.zts.zms_domain_jws_support";
     private static final String ZTS_PROP_DOMAIN_FETCH_TIMEOUT  = "athenz.zts.zms_domain_fetch_timeout";
     private static final String ZTS_PROP_DOMAIN_FETCH_COUNT    = "athenz.zts.zms_domain_fetch_count";
+    private static final String ZTS_PROP_PRINCIPAL_ROLES_CACHE_MAX_SIZE = "athenz.zts.principal_roles_cache_max_size";
+    private static final String ZTS_PROP_LOCAL_DOMAIN_LOAD_THREADS = "athenz.zts.local_domain_load_threads";
+    private static final String ZTS_PROP_DOMAIN_VERIFY_THREADS = "athenz.zts.zms_domain_verify_threads";
+    private static final String ZTS_PROP_DOMAIN_CHANGE_TOPIC_NAMES = "athenz.zts.domain_changes_topic_names";
+    private static final String ZTS_PROP_DOMAIN_CHANGE_SUBSCRIBER_FACTORY_CLASS = "athenz.zts.domain_change_subscriber_factory_class";
+    private static final String ZTS_PROP_DOMAIN_CHANGE_SUBSCRIPTION_NAME = "athenz.zts.domain_change_subscription_name";
+    private static final String ZTS_PROP_DOMAIN_CHANGE_SUBSCRIPTION_TYPE = "athenz.zts.domain_change_subscription_type";
+    private static final String ZTS_PROP_DOMAIN_CHANGE_PROCESS_INTERVAL = "athenz.zts.domain_change_process_interval";
+    private static final String ZTS_PROP_DOMAIN_CHANGE_MAX_LAG = "athenz.zts.domain_change_max_lag";
+    private static final String ZTS_PROP_DOMAIN_CHANGE_POLL_TIMEOUT = "athenz.zts.domain_change_poll_timeout";
+
+    private static final String ZTS_DOMAIN_CHANGE_SUBSCRIBER_FACTORY_DEFAULT = "com.yahoo.athenz.common.messaging.pulsar.PulsarFactory";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DataStore.class);
 
@@ -133,6 +166,9 @@ public class DataStore implements DataCacheProvider, RolesProvider {
         hostCache = new HashMap<>();
         publicKeyCache = new HashMap<>();
 
+        principalGroupVersions = new ConcurrentHashMap<>();
+        trustingDomainsCache = new ConcurrentHashMap<>();
+
         // our configured values are going to be in seconds, so we need
         // to convert our input in seconds to milliseconds
 
@@ -154,6 +190,16 @@ public class DataStore implements DataCacheProvider, RolesProvider {
 
         lastDeleteRunTime = System.currentTimeMillis();
         lastCheckRunTime = System.currentTimeMillis();
+        lastUpdateRunTime = System.currentTimeMillis();
+
+        // when we're receiving domain change messages from ZMS, we still
+        // poll for updates but with a much longer interval in case any
+        // messages were lost
+
+        domainChangePollRefreshTime = ConfigProperties.retrieveConfigSetting(ZTS_PROP_DOMAIN_CHANGE_POLL_TIMEOUT, 600);
+        if (domainChangePollRefreshTime < updDomainRefreshTime) {
+            domainChangePollRefreshTime = updDomainRefreshTime;
+        }
 
         // configure how fresh our domain files must be. if the last fetch
         // time is before configured number of seconds, we'll fetch a new
@@ -163,6 +209,24 @@ public class DataStore implements DataCacheProvider, RolesProvider {
         domainFetchRefreshTime = ConfigProperties.retrieveConfigSetting(ZTS_PROP_DOMAIN_FETCH_TIMEOUT, 2592000);
         domainFetchCount = ConfigProperties.retrieveConfigSetting(ZTS_PROP_DOMAIN_FETCH_COUNT, 10);
 
+        // configure the max number of principals per domain whose effective
+        // roles are kept in the domain's principal roles index. the index
+        // is disabled by default
+
+        principalRolesCacheMaxSize = ConfigProperties.retrieveConfigSetting(ZTS_PROP_PRINCIPAL_ROLES_CACHE_MAX_SIZE, 0);
+
+        // configure the number of threads used to read, parse and validate
+        // the locally saved domains during startup. by default, we use
+        // one thread per available processor
+
+        localDomainLoadThreads = ConfigProperties.retrieveConfigSetting(ZTS_PROP_LOCAL_DOMAIN_LOAD_THREADS,
+                Runtime.getRuntime().availableProcessors());
+
+        // configure the number of threads used to parse and validate
+        // the updated jws domains fetched from ZMS
+
+        domainVerifyThreads = ConfigProperties.retrieveConfigSetting(ZTS_PROP_DOMAIN_VERIFY_THREADS, 2);
+
         /* load the zms public key from configuration files */
 
         if (!loadAthenzPublicKeys()) {
@@ -184,19 +248,21 @@ public class DataStore implements DataCacheProvider, RolesProvider {
     }
 
     boolean processLocalSignedDomain(String domainName) {
+        return processLocalDomainData(domainName, loadLocalSignedDomain(domainName));
+    }
+
+    DomainData loadLocalSignedDomain(String domainName) {
 
-        boolean result = false;
         try {
-            result = processSignedDomain(changeLogStore.getLocalSignedDomain(domainName), false);
+            SignedDomain signedDomain = changeLogStore.getLocalSignedDomain(domainName);
+            if (validateSignedDomain(signedDomain)) {
+                return signedDomain.getDomain();
+            }
         } catch (Exception ex) {
-             LOGGER.error("Unable to process local domain {}", domainName, ex);
+            LOGGER.error("Unable to load local domain {}", domainName, ex);
         }
 
-        if (!result) {
-            LOGGER.error("Invalid local domain: {}. Refresh from ZMS required", domainName);
-        }
-
-        return result;
+        return null;
     }
 
     boolean validateSignedDomain(SignedDomain signedDomain) {
@@ -405,19 +471,20 @@ public class DataStore implements DataCacheProvider, RolesProvider {
     }
 
     boolean processLocalJWSDomain(String domainName) {
+        return processLocalDomainData(domainName, loadLocalJWSDomain(domainName));
+    }
 
-        boolean result = false;
+    DomainData loadLocalJWSDomain(String domainName) {
+
+        JWSDomain jwsDomain;
         try {
-            result = processJWSDomain(changeLogStore.getLocalJWSDomain(domainName), false);
+            jwsDomain = changeLogStore.getLocalJWSDomain(domainName);
         } catch (Exception ex) {
-            LOGGER.error("Unable to process local domain {}", domainName, ex);
-        }
-
-        if (!result) {
-            LOGGER.error("Invalid local domain: {}. Refresh from ZMS required", domainName);
+            LOGGER.error("Unable to load local domain {}", domainName, ex);
+            return null;
         }
 
-        return result;
+        return jwsDomain == null ? null : parseJWSDomain(jwsDomain);
     }
 
     boolean validateJWSDomain(final String domainName, JWSDomain jwsDomain) {
@@ -436,13 +503,23 @@ public class DataStore implements DataCacheProvider, RolesProvider {
 
     public boolean processJWSDomain(JWSDomain jwsDomain, boolean saveInStore) {
 
+        DomainData domainData = parseJWSDomain(jwsDomain);
+        if (domainData == null) {
+            return false;
+        }
+
+        return processJWSDomainData(jwsDomain, domainData, saveInStore);
+    }
+
+    DomainData parseJWSDomain(JWSDomain jwsDomain) {
+
         DomainData domainData;
         try {
             byte[] payload = base64Decoder.decode(jwsDomain.getPayload());
             domainData = jsonMapper.readValue(payload, DomainData.class);
         } catch (Exception ex) {
             LOGGER.error("Unable to parse jws domain", ex);
-            return false;
+            return null;
         }
 
         final String domainName = domainData.getName();
@@ -452,9 +529,21 @@ public class DataStore implements DataCacheProvider, RolesProvider {
             // before doing anything else let's validate our domain
 
             if (!validateJWSDomain(domainName, jwsDomain)) {
-                return false;
+                return null;
             }
 
+        } catch (Exception ex) {
+            LOGGER.error("unable to process jws domain: {}", domainName, ex);
+            return null;
+        }
+
+        return domainData;
+    }
+
+    boolean processJWSDomainData(JWSDomain jwsDomain, DomainData domainData, boolean saveInStore) {
+
+        final String domainName = domainData.getName();
+        try {
             // if the domain is disabled we're going to skip
             // processing this domain. however, we must invalidate
             // our cache and save the updated data with disabled
@@ -539,35 +628,45 @@ public class DataStore implements DataCacheProvider, RolesProvider {
             return true;
         }
 
-        // we're going to return success as long as one of the
-        // domains was successfully processed, otherwise there is
-        // no point of retrying all domains over and over again
-
-        boolean result = false;
-        for (JWSDomain jwsDomain : jwsDomains) {
-            if (processJWSDomain(jwsDomain, true)) {
-                result = true;
-            }
+        JWSDomainProcessor domainProcessor = new JWSDomainProcessor();
+        try {
+            jwsDomains.forEach(domainProcessor);
+            domainProcessor.complete();
+        } finally {
+            domainProcessor.cancel();
         }
 
-        return result;
+        return domainProcessor.getResult();
     }
 
     public boolean processJWSDomainUpdates() {
 
+        // the change log store passes the domains to our processor as soon
+        // as they're fetched from ZMS so the domains are validated and
+        // added to the cache while the rest are still being downloaded
+
         StringBuilder lastModTimestamp = new StringBuilder(128);
-        List<JWSDomain> jwsDomains = changeLogStore.getUpdatedJWSDomains(lastModTimestamp);
+        JWSDomainProcessor domainProcessor = new JWSDomainProcessor();
+        boolean domainsFetched;
+        try {
+            domainsFetched = changeLogStore.getUpdatedJWSDomains(lastModTimestamp, domainProcessor);
+            domainProcessor.complete();
+        } finally {
+            domainProcessor.cancel();
+        }
 
-        // if our data back was null and the last mod timestamp
-        // is also empty then we had a failure
+        // if we were not able to fetch the list of updated domains
+        // and the last mod timestamp is also empty then we had a failure
 
-        if (jwsDomains == null && lastModTimestamp.length() == 0) {
+        if (!domainsFetched && lastModTimestamp.length() == 0) {
             return false;
         }
 
-        // process all of our received updated domains
+        if (domainProcessor.getDomainCount() == 0) {
+            LOGGER.info("No updates received from ZMS Server");
+        }
 
-        boolean result = processJWSDomains(jwsDomains);
+        boolean result = domainProcessor.getResult();
         if (result) {
             changeLogStore.setLastModificationTimestamp(lastModTimestamp.toString());
         }
@@ -575,6 +674,84 @@ public class DataStore implements DataCacheProvider, RolesProvider {
         return result;
     }
 
+    /**
+     * Processes the updated jws domains in a pipeline - the signatures
+     * are validated by the worker threads while the caller thread adds the
+     * validated domains to the cache in the same order as they were received.
+     * The domains must be passed to the processor from a single thread.
+     */
+    class JWSDomainProcessor implements Consumer<JWSDomain> {
+
+        final Deque<Map.Entry<JWSDomain, Future<DomainData>>> pendingDomains = new ArrayDeque<>();
+        private int domainCount = 0;
+        private int successCount = 0;
+
+        @Override
+        public void accept(JWSDomain jwsDomain) {
+
+            domainCount += 1;
+            pendingDomains.add(new AbstractMap.SimpleEntry<>(jwsDomain,
+                    getDomainVerifyThreadPool().submit(() -> parseJWSDomain(jwsDomain))));
+
+            // process any domains that have already been validated without
+            // waiting for the rest of the domains to be fetched
+
+            while (!pendingDomains.isEmpty() && pendingDomains.peek().getValue().isDone()) {
+                processPendingDomain(pendingDomains.poll());
+            }
+        }
+
+        void complete() {
+            Map.Entry<JWSDomain, Future<DomainData>> pendingDomain;
+            while ((pendingDomain = pendingDomains.poll()) != null) {
+                processPendingDomain(pendingDomain);
+            }
+        }
+
+        void cancel() {
+
+            // in case of failures we don't need to validate the rest
+            // of the pending domains
+
+            pendingDomains.forEach(pendingDomain -> pendingDomain.getValue().cancel(true));
+            pendingDomains.clear();
+        }
+
+        void processPendingDomain(Map.Entry<JWSDomain, Future<DomainData>> pendingDomain) {
+
+            DomainData domainData = getJWSDomainData(pendingDomain.getValue());
+            if (domainData != null && processJWSDomainData(pendingDomain.getKey(), domainData, true)) {
+                successCount += 1;
+            }
+        }
+
+        int getDomainCount() {
+            return domainCount;
+        }
+
+        // we're going to return success as long as one of the
+        // domains was successfully processed, otherwise there is
+        // no point of retrying all domains over and over again
+
+        boolean getResult() {
+            return domainCount == 0 || successCount > 0;
+        }
+    }
+
+    DomainData getJWSDomainData(Future<DomainData> future) {
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while validating jws domain");
+        } catch (ExecutionException ex) {
+            LOGGER.error("Unable to validate jws domain", ex);
+        }
+
+        return null;
+    }
+
     String generateServiceKeyName(String domain, String service, String keyId) {
         return domain + "." + service + "_" + keyId;
     }
@@ -774,38 +951,73 @@ public class DataStore implements DataCacheProvider, RolesProvider {
 
         Set<String> zmsDomainList = changeLogStore.getServerDomainList();
 
+        /* the domains are read, parsed and validated by our worker
+         * threads while this thread adds them to the cache in the
+         * same order as they're listed. we only keep a limited number
+         * of domains in flight so the memory usage is bounded */
+
+        final int loadThreads = Math.max(1, localDomainLoadThreads);
+        final int maxPendingDomains = loadThreads * 4;
+        ExecutorService executorService = Executors.newFixedThreadPool(loadThreads);
+        Deque<Map.Entry<String, Future<DomainData>>> pendingDomains = new ArrayDeque<>();
+        Iterator<String> domainIterator = localDomainList.iterator();
+
         int badDomains = 0;
-        for (String domainName : localDomainList) {
+        try {
+            while (true) {
 
-            /* make sure this domain is still active in ZMS otherwise
-             * we'll just remove our local copy. if we were not able
-             * to fetch the domain list from ZMS at this time, we'll
-             * just defer the cleanup at the next check */
+                while (domainIterator.hasNext() && pendingDomains.size() < maxPendingDomains) {
 
-            if (zmsDomainList != null && !zmsDomainList.contains(domainName)) {
+                    final String domainName = domainIterator.next();
 
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Removing local domain: {}. Domain not in ZMS anymore.", domainName);
-                }
+                    /* make sure this domain is still active in ZMS otherwise
+                     * we'll just remove our local copy. if we were not able
+                     * to fetch the domain list from ZMS at this time, we'll
+                     * just defer the cleanup at the next check */
 
-                deleteDomain(domainName);
-                continue;
-            }
+                    if (zmsDomainList != null && !zmsDomainList.contains(domainName)) {
+
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug("Removing local domain: {}. Domain not in ZMS anymore.", domainName);
+                        }
 
-            /* if we get a failure when processing a local domain then it
-             * indicates that we had an invalid domain file (possibly
-             * corrupted or hacked). In this case we're going to drop
-             * everything and request a full refresh from ZMS only if the
-             * change log store supports that functionality. Otherwise,
-             * we're going to just skip the domain and continue. */
+                        deleteDomain(domainName);
+                        continue;
+                    }
 
-            if (!processLocalDomain(domainName)) {
-                if (changeLogStore.supportsFullRefresh()) {
-                    return -1;
-                } else {
-                    badDomains += 1;
+                    pendingDomains.add(new AbstractMap.SimpleEntry<>(domainName,
+                            executorService.submit(() -> loadLocalDomain(domainName))));
+                }
+
+                Map.Entry<String, Future<DomainData>> pendingDomain = pendingDomains.poll();
+                if (pendingDomain == null) {
+                    break;
+                }
+
+                /* if we get a failure when processing a local domain then it
+                 * indicates that we had an invalid domain file (possibly
+                 * corrupted or hacked). In this case we're going to drop
+                 * everything and request a full refresh from ZMS only if the
+                 * change log store supports that functionality. Otherwise,
+                 * we're going to just skip the domain and continue. */
+
+                final String domainName = pendingDomain.getKey();
+                if (!processLocalDomainData(domainName, getLocalDomainData(domainName, pendingDomain.getValue()))) {
+                    if (changeLogStore.supportsFullRefresh()) {
+                        return -1;
+                    } else {
+                        badDomains += 1;
+                    }
                 }
             }
+        } finally {
+            executorService.shutdownNow();
+
+            /* let the change log store release any domains that it has
+             * fetched ahead of our requests in case we did not process
+             * all of them */
+
+            changeLogStore.clearLocalDomainList();
         }
 
         /* if more than 1/4 of our domains are bad then we have some
@@ -823,6 +1035,56 @@ public class DataStore implements DataCacheProvider, RolesProvider {
         return jwsDomainSupport ? processLocalJWSDomain(domainName) : processLocalSignedDomain(domainName);
     }
 
+    DomainData loadLocalDomain(String domainName) {
+        return jwsDomainSupport ? loadLocalJWSDomain(domainName) : loadLocalSignedDomain(domainName);
+    }
+
+    DomainData getLocalDomainData(final String domainName, Future<DomainData> future) {
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while loading local domain {}", domainName);
+        } catch (ExecutionException ex) {
+            LOGGER.error("Unable to load local domain {}", domainName, ex);
+        }
+
+        return null;
+    }
+
+    boolean processLocalDomainData(final String domainName, DomainData domainData) {
+
+        // domain data is null if we were not able to read, parse
+        // or validate the local domain file
+
+        boolean result = false;
+        if (domainData != null) {
+            try {
+
+                // if the domain is disabled we're going to skip
+                // processing this domain
+
+                if (domainData.getEnabled() == Boolean.FALSE) {
+                    LOGGER.info("Skipping disabled domain: {}", domainName);
+                    deleteDomainFromCache(domainName);
+                } else {
+                    processDomainData(domainData);
+                }
+                result = true;
+
+            } catch (Exception ex) {
+                LOGGER.error("Unable to process local domain {}", domainName, ex);
+            }
+        }
+
+        if (!result) {
+            LOGGER.error("Invalid local domain: {}. Refresh from ZMS required", domainName);
+        }
+
+        return result;
+    }
+
     public void init() {
 
         /* now let's retrieve the list of locally saved domains */
@@ -833,7 +1095,12 @@ public class DataStore implements DataCacheProvider, RolesProvider {
          * then we're going to ask our store to reset the changes
          * and give us the list of all domains from ZMS */
 
+        long startTime = System.currentTimeMillis();
+        Object timerMetric = metric.startTiming("store_load_local_domains_timing", null);
         int badDomains = processLocalDomains(localDomainList);
+        metric.stopTiming(timerMetric);
+        LOGGER.info("Processed {} local domains with {} threads in {} ms", localDomainList.size(),
+                localDomainLoadThreads, System.currentTimeMillis() - startTime);
         if (badDomains == -1) {
 
             changeLogStore.setLastModificationTimestamp(null);
@@ -850,10 +1117,14 @@ public class DataStore implements DataCacheProvider, RolesProvider {
          * retrieve the domains that were modified since the last
          * modification time */
 
+        startTime = System.currentTimeMillis();
+        timerMetric = metric.startTiming("store_init_domain_updates_timing", null);
         if (!processDomainUpdates()) {
             throw new ResourceException(ResourceException.INTERNAL_SERVER_ERROR,
                     "Unable to initialize storage subsystem");
         }
+        metric.stopTiming(timerMetric);
+        LOGGER.info("Processed domain updates from ZMS in {} ms", System.currentTimeMillis() - startTime);
 
         /* if we had received any errors when processing local
          * domains then we're going to run a domain check and
@@ -870,6 +1141,141 @@ public class DataStore implements DataCacheProvider, RolesProvider {
                 updDomainRefreshTime, TimeUnit.SECONDS);
     }
 
+    /**
+     * Subscribe to the domain change topics configured in ZMS. Each changed
+     * domain is fetched from ZMS as soon as the change message is received
+     * and the regular polling for updates is only carried out if the stream
+     * is lagging or the domain change poll timeout has expired.
+     * @param keyStore private key store for the subscriber factory
+     * @param serverHostName server host name used for the default subscription name
+     */
+    public void initDomainChangeSubscribers(PrivateKeyStore keyStore, final String serverHostName) {
+
+        List<ChangeSubscriber<DomainChangeMessage>> subscribers = new ArrayList<>();
+        final String topicNames = System.getProperty(ZTS_PROP_DOMAIN_CHANGE_TOPIC_NAMES, "");
+        for (String topic : topicNames.split(",")) {
+            topic = topic.trim();
+            if (!topic.isEmpty()) {
+                ChangeSubscriber<DomainChangeMessage> subscriber = createSubscriber(keyStore, topic, serverHostName);
+                if (subscriber != null) {
+                    subscribers.add(subscriber);
+                }
+            }
+        }
+
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        final long processInterval = ConfigProperties.retrieveConfigSetting(ZTS_PROP_DOMAIN_CHANGE_PROCESS_INTERVAL, 500);
+        final long maxLag = ConfigProperties.retrieveConfigSetting(ZTS_PROP_DOMAIN_CHANGE_MAX_LAG, 60);
+
+        domainChangeProcessor = new DomainChangeProcessor(subscribers, this::processDomainChanges, metric,
+                processInterval, TimeUnit.SECONDS.toMillis(maxLag));
+        domainChangeProcessor.start();
+
+        LOGGER.info("Subscribed to {} domain change topic(s)", subscribers.size());
+    }
+
+    ChangeSubscriber<DomainChangeMessage> createSubscriber(PrivateKeyStore keyStore, final String topicName,
+            final String serverHostName) {
+
+        final String factoryClassName = System.getProperty(ZTS_PROP_DOMAIN_CHANGE_SUBSCRIBER_FACTORY_CLASS,
+                ZTS_DOMAIN_CHANGE_SUBSCRIBER_FACTORY_DEFAULT);
+        final String subscriptionName = System.getProperty(ZTS_PROP_DOMAIN_CHANGE_SUBSCRIPTION_NAME,
+                "zts-" + serverHostName);
+        final String subscriptionType = System.getProperty(ZTS_PROP_DOMAIN_CHANGE_SUBSCRIPTION_TYPE, "Exclusive");
+
+        try {
+            @SuppressWarnings("unchecked")
+            ChangeSubscriberFactory<DomainChangeMessage> subscriberFactory = (ChangeSubscriberFactory<DomainChangeMessage>)
+                    Class.forName(factoryClassName).getDeclaredConstructor().newInstance();
+            return subscriberFactory.create(keyStore, topicName, subscriptionName, subscriptionType);
+        } catch (Exception ex) {
+            LOGGER.error("unable to create a domain change subscriber for topic: {}", topicName, ex);
+        }
+        return null;
+    }
+
+    /**
+     * Fetch the given domains from ZMS and update our cache and local store
+     * @param domainNames list of domain names
+     * @return set of domains that were successfully processed
+     */
+    synchronized Set<String> processDomainChanges(final List<String> domainNames) {
+
+        // this method is synchronized with the data updater thread so
+        // we don't process the same domain updates at the same time
+
+        Set<String> processedDomains = new HashSet<>();
+        List<String> missingDomains = new ArrayList<>();
+        for (String domainName : domainNames) {
+            boolean result;
+            if (jwsDomainSupport) {
+                JWSDomain jwsDomain = changeLogStore.getServerJWSDomain(domainName);
+                if (jwsDomain == null) {
+                    missingDomains.add(domainName);
+                    continue;
+                }
+                result = processJWSDomain(jwsDomain, true);
+            } else {
+                SignedDomain signedDomain = changeLogStore.getServerSignedDomain(domainName);
+                if (signedDomain == null) {
+                    missingDomains.add(domainName);
+                    continue;
+                }
+                result = processSignedDomain(signedDomain, true);
+            }
+            if (result) {
+                processedDomains.add(domainName);
+            }
+        }
+
+        if (!missingDomains.isEmpty()) {
+            processDomainChangeDeletes(missingDomains, processedDomains);
+        }
+        return processedDomains;
+    }
+
+    void processDomainChangeDeletes(final List<String> domainNames, Set<String> processedDomains) {
+
+        // ZMS does not return any data for deleted domains so we're going
+        // to verify the domains are not in the ZMS domain list anymore - the
+        // same check as our domain delete task - before removing them from
+        // our cache and change log store. The domain list is only fetched
+        // once for all the domains in the given batch
+
+        Set<String> zmsDomainList = changeLogStore.getServerDomainList();
+        if (zmsDomainList == null || !validDomainListResponse(zmsDomainList)) {
+            return;
+        }
+
+        for (String domainName : domainNames) {
+
+            if (zmsDomainList.contains(domainName)) {
+                LOGGER.error("Unable to fetch domain {} from ZMS", domainName);
+                continue;
+            }
+
+            if (getCacheStore().getIfPresent(domainName) != null) {
+                LOGGER.info("Removing local domain: {}. Domain deleted in ZMS.", domainName);
+                deleteDomain(domainName);
+            }
+            processedDomains.add(domainName);
+        }
+    }
+
+    boolean isDomainUpdatePollRequired() {
+
+        // if we're not receiving domain changes or the stream is
+        // lagging then we need to poll for the updates every time
+
+        if (domainChangeProcessor == null || domainChangeProcessor.isLagging()) {
+            return true;
+        }
+        return System.currentTimeMillis() - lastUpdateRunTime > domainChangePollRefreshTime * 1000;
+    }
+
     void processDomainChecks() {
         if (jwsDomainSupport) {
             processJWSDomainChecks();
@@ -1089,6 +1495,12 @@ public class DataStore implements DataCacheProvider, RolesProvider {
             groupMembers.add(member);
         }
 
+        // the group membership of our updated and new members might
+        // have changed so their principal roles entries are no longer valid
+
+        updatePrincipalGroupVersions(updMembers);
+        updatePrincipalGroupVersions(newMembers);
+
         // process deleted members from the group
 
         processGroupDeletedMembers(group.getName(), delMembers);
@@ -1109,6 +1521,26 @@ public class DataStore implements DataCacheProvider, RolesProvider {
             }
             groupMembers.removeIf(item -> item.getGroupName().equalsIgnoreCase(groupName));
         }
+
+        updatePrincipalGroupVersions(deletedMembers);
+    }
+
+    void updatePrincipalGroupVersions(List<GroupMember> members) {
+
+        // we only need to track the versions if the principal roles
+        // index is enabled
+
+        if (principalRolesCacheMaxSize <= 0) {
+            return;
+        }
+
+        for (GroupMember member : members) {
+            principalGroupVersions.merge(member.getMemberName(), 1L, Long::sum);
+        }
+    }
+
+    long getPrincipalGroupVersion(final String principal) {
+        return principalGroupVersions.getOrDefault(principal, 0L);
     }
 
     void processGroupDelete(Group group) {
@@ -1408,6 +1840,11 @@ public class DataStore implements DataCacheProvider, RolesProvider {
 
     // Internal
     void removePublicKeys(Map<String, String> publicKeyMap) {
+        removePublicKeys(publicKeyMap, null);
+    }
+
+    // Internal
+    void removePublicKeys(Map<String, String> publicKeyMap, Map<String, String> newPublicKeyMap) {
 
         if (publicKeyMap == null || publicKeyMap.isEmpty()) {
             return;
@@ -1415,6 +1852,13 @@ public class DataStore implements DataCacheProvider, RolesProvider {
 
         for (Map.Entry<String, String> entry : publicKeyMap.entrySet()) {
             publicKeyCache.remove(entry.getKey());
+
+            // drop the parsed key from the shared key cache unless
+            // the same key value is being added back for the service
+
+            if (newPublicKeyMap == null || !entry.getValue().equals(newPublicKeyMap.get(entry.getKey()))) {
+                PublicKeyCache.invalidate(entry.getValue());
+            }
         }
     }
 
@@ -1439,7 +1883,7 @@ public class DataStore implements DataCacheProvider, RolesProvider {
         try {
             pkeyWLock.lock();
             if (oldDataCache != null) {
-                removePublicKeys(oldDataCache.getPublicKeyMap());
+                removePublicKeys(oldDataCache.getPublicKeyMap(), dataCache.getPublicKeyMap());
             }
             addPublicKeys(dataCache.getPublicKeyMap());
         } finally {
@@ -1457,7 +1901,13 @@ public class DataStore implements DataCacheProvider, RolesProvider {
 
         /* update the cache for the given domain */
 
+        updateTrustingDomains(name, oldDataCache, dataCache);
         getCacheStore().put(name, dataCache);
+
+        /* the domains that trust this domain must rebuild their
+         * principal roles index with our updated data */
+
+        invalidateTrustingDomains(name);
     }
 
     // Internal
@@ -1485,7 +1935,50 @@ public class DataStore implements DataCacheProvider, RolesProvider {
             pkeyWLock.unlock();
         }
 
+        updateTrustingDomains(name, data, null);
         getCacheStore().invalidate(name);
+        invalidateTrustingDomains(name);
+    }
+
+    void updateTrustingDomains(final String domainName, DataCache oldDataCache, DataCache newDataCache) {
+
+        if (principalRolesCacheMaxSize <= 0) {
+            return;
+        }
+
+        // remove the domain from the trusting set of the domains it used
+        // to trust and then add it to the ones it currently trusts
+
+        if (oldDataCache != null) {
+            for (String trustedDomain : oldDataCache.getTrustMap().keySet()) {
+                Set<String> trustingDomains = trustingDomainsCache.get(trustedDomain);
+                if (trustingDomains != null) {
+                    trustingDomains.remove(domainName);
+                }
+            }
+        }
+
+        if (newDataCache != null) {
+            for (String trustedDomain : newDataCache.getTrustMap().keySet()) {
+                trustingDomainsCache.computeIfAbsent(trustedDomain, k -> ConcurrentHashMap.newKeySet())
+                        .add(domainName);
+            }
+        }
+    }
+
+    void invalidateTrustingDomains(final String domainName) {
+
+        Set<String> trustingDomains = trustingDomainsCache.get(domainName);
+        if (trustingDomains == null) {
+            return;
+        }
+
+        for (String trustingDomain : trustingDomains) {
+            DataCache data = getCacheStore().getIfPresent(trustingDomain);
+            if (data != null) {
+                data.invalidatePrincipalRoles();
+            }
+        }
     }
 
     // Internal
@@ -1660,6 +2153,21 @@ public class DataStore implements DataCacheProvider, RolesProvider {
 
         final String rolePrefix = domainName + ROLE_POSTFIX;
 
+        /* if the principal roles index is enabled then we only need to
+         * filter the roles from the principal's entry. group and trust
+         * roles are always matched without the full name match option */
+
+        if (principalRolesCacheMaxSize > 0) {
+            PrincipalRoles principalRoles = getPrincipalRoles(data, domainName, identity);
+            for (String role : principalRoles.getStandardRoles()) {
+                addRoleToList(role, rolePrefix, requestedRoleList, fullNameMatch, accessibleRoles, keepFullName);
+            }
+            for (String role : principalRoles.getExtendedRoles()) {
+                addRoleToList(role, rolePrefix, requestedRoleList, false, accessibleRoles, keepFullName);
+            }
+            return;
+        }
+
         /* first look through the members to see if the given identity is
          * included in the list explicitly */
 
@@ -1672,17 +2180,12 @@ public class DataStore implements DataCacheProvider, RolesProvider {
         processStandardMembership(data.getAllMemberRoleSet(),
                 rolePrefix, requestedRoleList, fullNameMatch, accessibleRoles, keepFullName);
 
-        /* then look at the prefix wildcard roles. in this map
-         * we only process those where the key in the map is
-         * a prefix of our identity */
+        /* then look at the prefix wildcard roles. the prefix trie
+         * only returns the roles for those members whose prefix
+         * matches our identity */
 
-        Map<String, Set<MemberRole>> roleSetMap = data.getPrefixMemberRoleSetMap();
-        for (String identityPrefix : roleSetMap.keySet()) {
-            if (identity.startsWith(identityPrefix)) {
-                processStandardMembership(roleSetMap.get(identityPrefix),
-                        rolePrefix, requestedRoleList, fullNameMatch, accessibleRoles, keepFullName);
-            }
-        }
+        processStandardMembership(data.getPrefixMemberRoleSet(identity),
+                rolePrefix, requestedRoleList, fullNameMatch, accessibleRoles, keepFullName);
 
         // now process our group membership
 
@@ -1694,6 +2197,102 @@ public class DataStore implements DataCacheProvider, RolesProvider {
                 accessibleRoles, keepFullName);
     }
 
+    PrincipalRoles getPrincipalRoles(DataCache data, final String domainName, final String identity) {
+
+        // we must obtain our versions before building the entry so if
+        // the domain or group data is updated while we're processing
+        // the request, the entry will not be used for the next request
+
+        final long currentTime = System.currentTimeMillis();
+        final long indexVersion = data.getPrincipalRolesVersion();
+        final long groupVersion = getPrincipalGroupVersion(identity);
+
+        PrincipalRoles principalRoles = data.getPrincipalRoles(identity);
+        if (principalRoles != null && principalRoles.isValid(currentTime, indexVersion, groupVersion)) {
+            return principalRoles;
+        }
+
+        // build the entry using the standard processing methods without
+        // any requested role filters and keeping the full role names
+
+        final String rolePrefix = domainName + ROLE_POSTFIX;
+
+        Set<String> standardRoles = new HashSet<>();
+        processStandardMembership(data.getMemberRoleSet(identity), rolePrefix, null, false, standardRoles, true);
+        processStandardMembership(data.getAllMemberRoleSet(), rolePrefix, null, false, standardRoles, true);
+        processStandardMembership(data.getPrefixMemberRoleSet(identity), rolePrefix, null, false, standardRoles, true);
+
+        Set<String> extendedRoles = new HashSet<>();
+        processGroupMembership(data, identity, rolePrefix, null, null, extendedRoles, true);
+        processTrustMembership(data, identity, rolePrefix, null, extendedRoles, true);
+
+        principalRoles = new PrincipalRoles(standardRoles, extendedRoles,
+                getPrincipalRolesExpiryTime(data, identity, currentTime), indexVersion, groupVersion);
+        data.setPrincipalRoles(identity, principalRoles, principalRolesCacheMaxSize);
+        return principalRoles;
+    }
+
+    long getPrincipalRolesExpiryTime(DataCache data, final String identity, long currentTime) {
+
+        // the entry is valid until the first expiry of any member
+        // that was considered when building the entry. we include
+        // all candidates even if they didn't grant any roles
+
+        List<GroupMember> groupMembers = principalGroupCache.getIfPresent(identity);
+        long expiryTime = getMemberExpiryTime(data, identity, groupMembers, currentTime, Long.MAX_VALUE);
+
+        for (String trustedDomain : data.getTrustMap().keySet()) {
+            DataCache trustData = getCacheStore().getIfPresent(trustedDomain);
+            if (trustData != null) {
+                expiryTime = getMemberExpiryTime(trustData, identity, groupMembers, currentTime, expiryTime);
+            }
+        }
+
+        if (groupMembers != null) {
+            for (GroupMember member : groupMembers) {
+                Timestamp expiration = member.getExpiration();
+                if (expiration != null && expiration.millis() >= currentTime && expiration.millis() < expiryTime) {
+                    expiryTime = expiration.millis();
+                }
+            }
+        }
+
+        return expiryTime;
+    }
+
+    long getMemberExpiryTime(DataCache data, final String identity, List<GroupMember> groupMembers,
+            long currentTime, long expiryTime) {
+
+        expiryTime = getMemberRolesExpiryTime(data.getMemberRoleSet(identity), currentTime, expiryTime);
+        expiryTime = getMemberRolesExpiryTime(data.getAllMemberRoleSet(), currentTime, expiryTime);
+        expiryTime = getMemberRolesExpiryTime(data.getPrefixMemberRoleSet(identity), currentTime, expiryTime);
+
+        if (groupMembers != null) {
+            for (GroupMember member : groupMembers) {
+                expiryTime = getMemberRolesExpiryTime(data.getMemberRoleSet(member.getGroupName()),
+                        currentTime, expiryTime);
+            }
+        }
+
+        return expiryTime;
+    }
+
+    long getMemberRolesExpiryTime(Set<MemberRole> memberRoles, long currentTime, long expiryTime) {
+
+        if (memberRoles == null) {
+            return expiryTime;
+        }
+
+        for (MemberRole memberRole : memberRoles) {
+            long expiration = memberRole.getExpiration();
+            if (expiration != 0 && expiration >= currentTime && expiration < expiryTime) {
+                expiryTime = expiration;
+            }
+        }
+
+        return expiryTime;
+    }
+
     // Internal
     boolean checkRoleSet(String role, Set<String> checkSet) {
 
@@ -1751,7 +2350,6 @@ public class DataStore implements DataCacheProvider, RolesProvider {
     // Internal
     boolean roleMatchInSet(String role, Set<MemberRole> memberRoles) {
 
-        String rolePattern;
         long currentTime = System.currentTimeMillis();
         for (MemberRole memberRole : memberRoles) {
 
@@ -1763,19 +2361,11 @@ public class DataStore implements DataCacheProvider, RolesProvider {
                 continue;
             }
 
-            // if the role does not contain any of our pattern
-            // characters then we can just a regular compare
+            // the member role uses its precompiled matcher if the
+            // role contains any of our pattern characters
 
-            final String roleName = memberRole.getRole();
-            if (StringUtils.containsMatchCharacter(roleName)) {
-                rolePattern = StringUtils.patternFromGlob(roleName);
-                if (role.matches(rolePattern)) {
-                    return true;
-                }
-            } else {
-                if (role.equals(roleName)) {
-                    return true;
-                }
+            if (memberRole.matches(role)) {
+                return true;
             }
         }
 
@@ -1843,18 +2433,15 @@ public class DataStore implements DataCacheProvider, RolesProvider {
          * but we need to first confirm that our identity
          * matches to member before processing it */
 
-        Map<String, Set<MemberRole>> roleSetMap = trustData.getPrefixMemberRoleSetMap();
-        for (String identityPrefix : roleSetMap.keySet()) {
-            if (identity.startsWith(identityPrefix)) {
+        memberRoles = trustData.getPrefixMemberRoleSet(identity);
+        if (!memberRoles.isEmpty()) {
 
-                memberRoles = roleSetMap.get(identityPrefix);
-                for (String resource : trustedResources) {
+            for (String resource : trustedResources) {
 
-                    /* in this case our resource is the role name */
+                /* in this case our resource is the role name */
 
-                    processSingleTrustedDomainRole(resource, rolePrefix, requestedRoleList,
-                            memberRoles, accessibleRoles, keepFullName);
-                }
+                processSingleTrustedDomainRole(resource, rolePrefix, requestedRoleList,
+                        memberRoles, accessibleRoles, keepFullName);
             }
         }
 
@@ -1907,6 +2494,37 @@ public class DataStore implements DataCacheProvider, RolesProvider {
         return result;
     }
 
+    synchronized ExecutorService getDomainVerifyThreadPool() {
+
+        // the thread pool is only created once we receive updated domains
+        // from ZMS and the idle threads are released between the polls
+
+        if (domainVerifyThreadPool == null) {
+            final int verifyThreads = Math.max(1, domainVerifyThreads);
+            domainVerifyThreadPool = new ThreadPoolExecutor(verifyThreads, verifyThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "zts-domain-verify");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            domainVerifyThreadPool.allowCoreThreadTimeOut(true);
+        }
+        return domainVerifyThreadPool;
+    }
+
+    public void close() {
+        if (domainChangeProcessor != null) {
+            domainChangeProcessor.shutdown();
+        }
+        synchronized (this) {
+            if (domainVerifyThreadPool != null) {
+                domainVerifyThreadPool.shutdownNow();
+                domainVerifyThreadPool = null;
+            }
+        }
+        changeLogStore.close();
+    }
+
     public CloudStore getCloudStore() {
         return cloudStore;
     }
@@ -1945,49 +2563,60 @@ public class DataStore implements DataCacheProvider, RolesProvider {
         @Override
         public void run() {
 
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("DataUpdater: Starting data updater thread...");
-            }
+            // make sure the domain change processor is not updating
+            // the domains while we're processing our updates
 
-            try {
-                processDomainUpdates();
-            } catch (Throwable t) {
-                LOGGER.error("DataUpdater: unable to process domain updates", t);
-            }
+            synchronized (DataStore.this) {
 
-            try {
-                // check to see if we need to handle our delete domain list -
-                // make sure refresh time is converted to millis
-
-                if (System.currentTimeMillis() - lastDeleteRunTime > delDomainRefreshTime * 1000) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("DataUpdater: Starting data updater thread...");
+                }
 
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("DataUpdater: Processing domain delete checks...");
+                try {
+                    if (isDomainUpdatePollRequired()) {
+                        if (processDomainUpdates() && domainChangeProcessor != null) {
+                            domainChangeProcessor.clearFetchFailure();
+                        }
+                        lastUpdateRunTime = System.currentTimeMillis();
                     }
+                } catch (Throwable t) {
+                    LOGGER.error("DataUpdater: unable to process domain updates", t);
+                }
 
-                    processDomainDeletes();
-                    lastDeleteRunTime = System.currentTimeMillis();
+                try {
+                    // check to see if we need to handle our delete domain list -
+                    // make sure refresh time is converted to millis
+
+                    if (System.currentTimeMillis() - lastDeleteRunTime > delDomainRefreshTime * 1000) {
+
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug("DataUpdater: Processing domain delete checks...");
+                        }
+
+                        processDomainDeletes();
+                        lastDeleteRunTime = System.currentTimeMillis();
+                    }
+                } catch (Throwable t) {
+                    LOGGER.error("DataUpdater: unable to process domain deletes", t);
                 }
-            } catch (Throwable t) {
-                LOGGER.error("DataUpdater: unable to process domain deletes", t);
-            }
 
-            try {
-                // check to see if we need to handle our check our domain list -
-                // make sure refresh time is converted to millis
+                try {
+                    // check to see if we need to handle our check our domain list -
+                    // make sure refresh time is converted to millis
 
-                if (System.currentTimeMillis() - lastCheckRunTime > checkDomainRefreshTime * 1000) {
+                    if (System.currentTimeMillis() - lastCheckRunTime > checkDomainRefreshTime * 1000) {
 
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("DataUpdater: Processing domain modification timestamp checks...");
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug("DataUpdater: Processing domain modification timestamp checks...");
+                        }
+
+                        processDomainChecks();
+                        lastCheckRunTime = System.currentTimeMillis();
                     }
 
-                    processDomainChecks();
-                    lastCheckRunTime = System.currentTimeMillis();
+                } catch (Throwable t) {
+                    LOGGER.error("DataUpdater: unable to process domain checks", t);
                 }
-
-            } catch (Throwable t) {
-                LOGGER.error("DataUpdater: unable to process domain checks", t);
             }
         }
     }
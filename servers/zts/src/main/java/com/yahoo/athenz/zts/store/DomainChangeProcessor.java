@@ -0,0 +1,203 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zts.store;
+
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import com.yahoo.athenz.common.messaging.DomainChangeMessage;
+import com.yahoo.athenz.common.metrics.Metric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Processes the domain change messages published by ZMS. The messages
+ * only carry the domain name so multiple changes for the same domain
+ * received within the processing interval are coalesced into a single
+ * fetch of that domain. The processor keeps track of how far behind the
+ * stream is so the data store can fall back to polling ZMS for updates
+ * if messages are delayed, the stream has stopped delivering messages
+ * or the domain fetches are failing.
+ */
+public class DomainChangeProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainChangeProcessor.class);
+
+    private final List<ChangeSubscriber<DomainChangeMessage>> subscribers;
+    private final Function<List<String>, Set<String>> domainFetcher;
+    private final Metric metric;
+    private final long processInterval;
+    private final long maxLag;
+
+    // domain name -> publish time of the oldest pending change for the domain
+
+    final Map<String, Long> pendingDomains = new ConcurrentHashMap<>();
+
+    private ExecutorService subscriberExecutor;
+    private ScheduledExecutorService processExecutor;
+    volatile long lastMessagePublished;
+    volatile boolean fetchFailure = false;
+
+    /**
+     * Create a new domain change processor
+     * @param subscribers list of change subscribers
+     * @param domainFetcher function to fetch and process the given list of domains from ZMS.
+     *      It returns the set of domains that were successfully processed
+     * @param metric metric object to report message counts and propagation latency
+     * @param processInterval interval in milliseconds to process pending domains
+     * @param maxLag max lag in milliseconds before the stream is considered lagging
+     */
+    public DomainChangeProcessor(List<ChangeSubscriber<DomainChangeMessage>> subscribers,
+            Function<List<String>, Set<String>> domainFetcher, Metric metric, long processInterval, long maxLag) {
+        this.subscribers = subscribers;
+        this.domainFetcher = domainFetcher;
+        this.metric = metric;
+        this.processInterval = processInterval;
+        this.maxLag = maxLag;
+        this.lastMessagePublished = System.currentTimeMillis();
+    }
+
+    public void start() {
+
+        for (ChangeSubscriber<DomainChangeMessage> subscriber : subscribers) {
+            subscriber.init(this::processMessage, DomainChangeMessage.class);
+        }
+
+        if (!subscribers.isEmpty()) {
+            subscriberExecutor = Executors.newFixedThreadPool(subscribers.size());
+            subscribers.forEach(subscriberExecutor::submit);
+        }
+
+        processExecutor = Executors.newScheduledThreadPool(1);
+        processExecutor.scheduleWithFixedDelay(this::processPendingDomains, processInterval,
+                processInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        for (ChangeSubscriber<DomainChangeMessage> subscriber : subscribers) {
+            try {
+                subscriber.close();
+            } catch (Exception ex) {
+                LOGGER.error("unable to close domain change subscriber", ex);
+            }
+        }
+        if (subscriberExecutor != null) {
+            subscriberExecutor.shutdownNow();
+        }
+        if (processExecutor != null) {
+            processExecutor.shutdownNow();
+        }
+    }
+
+    void processMessage(DomainChangeMessage message) {
+
+        final String domainName = message.getDomainName();
+        if (domainName == null || domainName.isEmpty()) {
+            return;
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("received domain change message: domain={}, object={}:{}, api={}", domainName,
+                    message.getObjectType(), message.getObjectName(), message.getApiName());
+        }
+
+        // keep track of the oldest change for the domain so that we can
+        // report the full propagation latency once the domain is updated
+
+        final long published = message.getPublished() > 0 ? message.getPublished() : System.currentTimeMillis();
+        pendingDomains.merge(domainName, published, Math::min);
+        lastMessagePublished = published;
+        metric.increment("domain_change_messages");
+    }
+
+    void processPendingDomains() {
+
+        if (pendingDomains.isEmpty()) {
+            return;
+        }
+
+        // remove the domains before fetching them so any changes received
+        // while we're processing the domains are picked up in the next run
+
+        Map<String, Long> changes = new HashMap<>();
+        for (String domainName : new ArrayList<>(pendingDomains.keySet())) {
+            changes.put(domainName, pendingDomains.remove(domainName));
+        }
+
+        Set<String> processedDomains;
+        try {
+            processedDomains = domainFetcher.apply(new ArrayList<>(changes.keySet()));
+        } catch (Exception ex) {
+            LOGGER.error("unable to process domain changes for {}", changes.keySet(), ex);
+            processedDomains = Collections.emptySet();
+        }
+
+        boolean failure = false;
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> change : changes.entrySet()) {
+
+            final String domainName = change.getKey();
+            if (!processedDomains.contains(domainName)) {
+                failure = true;
+                continue;
+            }
+
+            // report the latency from the time the change was published
+            // by ZMS and not when we received the message
+
+            final long latency = Math.max(0, now - change.getValue());
+            metric.increment("domain_change_updates");
+            metric.recordLatency("domain_change_propagation_time", latency);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Processed domain change for {} in {} ms", domainName, latency);
+            }
+        }
+
+        // once we fail to fetch a domain, the change is only going to be
+        // picked up by the data store polling ZMS so the failure is cleared
+        // after the next successful poll and not by later domain fetches
+
+        if (failure) {
+            fetchFailure = true;
+        }
+    }
+
+    /**
+     * Check if the change stream is lagging - either the last received
+     * message was published more than the max lag ago (including the case
+     * where no messages have been received since), or we were not able to
+     * fetch some of the changed domains from ZMS. In this case we should
+     * fall back to polling ZMS for the domain updates.
+     * @return true if the stream is lagging
+     */
+    public boolean isLagging() {
+        return fetchFailure || System.currentTimeMillis() - lastMessagePublished > maxLag;
+    }
+
+    /**
+     * Clear the domain fetch failure state once the data store has
+     * successfully polled ZMS for all the domain updates
+     */
+    public void clearFetchFailure() {
+        fetchFailure = false;
+    }
+
+    public int getPendingDomainCount() {
+        return pendingDomains.size();
+    }
+}
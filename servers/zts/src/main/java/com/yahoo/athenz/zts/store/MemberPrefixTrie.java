@@ -0,0 +1,100 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zts.store;
+
+import java.util.*;
+
+/**
+ * Character based prefix trie for wildcard role members (e.g. user.joe*
+ * or sports.api*). Unlike RolePrefixTrie, which matches on domain name
+ * components, the values of a prefix are returned for any text that
+ * starts with that prefix - the same result as text.startsWith(prefix).
+ * The trie is not synchronized since it's fully built when the domain
+ * data cache is created and only read afterwards.
+ */
+public class MemberPrefixTrie<T> implements PrefixTrie<T> {
+
+    private final TrieNode<T> root = new TrieNode<>();
+
+    private static class TrieNode<T> {
+        private final HashMap<Character, TrieNode<T>> children = new HashMap<>();
+        private final Set<T> values = new HashSet<>();
+    }
+
+    static String stripWildcard(final String prefix) {
+        return prefix.endsWith("*") ? prefix.substring(0, prefix.length() - 1) : prefix;
+    }
+
+    @Override
+    public void insert(String prefix, T value) {
+        prefix = stripWildcard(prefix);
+        TrieNode<T> current = root;
+        for (int idx = 0; idx < prefix.length(); idx++) {
+            current = current.children.computeIfAbsent(prefix.charAt(idx), c -> new TrieNode<>());
+        }
+        current.values.add(value);
+    }
+
+    @Override
+    public void delete(String prefix, T value) {
+        delete(root, stripWildcard(prefix), value, 0);
+    }
+
+    private boolean delete(TrieNode<T> current, final String prefix, T value, int index) {
+        if (index == prefix.length()) {
+            current.values.remove(value);
+            return current.values.isEmpty() && current.children.isEmpty();
+        }
+        final char c = prefix.charAt(index);
+        TrieNode<T> node = current.children.get(c);
+        if (node == null) {
+            return false;
+        }
+        if (delete(node, prefix, value, index + 1)) {
+            current.children.remove(c);
+            return current.values.isEmpty() && current.children.isEmpty();
+        }
+        return false;
+    }
+
+    @Override
+    public Set<T> findMatchingValues(String text) {
+
+        Set<T> values = null;
+        TrieNode<T> current = root;
+        for (int idx = 0; current != null; idx++) {
+            if (!current.values.isEmpty()) {
+                if (values == null) {
+                    values = new HashSet<>();
+                }
+                values.addAll(current.values);
+            }
+            if (idx == text.length()) {
+                break;
+            }
+            current = current.children.get(text.charAt(idx));
+        }
+        return values == null ? Collections.emptySet() : values;
+    }
+
+    /**
+     * Check if the trie has any prefixes
+     * @return true if the trie has no values
+     */
+    public boolean isEmpty() {
+        return root.values.isEmpty() && root.children.isEmpty();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zts.store;
+
+import com.yahoo.athenz.common.metrics.impl.NoOpMetric;
+import com.yahoo.athenz.common.server.store.ChangeLogStore;
+import com.yahoo.athenz.zms.*;
+import com.yahoo.athenz.zms.Group;
+import com.yahoo.athenz.zts.cache.DataCache;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.yahoo.athenz.common.ServerCommonConsts.PROP_ATHENZ_CONF;
+
+/**
+ * Compares the role lookup for token requests with and without the
+ * principal roles index for a domain with the given number of members.
+ * Members are spread across standard roles and groups, and the domain
+ * also has wildcard, prefix and trusted domain roles so all the lookup
+ * paths are exercised. The index is warmed before the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrincipalRolesBenchmark {
+
+    private static final String DOMAIN_NAME = "benchmark";
+    private static final String TENANT_DOMAIN_NAME = "benchmark-tenant";
+    private static final int ROLE_COUNT = 50;
+    private static final int GROUP_COUNT = 50;
+    private static final int PRINCIPAL_SAMPLE_SIZE = 1024;
+
+    @Param({"10000", "100000"})
+    public int memberCount;
+
+    @Param({"false", "true"})
+    public boolean indexEnabled;
+
+    private DataStore store;
+    private DataCache data;
+    private String[] principals;
+    private final String[] requestedRoles = { "role1" };
+    private int principalIndex = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        System.setProperty(PROP_ATHENZ_CONF, "src/test/resources/athenz.conf");
+
+        store = new DataStore(Mockito.mock(ChangeLogStore.class), null, new NoOpMetric());
+        store.principalRolesCacheMaxSize = indexEnabled ? memberCount : 0;
+
+        store.processDomainData(generateTenantDomain());
+        store.processDomainData(generateDomain());
+        data = store.getDataCache(DOMAIN_NAME);
+
+        Random random = new Random(1);
+        principals = new String[PRINCIPAL_SAMPLE_SIZE];
+        for (int i = 0; i < PRINCIPAL_SAMPLE_SIZE; i++) {
+            principals[i] = "user.user" + random.nextInt(memberCount);
+        }
+
+        for (String principal : principals) {
+            getAccessibleRoles(principal, null);
+        }
+    }
+
+    @Benchmark
+    public Set<String> getAccessibleRoles() {
+        return getAccessibleRoles(nextPrincipal(), null);
+    }
+
+    @Benchmark
+    public Set<String> getAccessibleRolesRequestedRole() {
+        return getAccessibleRoles(nextPrincipal(), requestedRoles);
+    }
+
+    private String nextPrincipal() {
+        principalIndex = (principalIndex + 1) % PRINCIPAL_SAMPLE_SIZE;
+        return principals[principalIndex];
+    }
+
+    private Set<String> getAccessibleRoles(final String principal, String[] requestedRoleList) {
+        Set<String> roles = new HashSet<>();
+        store.getAccessibleRoles(data, DOMAIN_NAME, principal, requestedRoleList, false, roles, false);
+        return roles;
+    }
+
+    private DomainData generateDomain() {
+
+        // half of the members are split across the standard roles and the
+        // other half across the groups that are members of the other roles
+
+        final int roleMemberCount = memberCount / 2;
+        List<Role> roles = new ArrayList<>();
+        for (int i = 0; i < ROLE_COUNT; i++) {
+            roles.add(new Role().setName(DOMAIN_NAME + ":role.role" + i).setRoleMembers(new ArrayList<>()));
+        }
+        for (int i = 0; i < roleMemberCount; i++) {
+            roles.get(i % ROLE_COUNT).getRoleMembers()
+                    .add(new RoleMember().setMemberName("user.user" + i));
+        }
+
+        List<Group> groups = new ArrayList<>();
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            final String groupName = DOMAIN_NAME + ":group.group" + i;
+            groups.add(new Group().setName(groupName).setGroupMembers(new ArrayList<>()));
+            roles.get((i + 1) % ROLE_COUNT).getRoleMembers().add(new RoleMember().setMemberName(groupName));
+        }
+        for (int i = roleMemberCount; i < memberCount; i++) {
+            Group group = groups.get(i % GROUP_COUNT);
+            group.getGroupMembers().add(new GroupMember().setMemberName("user.user" + i)
+                    .setGroupName(group.getName()));
+        }
+
+        roles.add(new Role().setName(DOMAIN_NAME + ":role.everyone")
+                .setRoleMembers(Collections.singletonList(new RoleMember().setMemberName("*"))));
+        roles.add(new Role().setName(DOMAIN_NAME + ":role.users")
+                .setRoleMembers(Collections.singletonList(new RoleMember().setMemberName("user.user1*"))));
+        roles.add(new Role().setName(DOMAIN_NAME + ":role.tenant.readers").setTrust(TENANT_DOMAIN_NAME));
+
+        return new DomainData().setName(DOMAIN_NAME).setRoles(roles).setGroups(groups);
+    }
+
+    private DomainData generateTenantDomain() {
+
+        List<RoleMember> members = new ArrayList<>();
+        for (int i = 0; i < memberCount; i += 10) {
+            members.add(new RoleMember().setMemberName("user.user" + i));
+        }
+        Role role = new Role().setName(TENANT_DOMAIN_NAME + ":role.readers").setRoleMembers(members);
+
+        Assertion assertion = new Assertion().setResource(DOMAIN_NAME + ":role.tenant.readers")
+                .setAction("assume_role").setRole(role.getName()).setEffect(AssertionEffect.ALLOW);
+        Policy policy = new Policy().setName(TENANT_DOMAIN_NAME + ":policy.tenancy")
+                .setAssertions(Collections.singletonList(assertion));
+        SignedPolicies signedPolicies = new SignedPolicies().setContents(new DomainPolicies()
+                .setDomain(TENANT_DOMAIN_NAME).setPolicies(Collections.singletonList(policy)));
+
+        return new DomainData().setName(TENANT_DOMAIN_NAME).setRoles(Collections.singletonList(role))
+                .setPolicies(signedPolicies);
+    }
+}
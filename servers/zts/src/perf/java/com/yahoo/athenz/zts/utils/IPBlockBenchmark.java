@@ -0,0 +1,98 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zts.utils;
+
+import com.yahoo.athenz.common.server.msd.net.InetPrefixTrie;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the client ip address check against the given number of
+ * CIDR blocks using the linear scan over the IPBlock list and the
+ * prefix trie. Half of the addresses are included in one of the blocks
+ * and the other half are random addresses that are most likely not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IPBlockBenchmark {
+
+    private static final int ADDRESS_SAMPLE_SIZE = 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int blockCount;
+
+    private List<IPBlock> ipBlocks;
+    private InetPrefixTrie<Boolean> ipBlockTrie;
+    private String[] addresses;
+    private int addressIndex = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        Random random = new Random(1);
+        ipBlocks = new ArrayList<>();
+        ipBlockTrie = new InetPrefixTrie<>();
+        int[] subnets = new int[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            final int length = 16 + random.nextInt(13);
+            subnets[i] = random.nextInt() & (int) (0xFFFFFFFFL << (32 - length));
+            final String cidr = toAddress(subnets[i]) + "/" + length;
+            ipBlocks.add(new IPBlock(cidr));
+            ipBlockTrie.put(cidr, Boolean.TRUE);
+        }
+
+        addresses = new String[ADDRESS_SAMPLE_SIZE];
+        for (int i = 0; i < ADDRESS_SAMPLE_SIZE; i++) {
+            final int address = (i % 2 == 0) ? subnets[random.nextInt(blockCount)] | (random.nextInt() & 0xF)
+                    : random.nextInt();
+            addresses[i] = toAddress(address);
+        }
+    }
+
+    @Benchmark
+    public boolean ipBlockList() {
+        final long ipAddr = IPBlock.convertIPToLong(nextAddress());
+        for (IPBlock ipBlock : ipBlocks) {
+            if (ipBlock.ipCheck(ipAddr)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean ipBlockTrie() {
+        return ipBlockTrie.contains(nextAddress());
+    }
+
+    private String nextAddress() {
+        addressIndex = (addressIndex + 1) % ADDRESS_SAMPLE_SIZE;
+        return addresses[addressIndex];
+    }
+
+    private static String toAddress(int address) {
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "."
+                + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+}
@@ -8155,6 +8155,57 @@ public class ZTSImplTest {
         }
     }
 
+    @Test
+    public void testGetSignedDomainPolicyDataCache() {
+
+        ChangeLogStore structStore = new ZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                privateKey, "0");
+
+        DataStore store = new DataStore(structStore, null, ztsMetric);
+
+        ZTSImpl ztsImpl = new ZTSImpl(mockCloudStore, store);
+        ZTSImpl.serverHostName = "localhost";
+
+        SignedDomain signedDomain = createSignedDomain("coretech", "weather", "storage", true);
+        store.processSignedDomain(signedDomain, false);
+
+        Principal principal = SimplePrincipal.create("user_domain", "user",
+                "v=U1;d=user_domain;n=user;s=signature", 0, null);
+        ResourceContext context = createResourceContext(principal);
+
+        // the second request must return the same signed object
+
+        Response response = ztsImpl.getDomainSignedPolicyData(context, "coretech", null);
+        DomainSignedPolicyData policyData1 = (DomainSignedPolicyData) response.getEntity();
+        response = ztsImpl.getDomainSignedPolicyData(context, "coretech", null);
+        DomainSignedPolicyData policyData2 = (DomainSignedPolicyData) response.getEntity();
+        assertSame(policyData1, policyData2);
+
+        // once the domain is processed again we must get a new signed object
+
+        signedDomain = createSignedDomain("coretech", "weather", "storage", true);
+        store.processSignedDomain(signedDomain, false);
+
+        response = ztsImpl.getDomainSignedPolicyData(context, "coretech", null);
+        DomainSignedPolicyData policyData3 = (DomainSignedPolicyData) response.getEntity();
+        assertNotSame(policyData1, policyData3);
+        assertSame(policyData3, ztsImpl.getDomainSignedPolicyData(context, "coretech", null).getEntity());
+
+        // with the cache timeout disabled the server neither returns
+        // nor saves signed objects and does not report any cache metrics
+
+        ztsImpl.metric = Mockito.mock(Metric.class);
+        ztsImpl.signedPolicyCacheTimeout = 0;
+        response = ztsImpl.getDomainSignedPolicyData(context, "coretech", null);
+        DomainSignedPolicyData policyData4 = (DomainSignedPolicyData) response.getEntity();
+        assertNotSame(policyData3, policyData4);
+        assertNotSame(policyData4, ztsImpl.getDomainSignedPolicyData(context, "coretech", null).getEntity());
+        Mockito.verify(ztsImpl.metric, Mockito.never()).increment(Mockito.eq("signed_policy_cache_hit"),
+                Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(ztsImpl.metric, Mockito.never()).increment(Mockito.eq("signed_policy_cache_miss"),
+                Mockito.anyString(), Mockito.anyString());
+    }
+
     @Test
     public void testGetSignedDomainPolicyDataNoChanges() {
 
@@ -13234,6 +13285,67 @@ public class ZTSImplTest {
         }
     }
 
+    @Test
+    public void testPostSignedPolicyRequestCache() {
+
+        ChangeLogStore structStore = new ZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                privateKey, "0");
+
+        DataStore store = new DataStore(structStore, null, ztsMetric);
+
+        ZTSImpl ztsImpl = new ZTSImpl(mockCloudStore, store);
+        ZTSImpl.serverHostName = "localhost";
+
+        SignedDomain signedDomain = createSignedDomain("coretech", "weather", "storage", true);
+        store.processSignedDomain(signedDomain, false);
+
+        Principal principal = SimplePrincipal.create("user_domain", "user",
+                "v=U1;d=user_domain;n=user;s=signature", 0, null);
+        ResourceContext context = createResourceContext(principal);
+
+        // requests for active policies are cached per signature format
+
+        SignedPolicyRequest signedPolicyRequest = new SignedPolicyRequest();
+        signedPolicyRequest.setPolicyVersions(Collections.emptyMap());
+        JWSPolicyData jwsPolicyData1 = (JWSPolicyData) ztsImpl.postSignedPolicyRequest(context, "coretech",
+                signedPolicyRequest, null).getEntity();
+        JWSPolicyData jwsPolicyData2 = (JWSPolicyData) ztsImpl.postSignedPolicyRequest(context, "coretech",
+                signedPolicyRequest, null).getEntity();
+        assertSame(jwsPolicyData1, jwsPolicyData2);
+
+        signedPolicyRequest.setSignatureP1363Format(true);
+        JWSPolicyData jwsPolicyData3 = (JWSPolicyData) ztsImpl.postSignedPolicyRequest(context, "coretech",
+                signedPolicyRequest, null).getEntity();
+        assertNotSame(jwsPolicyData1, jwsPolicyData3);
+        assertSame(jwsPolicyData3, ztsImpl.postSignedPolicyRequest(context, "coretech",
+                signedPolicyRequest, null).getEntity());
+
+        // requests for specific policy versions are not cached
+
+        Map<String, String> policyVersions = new HashMap<>();
+        policyVersions.put("policy1", "0");
+        signedPolicyRequest.setPolicyVersions(policyVersions);
+        JWSPolicyData jwsPolicyData4 = (JWSPolicyData) ztsImpl.postSignedPolicyRequest(context, "coretech",
+                signedPolicyRequest, null).getEntity();
+        JWSPolicyData jwsPolicyData5 = (JWSPolicyData) ztsImpl.postSignedPolicyRequest(context, "coretech",
+                signedPolicyRequest, null).getEntity();
+        assertNotSame(jwsPolicyData4, jwsPolicyData5);
+
+        // with the cache disabled active policy requests are not cached
+        // and no cache metrics are reported
+
+        ztsImpl.metric = Mockito.mock(Metric.class);
+        ztsImpl.signedPolicyCacheTimeout = 0;
+        signedPolicyRequest.setPolicyVersions(Collections.emptyMap());
+        JWSPolicyData jwsPolicyData6 = (JWSPolicyData) ztsImpl.postSignedPolicyRequest(context, "coretech",
+                signedPolicyRequest, null).getEntity();
+        assertNotSame(jwsPolicyData3, jwsPolicyData6);
+        Mockito.verify(ztsImpl.metric, Mockito.never()).increment(Mockito.eq("signed_policy_cache_hit"),
+                Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(ztsImpl.metric, Mockito.never()).increment(Mockito.eq("signed_policy_cache_miss"),
+                Mockito.anyString(), Mockito.anyString());
+    }
+
     @Test
     public void testPostSignedPolicyRequestNoChanges() {
 
@@ -268,19 +268,59 @@ public class DataCacheTest {
         assertTrue(set3.contains(new MemberRole("dom.role1", 0)));
         assertEquals(set3.size(), 1);
 
-        Map<String, Set<MemberRole>> setMap = cache.getPrefixMemberRoleSetMap();
-        assertNotNull(setMap);
-        assertEquals(setMap.size(), 2);
-
-        Set<MemberRole> set4 = setMap.get("user_domain.");
+        Set<MemberRole> set4 = cache.getPrefixMemberRoleSet("user_domain.joe");
         assertNotNull(set4);
         assertTrue(set4.contains(new MemberRole("dom.role1", 0)));
         assertEquals(set4.size(), 1);
 
-        Set<MemberRole> set5 = setMap.get("user_domain.user");
+        Set<MemberRole> set5 = cache.getPrefixMemberRoleSet("user_domain.user");
         assertNotNull(set5);
         assertTrue(set5.contains(new MemberRole("dom.role1", 0)));
         assertEquals(set5.size(), 1);
+
+        Set<MemberRole> set6 = cache.getPrefixMemberRoleSet("user_domain.user3");
+        assertEquals(set6.size(), 1);
+        assertTrue(set6.contains(new MemberRole("dom.role1", 0)));
+
+        assertTrue(cache.getPrefixMemberRoleSet("user_domain").isEmpty());
+        assertTrue(cache.getPrefixMemberRoleSet("coretech.api").isEmpty());
+    }
+
+    @Test
+    public void testGetPrefixMemberRoleSet() {
+
+        List<RoleMember> members1 = new ArrayList<>();
+        members1.add(new RoleMember().setMemberName("user_domain.*"));
+        members1.add(new RoleMember().setMemberName("coretech.api*"));
+
+        List<RoleMember> members2 = new ArrayList<>();
+        members2.add(new RoleMember().setMemberName("user_domain.user*"));
+        members2.add(new RoleMember().setMemberName("coretech.api.backend*"));
+
+        DataCache cache = new DataCache();
+        cache.processRoleMembers("dom.role1", members1);
+        cache.processRoleMembers("dom.role2", members2);
+
+        Set<MemberRole> roles = cache.getPrefixMemberRoleSet("user_domain.user1");
+        assertEquals(roles.size(), 2);
+        assertTrue(roles.contains(new MemberRole("dom.role1", 0)));
+        assertTrue(roles.contains(new MemberRole("dom.role2", 0)));
+
+        roles = cache.getPrefixMemberRoleSet("user_domain.joe");
+        assertEquals(roles.size(), 1);
+        assertTrue(roles.contains(new MemberRole("dom.role1", 0)));
+
+        // prefix matches are not limited to domain components
+
+        roles = cache.getPrefixMemberRoleSet("coretech.api_test");
+        assertEquals(roles.size(), 1);
+        assertTrue(roles.contains(new MemberRole("dom.role1", 0)));
+
+        roles = cache.getPrefixMemberRoleSet("coretech.api.backend");
+        assertEquals(roles.size(), 2);
+
+        assertTrue(cache.getPrefixMemberRoleSet("coretech.ap").isEmpty());
+        assertTrue(cache.getPrefixMemberRoleSet("").isEmpty());
     }
 
     @Test
@@ -325,20 +365,21 @@ public class DataCacheTest {
         assertTrue(set4.contains(new MemberRole("dom.role2", 0)));
         assertEquals(set4.size(), 2);
 
-        Map<String, Set<MemberRole>> setMap = cache.getPrefixMemberRoleSetMap();
-        assertNotNull(setMap);
-        assertEquals(setMap.size(), 2);
-
-        Set<MemberRole> set5= setMap.get("user_domain.");
+        Set<MemberRole> set5 = cache.getPrefixMemberRoleSet("user_domain.joe");
         assertNotNull(set5);
         assertTrue(set5.contains(new MemberRole("dom.role1", 0)));
         assertTrue(set5.contains(new MemberRole("dom.role2", 0)));
-        assertEquals(set4.size(), 2);
+        assertEquals(set5.size(), 2);
+
+        // members matching both wildcards get each role only once
 
-        Set<MemberRole> set6 = setMap.get("user_domain.user");
+        Set<MemberRole> set6 = cache.getPrefixMemberRoleSet("user_domain.user5");
         assertNotNull(set6);
         assertTrue(set6.contains(new MemberRole("dom.role1", 0)));
-        assertEquals(set6.size(), 1);
+        assertTrue(set6.contains(new MemberRole("dom.role2", 0)));
+        assertEquals(set6.size(), 2);
+
+        assertTrue(cache.getPrefixMemberRoleSet("coretech.api").isEmpty());
     }
 
     @Test
@@ -1336,5 +1377,53 @@ public class DataCacheTest {
         assertFalse(cache.isWorkloadStoreExcludedProvider("sys.openstack.classic"));
         assertTrue(cache.isWorkloadStoreExcludedProvider("omega.k8s.identity"));
     }
-}
 
+    @Test
+    public void testSignedPolicyCache() {
+
+        DataCache cache = new DataCache();
+        long currentTime = System.currentTimeMillis();
+        assertNull(cache.getSignedPolicy("signed-policy:false:0", currentTime));
+
+        Object signedPolicy = new Object();
+        cache.setSignedPolicy("signed-policy:false:0", signedPolicy, currentTime + 1000);
+        assertSame(cache.getSignedPolicy("signed-policy:false:0", currentTime), signedPolicy);
+        assertNull(cache.getSignedPolicy("signed-policy:true:0", currentTime));
+
+        // expired entries are not returned
+
+        assertNull(cache.getSignedPolicy("signed-policy:false:0", currentTime + 1000));
+    }
+
+    @Test
+    public void testPrincipalRolesCache() {
+
+        DataCache cache = new DataCache();
+        assertNull(cache.getPrincipalRoles("user.user1"));
+        assertEquals(cache.getPrincipalRolesVersion(), 0);
+
+        PrincipalRoles principalRoles1 = new PrincipalRoles(Collections.singleton("coretech:role.readers"),
+                Collections.emptySet(), Long.MAX_VALUE, cache.getPrincipalRolesVersion(), 0);
+        cache.setPrincipalRoles("user.user1", principalRoles1, 2);
+        assertSame(cache.getPrincipalRoles("user.user1"), principalRoles1);
+
+        PrincipalRoles principalRoles2 = new PrincipalRoles(Collections.emptySet(),
+                Collections.singleton("coretech:role.writers"), Long.MAX_VALUE, cache.getPrincipalRolesVersion(), 0);
+        cache.setPrincipalRoles("user.user2", principalRoles2, 2);
+        assertEquals(cache.getPrincipalRolesCount(), 2);
+
+        // adding another entry clears the cache since we've reached our limit
+
+        cache.setPrincipalRoles("user.user3", principalRoles1, 2);
+        assertEquals(cache.getPrincipalRolesCount(), 1);
+        assertNull(cache.getPrincipalRoles("user.user1"));
+        assertSame(cache.getPrincipalRoles("user.user3"), principalRoles1);
+
+        // invalidating the cache removes all entries and updates the version
+
+        cache.invalidatePrincipalRoles();
+        assertEquals(cache.getPrincipalRolesCount(), 0);
+        assertEquals(cache.getPrincipalRolesVersion(), 1);
+        assertFalse(principalRoles1.isValid(System.currentTimeMillis(), cache.getPrincipalRolesVersion(), 0));
+    }
+}
@@ -55,4 +55,26 @@ public class MemberRoleTest {
         assertTrue(mr4.equals(mr5));
         assertFalse(mr1.equals(mr6));
     }
+
+    @Test
+    public void testMemberRoleMatches() {
+
+        MemberRole mr = new MemberRole("coretech:role.readers", 0);
+        assertTrue(mr.matches("coretech:role.readers"));
+        assertFalse(mr.matches("coretech:role.readers2"));
+
+        mr = new MemberRole("coretech:role.read*", 0);
+        assertTrue(mr.matches("coretech:role.readers"));
+        assertTrue(mr.matches("coretech:role.read"));
+        assertFalse(mr.matches("coretech:role.writers"));
+
+        mr = new MemberRole("*:role.reader?", 0);
+        assertTrue(mr.matches("coretech:role.readers"));
+        assertTrue(mr.matches("sports:role.reader1"));
+        assertFalse(mr.matches("sports:role.reader"));
+        assertFalse(mr.matches("sports:role.writers"));
+
+        mr = new MemberRole(null, 0);
+        assertFalse(mr.matches("coretech:role.readers"));
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zts.cache;
+
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+public class PrincipalRolesTest {
+
+    @Test
+    public void testPrincipalRoles() {
+
+        PrincipalRoles principalRoles = new PrincipalRoles(Collections.singleton("coretech:role.readers"),
+                Collections.singleton("coretech:role.writers"), 1000, 2, 3);
+
+        assertEquals(principalRoles.getStandardRoles(), Collections.singleton("coretech:role.readers"));
+        assertEquals(principalRoles.getExtendedRoles(), Collections.singleton("coretech:role.writers"));
+        assertEquals(principalRoles.getExpiryTime(), 1000);
+    }
+
+    @Test
+    public void testIsValid() {
+
+        PrincipalRoles principalRoles = new PrincipalRoles(Collections.emptySet(),
+                Collections.emptySet(), 1000, 2, 3);
+
+        assertTrue(principalRoles.isValid(999, 2, 3));
+        assertTrue(principalRoles.isValid(1000, 2, 3));
+
+        // expired entry
+
+        assertFalse(principalRoles.isValid(1001, 2, 3));
+
+        // updated index or group versions
+
+        assertFalse(principalRoles.isValid(999, 3, 3));
+        assertFalse(principalRoles.isValid(999, 2, 4));
+    }
+}
@@ -13,6 +13,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yahoo.athenz.common.server.cert.*;
 import com.yahoo.athenz.common.server.db.RolesProvider;
 import com.yahoo.athenz.common.server.dns.HostnameResolver;
+import com.yahoo.athenz.common.server.msd.net.InetPrefixTrie;
 import com.yahoo.athenz.common.server.notification.NotificationManager;
 import com.yahoo.athenz.common.server.ssh.SSHCertRecord;
 import com.yahoo.athenz.common.server.ssh.SSHRecordStore;
@@ -38,7 +39,6 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.fail;
 
 import com.yahoo.athenz.auth.util.Crypto;
-import com.yahoo.athenz.zts.utils.IPBlock;
 import com.yahoo.athenz.auth.Principal;
 
 public class InstanceCertManagerTest {
@@ -1143,10 +1143,86 @@ public class InstanceCertManagerTest {
         System.clearProperty(ZTSConsts.ZTS_PROP_INSTANCE_CERT_IP_FNAME);
     }
 
+    @Test
+    public void testVerifyIPAddressAccessIPv6() {
+
+        System.setProperty(ZTSConsts.ZTS_PROP_CERT_REFRESH_IP_FNAME,
+                "src/test/resources/cert_refresh_ipblocks.txt");
+        System.setProperty(ZTSConsts.ZTS_PROP_INSTANCE_CERT_IP_FNAME,
+                "src/test/resources/instance_cert_ipblocks.txt");
+
+        InstanceCertManager instance = new InstanceCertManager(null, null, null, true, null);
+        instance.setCertSigner(null);
+
+        assertTrue(instance.verifyCertRefreshIPAddress("2a05:d07f:8012::25"));
+        assertFalse(instance.verifyCertRefreshIPAddress("2a05:d07f:9000::25"));
+
+        assertTrue(instance.verifyInstanceCertIPAddress("athenz.aws.us-west-2", "::1"));
+        assertFalse(instance.verifyInstanceCertIPAddress("athenz.aws.us-west-2", "::2"));
+
+        // invalid addresses are rejected
+
+        assertFalse(instance.verifyInstanceCertIPAddress("athenz.aws.us-west-2", "invalid-ip"));
+
+        instance.shutdown();
+
+        System.clearProperty(ZTSConsts.ZTS_PROP_CERT_REFRESH_IP_FNAME);
+        System.clearProperty(ZTSConsts.ZTS_PROP_INSTANCE_CERT_IP_FNAME);
+    }
+
+    @Test
+    public void testReloadAllowedIPAddresses() throws Exception {
+
+        Path refreshFile = Files.createTempFile("cert_refresh_ipblocks", ".json");
+        Path providerFile = Files.createTempFile("instance_cert_ipblocks", ".json");
+        Files.writeString(refreshFile, "{\"prefixes\":[{\"ip_prefix\":\"10.1.0.0/21\"}]}");
+        Files.writeString(providerFile, "{\"ipblocks\":[{\"filename\":\"" + refreshFile
+                + "\",\"providers\":[\"athenz.aws.us-west-2\"]}]}");
+
+        System.setProperty(ZTSConsts.ZTS_PROP_CERT_REFRESH_IP_FNAME, refreshFile.toString());
+        System.setProperty(ZTSConsts.ZTS_PROP_INSTANCE_CERT_IP_FNAME, providerFile.toString());
+        System.setProperty(ZTSConsts.ZTS_PROP_CERT_IP_BLOCKS_RELOAD_INTERVAL, "3600");
+
+        InstanceCertManager instance = new InstanceCertManager(null, null, null, true, null);
+        instance.setCertSigner(null);
+
+        assertTrue(instance.verifyCertRefreshIPAddress("10.1.3.25"));
+        assertFalse(instance.verifyCertRefreshIPAddress("10.2.3.25"));
+        assertTrue(instance.verifyInstanceCertIPAddress("athenz.aws.us-west-2", "10.1.3.25"));
+        assertFalse(instance.verifyInstanceCertIPAddress("athenz.aws.us-west-2", "10.2.3.25"));
+
+        // update our blocks and reload
+
+        Files.writeString(refreshFile, "{\"prefixes\":[{\"ip_prefix\":\"10.2.0.0/21\"}]}");
+        assertTrue(instance.reloadAllowedIPAddresses());
+
+        assertFalse(instance.verifyCertRefreshIPAddress("10.1.3.25"));
+        assertTrue(instance.verifyCertRefreshIPAddress("10.2.3.25"));
+        assertFalse(instance.verifyInstanceCertIPAddress("athenz.aws.us-west-2", "10.1.3.25"));
+        assertTrue(instance.verifyInstanceCertIPAddress("athenz.aws.us-west-2", "10.2.3.25"));
+
+        // invalid files keep our current blocks
+
+        Files.writeString(refreshFile, "{\"prefixes\":[{\"ip_prefix\":\"10.300.0.0/21\"}]}");
+        assertFalse(instance.reloadAllowedIPAddresses());
+
+        assertTrue(instance.verifyCertRefreshIPAddress("10.2.3.25"));
+        assertFalse(instance.verifyCertRefreshIPAddress("10.3.3.25"));
+        assertTrue(instance.verifyInstanceCertIPAddress("athenz.aws.us-west-2", "10.2.3.25"));
+
+        instance.shutdown();
+
+        System.clearProperty(ZTSConsts.ZTS_PROP_CERT_REFRESH_IP_FNAME);
+        System.clearProperty(ZTSConsts.ZTS_PROP_INSTANCE_CERT_IP_FNAME);
+        System.clearProperty(ZTSConsts.ZTS_PROP_CERT_IP_BLOCKS_RELOAD_INTERVAL);
+        Files.delete(refreshFile);
+        Files.delete(providerFile);
+    }
+
     @Test
     public void testLoadAllowedIPAddresses() {
         
-        List<IPBlock> ipBlocks = new ArrayList<>();
+        InetPrefixTrie<Boolean> ipBlocks = new InetPrefixTrie<>();
 
         InstanceCertManager instance = new InstanceCertManager(null, null, null, true, null);
         instance.setCertSigner(null);
@@ -1168,6 +1244,17 @@ public class InstanceCertManagerTest {
         
         assertFalse(instance.loadAllowedIPAddresses(ipBlocks, "src/test/resources/empty_ipblocks.txt"));
 
+        // an entry with a 0 mask that would allow all addresses returns failure
+
+        assertFalse(instance.loadAllowedIPAddresses(ipBlocks, "src/test/resources/invalid_mask_ipblocks.txt"));
+        assertFalse(ipBlocks.contains("10.2.0.1"));
+
+        // single ipv6 addresses are loaded as /128 blocks
+
+        assertNull(instance.getIPv6Block(null));
+        assertEquals(instance.getIPv6Block("2a05:d07f:8000::/40"), "2a05:d07f:8000::/40");
+        assertEquals(instance.getIPv6Block(" ::1 "), "::1/128");
+
         instance.shutdown();
     }
 
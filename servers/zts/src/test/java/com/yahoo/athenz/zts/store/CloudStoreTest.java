@@ -22,8 +22,15 @@ import static org.testng.Assert.*;
 
 import java.net.URI;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.yahoo.rdl.Timestamp;
 import org.eclipse.jetty.client.HttpClient;
@@ -34,6 +41,7 @@ import org.mockito.Mockito;
 import org.testng.annotations.Test;
 
 import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.model.AssumeRoleRequest;
 import com.amazonaws.services.securitytoken.model.AssumeRoleResult;
 import com.amazonaws.services.securitytoken.model.Credentials;
@@ -1056,6 +1064,237 @@ public class CloudStoreTest {
         cloudStore.close();
     }
 
+    @Test
+    public void testAssumeAWSRoleCoalescedRequests() throws Exception {
+
+        CountDownLatch requestStarted = new CountDownLatch(1);
+        CountDownLatch requestRelease = new CountDownLatch(1);
+        AtomicInteger requestCount = new AtomicInteger();
+
+        AWSSecurityTokenService stsClient = Mockito.mock(AWSSecurityTokenService.class);
+        Mockito.when(stsClient.assumeRole(Mockito.any(AssumeRoleRequest.class))).thenAnswer(invocation -> {
+            requestCount.incrementAndGet();
+            requestStarted.countDown();
+            requestRelease.await(10, TimeUnit.SECONDS);
+            return getAssumeRoleResult("keyid", System.currentTimeMillis() + 3600 * 1000);
+        });
+
+        CloudStore cloudStore = new CloudStore() {
+            @Override
+            AWSSecurityTokenService getTokenServiceClient() {
+                return stsClient;
+            }
+        };
+        cloudStore.awsEnabled = true;
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<AWSTemporaryCredentials> future1 = executor.submit(() -> cloudStore.assumeAWSRole("account",
+                "role", "user", null, null, new StringBuilder()));
+        assertTrue(requestStarted.await(10, TimeUnit.SECONDS));
+
+        // the second request must wait for the first one to complete
+
+        Future<AWSTemporaryCredentials> future2 = executor.submit(() -> cloudStore.assumeAWSRole("account",
+                "role", "user", null, null, new StringBuilder()));
+        requestRelease.countDown();
+
+        AWSTemporaryCredentials creds1 = future1.get(10, TimeUnit.SECONDS);
+        AWSTemporaryCredentials creds2 = future2.get(10, TimeUnit.SECONDS);
+        assertEquals(creds1.getAccessKeyId(), "keyid");
+        assertEquals(creds2.getAccessKeyId(), "keyid");
+        assertEquals(requestCount.get(), 1);
+        assertTrue(cloudStore.awsCredsRequests.isEmpty());
+
+        executor.shutdownNow();
+        cloudStore.close();
+    }
+
+    @Test
+    public void testAssumeAWSRolePendingRequest() {
+
+        CloudStore cloudStore = new CloudStore();
+        cloudStore.awsEnabled = true;
+
+        // complete a request that is already in progress with a failure
+
+        final String cacheKey = cloudStore.getCacheKey("account", "role", "user", null, null);
+        CompletableFuture<CloudStore.AWSCredsResult> request = new CompletableFuture<>();
+        cloudStore.awsCredsRequests.put(cacheKey, request);
+        request.complete(new CloudStore.AWSCredsResult(null, "sts failure"));
+
+        StringBuilder errorMessage = new StringBuilder();
+        assertNull(cloudStore.assumeAWSRole("account", "role", "user", null, null, errorMessage));
+        assertEquals(errorMessage.toString(), "sts failure");
+        cloudStore.close();
+    }
+
+    @Test
+    public void testAssumeAWSRoleCompletedRequest() {
+
+        AWSTemporaryCredentials creds = new AWSTemporaryCredentials().setAccessKeyId("keyid")
+                .setExpiration(Timestamp.fromMillis(System.currentTimeMillis() + 3600 * 1000));
+
+        // the creds are added to the cache right after our first lookup
+
+        AtomicInteger lookupCount = new AtomicInteger();
+        CloudStore cloudStore = new CloudStore() {
+            @Override
+            AWSTemporaryCredentials getCachedCreds(String cacheKey, Integer durationSeconds) {
+                return lookupCount.incrementAndGet() == 1 ? null : creds;
+            }
+        };
+        cloudStore.awsEnabled = true;
+
+        StringBuilder errorMessage = new StringBuilder();
+        assertEquals(cloudStore.assumeAWSRole("account", "role", "user", null, null, errorMessage), creds);
+        assertEquals(lookupCount.get(), 2);
+        assertTrue(cloudStore.awsCredsRequests.isEmpty());
+        cloudStore.close();
+    }
+
+    @Test
+    public void testAssumeAWSRoleCacheDisabled() {
+
+        System.setProperty(ZTSConsts.ZTS_PROP_AWS_CREDS_CACHE_TIMEOUT, "0");
+        MockCloudStore cloudStore = new MockCloudStore();
+        cloudStore.awsEnabled = true;
+        cloudStore.setAssumeRoleResult(getAssumeRoleResult("keyid", System.currentTimeMillis() + 3600 * 1000));
+        cloudStore.setReturnSuperAWSRole(true);
+
+        StringBuilder errorMessage = new StringBuilder();
+        AWSTemporaryCredentials awsCreds = cloudStore.assumeAWSRole("account", "syncer", "athenz.syncer",
+                null, null, errorMessage);
+        assertEquals(awsCreds.getAccessKeyId(), "keyid");
+        assertTrue(cloudStore.awsCredsRequests.isEmpty());
+
+        cloudStore.close();
+        System.clearProperty(ZTSConsts.ZTS_PROP_AWS_CREDS_CACHE_TIMEOUT);
+    }
+
+    @Test
+    public void testAssumeAWSRoleRefresh() throws Exception {
+
+        MockCloudStore cloudStore = new MockCloudStore();
+        cloudStore.awsEnabled = true;
+        cloudStore.setAssumeRoleResult(getAssumeRoleResult("newkeyid", System.currentTimeMillis() + 3600 * 1000));
+        cloudStore.setReturnSuperAWSRole(true);
+
+        // creds that have been issued 9 mins and 40 secs ago are still
+        // returned from the cache but must be refreshed in the background
+
+        AWSTemporaryCredentials creds = new AWSTemporaryCredentials().setAccessKeyId("keyid")
+                .setExpiration(Timestamp.fromMillis(System.currentTimeMillis() + (3600 - 580) * 1000));
+        final String cacheKey = cloudStore.getCacheKey("account", "syncer", "athenz.syncer", null, null);
+        cloudStore.putCacheCreds(cacheKey, creds);
+
+        StringBuilder errorMessage = new StringBuilder();
+        AWSTemporaryCredentials awsCreds = cloudStore.assumeAWSRole("account", "syncer", "athenz.syncer",
+                null, null, errorMessage);
+        assertEquals(awsCreds.getAccessKeyId(), "keyid");
+
+        for (int i = 0; i < 100 && !cloudStore.awsCredsRequests.isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(cloudStore.getCachedCreds(cacheKey, null).getAccessKeyId(), "newkeyid");
+
+        // refreshed creds do not require another refresh
+
+        awsCreds = cloudStore.assumeAWSRole("account", "syncer", "athenz.syncer", null, null, errorMessage);
+        assertEquals(awsCreds.getAccessKeyId(), "newkeyid");
+        assertTrue(cloudStore.awsCredsRequests.isEmpty());
+
+        cloudStore.close();
+    }
+
+    @Test
+    public void testAssumeAWSRoleRefreshFailure() throws Exception {
+
+        MockCloudStore cloudStore = new MockCloudStore();
+        cloudStore.awsEnabled = true;
+        cloudStore.setReturnSuperAWSRole(true);
+        cloudStore.setGetServiceException(500, true);
+
+        AWSTemporaryCredentials creds = new AWSTemporaryCredentials().setAccessKeyId("keyid")
+                .setExpiration(Timestamp.fromMillis(System.currentTimeMillis() + (3600 - 580) * 1000));
+        final String cacheKey = cloudStore.getCacheKey("account", "syncer", "athenz.syncer", null, null);
+        cloudStore.putCacheCreds(cacheKey, creds);
+
+        StringBuilder errorMessage = new StringBuilder();
+        assertEquals(cloudStore.assumeAWSRole("account", "syncer", "athenz.syncer", null, null,
+                errorMessage), creds);
+
+        for (int i = 0; i < 100 && !cloudStore.awsCredsRequests.isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(cloudStore.isFailedRefreshRequest(cacheKey));
+
+        // the failed refresh is not retried until our refresh window expires
+
+        assertEquals(cloudStore.assumeAWSRole("account", "syncer", "athenz.syncer", null, null,
+                errorMessage), creds);
+        assertTrue(cloudStore.awsCredsRequests.isEmpty());
+
+        cloudStore.refreshWindow = 0;
+        cloudStore.removeExpiredInvalidCredentials();
+        assertFalse(cloudStore.isFailedRefreshRequest(cacheKey));
+        assertFalse(cloudStore.shouldRefreshCachedCreds(creds, null));
+
+        cloudStore.close();
+    }
+
+    @Test
+    public void testRefreshAWSCredsRejected() {
+
+        CloudStore cloudStore = new CloudStore();
+        cloudStore.awsEnabled = true;
+
+        cloudStore.getRefreshThreadPool();
+        cloudStore.close();
+
+        cloudStore.refreshAWSCreds("account:role:user::", "account", "role", null, null);
+        assertTrue(cloudStore.awsCredsRequests.isEmpty());
+    }
+
+    @Test
+    public void testRefreshAWSCredsPendingRequest() {
+
+        CloudStore cloudStore = new CloudStore();
+        cloudStore.awsEnabled = true;
+
+        // with a request already in progress there is nothing to refresh
+
+        CompletableFuture<CloudStore.AWSCredsResult> request = new CompletableFuture<>();
+        cloudStore.awsCredsRequests.put("account:role:user::", request);
+
+        cloudStore.refreshAWSCreds("account:role:user::", "account", "role", null, null);
+        assertEquals(cloudStore.awsCredsRequests.get("account:role:user::"), request);
+        assertFalse(request.isDone());
+        cloudStore.close();
+    }
+
+    @Test
+    public void testAWSCredsCacheMaxSize() {
+
+        System.setProperty(ZTSConsts.ZTS_PROP_AWS_CREDS_CACHE_MAX_SIZE, "2");
+        CloudStore cloudStore = new CloudStore();
+
+        for (int i = 0; i < 10; i++) {
+            AWSTemporaryCredentials creds = new AWSTemporaryCredentials().setAccessKeyId("keyid" + i)
+                    .setExpiration(Timestamp.fromMillis(System.currentTimeMillis() + 3600 * 1000));
+            cloudStore.putCacheCreds("account:role:user" + i + "::", creds);
+        }
+        assertTrue(cloudStore.awsCredsCache.size() <= 2);
+
+        cloudStore.close();
+        System.clearProperty(ZTSConsts.ZTS_PROP_AWS_CREDS_CACHE_MAX_SIZE);
+    }
+
+    private AssumeRoleResult getAssumeRoleResult(final String accessKeyId, long expiration) {
+        Credentials creds = new Credentials().withAccessKeyId(accessKeyId).withSecretAccessKey("secretaccesskey")
+                .withSessionToken("sessiontoken").withExpiration(new Date(expiration));
+        return new AssumeRoleResult().withCredentials(creds);
+    }
+
     @Test
     public void testGetSshKeyReqType() {
         CloudStore cloudStore = new CloudStore();
@@ -35,10 +35,12 @@ import java.nio.file.Paths;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.primitives.Bytes;
 import com.yahoo.athenz.auth.Principal;
+import com.yahoo.athenz.common.messaging.DomainChangeMessage;
 import com.yahoo.athenz.common.metrics.Metric;
 import com.yahoo.athenz.common.server.store.ChangeLogStore;
 import com.yahoo.athenz.common.server.util.ResourceUtils;
@@ -56,11 +58,13 @@ import org.testng.annotations.Test;
 
 import com.yahoo.athenz.auth.impl.FilePrivateKeyStore;
 import com.yahoo.athenz.auth.util.Crypto;
+import com.yahoo.athenz.auth.util.PublicKeyCache;
 import com.yahoo.athenz.common.utils.SignUtils;
 import com.yahoo.athenz.zts.HostServices;
 import com.yahoo.athenz.zts.ZTSConsts;
 import com.yahoo.athenz.zts.cache.DataCache;
 import com.yahoo.athenz.zts.cache.MemberRole;
+import com.yahoo.athenz.zts.cache.PrincipalRoles;
 import com.yahoo.athenz.zts.store.DataStore.DataUpdater;
 import com.yahoo.rdl.JSON;
 
@@ -343,6 +347,37 @@ public class DataStoreTest {
         assertTrue(store.publicKeyCache.containsKey("sports.storage_1"));
     }
     
+    @Test
+    public void testRemovePublicKeysWithNewKeys() throws IOException {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+
+        final String rsaKey = new String(Files.readAllBytes(Paths.get("src/test/resources/zts_public.pem")));
+        final String ecKey = new String(Files.readAllBytes(Paths.get("src/test/resources/zts_public_ec.pem")));
+        PublicKey rsaPublicKey = PublicKeyCache.getPublicKey(rsaKey);
+        PublicKey ecPublicKey = PublicKeyCache.getPublicKey(ecKey);
+
+        store.publicKeyCache.put("sports.storage_0", rsaKey);
+        store.publicKeyCache.put("sports.storage_1", ecKey);
+
+        Map<String, String> oldKeys = new HashMap<>();
+        oldKeys.put("sports.storage_0", rsaKey);
+        oldKeys.put("sports.storage_1", ecKey);
+
+        Map<String, String> newKeys = new HashMap<>();
+        newKeys.put("sports.storage_0", rsaKey);
+
+        // the unchanged key is kept in the shared key cache while
+        // the removed one is dropped
+
+        store.removePublicKeys(oldKeys, newKeys);
+        assertTrue(store.publicKeyCache.isEmpty());
+        assertSame(PublicKeyCache.getPublicKey(rsaKey), rsaPublicKey);
+        assertNotSame(PublicKeyCache.getPublicKey(ecKey), ecPublicKey);
+    }
+
     @Test
     public void testRemovePublicKeysAll() {
         
@@ -3035,6 +3070,7 @@ public class DataStoreTest {
         clogStore.saveLocalDomain("coretech", jwsDomain);
 
         assertFalse(store.processLocalDomain("coretech"));
+        assertFalse(store.processJWSDomain(jwsDomain, false));
     }
 
     @Test
@@ -3049,6 +3085,146 @@ public class DataStoreTest {
         assertFalse(store.processLocalDomain("coretech"));
     }
 
+    @Test
+    public void testProcessLocalDomainsMultipleThreads() {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore setupStore = new DataStore(clogStore, null, ztsMetric);
+        setupStore.loadAthenzPublicKeys();
+
+        // create more domains than we can have in flight so
+        // the pending list is refilled while processing
+
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final String domainName = "coretech" + i;
+            setupStore.processSignedDomain(createSignedDomain(domainName, "weather"), true);
+            list.add(domainName);
+        }
+        list.add(10, "invalid");
+
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.localDomainLoadThreads = 2;
+        ((MockZMSFileChangeLogStore) store.changeLogStore).setDomainList(null);
+
+        int badDomains = store.processLocalDomains(list);
+        assertEquals(badDomains, 1);
+
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(store.getDomainData("coretech" + i));
+        }
+        assertNull(store.getDomainData("invalid"));
+    }
+
+    @Test
+    public void testProcessLocalDomainsJWSMultipleThreads() {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore setupStore = new DataStore(clogStore, null, ztsMetric);
+        setupStore.loadAthenzPublicKeys();
+
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final String domainName = "coretech" + i;
+            setupStore.processJWSDomain(createJWSDomain(domainName, "weather", "0"), true);
+            list.add(domainName);
+        }
+
+        // one disabled domain that must not be in the cache
+
+        SignedDomain signedDomain = createSignedDomain("disabled", "weather");
+        signedDomain.getDomain().setEnabled(false);
+        setupStore.processJWSDomain(signJwsDomain(signedDomain.getDomain(), "0"), true);
+        list.add("disabled");
+
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.jwsDomainSupport = true;
+        store.localDomainLoadThreads = 0;
+        ((MockZMSFileChangeLogStore) store.changeLogStore).setDomainList(null);
+
+        int badDomains = store.processLocalDomains(list);
+        assertEquals(badDomains, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(store.getDomainData("coretech" + i));
+        }
+        assertNull(store.getDomainData("disabled"));
+    }
+
+    @Test
+    public void testLoadLocalSignedDomainInvalidSignature() {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.loadAthenzPublicKeys();
+
+        SignedDomain signedDomain = createSignedDomain("coretech", "weather");
+        signedDomain.setSignature("invalid-signature");
+        clogStore.saveLocalDomain("coretech", signedDomain);
+
+        assertNull(store.loadLocalSignedDomain("coretech"));
+        assertFalse(store.processLocalDomain("coretech"));
+    }
+
+    @Test
+    public void testLoadLocalJWSDomainInvalidSignature() {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.jwsDomainSupport = true;
+        store.loadAthenzPublicKeys();
+
+        JWSDomain jwsDomain = createJWSDomain("coretech", "weather", "0");
+        jwsDomain.setSignature("invalid-signature");
+        clogStore.saveLocalDomain("coretech", jwsDomain);
+
+        assertNull(store.loadLocalJWSDomain("coretech"));
+        assertFalse(store.processLocalDomain("coretech"));
+
+        // unknown local domains are not loaded
+
+        assertNull(store.loadLocalJWSDomain("unknown"));
+    }
+
+    @Test
+    public void testGetLocalDomainDataFailures() throws Exception {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+
+        @SuppressWarnings("unchecked")
+        java.util.concurrent.Future<DomainData> future = Mockito.mock(java.util.concurrent.Future.class);
+        Mockito.when(future.get())
+                .thenThrow(new java.util.concurrent.ExecutionException(new IllegalArgumentException()))
+                .thenThrow(new InterruptedException());
+
+        assertNull(store.getLocalDomainData("coretech", future));
+        assertNull(store.getLocalDomainData("coretech", future));
+
+        // clear the interrupted flag set by the call
+
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    public void testProcessLocalDomainDataException() {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = Mockito.spy(new DataStore(clogStore, null, ztsMetric));
+
+        DomainData domainData = new DomainData().setName("coretech");
+        Mockito.doThrow(new IllegalArgumentException()).when(store).processDomainData(domainData);
+
+        assertFalse(store.processLocalDomainData("coretech", domainData));
+        assertFalse(store.processLocalDomainData("coretech", null));
+    }
+
     @Test
     public void testProcessLocalDomainInvalidFile() {
 
@@ -3258,6 +3434,33 @@ public class DataStoreTest {
         assertEquals(badDomains, -1);
     }
 
+    @Test
+    public void testProcessLocalDomainsClearLocalDomainList() {
+
+        ChangeLogStore clogStore = Mockito.mock(ChangeLogStore.class);
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+
+        // once all the domains are processed we notify the store
+        // that we're done with the local domain list
+
+        int badDomains = store.processLocalDomains(Arrays.asList("coretech", "sports", "weather"));
+        assertEquals(badDomains, 0);
+        Mockito.verify(clogStore, Mockito.times(1)).clearLocalDomainList();
+
+        // if we abort processing the domains because of an exception,
+        // the store must be notified as well
+
+        Mockito.when(clogStore.getServerDomainList()).thenReturn(Collections.singleton("coretech"));
+        DataStore failedStore = Mockito.spy(new DataStore(clogStore, null, ztsMetric));
+        Mockito.doThrow(new IllegalStateException("delete failure")).when(failedStore).deleteDomain("sports");
+        try {
+            failedStore.processLocalDomains(Arrays.asList("coretech", "sports"));
+            fail();
+        } catch (IllegalStateException ignored) {
+        }
+        Mockito.verify(clogStore, Mockito.times(2)).clearLocalDomainList();
+    }
+
     @Test
     public void testProcessLocalDomainsInvalidLocalDomainAboveThreshold() {
         ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
@@ -4031,6 +4234,7 @@ public class DataStoreTest {
     public void testDataUpdaterException() {
 
         DataStore store = Mockito.mock(DataStore.class);
+        when(store.isDomainUpdatePollRequired()).thenReturn(true);
         when(store.processDomainUpdates()).thenThrow(new ResourceException(401, "exc"));
         when(store.processDomainDeletes()).thenThrow(new ResourceException(401, "exc"));
         doThrow(new ResourceException(401, "exc")).when(store).processDomainChecks();
@@ -4043,6 +4247,182 @@ public class DataStoreTest {
         updater2.run();
     }
     
+    @Test
+    public void testDataUpdaterDomainChangeProcessor() {
+
+        ChangeLogStore clogStore = Mockito.mock(ChangeLogStore.class);
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.domainChangeProcessor = Mockito.mock(DomainChangeProcessor.class);
+
+        // with our domain change processor active and the poll timeout
+        // not expired, we're not going to poll for updates
+
+        store.lastUpdateRunTime = System.currentTimeMillis();
+        assertFalse(store.isDomainUpdatePollRequired());
+        store.new DataUpdater().run();
+        Mockito.verify(clogStore, Mockito.never()).getUpdatedSignedDomains(ArgumentMatchers.any());
+
+        // if the stream is lagging we need to poll
+
+        when(store.domainChangeProcessor.isLagging()).thenReturn(true);
+        assertTrue(store.isDomainUpdatePollRequired());
+        store.new DataUpdater().run();
+        Mockito.verify(clogStore, Mockito.times(1)).getUpdatedSignedDomains(ArgumentMatchers.any());
+
+        // the failed poll must not clear the fetch failure state
+
+        Mockito.verify(store.domainChangeProcessor, Mockito.never()).clearFetchFailure();
+
+        // a successful poll clears the fetch failure state
+
+        when(clogStore.getUpdatedSignedDomains(ArgumentMatchers.any())).thenReturn(new SignedDomains());
+        store.new DataUpdater().run();
+        Mockito.verify(store.domainChangeProcessor, Mockito.times(1)).clearFetchFailure();
+
+        // same if our poll timeout has expired
+
+        when(store.domainChangeProcessor.isLagging()).thenReturn(false);
+        store.lastUpdateRunTime = System.currentTimeMillis() - (store.domainChangePollRefreshTime + 1) * 1000;
+        assertTrue(store.isDomainUpdatePollRequired());
+
+        store.domainChangeProcessor = null;
+        assertTrue(store.isDomainUpdatePollRequired());
+
+        // poll timeout cannot be shorter than our update refresh time
+
+        System.setProperty("athenz.zts.domain_change_poll_timeout", "1");
+        store = new DataStore(clogStore, null, ztsMetric);
+        assertEquals(store.domainChangePollRefreshTime, store.updDomainRefreshTime);
+        System.clearProperty("athenz.zts.domain_change_poll_timeout");
+    }
+
+    @Test
+    public void testProcessDomainChange() {
+
+        ChangeLogStore clogStore = Mockito.mock(ChangeLogStore.class);
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+
+        SignedDomain signedDomain = createSignedDomain("coretech", "weather");
+        when(clogStore.getServerSignedDomain("coretech")).thenReturn(signedDomain);
+        assertEquals(store.processDomainChanges(Collections.singletonList("coretech")),
+                Collections.singleton("coretech"));
+        assertNotNull(store.getDataCache("coretech"));
+
+        // without the zms domain list we can't process unknown domains
+
+        assertEquals(store.processDomainChanges(Arrays.asList("coretech", "unknown")),
+                Collections.singleton("coretech"));
+
+        // domains that fail validation are not processed
+
+        SignedDomain invalidDomain = createSignedDomain("sports", "weather");
+        invalidDomain.setSignature("invalid-signature");
+        when(clogStore.getServerSignedDomain("sports")).thenReturn(invalidDomain);
+        assertTrue(store.processDomainChanges(Collections.singletonList("sports")).isEmpty());
+        assertNull(store.getDataCache("sports"));
+
+        store.jwsDomainSupport = true;
+        when(clogStore.getServerJWSDomain("weather")).thenReturn(createJWSDomain("weather", "coretech", "0"));
+        assertEquals(store.processDomainChanges(Arrays.asList("weather", "unknown")),
+                Collections.singleton("weather"));
+        assertNotNull(store.getDataCache("weather"));
+    }
+
+    @Test
+    public void testProcessDomainChangeDelete() {
+
+        ChangeLogStore clogStore = Mockito.mock(ChangeLogStore.class);
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+
+        SignedDomain signedDomain = createSignedDomain("coretech", "weather");
+        when(clogStore.getServerSignedDomain("coretech")).thenReturn(signedDomain);
+        assertEquals(store.processDomainChanges(Collections.singletonList("coretech")),
+                Collections.singleton("coretech"));
+        assertNotNull(store.getDataCache("coretech"));
+
+        // invalid zms domain list responses are failures
+
+        when(clogStore.getServerSignedDomain("coretech")).thenReturn(null);
+        when(clogStore.getServerDomainList()).thenReturn(Collections.emptySet());
+        assertTrue(store.processDomainChanges(Collections.singletonList("coretech")).isEmpty());
+        assertNotNull(store.getDataCache("coretech"));
+
+        when(clogStore.getServerDomainList()).thenReturn(null);
+        assertTrue(store.processDomainChanges(Collections.singletonList("coretech")).isEmpty());
+        assertNotNull(store.getDataCache("coretech"));
+
+        // domain still in zms but we couldn't fetch it
+
+        when(clogStore.getServerDomainList()).thenReturn(new HashSet<>(Arrays.asList("sys.auth", "coretech")));
+        assertTrue(store.processDomainChanges(Collections.singletonList("coretech")).isEmpty());
+        assertNotNull(store.getDataCache("coretech"));
+
+        // domains deleted in zms are removed from our cache and store
+        // and deleting a domain that we don't have is a no-op. The
+        // zms domain list is only fetched once for all the domains
+
+        Mockito.clearInvocations(clogStore);
+        when(clogStore.getServerDomainList()).thenReturn(new HashSet<>(Collections.singletonList("sys.auth")));
+        assertEquals(store.processDomainChanges(Arrays.asList("coretech", "weather")),
+                new HashSet<>(Arrays.asList("coretech", "weather")));
+        assertNull(store.getDataCache("coretech"));
+        Mockito.verify(clogStore, Mockito.times(1)).getServerDomainList();
+        Mockito.verify(clogStore, Mockito.times(1)).removeLocalDomain("coretech");
+        Mockito.verify(clogStore, Mockito.never()).removeLocalDomain("weather");
+
+        // with no deleted domains we don't fetch the domain list
+
+        Mockito.clearInvocations(clogStore);
+        when(clogStore.getServerSignedDomain("coretech")).thenReturn(signedDomain);
+        assertEquals(store.processDomainChanges(Collections.singletonList("coretech")),
+                Collections.singleton("coretech"));
+        Mockito.verify(clogStore, Mockito.never()).getServerDomainList();
+    }
+
+    @Test
+    public void testInitDomainChangeSubscribers() throws InterruptedException {
+
+        ChangeLogStore clogStore = Mockito.mock(ChangeLogStore.class);
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+
+        // no topics configured
+
+        store.initDomainChangeSubscribers(null, "zts.athenz.io");
+        assertNull(store.domainChangeProcessor);
+
+        // invalid factory class
+
+        System.setProperty("athenz.zts.domain_changes_topic_names", "topic1, ,topic2");
+        System.setProperty("athenz.zts.domain_change_subscriber_factory_class", "invalid.class");
+        store.initDomainChangeSubscribers(null, "zts.athenz.io");
+        assertNull(store.domainChangeProcessor);
+
+        // now with our local subscriber we should get our domain processed
+
+        System.setProperty("athenz.zts.domain_change_subscriber_factory_class",
+                "com.yahoo.athenz.common.messaging.impl.LocalChangeFactory");
+        System.setProperty("athenz.zts.domain_change_process_interval", "50");
+        store.initDomainChangeSubscribers(null, "zts.athenz.io");
+        assertNotNull(store.domainChangeProcessor);
+
+        SignedDomain signedDomain = createSignedDomain("coretech", "weather");
+        when(clogStore.getServerSignedDomain("coretech")).thenReturn(signedDomain);
+
+        new com.yahoo.athenz.common.messaging.impl.LocalChangePublisher<DomainChangeMessage>("topic2")
+                .publish(new DomainChangeMessage().setDomainName("coretech")
+                        .setPublished(System.currentTimeMillis()));
+
+        for (int i = 0; i < 100 && store.getDataCache("coretech") == null; i++) {
+            Thread.sleep(50);
+        }
+        assertNotNull(store.getDataCache("coretech"));
+        store.domainChangeProcessor.shutdown();
+
+        System.clearProperty("athenz.zts.domain_changes_topic_names");
+        System.clearProperty("athenz.zts.domain_change_subscriber_factory_class");
+        System.clearProperty("athenz.zts.domain_change_process_interval");
+    }
+
     @Test
     public void testRoleMatchInSetPlain() {
 
@@ -4763,6 +5143,207 @@ public class DataStoreTest {
         assertTrue(accessibleRoles.contains("role3"));
     }
 
+    @Test
+    public void testGetAccessibleRolesPrincipalRolesIndex() {
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.loadAthenzPublicKeys();
+        store.principalRolesCacheMaxSize = 100;
+
+        store.processSignedDomain(createSignedDomainWildCardMembers("coretech", "weather"), true);
+        store.processSignedDomain(createTenantSignedDomain("weather", "coretech"), true);
+
+        // the index must return the same results as the standard processing
+
+        DataCache data = store.getDataCache("coretech");
+        final String[] identities = { "user_domain.user", "user_domain.user1", "user_domain.user3",
+                "user_domain.user5", "user_domain.user100", "user_domain.user101", "athenz.service",
+                "athenz.use", "unknown.user" };
+        final String[][] requestedRoleLists = { null, { "writers" }, { "coretech:role.writers" },
+                { "tenant.readers" }, { "all", "readers" }, { "unknown" } };
+
+        for (String identity : identities) {
+            for (String[] requestedRoleList : requestedRoleLists) {
+                for (boolean fullNameMatch : new boolean[] { false, true }) {
+                    for (boolean keepFullName : new boolean[] { false, true }) {
+
+                        Set<String> expectedRoles = new HashSet<>();
+                        store.principalRolesCacheMaxSize = 0;
+                        store.getAccessibleRoles(data, "coretech", identity, requestedRoleList,
+                                fullNameMatch, expectedRoles, keepFullName);
+
+                        Set<String> accessibleRoles = new HashSet<>();
+                        store.principalRolesCacheMaxSize = 100;
+                        store.getAccessibleRoles(data, "coretech", identity, requestedRoleList,
+                                fullNameMatch, accessibleRoles, keepFullName);
+
+                        assertEquals(accessibleRoles, expectedRoles, identity);
+                    }
+                }
+            }
+        }
+
+        assertEquals(data.getPrincipalRolesCount(), identities.length);
+
+        Set<String> accessibleRoles = new HashSet<>();
+        store.getAccessibleRoles(data, "coretech", "user_domain.user100", null, false, accessibleRoles, false);
+        assertEquals(accessibleRoles, new HashSet<>(Arrays.asList("writers", "all", "tenant.readers")));
+
+        // an entry that has expired is rebuilt
+
+        PrincipalRoles principalRoles = data.getPrincipalRoles("user_domain.user100");
+        data.setPrincipalRoles("user_domain.user100", new PrincipalRoles(Collections.singleton("coretech:role.admin"),
+                Collections.emptySet(), System.currentTimeMillis() - 1000, data.getPrincipalRolesVersion(),
+                store.getPrincipalGroupVersion("user_domain.user100")), 100);
+
+        accessibleRoles.clear();
+        store.getAccessibleRoles(data, "coretech", "user_domain.user100", null, false, accessibleRoles, false);
+        assertEquals(accessibleRoles, new HashSet<>(Arrays.asList("writers", "all", "tenant.readers")));
+        assertNotSame(data.getPrincipalRoles("user_domain.user100"), principalRoles);
+    }
+
+    @Test
+    public void testGetAccessibleRolesPrincipalRolesIndexGroupUpdate() {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root", pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.loadAthenzPublicKeys();
+        store.principalRolesCacheMaxSize = 100;
+
+        final String domainName = "access-domain";
+        ZTSTestUtils.setupDomainsWithGroups(store, pkey, domainName, Collections.emptyList());
+
+        Set<String> accessibleRoles = new HashSet<>();
+        DataCache data = store.getDataCache("access-domain1");
+        store.getAccessibleRoles(data, "access-domain1", "user.user1", null, false, accessibleRoles, false);
+        assertEquals(accessibleRoles, new HashSet<>(Arrays.asList("role1", "role2")));
+        assertNotNull(data.getPrincipalRoles("user.user1"));
+
+        // remove user1 from group1 without updating the domain data cache
+
+        final long groupVersion = store.getPrincipalGroupVersion("user.user1");
+        store.processGroup(ZTSTestUtils.createGroupObject("access-domain1", "group1", "user.user2"));
+        assertTrue(store.getPrincipalGroupVersion("user.user1") > groupVersion);
+
+        accessibleRoles.clear();
+        store.getAccessibleRoles(data, "access-domain1", "user.user1", null, false, accessibleRoles, false);
+        assertTrue(accessibleRoles.isEmpty());
+
+        // add the user back to the group
+
+        store.processGroup(ZTSTestUtils.createGroupObject("access-domain1", "group1", "user.user1", "user.user2"));
+
+        accessibleRoles.clear();
+        store.getAccessibleRoles(data, "access-domain1", "user.user1", null, false, accessibleRoles, false);
+        assertEquals(accessibleRoles, new HashSet<>(Arrays.asList("role1", "role2")));
+    }
+
+    @Test
+    public void testGetAccessibleRolesPrincipalRolesIndexTrustUpdate() {
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.loadAthenzPublicKeys();
+        store.principalRolesCacheMaxSize = 100;
+
+        store.processSignedDomain(createSignedDomain("coretech", "weather"), true);
+        store.processSignedDomain(createTenantSignedDomain("weather", "coretech"), true);
+        assertEquals(store.trustingDomainsCache.get("weather"), Collections.singleton("coretech"));
+
+        Set<String> accessibleRoles = new HashSet<>();
+        DataCache data = store.getDataCache("coretech");
+        store.getAccessibleRoles(data, "coretech", "user_domain.user100", null, false, accessibleRoles, false);
+        assertEquals(accessibleRoles, Collections.singleton("tenant.readers"));
+        assertEquals(data.getPrincipalRolesCount(), 1);
+
+        // update the trusted domain and remove user100 from the readers role.
+        // the coretech domain itself is not updated
+
+        final long indexVersion = data.getPrincipalRolesVersion();
+        DomainData domainData = createTenantSignedDomain("weather", "coretech").getDomain();
+        for (Role role : domainData.getRoles()) {
+            if (role.getName().equals("weather:role.readers")) {
+                role.setRoleMembers(Collections.singletonList(new RoleMember().setMemberName("user_domain.user101")));
+            }
+        }
+        store.processDomainData(domainData);
+
+        assertSame(store.getDataCache("coretech"), data);
+        assertEquals(data.getPrincipalRolesCount(), 0);
+        assertEquals(data.getPrincipalRolesVersion(), indexVersion + 1);
+
+        accessibleRoles.clear();
+        store.getAccessibleRoles(data, "coretech", "user_domain.user100", null, false, accessibleRoles, false);
+        assertTrue(accessibleRoles.isEmpty());
+
+        accessibleRoles.clear();
+        store.getAccessibleRoles(data, "coretech", "user_domain.user101", null, false, accessibleRoles, false);
+        assertEquals(accessibleRoles, Collections.singleton("tenant.readers"));
+
+        // deleting the trusted domain invalidates the index as well
+
+        store.deleteDomainFromCache("weather");
+        assertEquals(data.getPrincipalRolesCount(), 0);
+
+        accessibleRoles.clear();
+        store.getAccessibleRoles(data, "coretech", "user_domain.user101", null, false, accessibleRoles, false);
+        assertTrue(accessibleRoles.isEmpty());
+
+        // updating coretech without any trust roles removes it from the trusting set
+
+        store.processDomainData(new DomainData().setName("coretech").setRoles(Collections.emptyList()));
+        assertTrue(store.trustingDomainsCache.get("weather").isEmpty());
+    }
+
+    @Test
+    public void testGetPrincipalRolesExpiryTime() {
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.principalRolesCacheMaxSize = 100;
+
+        final long currentTime = System.currentTimeMillis();
+        final String groupName = ResourceUtils.groupResourceName("coretech", "group1");
+
+        List<Role> roles = new ArrayList<>();
+        roles.add(ZTSTestUtils.createRoleObject("coretech", "role1", null, Collections.singletonList(
+                new RoleMember().setMemberName("user.user1").setExpiration(Timestamp.fromMillis(currentTime + 10000)))));
+        roles.add(ZTSTestUtils.createRoleObject("coretech", "role2", null, Collections.singletonList(
+                new RoleMember().setMemberName("user.user1").setExpiration(Timestamp.fromMillis(currentTime - 1000)))));
+        roles.add(ZTSTestUtils.createRoleObject("coretech", "role3", null, Collections.singletonList(
+                new RoleMember().setMemberName("*").setExpiration(Timestamp.fromMillis(currentTime + 8000)))));
+        roles.add(ZTSTestUtils.createRoleObject("coretech", "role4", null, Collections.singletonList(
+                new RoleMember().setMemberName(groupName).setExpiration(Timestamp.fromMillis(currentTime + 6000)))));
+        roles.add(ZTSTestUtils.createRoleObject("coretech", "role5", "user.user2"));
+
+        Group group = ZTSTestUtils.createGroupObject("coretech", "group1", Collections.singletonList(
+                new GroupMember().setMemberName("user.user1").setGroupName(groupName)
+                        .setExpiration(Timestamp.fromMillis(currentTime + 4000))));
+
+        store.processDomainData(new DomainData().setName("coretech").setRoles(roles)
+                .setGroups(Collections.singletonList(group)));
+        DataCache data = store.getDataCache("coretech");
+
+        assertEquals(store.getPrincipalRolesExpiryTime(data, "user.user1", currentTime), currentTime + 4000);
+        assertEquals(store.getPrincipalRolesExpiryTime(data, "user.user2", currentTime), currentTime + 8000);
+
+        PrincipalRoles principalRoles = store.getPrincipalRoles(data, "coretech", "user.user1");
+        assertEquals(principalRoles.getStandardRoles(),
+                new HashSet<>(Arrays.asList("coretech:role.role1", "coretech:role.role3")));
+        assertEquals(principalRoles.getExtendedRoles(), Collections.singleton("coretech:role.role4"));
+        assertTrue(principalRoles.getExpiryTime() >= currentTime + 4000);
+
+        // the same entry is returned until it's invalidated
+
+        assertSame(store.getPrincipalRoles(data, "coretech", "user.user1"), principalRoles);
+
+        // without any expiring members the entry never expires
+
+        assertEquals(store.getMemberRolesExpiryTime(null, currentTime, Long.MAX_VALUE), Long.MAX_VALUE);
+        assertEquals(store.getPrincipalRolesExpiryTime(data, "user.unknown", currentTime), currentTime + 8000);
+    }
+
     @Test
     public void testDomainDeleteWithGroups() {
 
@@ -5280,6 +5861,136 @@ public class DataStoreTest {
         assertNull(store.getDomainData("sports"));
     }
 
+    @Test
+    public void testProcessJWSDomainUpdates() {
+
+        MockZMSFileChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.jwsDomainSupport = true;
+
+        // no updates is considered success
+
+        clogStore.setJWSDomains(Collections.emptyList());
+        assertTrue(store.processJWSDomainUpdates());
+
+        // one valid and one invalid domain is still success and
+        // the valid domain must be added to our cache
+
+        List<JWSDomain> jwsDomains = new ArrayList<>();
+        jwsDomains.add(createJWSDomain("coretech", "weather", "0"));
+        jwsDomains.add(createJWSDomain("sports", "weather", "1"));
+        jwsDomains.add(createJWSDomain("weather", "weather", "0"));
+        clogStore.setJWSDomains(jwsDomains);
+
+        store.domainVerifyThreads = 4;
+        assertTrue(store.processJWSDomainUpdates());
+        assertNotNull(store.getDomainData("coretech"));
+        assertNotNull(store.getDomainData("weather"));
+        assertNull(store.getDomainData("sports"));
+    }
+
+    @Test
+    public void testJWSDomainProcessor() throws Exception {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+        store.jwsDomainSupport = true;
+
+        DataStore.JWSDomainProcessor domainProcessor = store.new JWSDomainProcessor();
+        assertTrue(domainProcessor.getResult());
+
+        // once our first domain is validated, it must be added to the
+        // cache when the next domain is received without waiting for
+        // the processor to complete
+
+        domainProcessor.accept(createJWSDomain("coretech", "weather", "0"));
+        domainProcessor.pendingDomains.peek().getValue().get();
+        domainProcessor.accept(createJWSDomain("sports", "weather", "0"));
+        assertNotNull(store.getDomainData("coretech"));
+
+        domainProcessor.complete();
+        domainProcessor.cancel();
+        assertNotNull(store.getDomainData("sports"));
+        assertEquals(domainProcessor.getDomainCount(), 2);
+        assertTrue(domainProcessor.getResult());
+
+        // the verify thread pool is shared by all processors
+
+        ExecutorService threadPool = store.getDomainVerifyThreadPool();
+        domainProcessor = store.new JWSDomainProcessor();
+        domainProcessor.accept(createJWSDomain("weather", "coretech", "0"));
+        assertSame(store.getDomainVerifyThreadPool(), threadPool);
+
+        // cancelled processors do not process any pending domains
+
+        domainProcessor.cancel();
+        domainProcessor.complete();
+        assertTrue(domainProcessor.pendingDomains.isEmpty());
+        assertFalse(threadPool.isShutdown());
+        store.close();
+    }
+
+    @Test
+    public void testDataStoreClose() {
+
+        ChangeLogStore clogStore = Mockito.mock(ChangeLogStore.class);
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+
+        // close without any thread pools or domain change processor
+
+        store.close();
+        Mockito.verify(clogStore, Mockito.times(1)).close();
+
+        ExecutorService threadPool = store.getDomainVerifyThreadPool();
+        store.domainChangeProcessor = Mockito.mock(DomainChangeProcessor.class);
+        store.close();
+        assertTrue(threadPool.isShutdown());
+        Mockito.verify(store.domainChangeProcessor, Mockito.times(1)).shutdown();
+        Mockito.verify(clogStore, Mockito.times(2)).close();
+
+        // a new thread pool is created if required after close
+
+        assertNotSame(store.getDomainVerifyThreadPool(), threadPool);
+        store.close();
+    }
+
+    @Test
+    public void testProcessJWSDomainValidationException() {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = Mockito.spy(new DataStore(clogStore, null, ztsMetric));
+        store.jwsDomainSupport = true;
+
+        JWSDomain jwsDomain = createJWSDomain("coretech", "weather", "0");
+        Mockito.doThrow(new IllegalArgumentException()).when(store).validateJWSDomain("coretech", jwsDomain);
+        assertFalse(store.processJWSDomain(jwsDomain, true));
+        assertNull(store.getDomainData("coretech"));
+    }
+
+    @Test
+    public void testGetJWSDomainDataFailures() throws Exception {
+
+        ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
+                pkey, "0");
+        DataStore store = new DataStore(clogStore, null, ztsMetric);
+
+        @SuppressWarnings("unchecked")
+        java.util.concurrent.Future<DomainData> future = Mockito.mock(java.util.concurrent.Future.class);
+        Mockito.when(future.get())
+                .thenThrow(new java.util.concurrent.ExecutionException(new IllegalArgumentException()))
+                .thenThrow(new InterruptedException());
+
+        assertNull(store.getJWSDomainData(future));
+        assertNull(store.getJWSDomainData(future));
+
+        // clear the interrupted flag set by the call
+
+        assertTrue(Thread.interrupted());
+    }
+
     @Test
     public void testProcessSignedDomainException() {
         ChangeLogStore clogStore = new MockZMSFileChangeLogStore("/tmp/zts_server_unit_tests/zts_root",
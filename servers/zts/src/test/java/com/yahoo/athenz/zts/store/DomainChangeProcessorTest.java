@@ -0,0 +1,164 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zts.store;
+
+import com.yahoo.athenz.common.messaging.ChangePublisher;
+import com.yahoo.athenz.common.messaging.ChangeSubscriber;
+import com.yahoo.athenz.common.messaging.DomainChangeMessage;
+import com.yahoo.athenz.common.messaging.impl.LocalChangeFactory;
+import com.yahoo.athenz.common.metrics.Metric;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.testng.Assert.*;
+
+public class DomainChangeProcessorTest {
+
+    private DomainChangeMessage createMessage(final String domainName, long published) {
+        return new DomainChangeMessage().setDomainName(domainName).setPublished(published)
+                .setObjectType(DomainChangeMessage.ObjectType.ROLE).setObjectName("readers")
+                .setApiName("putRole").setMessageId(UUID.randomUUID().toString());
+    }
+
+    @Test
+    public void testProcessMessages() {
+
+        Metric metric = Mockito.mock(Metric.class);
+        List<String> fetchedDomains = new ArrayList<>();
+        DomainChangeProcessor processor = new DomainChangeProcessor(Collections.emptyList(),
+                domainNames -> {
+                    fetchedDomains.addAll(domainNames);
+                    return new HashSet<>(domainNames);
+                }, metric, 100, 60000);
+
+        // nothing to process
+
+        processor.processPendingDomains();
+        assertTrue(fetchedDomains.isEmpty());
+
+        // multiple changes for the same domain are coalesced
+
+        final long now = System.currentTimeMillis();
+        processor.processMessage(createMessage("athenz", now - 100));
+        processor.processMessage(createMessage("athenz", now - 200));
+        processor.processMessage(createMessage("athenz", now));
+        processor.processMessage(createMessage("sports", 0));
+        processor.processMessage(createMessage(null, now));
+        processor.processMessage(createMessage("", now));
+        assertEquals(processor.getPendingDomainCount(), 2);
+        assertEquals(processor.pendingDomains.get("athenz").longValue(), now - 200);
+        assertFalse(processor.isLagging());
+
+        processor.processPendingDomains();
+        assertEquals(processor.getPendingDomainCount(), 0);
+        assertEquals(new HashSet<>(fetchedDomains), new HashSet<>(Arrays.asList("athenz", "sports")));
+        assertEquals(fetchedDomains.size(), 2);
+        assertFalse(processor.isLagging());
+
+        Mockito.verify(metric, Mockito.times(4)).increment("domain_change_messages");
+        Mockito.verify(metric, Mockito.times(2)).increment("domain_change_updates");
+        Mockito.verify(metric, Mockito.times(2)).recordLatency(eq("domain_change_propagation_time"), anyLong());
+        Mockito.verify(metric, Mockito.never()).startTiming(any(), any());
+    }
+
+    @Test
+    public void testProcessMessagesLagging() {
+
+        Metric metric = Mockito.mock(Metric.class);
+        Set<String> failedDomains = new HashSet<>(Collections.singletonList("weather"));
+        DomainChangeProcessor processor = new DomainChangeProcessor(Collections.emptyList(),
+                domainNames -> {
+                    if (domainNames.contains("coretech")) {
+                        throw new IllegalStateException("invalid domain");
+                    }
+                    Set<String> processedDomains = new HashSet<>(domainNames);
+                    processedDomains.removeAll(failedDomains);
+                    return processedDomains;
+                }, metric, 100, 60000);
+
+        // messages published more than our max lag ago
+
+        processor.processMessage(createMessage("athenz", System.currentTimeMillis() - 120000));
+        assertTrue(processor.isLagging());
+
+        processor.processMessage(createMessage("athenz", System.currentTimeMillis()));
+        assertFalse(processor.isLagging());
+
+        // failures to fetch the domain
+
+        processor.processMessage(createMessage("weather", System.currentTimeMillis()));
+        processor.processPendingDomains();
+        assertTrue(processor.isLagging());
+
+        processor.processMessage(createMessage("coretech", System.currentTimeMillis()));
+        processor.processPendingDomains();
+        assertTrue(processor.isLagging());
+
+        // successful fetches do not reset our state since the failed
+        // domains are only picked up by polling zms
+
+        processor.processMessage(createMessage("sports", System.currentTimeMillis()));
+        processor.processPendingDomains();
+        assertTrue(processor.isLagging());
+
+        processor.clearFetchFailure();
+        assertFalse(processor.isLagging());
+
+        // no messages received within our max lag
+
+        processor.lastMessagePublished = System.currentTimeMillis() - 120000;
+        assertTrue(processor.isLagging());
+    }
+
+    @Test
+    public void testStartShutdown() throws InterruptedException {
+
+        LocalChangeFactory<DomainChangeMessage> factory = new LocalChangeFactory<>();
+        ChangeSubscriber<DomainChangeMessage> subscriber = factory.create(null, "zts-processor-topic",
+                "zts", "Exclusive");
+
+        ChangeSubscriber<DomainChangeMessage> failedSubscriber = Mockito.mock(ChangeSubscriber.class);
+        Mockito.doThrow(new IllegalStateException("close failure")).when(failedSubscriber).close();
+
+        BlockingQueue<String> fetchedDomains = new LinkedBlockingQueue<>();
+        DomainChangeProcessor processor = new DomainChangeProcessor(Arrays.asList(subscriber, failedSubscriber),
+                domainNames -> {
+                    fetchedDomains.addAll(domainNames);
+                    return new HashSet<>(domainNames);
+                }, Mockito.mock(Metric.class), 50, 60000);
+        processor.start();
+
+        ChangePublisher<DomainChangeMessage> publisher = factory.create(null, "zts-processor-topic");
+        publisher.publish(createMessage("athenz", System.currentTimeMillis()));
+        assertEquals(fetchedDomains.poll(5, TimeUnit.SECONDS), "athenz");
+
+        processor.shutdown();
+        Mockito.verify(failedSubscriber, Mockito.times(1)).close();
+
+        // shutdown without starting the processor
+
+        new DomainChangeProcessor(Collections.emptyList(), HashSet::new,
+                Mockito.mock(Metric.class), 50, 60000).shutdown();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright The Athenz Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.athenz.zts.store;
+
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.testng.Assert.*;
+
+public class MemberPrefixTrieTest {
+
+    private MemberPrefixTrie<String> generateTestTrie() {
+        MemberPrefixTrie<String> trie = new MemberPrefixTrie<>();
+        trie.insert("user.*", "role1");
+        trie.insert("user.jo*", "role2");
+        trie.insert("user.joe*", "role3");
+        trie.insert("user.joe*", "role4");
+        trie.insert("sports.api*", "role5");
+        trie.insert("sports.api.backend", "role6");
+        return trie;
+    }
+
+    @Test
+    public void testFindMatchingValues() {
+
+        MemberPrefixTrie<String> trie = generateTestTrie();
+
+        assertThat(trie.findMatchingValues("user.joe"), containsInAnyOrder("role1", "role2", "role3", "role4"));
+        assertThat(trie.findMatchingValues("user.john"), containsInAnyOrder("role1", "role2"));
+        assertThat(trie.findMatchingValues("user.jane"), containsInAnyOrder("role1"));
+        assertThat(trie.findMatchingValues("sports.api_test"), containsInAnyOrder("role5"));
+        assertThat(trie.findMatchingValues("sports.api.backend.test"), containsInAnyOrder("role5", "role6"));
+        assertTrue(trie.findMatchingValues("user").isEmpty());
+        assertTrue(trie.findMatchingValues("sports.ap").isEmpty());
+        assertTrue(trie.findMatchingValues("").isEmpty());
+    }
+
+    @Test
+    public void testFindMatchingValuesSameAsStartsWith() {
+
+        final String[] prefixes = { "user.", "user.jo", "user.joe", "sports.api", "sports.api.backend", "s" };
+        MemberPrefixTrie<String> trie = new MemberPrefixTrie<>();
+        for (String prefix : prefixes) {
+            trie.insert(prefix + "*", prefix);
+        }
+
+        final String[] identities = { "user.joe", "user.john", "user.j", "sports.api", "sports.api.backend1",
+                "sports", "s", "", "coretech.api" };
+        for (String identity : identities) {
+            Set<String> expected = new HashSet<>();
+            for (String prefix : prefixes) {
+                if (identity.startsWith(prefix)) {
+                    expected.add(prefix);
+                }
+            }
+            assertEquals(trie.findMatchingValues(identity), expected, identity);
+        }
+    }
+
+    @Test
+    public void testMatchAllPrefix() {
+
+        MemberPrefixTrie<String> trie = new MemberPrefixTrie<>();
+        trie.insert("*", "role1");
+        assertThat(trie.findMatchingValues("user.joe"), containsInAnyOrder("role1"));
+        assertThat(trie.findMatchingValues(""), containsInAnyOrder("role1"));
+    }
+
+    @Test
+    public void testDelete() {
+
+        MemberPrefixTrie<String> trie = generateTestTrie();
+        assertFalse(trie.isEmpty());
+
+        trie.delete("user.joe*", "role3");
+        assertThat(trie.findMatchingValues("user.joe"), containsInAnyOrder("role1", "role2", "role4"));
+
+        trie.delete("user.joe*", "role4");
+        assertThat(trie.findMatchingValues("user.joe"), containsInAnyOrder("role1", "role2"));
+
+        // deleting unknown values and prefixes is a no-op
+
+        trie.delete("user.jo*", "unknown");
+        trie.delete("coretech.*", "role1");
+        assertThat(trie.findMatchingValues("user.joe"), containsInAnyOrder("role1", "role2"));
+
+        trie.delete("user.*", "role1");
+        assertThat(trie.findMatchingValues("user.joe"), containsInAnyOrder("role2"));
+
+        trie.delete("user.jo*", "role2");
+        trie.delete("sports.api*", "role5");
+        trie.delete("sports.api.backend", "role6");
+        assertTrue(trie.findMatchingValues("user.joe").isEmpty());
+        assertTrue(trie.isEmpty());
+    }
+}
@@ -22,6 +22,7 @@ import java.security.PrivateKey;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static com.yahoo.athenz.common.ServerCommonConsts.PROP_USER_DOMAIN;
 import static org.mockito.ArgumentMatchers.any;
@@ -100,6 +101,16 @@ public class MockZMSFileChangeLogStore extends ZMSFileChangeLogStore {
         return jwsDomains;
     }
 
+    @Override
+    public boolean getUpdatedJWSDomains(StringBuilder lastModTimeBuffer, Consumer<JWSDomain> domainConsumer) {
+        List<JWSDomain> domains = getUpdatedJWSDomains(lastModTimeBuffer);
+        if (domains == null) {
+            return false;
+        }
+        domains.forEach(domainConsumer);
+        return true;
+    }
+
     public void setRefreshSupport(boolean refreshSupport) {
         this.refreshSupport = refreshSupport;
     }